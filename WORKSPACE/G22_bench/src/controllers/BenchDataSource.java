@@ -0,0 +1,53 @@
+package controllers;
+
+import java.util.List;
+import java.util.Map;
+
+import common.entity.DateOverride;
+import common.entity.OpeningHours;
+import common.entity.Reservation;
+
+/**
+ * Data the benchmarks load into the in-memory models instead of reading it
+ * from the database.
+ * <p>
+ * {@link SyntheticDataSource} generates a data set from the benchmark
+ * parameters; another implementation could replay rows exported from a real
+ * restaurant.
+ * </p>
+ *
+ * @author Yamen Abu Ahmad
+ * @version 1.0
+ * @see ReservationBenchmarks
+ */
+public interface BenchDataSource {
+
+	/**
+	 * Returns the tables.
+	 *
+	 * @return table number to capacity
+	 */
+	Map<Integer, Integer> tables();
+
+	/**
+	 * Returns the reservations; those that hold no seats are ignored by the
+	 * availability engine.
+	 *
+	 * @return the reservations
+	 */
+	List<Reservation> reservations();
+
+	/**
+	 * Returns the weekly opening hours.
+	 *
+	 * @return one entry per configured day
+	 */
+	List<OpeningHours> weeklyHours();
+
+	/**
+	 * Returns the date overrides.
+	 *
+	 * @return the overrides, in date order
+	 */
+	List<DateOverride> dateOverrides();
+}
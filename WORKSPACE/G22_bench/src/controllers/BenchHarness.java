@@ -0,0 +1,301 @@
+package controllers;
+
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+import java.util.function.LongSupplier;
+
+/**
+ * Minimal benchmark runner in the manner of JMH.
+ * <p>
+ * Each benchmark runs a number of warmup iterations, whose results are
+ * discarded so the JIT can compile the hot path, and then a number of measured
+ * iterations of fixed duration. Calls are made in batches that grow until one
+ * batch is a measurable share of the iteration, so the clock is not read
+ * around every call. Every result is written to a volatile field so the JIT
+ * cannot drop the call as dead code.
+ * </p>
+ * <p>
+ * Alongside the time per call the runner reports the bytes allocated per call,
+ * read from the thread's allocation counter as JMH's GC profiler does for
+ * {@code gc.alloc.rate.norm}, and the allocation rate. Both are exact for code
+ * that allocates only on the calling thread, which holds for the algorithms
+ * measured here.
+ * </p>
+ * <p>
+ * The server handles each tracked request on a new virtual thread, so
+ * anything cached per thread is rebuilt on every request.
+ * {@link #measureOnFreshThreads} runs each call on a new virtual thread and
+ * reports the cost over that of starting and joining an empty one. Its
+ * allocation is read from the counter of all threads, so it is exact only
+ * while nothing else runs.
+ * </p>
+ *
+ * @author Yamen Abu Ahmad
+ * @version 1.0
+ * @see ReservationBenchmarks
+ */
+public final class BenchHarness {
+
+	/**
+	 * The code under measurement.
+	 */
+	@FunctionalInterface
+	public interface Operation {
+
+		/**
+		 * Runs one call.
+		 *
+		 * @return the result, consumed so the call is not eliminated
+		 * @throws Exception if the code under measurement fails
+		 */
+		Object run() throws Exception;
+	}
+
+	/**
+	 * Outcome of one benchmark with one parameter set.
+	 */
+	public static final class Result {
+
+		/**
+		 * Benchmark name.
+		 */
+		final String name;
+
+		/**
+		 * Parameter values, already formatted into columns.
+		 */
+		final String params;
+
+		/**
+		 * Mean time per call over the measured iterations, in nanoseconds.
+		 */
+		final double nanosPerOp;
+
+		/**
+		 * Standard deviation of the per-iteration means, in nanoseconds.
+		 */
+		final double nanosStdDev;
+
+		/**
+		 * Bytes allocated per call.
+		 */
+		final double bytesPerOp;
+
+		/**
+		 * Allocation rate in megabytes per second.
+		 */
+		final double allocMbPerSec;
+
+		/**
+		 * Number of measured iterations.
+		 */
+		final int iterations;
+
+		/**
+		 * Creates a result.
+		 *
+		 * @param name          the benchmark name
+		 * @param params        the formatted parameters
+		 * @param nanosPerOp    the mean time per call
+		 * @param nanosStdDev   the standard deviation of the iteration means
+		 * @param bytesPerOp    the bytes allocated per call
+		 * @param allocMbPerSec the allocation rate
+		 * @param iterations    the number of measured iterations
+		 */
+		Result(String name, String params, double nanosPerOp, double nanosStdDev, double bytesPerOp,
+				double allocMbPerSec, int iterations) {
+			this.name = name;
+			this.params = params;
+			this.nanosPerOp = nanosPerOp;
+			this.nanosStdDev = nanosStdDev;
+			this.bytesPerOp = bytesPerOp;
+			this.allocMbPerSec = allocMbPerSec;
+			this.iterations = iterations;
+		}
+	}
+
+	/**
+	 * Receives every result so calls cannot be eliminated.
+	 */
+	private static volatile Object sink;
+
+	/**
+	 * The thread allocation counter.
+	 */
+	private static final com.sun.management.ThreadMXBean THREADS = (com.sun.management.ThreadMXBean) ManagementFactory
+			.getThreadMXBean();
+
+	/**
+	 * Number of warmup iterations.
+	 */
+	private final int warmupIterations;
+
+	/**
+	 * Number of measured iterations.
+	 */
+	private final int measurementIterations;
+
+	/**
+	 * Length of one iteration in nanoseconds.
+	 */
+	private final long iterationNanos;
+
+	/**
+	 * Time and allocation per call of starting and joining an empty virtual
+	 * thread, measured on first use by {@link #measureOnFreshThreads}.
+	 */
+	private Result freshThreadBaseline;
+
+	/**
+	 * Creates a runner.
+	 *
+	 * @param warmupIterations      number of warmup iterations
+	 * @param measurementIterations number of measured iterations (at least 1)
+	 * @param iterationMillis       length of one iteration in milliseconds
+	 */
+	public BenchHarness(int warmupIterations, int measurementIterations, long iterationMillis) {
+		this.warmupIterations = Math.max(0, warmupIterations);
+		this.measurementIterations = Math.max(1, measurementIterations);
+		this.iterationNanos = Math.max(1, iterationMillis) * 1_000_000;
+	}
+
+	/**
+	 * Measures one benchmark.
+	 *
+	 * @param name   the benchmark name
+	 * @param params the formatted parameter columns
+	 * @param op     the code to measure
+	 * @return the result
+	 * @throws Exception if the code under measurement fails
+	 */
+	public Result measure(String name, String params, Operation op) throws Exception {
+		return measure(name, params, op, THREADS::getCurrentThreadAllocatedBytes);
+	}
+
+	/**
+	 * Measures one benchmark with every call made on a new virtual thread. The
+	 * time and allocation of starting and joining an empty virtual thread are
+	 * subtracted, so what remains is the call plus whatever it sets up per
+	 * thread.
+	 *
+	 * @param name   the benchmark name
+	 * @param params the formatted parameter columns
+	 * @param op     the code to measure
+	 * @return the result
+	 * @throws Exception if the code under measurement fails
+	 */
+	public Result measureOnFreshThreads(String name, String params, Operation op) throws Exception {
+		if (freshThreadBaseline == null)
+			freshThreadBaseline = measure("baseline", "", onFreshThread(() -> null),
+					THREADS::getTotalThreadAllocatedBytes);
+
+		Result r = measure(name, params, onFreshThread(op), THREADS::getTotalThreadAllocatedBytes);
+		double bytes = Math.max(0, r.bytesPerOp - freshThreadBaseline.bytesPerOp);
+		double nanos = Math.max(0, r.nanosPerOp - freshThreadBaseline.nanosPerOp);
+		return new Result(name, params, nanos, r.nanosStdDev, bytes, bytes / 1_048_576.0 / (nanos / 1e9),
+				r.iterations);
+	}
+
+	/**
+	 * Wraps an operation so that each call runs on a new virtual thread.
+	 *
+	 * @param op the code to measure
+	 * @return an operation that starts a virtual thread for op and joins it
+	 */
+	private static Operation onFreshThread(Operation op) {
+		return () -> {
+			Object[] result = new Object[1];
+			Exception[] failure = new Exception[1];
+			Thread t = Thread.ofVirtual().start(() -> {
+				try {
+					result[0] = op.run();
+				} catch (Exception e) {
+					failure[0] = e;
+				}
+			});
+			t.join();
+			if (failure[0] != null)
+				throw failure[0];
+			return result[0];
+		};
+	}
+
+	/**
+	 * Measures one benchmark against an allocation counter.
+	 *
+	 * @param name      the benchmark name
+	 * @param params    the formatted parameter columns
+	 * @param op        the code to measure
+	 * @param allocated reads the bytes allocated so far
+	 * @return the result
+	 * @throws Exception if the code under measurement fails
+	 */
+	private Result measure(String name, String params, Operation op, LongSupplier allocated) throws Exception {
+		for (int i = 0; i < warmupIterations; i++)
+			iterate(op, allocated);
+
+		double[] means = new double[measurementIterations];
+		long totalOps = 0;
+		long totalNanos = 0;
+		long totalBytes = 0;
+		for (int i = 0; i < measurementIterations; i++) {
+			long[] it = iterate(op, allocated);
+			means[i] = it[1] / (double) it[0];
+			totalOps += it[0];
+			totalNanos += it[1];
+			totalBytes += it[2];
+		}
+
+		double mean = totalNanos / (double) totalOps;
+		double variance = 0;
+		for (double m : means)
+			variance += (m - mean) * (m - mean);
+		double stdDev = means.length > 1 ? Math.sqrt(variance / (means.length - 1)) : 0;
+
+		return new Result(name, params, mean, stdDev, totalBytes / (double) totalOps,
+				totalBytes / 1_048_576.0 / (totalNanos / 1e9), measurementIterations);
+	}
+
+	/**
+	 * Runs one iteration.
+	 *
+	 * @param op        the code to measure
+	 * @param allocated reads the bytes allocated so far
+	 * @return the number of calls, the elapsed nanoseconds and the bytes
+	 *         allocated
+	 * @throws Exception if the code under measurement fails
+	 */
+	private long[] iterate(Operation op, LongSupplier allocated) throws Exception {
+		long ops = 0;
+		int batch = 1;
+		long bytesBefore = allocated.getAsLong();
+		long start = System.nanoTime();
+		long elapsed;
+		do {
+			for (int i = 0; i < batch; i++)
+				sink = op.run();
+			ops += batch;
+			elapsed = System.nanoTime() - start;
+			if (elapsed < iterationNanos / 100 && batch < (1 << 20))
+				batch <<= 1;
+		} while (elapsed < iterationNanos);
+		long bytes = allocated.getAsLong() - bytesBefore;
+		return new long[] { ops, elapsed, Math.max(0, bytes) };
+	}
+
+	/**
+	 * Formats a result as JMH does: the time per call, then the allocation
+	 * rate and the bytes allocated per call as secondary rows.
+	 *
+	 * @param r the result
+	 * @return three lines of text
+	 */
+	public static String format(Result r) {
+		return String.format(Locale.ROOT, "%-60s %s %4d %12.1f +- %10.1f  ns/op%n", r.name, r.params, r.iterations,
+				r.nanosPerOp, r.nanosStdDev)
+				+ String.format(Locale.ROOT, "%-60s %s %4d %12.1f %13s  MB/sec%n", r.name + ":gc.alloc.rate",
+						r.params, r.iterations, r.allocMbPerSec, "")
+				+ String.format(Locale.ROOT, "%-60s %s %4d %12.1f %13s  B/op%n", r.name + ":gc.alloc.rate.norm",
+						r.params, r.iterations, r.bytesPerOp, "");
+	}
+}
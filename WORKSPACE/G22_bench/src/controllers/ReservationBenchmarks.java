@@ -0,0 +1,344 @@
+package controllers;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+import common.entity.Reservation;
+import controllers.SyntheticDataSource.PartyMix;
+
+/**
+ * Benchmarks of the reservation feasibility and slot suggestion algorithms.
+ * <p>
+ * Every benchmark runs against the in-memory models, filled from a
+ * {@link BenchDataSource} instead of the database:
+ * </p>
+ * <ul>
+ * <li>{@code feasible}: the greedy seating check of
+ * {@link SeatingFeasibility} on primitive arrays, for the window at the
+ * requested time: the free tables against the overlapping parties plus the
+ * new one. Parties beyond the number of free tables are left out, since the
+ * check rejects those inputs before seating anyone.</li>
+ * <li>{@code feasibleBoxed}: the same check through its {@code List}
+ * overload</li>
+ * <li>{@code availabilityCheck}: one slot's availability as a new reservation
+ * sees it, from the {@link AvailabilityEngine} lookups to the seating
+ * check</li>
+ * <li>{@code feasibleFreshThread} and {@code availabilityCheckFreshThread}:
+ * {@code feasible} and {@code availabilityCheck} with each call on a new
+ * virtual thread, as the server handles requests; see
+ * {@link BenchHarness#measureOnFreshThreads}</li>
+ * <li>{@code suggestTimes}: the three nearest free slots around a requested
+ * time, which sweeps 25 candidates through the opening hours
+ * ({@code isCandidateOk}) and the seating check</li>
+ * <li>{@code dayAvailability}: the availability of all 48 slots of a day</li>
+ * <li>{@code validateTimeRange}: the opening hours check of a normal and of a
+ * past-midnight booking (independent of the parameters, run once)</li>
+ * </ul>
+ * <p>
+ * The parameters are the number of tables, the number of reservations around
+ * the requested time and the party size distribution. The requested time is
+ * always a Wednesday at 20:00 a few days ahead (see {@link Fixture#anchor()}),
+ * so every run sees the same weekday and opening hours. Each result is printed
+ * with its bytes allocated per call ({@code gc.alloc.rate.norm}), so an
+ * allocation added to the hot path shows up in review next to the time.
+ * </p>
+ * <p>
+ * Usage:
+ * {@code ReservationBenchmarks [regex] [-wi n] [-i n] [-r ms] [-p name=v1,v2]}.
+ * The regex selects benchmarks by name; {@code -wi}, {@code -i} and {@code -r}
+ * set the warmup iterations, measured iterations and iteration length; each
+ * {@code -p} replaces the values of {@code tables}, {@code reservations} or
+ * {@code party}. Run with the same JVM flags as the server.
+ * </p>
+ *
+ * @author Yamen Abu Ahmad
+ * @version 1.0
+ * @see BenchHarness
+ */
+public class ReservationBenchmarks {
+
+	/**
+	 * Length of a reservation in minutes, as in the controller.
+	 */
+	private static final int DURATION_MIN = 120;
+
+	/**
+	 * Party size of the new reservation being checked.
+	 */
+	private static final int NEW_GUESTS = 4;
+
+	/**
+	 * Seed of the generated data sets.
+	 */
+	private static final long SEED = 2026;
+
+	/**
+	 * Not instantiable.
+	 */
+	private ReservationBenchmarks() {
+	}
+
+	/**
+	 * Runs the selected benchmarks over the parameter grid and prints the
+	 * results.
+	 *
+	 * @param args the command line described in the class comment
+	 * @throws Exception if a benchmark fails
+	 */
+	public static void main(String[] args) throws Exception {
+		Pattern filter = Pattern.compile(".*");
+		int warmup = 5;
+		int iterations = 5;
+		long iterationMillis = 200;
+		int[] tableCounts = { 10, 50, 200, 500 };
+		int[] reservationCounts = { 0, 100, 1000, 5000 };
+		PartyMix[] mixes = PartyMix.values();
+
+		for (int i = 0; i < args.length; i++) {
+			switch (args[i]) {
+			case "-wi" -> warmup = Integer.parseInt(args[++i]);
+			case "-i" -> iterations = Integer.parseInt(args[++i]);
+			case "-r" -> iterationMillis = Long.parseLong(args[++i]);
+			case "-p" -> {
+				String[] kv = args[++i].split("=", 2);
+				String[] values = kv[1].split(",");
+				switch (kv[0]) {
+				case "tables" -> tableCounts = Arrays.stream(values).mapToInt(Integer::parseInt).toArray();
+				case "reservations" -> reservationCounts = Arrays.stream(values).mapToInt(Integer::parseInt).toArray();
+				case "party" -> mixes = Arrays.stream(values).map(v -> PartyMix.valueOf(v.toUpperCase(Locale.ROOT)))
+						.toArray(PartyMix[]::new);
+				default -> throw new IllegalArgumentException("Unknown parameter: " + kv[0]);
+				}
+			}
+			default -> filter = Pattern.compile(args[i]);
+			}
+		}
+
+		BenchHarness harness = new BenchHarness(warmup, iterations, iterationMillis);
+		System.out.printf("%-60s %8s %14s %7s %4s %12s    %10s  %s%n", "Benchmark", "(tables)", "(reservations)",
+				"(party)", "Cnt", "Score", "Error", "Units");
+
+		if (filter.matcher("validateTimeRange").find())
+			runTimeRange(harness);
+
+		for (int tables : tableCounts) {
+			for (int reservations : reservationCounts) {
+				for (PartyMix mix : mixes) {
+					String params = String.format("%8d %14d %7s", tables, reservations, mix);
+					Fixture f = new Fixture(
+							new SyntheticDataSource(tables, reservations, mix, Fixture.anchor(), SEED));
+					run(harness, filter, "feasible", params, f::feasible);
+					run(harness, filter, "feasibleBoxed", params, f::feasibleBoxed);
+					run(harness, filter, "availabilityCheck", params, f::availabilityCheck);
+					runOnFreshThreads(harness, filter, "feasibleFreshThread", params, f::feasible);
+					runOnFreshThreads(harness, filter, "availabilityCheckFreshThread", params, f::availabilityCheck);
+					run(harness, filter, "suggestTimes", params, f::suggestTimes);
+					run(harness, filter, "dayAvailability", params, f::dayAvailability);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Runs one benchmark if the filter selects it, and prints its result.
+	 *
+	 * @param harness the runner
+	 * @param filter  the benchmark name filter
+	 * @param name    the benchmark name
+	 * @param params  the formatted parameters
+	 * @param op      the code to measure
+	 * @throws Exception if the benchmark fails
+	 */
+	private static void run(BenchHarness harness, Pattern filter, String name, String params,
+			BenchHarness.Operation op) throws Exception {
+		if (!filter.matcher(name).find())
+			return;
+		System.out.print(BenchHarness.format(harness.measure("ReservationBenchmarks." + name, params, op)));
+	}
+
+	/**
+	 * Runs one benchmark on fresh virtual threads if the filter selects it, and
+	 * prints its result.
+	 *
+	 * @param harness the runner
+	 * @param filter  the benchmark name filter
+	 * @param name    the benchmark name
+	 * @param params  the formatted parameters
+	 * @param op      the code to measure
+	 * @throws Exception if the benchmark fails
+	 */
+	private static void runOnFreshThreads(BenchHarness harness, Pattern filter, String name, String params,
+			BenchHarness.Operation op) throws Exception {
+		if (!filter.matcher(name).find())
+			return;
+		System.out.print(
+				BenchHarness.format(harness.measureOnFreshThreads("ReservationBenchmarks." + name, params, op)));
+	}
+
+	/**
+	 * Measures the opening hours check alone.
+	 *
+	 * @param harness the runner
+	 * @throws Exception if the benchmark fails
+	 */
+	private static void runTimeRange(BenchHarness harness) throws Exception {
+		LocalDateTime evening = Fixture.anchor();
+		LocalDateTime lateNight = evening.toLocalDate().atTime(23, 30);
+		LocalTime open = LocalTime.of(10, 0);
+		LocalTime close = LocalTime.of(2, 0);
+		LocalTime earlyClose = LocalTime.of(23, 0);
+
+		BenchHarness.Operation op = () -> {
+			String a = ReservationController.validateTimeRange(evening, evening.plusMinutes(DURATION_MIN), open,
+					close);
+			String b = ReservationController.validateTimeRange(lateNight, lateNight.plusMinutes(DURATION_MIN), open,
+					earlyClose);
+			return a == null ? b : a;
+		};
+		String params = String.format("%8s %14s %7s", "-", "-", "-");
+		System.out.print(
+				BenchHarness.format(harness.measure("ReservationBenchmarks.validateTimeRange", params, op)));
+	}
+
+	/**
+	 * Models and inputs of one parameter set.
+	 */
+	private static final class Fixture {
+
+		/**
+		 * The occupancy model, loaded from the data source.
+		 */
+		private final AvailabilityEngine engine;
+
+		/**
+		 * The controller whose slot search is measured.
+		 */
+		private final ReservationController controller;
+
+		/**
+		 * Capacities of the tables free at the requested time.
+		 */
+		private final int[] tableCaps;
+
+		/**
+		 * Party sizes of the parties overlapping the requested time plus the new
+		 * one, at most one per free table.
+		 */
+		private final int[] guests;
+
+		/**
+		 * {@link #tableCaps}, boxed.
+		 */
+		private final List<Integer> capsList;
+
+		/**
+		 * {@link #guests}, boxed.
+		 */
+		private final List<Integer> guestsList;
+
+		/**
+		 * The requested time of the slot searches.
+		 */
+		private final LocalDateTime requested = anchor();
+
+		/**
+		 * Loads the models from a data source.
+		 *
+		 * @param source the data source
+		 */
+		Fixture(BenchDataSource source) {
+			engine = new AvailabilityEngine(null, null);
+			engine.load(source.tables(), source.reservations());
+
+			OpeningCalendar calendar = new OpeningCalendar(null);
+			calendar.load(source.weeklyHours(), source.dateOverrides());
+
+			controller = new ReservationController(null, engine, null, null, null, calendar, null, null);
+
+			capsList = engine.getFreeTableCapacities(requested, DURATION_MIN);
+			List<Integer> overlapping = engine.getOverlappingActiveGuests(requested, DURATION_MIN);
+			guestsList = new ArrayList<>();
+			guestsList.add(NEW_GUESTS);
+			guestsList.addAll(overlapping.subList(0, Math.max(0, Math.min(overlapping.size(), capsList.size() - 1))));
+			tableCaps = capsList.stream().mapToInt(Integer::intValue).toArray();
+			guests = guestsList.stream().mapToInt(Integer::intValue).toArray();
+		}
+
+		/**
+		 * Returns the requested time used by every fixture: 20:00 on the first
+		 * Wednesday at least two days ahead. The controller only accepts times
+		 * between one hour and one month from now, so the date cannot be fixed
+		 * outright; fixing the weekday and time keeps the opening hours and the
+		 * distance from now the same from run to run.
+		 *
+		 * @return the requested time
+		 */
+		static LocalDateTime anchor() {
+			return LocalDate.now().plusDays(2).with(TemporalAdjusters.nextOrSame(DayOfWeek.WEDNESDAY)).atTime(20, 0);
+		}
+
+		/**
+		 * One call of the seating check.
+		 *
+		 * @return whether everyone could be seated
+		 */
+		Object feasible() {
+			return SeatingFeasibility.feasible(tableCaps, tableCaps.length, guests, guests.length);
+		}
+
+		/**
+		 * One call of the seating check on boxed lists.
+		 *
+		 * @return whether everyone could be seated
+		 */
+		Object feasibleBoxed() {
+			return SeatingFeasibility.feasible(capsList, guestsList);
+		}
+
+		/**
+		 * One availability check at the requested time.
+		 *
+		 * @return whether the new party fits
+		 */
+		Object availabilityCheck() {
+			SeatingFeasibility.Scratch s = SeatingFeasibility.acquire();
+			try {
+				int freeCount = engine.getFreeTableCapacities(requested, DURATION_MIN, s);
+				int activeCount = engine.getOverlappingActiveGuests(requested, DURATION_MIN, s);
+				int[] parties = s.parties(activeCount + 1);
+				parties[activeCount] = NEW_GUESTS;
+				return SeatingFeasibility.feasible(s.tableCaps(freeCount), freeCount, parties, activeCount + 1, s);
+			} finally {
+				SeatingFeasibility.release(s);
+			}
+		}
+
+		/**
+		 * One suggestion of three alternative times.
+		 *
+		 * @return the suggested times
+		 * @throws Exception if the controller fails
+		 */
+		Object suggestTimes() throws Exception {
+			return controller.findNearestAvailableSlots(requested, NEW_GUESTS, 3);
+		}
+
+		/**
+		 * One day of slot availability.
+		 *
+		 * @return the slots
+		 * @throws Exception if the controller fails
+		 */
+		Object dayAvailability() throws Exception {
+			return controller.getDayAvailability(requested.toLocalDate(), NEW_GUESTS);
+		}
+	}
+}
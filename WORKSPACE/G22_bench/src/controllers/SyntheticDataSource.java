@@ -0,0 +1,150 @@
+package controllers;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import common.entity.DateOverride;
+import common.entity.OpeningHours;
+import common.entity.Reservation;
+import common.enums.ReservationStatus;
+import common.enums.ReservationType;
+
+/**
+ * Generated data set for the benchmarks.
+ * <p>
+ * Table capacities follow a typical floor plan (mostly two- and four-tops, a
+ * few large tables). Reservations start on 30-minute boundaries spread evenly
+ * over the twelve hours around an anchor time, which is the window the slot
+ * suggestion sweeps, so the number of reservations overlapping any one slot
+ * grows with the reservation count. One in ten is NOTIFIED and pinned to a
+ * table; the rest are unassigned ACTIVE reservations. Every day is open from
+ * 10:00 to 02:00, as in the default configuration. The same seed always gives
+ * the same data.
+ * </p>
+ *
+ * @author Yamen Abu Ahmad
+ * @version 1.0
+ */
+public class SyntheticDataSource implements BenchDataSource {
+
+	/**
+	 * Distribution of party sizes.
+	 */
+	public enum PartyMix {
+
+		/**
+		 * Couples and small groups: mostly 2, up to 4.
+		 */
+		SMALL(new int[] { 1, 2, 2, 2, 2, 3, 3, 4, 4, 4 }),
+
+		/**
+		 * Any size from 1 to 8, equally likely.
+		 */
+		MIXED(new int[] { 1, 2, 3, 4, 5, 6, 7, 8 }),
+
+		/**
+		 * Large groups: mostly 6 to 10.
+		 */
+		LARGE(new int[] { 4, 6, 6, 7, 8, 8, 9, 10, 10, 10 });
+
+		/**
+		 * Party sizes, each equally likely.
+		 */
+		private final int[] sizes;
+
+		/**
+		 * Creates a distribution.
+		 *
+		 * @param sizes the party sizes, each equally likely
+		 */
+		PartyMix(int[] sizes) {
+			this.sizes = sizes;
+		}
+
+		/**
+		 * Draws a party size.
+		 *
+		 * @param random the random source
+		 * @return the party size
+		 */
+		public int draw(Random random) {
+			return sizes[random.nextInt(sizes.length)];
+		}
+	}
+
+	/**
+	 * Capacities assigned to tables in turn.
+	 */
+	private static final int[] FLOOR_PLAN = { 2, 2, 2, 4, 4, 4, 4, 6, 6, 8, 10 };
+
+	/**
+	 * Half-width of the reservation spread around the anchor, in slots.
+	 */
+	private static final int SPREAD_SLOTS = 12;
+
+	/**
+	 * The tables.
+	 */
+	private final Map<Integer, Integer> tables = new LinkedHashMap<>();
+
+	/**
+	 * The reservations.
+	 */
+	private final List<Reservation> reservations = new ArrayList<>();
+
+	/**
+	 * Generates a data set.
+	 *
+	 * @param tableCount       number of tables
+	 * @param reservationCount number of reservations
+	 * @param mix              party size distribution
+	 * @param anchor           the centre of the reservation spread (on :00 or
+	 *                         :30)
+	 * @param seed             the random seed
+	 */
+	public SyntheticDataSource(int tableCount, int reservationCount, PartyMix mix, LocalDateTime anchor,
+			long seed) {
+		Random random = new Random(seed);
+		for (int t = 1; t <= tableCount; t++)
+			tables.put(t, FLOOR_PLAN[(t - 1) % FLOOR_PLAN.length]);
+
+		for (int id = 1; id <= reservationCount; id++) {
+			int slot = random.nextInt(2 * SPREAD_SLOTS + 1) - SPREAD_SLOTS;
+			LocalDateTime start = anchor.plusMinutes(30L * slot);
+			boolean pinned = tableCount > 0 && random.nextInt(10) == 0;
+			reservations.add(new Reservation(id, start, mix.draw(random), 100000 + id, id,
+					pinned ? 1 + random.nextInt(tableCount) : null, start.minusDays(3),
+					pinned ? ReservationStatus.NOTIFIED : ReservationStatus.ACTIVE, false, ReservationType.ADVANCE,
+					null, null));
+		}
+	}
+
+	@Override
+	public Map<Integer, Integer> tables() {
+		return tables;
+	}
+
+	@Override
+	public List<Reservation> reservations() {
+		return reservations;
+	}
+
+	@Override
+	public List<OpeningHours> weeklyHours() {
+		List<OpeningHours> week = new ArrayList<>();
+		for (DayOfWeek day : DayOfWeek.values())
+			week.add(new OpeningHours(day, LocalTime.of(10, 0), LocalTime.of(2, 0), false));
+		return week;
+	}
+
+	@Override
+	public List<DateOverride> dateOverrides() {
+		return List.of();
+	}
+}
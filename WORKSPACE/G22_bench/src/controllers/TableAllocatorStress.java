@@ -0,0 +1,480 @@
+package controllers;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Multi-threaded stress driver for {@link TableAllocator}.
+ * <p>
+ * Many threads seat parties at the same small set of tables, as walk-ins,
+ * check-ins and the waitlist matcher do, and check-out again, for a fixed
+ * number of operations each. Every party starts now and holds its table for
+ * two hours, so two parties holding the same table at the same moment is a
+ * double booking. The database is replaced by {@link TableStore}, which counts
+ * the holders of each table and records every time one gets a second holder.
+ * As in the controllers, a claim writes the store first and then the
+ * {@link AvailabilityEngine}, and a check-out does the same in that order.
+ * </p>
+ * <p>
+ * Each run uses one of these modes:
+ * </p>
+ * <ul>
+ * <li>{@code atomic}: the store claims a table with a compare-and-set, like
+ * the conditional single-statement claim of
+ * {@link dbController.DBController#seatWithTableIfFree}. A rogue thread also
+ * claims tables directly, bypassing the allocator and the engine, so the
+ * allocator's candidate lists go stale and the store has to turn claims
+ * down.</li>
+ * <li>{@code racy}: the store checks and then writes, with a yield in between,
+ * as the old find-then-assign code did. Only the allocator's holds keep two
+ * threads off one table.</li>
+ * <li>{@code control}: racy claims that skip the allocator. The run must find
+ * double bookings; if it does not, the driver cannot see them and the other
+ * results mean nothing.</li>
+ * </ul>
+ * <p>
+ * Usage: {@code TableAllocatorStress [-threads n] [-ops n] [-tables n]}. The
+ * exit status is non-zero if {@code atomic} or {@code racy} double-booked a
+ * table or {@code control} did not.
+ * </p>
+ *
+ * @author Yamen Abu Ahmad
+ * @version 1.0
+ * @see TableAllocator
+ */
+public class TableAllocatorStress {
+
+	/**
+	 * Seat counts assigned to tables in turn.
+	 */
+	private static final int[] FLOOR_PLAN = { 2, 2, 4, 4, 4, 6, 8 };
+
+	/**
+	 * Not instantiable.
+	 */
+	private TableAllocatorStress() {
+	}
+
+	/**
+	 * Runs every mode and prints one line per run.
+	 *
+	 * @param args the command line described in the class comment
+	 * @throws Exception if a worker fails
+	 */
+	public static void main(String[] args) throws Exception {
+		int threads = 16;
+		int ops = 20_000;
+		int tables = 12;
+		for (int i = 0; i < args.length; i++) {
+			switch (args[i]) {
+			case "-threads" -> threads = Integer.parseInt(args[++i]);
+			case "-ops" -> ops = Integer.parseInt(args[++i]);
+			case "-tables" -> tables = Integer.parseInt(args[++i]);
+			default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+			}
+		}
+
+		System.out.printf("%-8s %7s %9s %9s %9s %11s %12s %8s%n", "Mode", "Threads", "Seated", "Missed",
+				"Refused", "DoubleBook", "Ops/sec", "Result");
+		boolean ok = true;
+		for (Mode mode : Mode.values()) {
+			Outcome o = run(mode, threads, ops, tables);
+			boolean pass = mode == Mode.CONTROL ? o.doubleBookings > 0 : o.doubleBookings == 0;
+			ok &= pass;
+			System.out.printf("%-8s %7d %9d %9d %9d %11d %12.0f %8s%n", mode.name().toLowerCase(), threads, o.seated,
+					o.missed, o.refused, o.doubleBookings, o.opsPerSec, pass ? "OK" : "FAIL");
+		}
+		if (!ok)
+			System.exit(1);
+	}
+
+	/**
+	 * How tables are claimed in a run.
+	 */
+	enum Mode {
+
+		/**
+		 * Allocator over a conditional store, with a rogue writer.
+		 */
+		ATOMIC,
+
+		/**
+		 * Allocator over a check-then-act store.
+		 */
+		RACY,
+
+		/**
+		 * Check-then-act store without the allocator.
+		 */
+		CONTROL
+	}
+
+	/**
+	 * Totals of one run.
+	 */
+	private static final class Outcome {
+
+		/**
+		 * Parties seated.
+		 */
+		long seated;
+
+		/**
+		 * Seating attempts that found no table.
+		 */
+		long missed;
+
+		/**
+		 * Claims the store turned down.
+		 */
+		long refused;
+
+		/**
+		 * Claims that gave a table a second holder.
+		 */
+		long doubleBookings;
+
+		/**
+		 * Operations per second over all workers.
+		 */
+		double opsPerSec;
+	}
+
+	/**
+	 * Runs one mode to completion.
+	 *
+	 * @param mode    the claim mode
+	 * @param threads number of worker threads
+	 * @param ops     operations per worker
+	 * @param tables  number of tables
+	 * @return the totals
+	 * @throws Exception if a worker fails
+	 */
+	private static Outcome run(Mode mode, int threads, int ops, int tables) throws Exception {
+		Map<Integer, Integer> caps = new HashMap<>();
+		for (int t = 1; t <= tables; t++)
+			caps.put(t, FLOOR_PLAN[(t - 1) % FLOOR_PLAN.length]);
+
+		AvailabilityEngine engine = new AvailabilityEngine(null, null);
+		engine.load(caps, List.of());
+		TableAllocator allocator = new TableAllocator(null, engine);
+		TableStore store = new TableStore(tables, mode != Mode.ATOMIC);
+		AtomicInteger ids = new AtomicInteger();
+		AtomicLong seated = new AtomicLong();
+		AtomicLong missed = new AtomicLong();
+
+		CountDownLatch start = new CountDownLatch(1);
+		List<Thread> workers = new ArrayList<>();
+		List<Throwable> failures = new CopyOnWriteArrayList<>();
+		for (int w = 0; w < threads; w++) {
+			long seed = 31L * w + mode.ordinal();
+			Thread t = new Thread(() -> {
+				try {
+					start.await();
+					new Worker(mode, engine, allocator, store, caps, ids, seed).run(ops, seated, missed);
+				} catch (Throwable e) {
+					failures.add(e);
+				}
+			}, "stress-" + w);
+			workers.add(t);
+			t.start();
+		}
+
+		Thread rogue = null;
+		if (mode == Mode.ATOMIC) {
+			rogue = new Thread(() -> {
+				Random random = new Random(7);
+				while (!Thread.currentThread().isInterrupted()) {
+					int table = 1 + random.nextInt(tables);
+					if (store.claim(table)) {
+						Thread.onSpinWait();
+						store.release(table);
+					}
+					LockSupport.parkNanos(20_000);
+				}
+			}, "stress-rogue");
+			rogue.setDaemon(true);
+			rogue.start();
+		}
+
+		long begin = System.nanoTime();
+		start.countDown();
+		for (Thread t : workers)
+			t.join();
+		long elapsed = System.nanoTime() - begin;
+		if (rogue != null) {
+			rogue.interrupt();
+			rogue.join();
+		}
+		if (!failures.isEmpty())
+			throw new IllegalStateException("Worker failed", failures.get(0));
+
+		Outcome o = new Outcome();
+		o.seated = seated.get();
+		o.missed = missed.get();
+		o.refused = store.refused.get();
+		o.doubleBookings = store.doubleBookings.get();
+		o.opsPerSec = (double) threads * ops / (elapsed / 1e9);
+		return o;
+	}
+
+	/**
+	 * One worker's loop: seat a party, seat several at once, or check one out.
+	 */
+	private static final class Worker {
+
+		/**
+		 * The claim mode.
+		 */
+		private final Mode mode;
+
+		/**
+		 * The shared occupancy model.
+		 */
+		private final AvailabilityEngine engine;
+
+		/**
+		 * The allocator under test.
+		 */
+		private final TableAllocator allocator;
+
+		/**
+		 * The stand-in database.
+		 */
+		private final TableStore store;
+
+		/**
+		 * Table number to seat count.
+		 */
+		private final Map<Integer, Integer> caps;
+
+		/**
+		 * Source of reservation IDs.
+		 */
+		private final AtomicInteger ids;
+
+		/**
+		 * This worker's random source.
+		 */
+		private final Random random;
+
+		/**
+		 * Parties this worker seated and has not checked out, as {reservation,
+		 * table}.
+		 */
+		private final List<int[]> mine = new ArrayList<>();
+
+		/**
+		 * Creates a worker.
+		 *
+		 * @param mode      the claim mode
+		 * @param engine    the occupancy model
+		 * @param allocator the allocator
+		 * @param store     the stand-in database
+		 * @param caps      table number to seat count
+		 * @param ids       source of reservation IDs
+		 * @param seed      the random seed
+		 */
+		Worker(Mode mode, AvailabilityEngine engine, TableAllocator allocator, TableStore store,
+				Map<Integer, Integer> caps, AtomicInteger ids, long seed) {
+			this.mode = mode;
+			this.engine = engine;
+			this.allocator = allocator;
+			this.store = store;
+			this.caps = caps;
+			this.ids = ids;
+			this.random = new Random(seed);
+		}
+
+		/**
+		 * Runs the operations, then checks out everything still seated.
+		 *
+		 * @param ops    number of operations
+		 * @param seated counts parties seated
+		 * @param missed counts attempts that found no table
+		 * @throws Exception if the allocator fails
+		 */
+		void run(int ops, AtomicLong seated, AtomicLong missed) throws Exception {
+			for (int i = 0; i < ops; i++) {
+				int roll = random.nextInt(100);
+				if (!mine.isEmpty() && (roll < 45 || mine.size() > 3)) {
+					checkOut(mine.remove(random.nextInt(mine.size())));
+				} else if (roll < 70 && mode != Mode.CONTROL) {
+					int n = seatSeveral(1 + random.nextInt(3));
+					seated.addAndGet(n);
+					if (n == 0)
+						missed.incrementAndGet();
+				} else if (seatOne(1 + random.nextInt(6))) {
+					seated.incrementAndGet();
+				} else {
+					missed.incrementAndGet();
+				}
+			}
+			while (!mine.isEmpty())
+				checkOut(mine.remove(mine.size() - 1));
+		}
+
+		/**
+		 * Seats one party, as a walk-in or check-in does.
+		 *
+		 * @param guests the party size
+		 * @return true if a table was claimed
+		 * @throws Exception if the allocator fails
+		 */
+		private boolean seatOne(int guests) throws Exception {
+			int resId = ids.incrementAndGet();
+			if (mode == Mode.CONTROL) {
+				for (Map.Entry<Integer, Integer> t : engine.getFreeTables(LocalDateTime.now(), 120).entrySet()) {
+					if (t.getValue() >= guests && store.claim(t.getKey())) {
+						seatedAt(resId, t.getKey(), guests);
+						return true;
+					}
+				}
+				return false;
+			}
+
+			Integer table = allocator.allocate(guests, tableId -> {
+				if (!store.claim(tableId))
+					return null;
+				seatedAt(resId, tableId, guests);
+				return tableId;
+			});
+			return table != null;
+		}
+
+		/**
+		 * Seats several parties in one round, as the waitlist matcher does:
+		 * holds the tables first, then claims each.
+		 *
+		 * @param parties number of parties
+		 * @return the number seated
+		 */
+		private int seatSeveral(int parties) {
+			List<Integer> heldTables = new ArrayList<>();
+			try {
+				for (Integer tableId : engine.getFreeTables(LocalDateTime.now(), 120).keySet()) {
+					if (heldTables.size() == parties)
+						break;
+					if (allocator.tryHold(tableId))
+						heldTables.add(tableId);
+				}
+
+				int n = 0;
+				for (Integer tableId : heldTables) {
+					if (store.claim(tableId)) {
+						seatedAt(ids.incrementAndGet(), tableId, Math.min(2, caps.get(tableId)));
+						n++;
+					}
+				}
+				return n;
+			} finally {
+				for (Integer tableId : heldTables)
+					allocator.release(tableId);
+			}
+		}
+
+		/**
+		 * Records a claimed table in the occupancy model, as the controllers do
+		 * before releasing the table.
+		 *
+		 * @param resId   the reservation
+		 * @param tableId the table
+		 * @param guests  the party size
+		 */
+		private void seatedAt(int resId, int tableId, int guests) {
+			engine.addNotifiedReservations(Map.of(resId, tableId), Map.of(resId, guests), LocalDateTime.now());
+			mine.add(new int[] { resId, tableId });
+		}
+
+		/**
+		 * Checks a party out: the store first, then the occupancy model.
+		 *
+		 * @param seat {reservation, table}
+		 */
+		private void checkOut(int[] seat) {
+			store.release(seat[1]);
+			engine.removeReservation(seat[0]);
+		}
+	}
+
+	/**
+	 * Stand-in for the reservation table: the number of parties holding each
+	 * table right now.
+	 */
+	private static final class TableStore {
+
+		/**
+		 * Holders per table, indexed by table number.
+		 */
+		private final AtomicIntegerArray holders;
+
+		/**
+		 * Whether claims check and then write instead of using compare-and-set.
+		 */
+		private final boolean racy;
+
+		/**
+		 * Claims turned down because the table was held.
+		 */
+		final AtomicLong refused = new AtomicLong();
+
+		/**
+		 * Claims that gave a table a second holder.
+		 */
+		final AtomicLong doubleBookings = new AtomicLong();
+
+		/**
+		 * Creates a store with every table free.
+		 *
+		 * @param tables number of tables
+		 * @param racy   whether claims are check-then-act
+		 */
+		TableStore(int tables, boolean racy) {
+			this.holders = new AtomicIntegerArray(tables + 1);
+			this.racy = racy;
+		}
+
+		/**
+		 * Claims a table if nobody holds it.
+		 *
+		 * @param tableId the table
+		 * @return true if the claim was written
+		 */
+		boolean claim(int tableId) {
+			if (!racy) {
+				if (holders.compareAndSet(tableId, 0, 1))
+					return true;
+				refused.incrementAndGet();
+				return false;
+			}
+
+			if (holders.get(tableId) != 0) {
+				refused.incrementAndGet();
+				return false;
+			}
+			Thread.yield(); // widen the window between the check and the write
+			if (holders.incrementAndGet(tableId) > 1)
+				doubleBookings.incrementAndGet();
+			return true;
+		}
+
+		/**
+		 * Releases one holder of a table.
+		 *
+		 * @param tableId the table
+		 */
+		void release(int tableId) {
+			holders.decrementAndGet(tableId);
+		}
+	}
+}
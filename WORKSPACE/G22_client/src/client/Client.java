@@ -1,13 +1,28 @@
 package client;
 
 import ocsf.client.AbstractClient;
+import ocsf.codec.MessageCodec;
 
 import java.io.IOException;
 import java.time.DayOfWeek;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.List;
-
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import common.codec.WireCodec;
+import common.dto.CorrelatedMessage;
+import common.dto.Feed.FeedEvent;
+import common.dto.Feed.FeedRequest;
+import common.dto.Feed.FeedResponse;
+import common.dto.Report.ReportRequest;
+import common.dto.Report.ReportResponse;
 import common.dto.Reservation.ReservationRequest;
 import common.dto.Reservation.ReservationResponse;
 import common.dto.RestaurantManagement.RestaurantManagementRequest;
@@ -33,8 +48,28 @@ public class Client extends AbstractClient {
 	private boolean loggedin;
 	private String Subscribername;
 
+	/**
+	 * Seconds to wait for the reply to a tracked request.
+	 */
+	private static final long REQUEST_TIMEOUT_SECONDS = 30;
+
+	/**
+	 * Replies still expected, by correlation ID.
+	 */
+	private final Map<Integer, CompletableFuture<Object>> pending = new ConcurrentHashMap<>();
+
+	/**
+	 * Source of correlation IDs (0 is reserved for untracked messages).
+	 */
+	private final AtomicInteger nextRequestId = new AtomicInteger();
+
+	/**
+	 * Receives change events pushed by the server; may be null.
+	 */
+	private volatile Consumer<FeedEvent> feedListener;
+
 	public Client(String host, int port, ClientUI ui) {
-		super(host, port);
+		super(host, port, MessageCodec.of(WireCodec.NAME, WireCodec::canEncode, WireCodec::encode, WireCodec::decode));
 		this.ui = ui;
 	}
 
@@ -42,6 +77,16 @@ public class Client extends AbstractClient {
 		return loggedin;
 	}
 
+	/**
+	 * Sets the listener for change events pushed by the server after a feed
+	 * subscription. It is called on the connection thread.
+	 *
+	 * @param feedListener the listener, or null to drop events
+	 */
+	public void setFeedListener(Consumer<FeedEvent> feedListener) {
+		this.feedListener = feedListener;
+	}
+
 	/**
 	 * This method automatically runs whenever the server sends a message. It
 	 * handles responses from the server as an instance of ReservationResponse
@@ -53,6 +98,22 @@ public class Client extends AbstractClient {
 	 */
 	@Override
 	protected void handleMessageFromServer(Object msg) {
+		// replies to tracked requests go to their future only
+		if (msg instanceof CorrelatedMessage c && c.getRequestId() != 0) {
+			CompletableFuture<Object> reply = pending.remove(c.getRequestId());
+			if (reply != null) {
+				reply.complete(msg);
+				return;
+			}
+		}
+
+		if (msg instanceof FeedEvent event) {
+			Consumer<FeedEvent> listener = feedListener;
+			if (listener != null)
+				listener.accept(event);
+			return;
+		}
+
 		if (msg instanceof UserAccountResponse) {
 			UserAccountResponse authResp = (UserAccountResponse) msg;
 			if (authResp.getOperation() == UserAccountOperation.SUBSCRIBER_LOG_IN) {
@@ -100,6 +161,119 @@ public class Client extends AbstractClient {
 		ui.displayMessage("Unknown message from server: " + msg);
 	}
 
+	@Override
+	protected void connectionClosed() {
+		failPending(new IOException("Connection closed"));
+	}
+
+	@Override
+	protected void connectionException(Exception exception) {
+		failPending(exception);
+	}
+
+	// *********************TRACKED REQUESTS*********************
+
+	/**
+	 * Sends a reservation request and returns its reply as a future.
+	 *
+	 * @param req the request
+	 * @return the future reply
+	 */
+	public CompletableFuture<ReservationResponse> submit(ReservationRequest req) {
+		return request(req, ReservationResponse.class);
+	}
+
+	/**
+	 * Sends a user account request and returns its reply as a future.
+	 *
+	 * @param req the request
+	 * @return the future reply
+	 */
+	public CompletableFuture<UserAccountResponse> submit(UserAccountRequest req) {
+		return request(req, UserAccountResponse.class);
+	}
+
+	/**
+	 * Sends a restaurant management request and returns its reply as a future.
+	 *
+	 * @param req the request
+	 * @return the future reply
+	 */
+	public CompletableFuture<RestaurantManagementResponse> submit(RestaurantManagementRequest req) {
+		return request(req, RestaurantManagementResponse.class);
+	}
+
+	/**
+	 * Sends a report request and returns its reply as a future.
+	 *
+	 * @param req the request
+	 * @return the future reply
+	 */
+	public CompletableFuture<ReportResponse> submit(ReportRequest req) {
+		return request(req, ReportResponse.class);
+	}
+
+	/**
+	 * Sends a change feed request and returns its reply as a future.
+	 *
+	 * @param req the request
+	 * @return the future reply
+	 */
+	public CompletableFuture<FeedResponse> submit(FeedRequest req) {
+		return request(req, FeedResponse.class);
+	}
+
+	/**
+	 * Stamps a request with a fresh correlation ID, registers it in the pending
+	 * table and sends it. Several tracked requests may be in flight at once, and
+	 * the server may answer them in any order. The future fails if the send
+	 * fails, the connection drops, no reply arrives within
+	 * {@link #REQUEST_TIMEOUT_SECONDS}, or the server answers with another
+	 * response type.
+	 *
+	 * @param <T>          the expected response type
+	 * @param req          the request
+	 * @param responseType the expected response class
+	 * @return the future reply
+	 */
+	private <T> CompletableFuture<T> request(CorrelatedMessage req, Class<T> responseType) {
+		int id;
+		do {
+			id = nextRequestId.incrementAndGet();
+		} while (id == 0);
+		final int requestId = id;
+
+		req.setRequestId(requestId);
+		CompletableFuture<Object> reply = new CompletableFuture<>();
+		pending.put(requestId, reply);
+		reply.orTimeout(REQUEST_TIMEOUT_SECONDS, TimeUnit.SECONDS).whenComplete((r, e) -> pending.remove(requestId));
+
+		try {
+			sendToServer(req);
+		} catch (IOException e) {
+			reply.completeExceptionally(e);
+		}
+
+		return reply.thenApply(r -> {
+			if (!responseType.isInstance(r))
+				throw new CompletionException(new IOException("Unexpected reply: " + r));
+			return responseType.cast(r);
+		});
+	}
+
+	/**
+	 * Fails every tracked request still waiting for a reply.
+	 *
+	 * @param cause the reason
+	 */
+	private void failPending(Throwable cause) {
+		for (Integer id : pending.keySet()) {
+			CompletableFuture<Object> reply = pending.remove(id);
+			if (reply != null)
+				reply.completeExceptionally(cause);
+		}
+	}
+
 	// *********************AUTHINTICATION*********************
 	// request login for the subscriber
 	public void requestLoginBySubscriptionCode(String code) {
@@ -6,9 +6,21 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.ToIntFunction;
 
 import client.Client;
+import common.dto.ListQuery;
+import common.dto.Feed.FeedEvent;
+import common.dto.Feed.FeedRequest;
+import common.dto.Feed.FeedResponse;
 import common.dto.Reservation.ReservationRequest;
 import common.dto.Reservation.ReservationResponse;
 import common.dto.RestaurantManagement.RestaurantManagementRequest;
@@ -19,7 +31,9 @@ import common.entity.Customer;
 import common.entity.Reservation;
 import common.entity.Table;
 import common.entity.OpeningHours;
+import common.enums.FeedTopic;
 import common.enums.ReservationOperation;
+import common.enums.ReservationStatus;
 import common.enums.RestaurantManagementOperation;
 import common.enums.UserAccountOperation;
 import javafx.application.Platform;
@@ -75,6 +89,7 @@ public class EmployeeDashboardController {
 
         public void setClient(Client client) {
                 this.client = client;
+                client.setFeedListener(e -> Platform.runLater(() -> applyFeedEvent(e)));
 
                 refreshAll();
         }
@@ -117,6 +132,8 @@ public class EmployeeDashboardController {
         private ChoiceBox<String> reservationStatusFilter;
         @FXML
         private Button btnRefreshReservations;
+        @FXML
+        private Button btnMoreReservations;
 
         @FXML
         private TableView<Reservation> reservationTable;
@@ -186,6 +203,10 @@ public class EmployeeDashboardController {
 
         private Table selectedTable = null;
 
+        // Version of the table list shown; sent with refreshes so the server
+        // can answer "unchanged" instead of resending the list
+        private long tableVersion = 0;
+
         // ================= WORKING HOURS =================
         @FXML
         private Button btnLoadHours;
@@ -210,6 +231,8 @@ public class EmployeeDashboardController {
         private Button btnSearchMember;
         @FXML
         private Button btnRefreshMembers;
+        @FXML
+        private Button btnMoreMembers;
 
         @FXML
         private TableView<Customer> membersTable;
@@ -422,7 +445,8 @@ public class EmployeeDashboardController {
 
                 btnRefreshWaitingList.setOnAction(e -> refreshWaitingList());
                 btnRefreshReservations.setOnAction(e -> refreshReservations());
-                btnSearchReservation.setOnAction(e -> searchReservationsLocal()); // client-side filter example
+                btnSearchReservation.setOnAction(e -> searchReservations());
+                btnMoreReservations.setOnAction(e -> loadMoreReservations());
                 btnRefreshDinersNow.setOnAction(e -> refreshDinersNow());
 
                 btnRefreshTables.setOnAction(e -> refreshTables());
@@ -434,7 +458,8 @@ public class EmployeeDashboardController {
                 btnSaveHours.setOnAction(e -> saveHours());
 
                 btnRefreshMembers.setOnAction(e -> refreshMembers());
-                btnSearchMember.setOnAction(e -> searchMembersLocal()); // client-side filter example
+                btnSearchMember.setOnAction(e -> refreshMembers());
+                btnMoreMembers.setOnAction(e -> loadMoreMembers());
 
                 btnFindCustomer.setOnAction(e -> findCustomer());
                 btnClearCustomerSearch.setOnAction(e -> clearCustomerSearch());
@@ -477,11 +502,11 @@ public class EmployeeDashboardController {
                 waitingStatusFilter.setValue("All");
                 waitingStatusFilter.getSelectionModel().selectedItemProperty().addListener((o, a, b) -> applyWaitingFilter());
 
-                reservationStatusFilter.setItems(
-                                FXCollections.observableArrayList("All", "ACTIVE", "WAITING", "SEATED", "CANCELLED", "COMPLETED"));
+                reservationStatusFilter.setItems(FXCollections.observableArrayList("All", "ACTIVE", "NOTIFIED", "WAITING",
+                                "SEATED", "CANCELLED", "COMPLETED"));
                 reservationStatusFilter.setValue("All");
                 reservationStatusFilter.getSelectionModel().selectedItemProperty()
-                                .addListener((o, a, b) -> applyReservationsFilter());
+                                .addListener((o, a, b) -> searchReservations());
 
                 // ---- Spinners & time combos ----
                 spMakeResGuests.setValueFactory(new SpinnerValueFactory.IntegerSpinnerValueFactory(1, 20, 2));
@@ -599,13 +624,141 @@ public class EmployeeDashboardController {
         }
 
         // ====== REFRESH ALL ======
+        // The waitlist, active reservations, diners and tables come from the
+        // change feed; members and hours are not live and are loaded as tracked
+        // requests. Replies are matched to their own request, so they can arrive
+        // in any order.
         private void refreshAll() {
-                refreshWaitingList();
-                refreshReservations();
-                refreshDinersNow();
-                refreshTables();
+                lblDinersNowStatus.setText("Loading...");
+
+                subscribeFeed();
                 refreshMembers();
-                loadHours();
+                onReply(client.submit(RestaurantManagementRequest.createGetOpeningHoursRequest()),
+                                this::handleRestaurantManagementResponse);
+        }
+
+        // ====== CHANGE FEED ======
+        // Subscribing returns one snapshot of the live lists; after that the
+        // server pushes one event per changed entry. Events that arrive before
+        // the snapshot are held back, and events the snapshot already covers
+        // (seq at or below the snapshot's) are skipped. A resync event means the
+        // server dropped the subscription, so the dashboard subscribes again.
+        private long feedSeq = -1;
+        private final List<FeedEvent> heldEvents = new ArrayList<>();
+
+        private void subscribeFeed() {
+                feedSeq = -1;
+                heldEvents.clear();
+                onReply(client.submit(FeedRequest.createSubscribeRequest(EnumSet.allOf(FeedTopic.class))),
+                                this::handleFeedSnapshot);
+        }
+
+        private boolean isFeedLive() {
+                return feedSeq >= 0;
+        }
+
+        private void handleFeedSnapshot(FeedResponse resp) {
+                if (!resp.isSuccess()) {
+                        lblDinersNowStatus.setText(resp.getMessage());
+                        return;
+                }
+
+                waitingList.setAll(resp.getWaitlist());
+                applyWaitingFilter();
+                reservationsList.setAll(resp.getActiveReservations());
+                applyReservationsFilter();
+                dinersList.setAll(resp.getDiners());
+                lblDinersNowStatus.setText("Loaded: " + dinersList.size());
+                tablesList.setAll(resp.getTables());
+                renderTablesGraph(tablesList);
+
+                feedSeq = resp.getSeq();
+                List<FeedEvent> held = new ArrayList<>(heldEvents);
+                heldEvents.clear();
+                for (FeedEvent e : held)
+                        applyFeedEvent(e);
+        }
+
+        private void applyFeedEvent(FeedEvent e) {
+                if (e.isResync()) {
+                        // the server dropped us for falling behind; start over
+                        subscribeFeed();
+                        return;
+                }
+                if (!isFeedLive()) {
+                        heldEvents.add(e);
+                        return;
+                }
+                if (e.getSeq() <= feedSeq)
+                        return;
+                feedSeq = e.getSeq();
+
+                switch (e.getTopic()) {
+                case WAITLIST:
+                        applyToList(waitingList, e, Reservation::getReservationId);
+                        applyWaitingFilter();
+                        break;
+
+                case ACTIVE_RESERVATIONS:
+                        applyToList(reservationsList, e, Reservation::getReservationId);
+                        applyReservationsFilter();
+                        break;
+
+                case DINERS:
+                        applyToList(dinersList, e, Customer::getCustomerId);
+                        lblDinersNowStatus.setText("Loaded: " + dinersList.size());
+                        break;
+
+                case TABLES:
+                        applyToList(tablesList, e, Table::getTableNumber);
+                        tablesList.sort(Comparator.comparingInt(Table::getTableNumber));
+                        renderTablesGraph(tablesList);
+                        break;
+                }
+        }
+
+        // Replaces, adds or removes the entry with the event's key
+        @SuppressWarnings("unchecked")
+        private <T> void applyToList(ObservableList<T> list, FeedEvent e, ToIntFunction<T> key) {
+                for (int i = 0; i < list.size(); i++) {
+                        if (key.applyAsInt(list.get(i)) == e.getKey()) {
+                                if (e.isRemoval())
+                                        list.remove(i);
+                                else
+                                        list.set(i, (T) e.getValue());
+                                return;
+                        }
+                }
+                if (!e.isRemoval())
+                        list.add((T) e.getValue());
+        }
+
+        // Runs the handler on the FX thread when the reply arrives. A request
+        // that failed (timeout, disconnect, unexpected reply) is shown to the
+        // user instead of leaving stale data on screen.
+        private <T> void onReply(CompletableFuture<T> reply, Consumer<T> handler) {
+                reply.whenComplete((resp, error) -> Platform.runLater(() -> {
+                        if (error != null) {
+                                showError("Request failed", describeFailure(error));
+                                return;
+                        }
+                        try {
+                                handler.accept(resp);
+                        } catch (Exception e) {
+                                showError("Request failed", "Could not show the server's reply: " + e.getMessage());
+                        }
+                }));
+        }
+
+        private String describeFailure(Throwable error) {
+                Throwable cause = error;
+                while (cause instanceof CompletionException && cause.getCause() != null)
+                        cause = cause.getCause();
+                if (cause instanceof TimeoutException)
+                        return "The server did not answer in time. The data shown may be out of date.";
+                String msg = cause.getMessage();
+                return (msg == null || msg.isBlank() ? cause.getClass().getSimpleName() : msg)
+                                + ". The data shown may be out of date.";
         }
 
         // ====== WAITLIST ======
@@ -622,7 +775,7 @@ public class EmployeeDashboardController {
                         return;
                 }
 
-                waitingTable.setItems(waitingList.filtered(r -> filter.equalsIgnoreCase(safeStr(r, "getStatus", ""))));
+                waitingTable.setItems(waitingList.filtered(r -> r.getStatus() != null && filter.equals(r.getStatus().name())));
         }
 
         // ====== RESERVATIONS ======
@@ -630,27 +783,69 @@ public class EmployeeDashboardController {
                 client.getAllReservationsRequest();
         }
 
+        // With no search and no status filter the table shows the live list from
+        // the change feed. Anything else is a server-side query answered one
+        // page at a time; "More" asks for the page after the last one shown.
+        private ListQuery reservationQuery;
+        private String reservationCursor;
+        private final ObservableList<Reservation> reservationResults = FXCollections.observableArrayList();
+
         private void applyReservationsFilter() {
-                String filter = reservationStatusFilter.getValue();
-                if (filter == null || filter.equals("All")) {
+                if (reservationQuery == null)
                         reservationTable.setItems(reservationsList);
+        }
+
+        private void searchReservations() {
+                String search = reservationSearchField.getText();
+                ReservationStatus status = selectedReservationStatus();
+                if ((search == null || search.isBlank()) && status == null) {
+                        reservationQuery = null;
+                        reservationCursor = null;
+                        btnMoreReservations.setDisable(true);
+                        applyReservationsFilter();
                         return;
                 }
 
-                reservationTable.setItems(reservationsList.filtered(r -> filter.equalsIgnoreCase(safeStr(r, "getStatus", ""))));
+                reservationResults.clear();
+                reservationTable.setItems(reservationResults);
+                loadReservationsPage(ListQuery.firstPage(search, status, false, ListQuery.DEFAULT_PAGE_SIZE));
         }
 
-        private void searchReservationsLocal() {
-                // optional: local filter (you can also implement server-side search later)
-                String q = reservationSearchField.getText();
-                if (q == null || q.isBlank())
-                        return;
+        private void loadMoreReservations() {
+                if (reservationQuery != null && reservationCursor != null)
+                        loadReservationsPage(reservationQuery.next(reservationCursor));
+        }
 
-                // basic local filter on already loaded list
-                ObservableList<Reservation> filtered = reservationsList.filtered(
-                                r -> safeStr(r, "getReservationId", "").contains(q) || safeStr(r, "getConfirmationCode", "").contains(q)
-                                                || safeStr(r, "getCustomerId", "").contains(q));
-                reservationTable.setItems(filtered);
+        private void loadReservationsPage(ListQuery query) {
+                reservationQuery = query;
+                btnMoreReservations.setDisable(true);
+                onReply(client.submit(ReservationRequest.createGetActiveReservationsRequest(query)), resp -> {
+                        if (query != reservationQuery)
+                                return; // superseded by a newer search
+                        if (!resp.isSuccess()) {
+                                showError("Reservations", resp.getMessage());
+                                return;
+                        }
+                        reservationResults.addAll(resp.getReservations());
+                        reservationCursor = resp.getNextCursor();
+                        btnMoreReservations.setDisable(reservationCursor == null);
+                });
+        }
+
+        private ReservationStatus selectedReservationStatus() {
+                String filter = reservationStatusFilter.getValue();
+                if (filter == null)
+                        return null;
+                switch (filter) {
+                case "SEATED":
+                        return ReservationStatus.IN_PROGRESS;
+                case "CANCELLED":
+                        return ReservationStatus.CANCELED;
+                case "All":
+                        return null;
+                default:
+                        return ReservationStatus.valueOf(filter);
+                }
         }
 
         // ====== DINERS NOW ======
@@ -661,7 +856,8 @@ public class EmployeeDashboardController {
 
         // ====== TABLES ======
         private void refreshTables() {
-                client.getAllTabelsRequest();
+                onReply(client.submit(RestaurantManagementRequest.createGetAllTablesRequest(tableVersion)),
+                                this::handleRestaurantManagementResponse);
         }
 
         private void addTable() {
@@ -835,19 +1031,35 @@ public class EmployeeDashboardController {
         }
 
         // ====== MEMBERS ======
+        // Subscribers are searched on the server and loaded one page at a time
+        private ListQuery membersQuery;
+        private String membersCursor;
+
         private void refreshMembers() {
-                client.GetAllSubscribersRequest();
+                membersList.clear();
+                membersTable.setItems(membersList);
+                loadMembersPage(ListQuery.firstPage(memberSearchField.getText(), null, false, ListQuery.DEFAULT_PAGE_SIZE));
         }
 
-        private void searchMembersLocal() {
-                String q = memberSearchField.getText();
-                if (q == null || q.isBlank())
-                        return;
+        private void loadMoreMembers() {
+                if (membersQuery != null && membersCursor != null)
+                        loadMembersPage(membersQuery.next(membersCursor));
+        }
 
-                ObservableList<Customer> filtered = membersList.filtered(c -> String.valueOf(c.getCustomerId()).contains(q)
-                                || safe(c.getFullName()).toLowerCase().contains(q.toLowerCase())
-                                || safe(c.getEmail()).toLowerCase().contains(q.toLowerCase()));
-                membersTable.setItems(filtered);
+        private void loadMembersPage(ListQuery query) {
+                membersQuery = query;
+                btnMoreMembers.setDisable(true);
+                onReply(client.submit(UserAccountRequest.createGetAllSubscribersRequest(query)), resp -> {
+                        if (query != membersQuery)
+                                return; // superseded by a newer search
+                        if (!resp.isSuccess()) {
+                                showError("Members", resp.getMessage());
+                                return;
+                        }
+                        membersList.addAll(resp.getCustomers());
+                        membersCursor = resp.getNextCursor();
+                        btnMoreMembers.setDisable(membersCursor == null);
+                });
         }
 
         // ====== FIND CUSTOMER (ON BEHALF) ======
@@ -1053,7 +1265,6 @@ public class EmployeeDashboardController {
 
                 case GET_ACTIVE_RESERVATIONS:
                         reservationsList.setAll(resp.getReservations());
-                        reservationTable.setItems(reservationsList);
                         applyReservationsFilter();
                         break;
 
@@ -1091,25 +1302,30 @@ public class EmployeeDashboardController {
 
                 case CREATE_RESERVATION:
                         lblMakeReservationStatus.setText(resp.getMessage());
-                        refreshReservations();
+                        if (!isFeedLive())
+                                refreshReservations();
                         break;
 
                 case JOIN_WAITLIST:
                         lblJoinWaitlistStatus.setText(resp.getMessage());
-                        refreshWaitingList();
+                        if (!isFeedLive())
+                                refreshWaitingList();
                         break;
 
                 case CANCEL_RESERVATION:
                         lblCancelStatus.setText(resp.getMessage());
                         loadCancelableReservations();
-                        refreshReservations();
+                        if (!isFeedLive())
+                                refreshReservations();
                         break;
 
                 case RECEIVE_TABLE:
                         lblReceiveStatus.setText(resp.getMessage());
                         loadReceivableReservations();
-                        refreshReservations();
-                        refreshDinersNow();
+                        if (!isFeedLive()) {
+                                refreshReservations();
+                                refreshDinersNow();
+                        }
                         break;
 
                 default:
@@ -1172,8 +1388,11 @@ public class EmployeeDashboardController {
                 case ADD_TABLE:
                 case UPDATE_TABLE:
                 case DELETE_TABLE:
-                        tablesList.setAll(resp.getTables());
-                        renderTablesGraph(resp.getTables());
+                        if (resp.getTables() != null) {
+                                tablesList.setAll(resp.getTables());
+                                renderTablesGraph(resp.getTables());
+                                tableVersion = resp.getTableVersion();
+                        }
                         lblTablesMsg.setText(resp.getMessage());
                         break;
 
@@ -1197,8 +1416,18 @@ public class EmployeeDashboardController {
                 }
         }
 
-        private String safe(String s) {
-                return s == null ? "" : s;
+        // One error dialog at a time, so a dropped connection that fails several
+        // requests at once does not stack up alerts
+        private Alert errorAlert;
+
+        private void showError(String title, String msg) {
+                if (errorAlert != null && errorAlert.isShowing())
+                        return;
+                errorAlert = new Alert(Alert.AlertType.ERROR);
+                errorAlert.setTitle(title);
+                errorAlert.setHeaderText(null);
+                errorAlert.setContentText(msg);
+                errorAlert.show();
         }
 
         private void showInfo(String title, String msg) {
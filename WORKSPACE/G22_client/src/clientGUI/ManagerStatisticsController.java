@@ -6,6 +6,7 @@ import java.util.List;
 import java.util.stream.Collectors;
 
 import client.Client;
+import common.dto.Report.MonthToDateReport;
 import common.dto.Report.ReportRequest;
 import common.dto.Report.ReportResponse;
 import common.entity.SubscriberReportEntry;
@@ -43,6 +44,8 @@ import javafx.stage.Stage;
  *         <li>Session duration (dining time)</li>
  *       </ul>
  *   </li>
+ *   <li><b>Month to Date</b> - Live counters of the current month and the
+ *       delay/duration distribution of its completed visits</li>
  * </ul>
  * 
  * <p>Features:
@@ -95,6 +98,9 @@ public class ManagerStatisticsController {
     /** Line chart for timing/delay report */
     @FXML private LineChart<String, Number> timeLineChart;
 
+    /** Bar chart for the month-to-date delay/duration histograms */
+    @FXML private BarChart<String, Number> monthToDateChart;
+
     // ==========================================================
     // SETTERS
     // ==========================================================
@@ -200,6 +206,24 @@ public class ManagerStatisticsController {
         onLoadTimeReport();
     }
 
+    /**
+     * Loads the live month-to-date summary from server.
+     * Ignores the month/year selection; the server always answers for the
+     * current month.
+     */
+    @FXML
+    public void onLoadMonthToDate() {
+        if (!ensureClientConnected()) return;
+
+        statusLabel.setText("Loading month to date...");
+        try {
+            client.sendToServer(ReportRequest.createMonthToDateRequest());
+        } catch (Exception e) {
+            printCatch("onLoadMonthToDate", e);
+            statusLabel.setText("Failed to send month-to-date request: " + e.getMessage());
+        }
+    }
+
     /**
      * Closes the statistics window.
      */
@@ -233,6 +257,8 @@ public class ManagerStatisticsController {
                 renderSubscriberReport(resp.getSubscriberReportEntries());
             } else if (resp.getOperation() == ReportOperation.GET_TIME_REPORT) {
                 renderTimeReport(resp.getTimeReportEntries());
+            } else if (resp.getOperation() == ReportOperation.GET_MONTH_TO_DATE) {
+                renderMonthToDate(resp.getMonthToDate());
             }
         });
     }
@@ -321,6 +347,47 @@ public class ManagerStatisticsController {
         timeLineChart.getData().addAll(delaySeries, sessionSeries);
     }
 
+    /**
+     * Renders the month-to-date summary: counters in the status line and
+     * the delay/duration histograms in the bar chart.
+     * 
+     * @param report the live summary
+     */
+    private void renderMonthToDate(MonthToDateReport report) {
+        monthToDateChart.getData().clear();
+
+        if (report == null) {
+            return;
+        }
+
+        statusLabel.setText(String.format(
+                "Month to date %d/%d: %d reservations (%d walk-in), %d cancelled, %d seated, %d visits completed"
+                        + " | avg delay %.1f min, avg stay %.1f min",
+                report.getMonth(), report.getYear(), report.getReservationsCreated(), report.getWalkIns(),
+                report.getCancelled(), report.getSeated(), report.getVisits(),
+                report.getAverageDelayMinutes(), report.getAverageDurationMinutes()));
+
+        XYChart.Series<String, Number> delaySeries = new XYChart.Series<>();
+        delaySeries.setName("Arrival delay (min)");
+
+        int[] delays = report.getDelayHistogram();
+        for (int i = 0; i < delays.length; i++) {
+            String x = "Delay " + MonthToDateReport.bucketLabel(i, MonthToDateReport.DELAY_BOUNDS);
+            delaySeries.getData().add(new XYChart.Data<>(x, delays[i]));
+        }
+
+        XYChart.Series<String, Number> durationSeries = new XYChart.Series<>();
+        durationSeries.setName("Session duration (min)");
+
+        int[] durations = report.getDurationHistogram();
+        for (int i = 0; i < durations.length; i++) {
+            String x = "Stay " + MonthToDateReport.bucketLabel(i, MonthToDateReport.DURATION_BOUNDS);
+            durationSeries.getData().add(new XYChart.Data<>(x, durations[i]));
+        }
+
+        monthToDateChart.getData().addAll(delaySeries, durationSeries);
+    }
+
     // ==========================================================
     // HELPER METHODS
     // ==========================================================
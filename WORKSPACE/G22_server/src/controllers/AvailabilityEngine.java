@@ -0,0 +1,896 @@
+package controllers;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import common.entity.Reservation;
+import common.enums.ReservationStatus;
+import dbController.DBController;
+
+/**
+ * Server-resident occupancy model used to answer availability checks without
+ * querying the database.
+ * <p>
+ * The engine is loaded once when the server starts and is then kept up to date
+ * by the controllers after every successful write (insert, cancel, seat, pay,
+ * table change). It holds:
+ * </p>
+ * <ul>
+ * <li>the table inventory, sorted by capacity</li>
+ * <li>every ACTIVE, NOTIFIED and IN_PROGRESS reservation, bucketed by the
+ * 30-minute slot it starts in</li>
+ * </ul>
+ * <p>
+ * State is published as an immutable {@link Snapshot} through a volatile field.
+ * Readers never lock; writers are serialized and publish a new snapshot after
+ * applying their delta. Slot buckets are copy-on-write: a delta copies only the
+ * buckets (and the day of buckets) it touches and shares the rest with the
+ * previous snapshot, so its cost does not grow with the number of bookings.
+ * Availability semantics match
+ * {@link DBController#getOverlappingPinnedTableIds} and
+ * {@link DBController#getOverlappingActiveGuests}.
+ * </p>
+ *
+ * @author Yamen Abu Ahmad
+ * @version 1.0
+ * @see ReservationController
+ */
+public class AvailabilityEngine {
+
+	/**
+	 * Width of a slot bucket in seconds (30 minutes).
+	 */
+	private static final long SLOT_SEC = 30 * 60;
+
+	/**
+	 * Length of a reservation in seconds (matches ReservationController's two
+	 * hours).
+	 */
+	private static final long DURATION_SEC = 120 * 60;
+
+	/**
+	 * Number of slot buckets in a day.
+	 */
+	private static final int SLOTS_PER_DAY = (int) (24 * 60 * 60 / SLOT_SEC);
+
+	/**
+	 * Database controller used for the initial load and point refreshes.
+	 */
+	private final DBController db;
+
+	/**
+	 * Table inventory the engine's tables are loaded from.
+	 */
+	private final TableInventory inventory;
+
+	/**
+	 * The current published state. Replaced, never mutated.
+	 */
+	private volatile Snapshot snapshot;
+
+	/**
+	 * Every booking in the published snapshot by reservation ID, so a delta can
+	 * find the bucket a booking sits in. Owned by the writers (guarded by this).
+	 */
+	private final Map<Integer, Booking> bookings = new HashMap<>();
+
+	/**
+	 * Constructs an engine backed by the given database controller and table
+	 * inventory. Call {@link #load()} before use.
+	 *
+	 * @param db        the database controller
+	 * @param inventory the table inventory
+	 */
+	public AvailabilityEngine(DBController db, TableInventory inventory) {
+		this.db = db;
+		this.inventory = inventory;
+	}
+
+	/**
+	 * Loads the table inventory and all seat-holding reservations from the
+	 * database, replacing any existing state.
+	 *
+	 * @throws SQLException if database access fails
+	 */
+	public synchronized void load() throws SQLException {
+		load(inventory.current().getCapacities(), db.getActiveReservations());
+	}
+
+	/**
+	 * Loads the given tables and reservations, replacing any existing state.
+	 * Reservations that do not hold seats are ignored. Used by {@link #load()}
+	 * and by the benchmarks, which fill the engine from an in-memory data set.
+	 *
+	 * @param tables       table number to capacity
+	 * @param reservations the reservations
+	 */
+	synchronized void load(Map<Integer, Integer> tables, Collection<Reservation> reservations) {
+		bookings.clear();
+		for (Reservation r : reservations) {
+			Booking b = Booking.of(r);
+			if (b != null)
+				bookings.put(b.reservationId, b);
+		}
+
+		snapshot = Snapshot.build(tables, bookings.values());
+	}
+
+	/**
+	 * Returns whether the engine has been loaded successfully.
+	 *
+	 * @return true if availability can be answered from memory
+	 */
+	public boolean isLoaded() {
+		return snapshot != null;
+	}
+
+	// ======================== READS (LOCK-FREE) ========================
+
+	/**
+	 * Returns the capacities of tables not pinned by a NOTIFIED or IN_PROGRESS
+	 * reservation that overlaps the given window, in ascending order.
+	 *
+	 * @param start       the window start
+	 * @param durationMin the window length in minutes
+	 * @return capacities of free tables, smallest first
+	 */
+	public List<Integer> getFreeTableCapacities(LocalDateTime start, int durationMin) {
+		Snapshot s = snapshot;
+		long from = toSecond(start);
+		return freeCaps(s, s.overlapping(from, from + durationMin * 60L));
+	}
+
+	/**
+	 * Returns the tables not pinned during the given window, smallest capacity
+	 * first.
+	 *
+	 * @param start       the window start
+	 * @param durationMin the window length in minutes
+	 * @return table number to capacity, in ascending capacity order
+	 */
+	public Map<Integer, Integer> getFreeTables(LocalDateTime start, int durationMin) {
+		Snapshot s = snapshot;
+		long from = toSecond(start);
+
+		Set<Integer> pinned = new HashSet<>();
+		for (Booking b : s.overlapping(from, from + durationMin * 60L)) {
+			if (b.isPinned())
+				pinned.add(b.tableId);
+		}
+
+		Map<Integer, Integer> free = new java.util.LinkedHashMap<>();
+		for (int i = 0; i < s.tableIds.length; i++) {
+			if (!pinned.contains(s.tableIds[i]))
+				free.put(s.tableIds[i], s.tableCaps[i]);
+		}
+		return free;
+	}
+
+	/**
+	 * Returns the party sizes of ACTIVE reservations without a table that
+	 * overlap the given window.
+	 *
+	 * @param start       the window start
+	 * @param durationMin the window length in minutes
+	 * @return guest counts of overlapping unassigned reservations (mutable)
+	 */
+	public List<Integer> getOverlappingActiveGuests(LocalDateTime start, int durationMin) {
+		Snapshot s = snapshot;
+		long from = toSecond(start);
+		return activeGuests(s.overlapping(from, from + durationMin * 60L));
+	}
+
+	/**
+	 * Writes the capacities of tables not pinned during the given window into
+	 * the scratch buffers' table input, smallest first. Same result as
+	 * {@link #getFreeTableCapacities(LocalDateTime, int)}, without boxing.
+	 *
+	 * @param start       the window start
+	 * @param durationMin the window length in minutes
+	 * @param scratch     buffers owned by the caller
+	 * @return the number of capacities written to {@code scratch.tableCaps}
+	 */
+	int getFreeTableCapacities(LocalDateTime start, int durationMin, SeatingFeasibility.Scratch scratch) {
+		Snapshot s = snapshot;
+		long from = toSecond(start);
+		long to = from + durationMin * 60L;
+
+		int[] caps = scratch.tableCaps(s.tableCaps.length);
+		System.arraycopy(s.tableCaps, 0, caps, 0, s.tableCaps.length);
+		Booking[][] day = null;
+		long dayIndex = Long.MIN_VALUE;
+		for (long slot = slotOf(from - DURATION_SEC + 1); slot <= slotOf(to - 1); slot++) {
+			if (dayOf(slot) != dayIndex) {
+				dayIndex = dayOf(slot);
+				day = s.days.get(dayIndex);
+			}
+			Booking[] bucket = (day == null) ? null : day[Math.floorMod(slot, SLOTS_PER_DAY)];
+			for (int i = 0; bucket != null && i < bucket.length; i++) {
+				Booking b = bucket[i];
+				if (b.startSecond < to && b.startSecond + DURATION_SEC > from && b.isPinned()) {
+					Integer index = s.tableIndex.get(b.tableId);
+					if (index != null)
+						caps[index] = -1;
+				}
+			}
+		}
+
+		int count = 0;
+		for (int i = 0; i < s.tableCaps.length; i++) {
+			if (caps[i] >= 0)
+				caps[count++] = caps[i];
+		}
+		return count;
+	}
+
+	/**
+	 * Writes the party sizes of ACTIVE reservations without a table that overlap
+	 * the given window into the scratch buffers' party input, leaving room for
+	 * one more entry. Same result as
+	 * {@link #getOverlappingActiveGuests(LocalDateTime, int)}, without boxing.
+	 *
+	 * @param start       the window start
+	 * @param durationMin the window length in minutes
+	 * @param scratch     buffers owned by the caller
+	 * @return the number of party sizes written to {@code scratch.parties}
+	 */
+	int getOverlappingActiveGuests(LocalDateTime start, int durationMin, SeatingFeasibility.Scratch scratch) {
+		Snapshot s = snapshot;
+		long from = toSecond(start);
+		long to = from + durationMin * 60L;
+
+		int count = 0;
+		int[] guests = scratch.parties(1);
+		Booking[][] day = null;
+		long dayIndex = Long.MIN_VALUE;
+		for (long slot = slotOf(from - DURATION_SEC + 1); slot <= slotOf(to - 1); slot++) {
+			if (dayOf(slot) != dayIndex) {
+				dayIndex = dayOf(slot);
+				day = s.days.get(dayIndex);
+			}
+			Booking[] bucket = (day == null) ? null : day[Math.floorMod(slot, SLOTS_PER_DAY)];
+			for (int i = 0; bucket != null && i < bucket.length; i++) {
+				Booking b = bucket[i];
+				if (b.startSecond < to && b.startSecond + DURATION_SEC > from && b.status == ReservationStatus.ACTIVE
+						&& b.tableId == null) {
+					guests = scratch.parties(count + 2);
+					guests[count++] = b.guests;
+				}
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Receives the occupancy of each slot visited by {@link #sweep}.
+	 */
+	public interface SlotVisitor {
+
+		/**
+		 * Called once per slot, in time order. The arrays are reused for the next
+		 * slot, so they must not be kept.
+		 *
+		 * @param index         the slot index, starting at 0
+		 * @param freeTableCaps capacities of tables not pinned during the slot,
+		 *                      smallest first
+		 * @param freeCount     number of entries of freeTableCaps
+		 * @param activeGuests  party sizes of unassigned ACTIVE reservations
+		 *                      overlapping the slot; has room for one more entry
+		 *                      after activeCount
+		 * @param activeCount   number of entries of activeGuests
+		 */
+		void visit(int index, int[] freeTableCaps, int freeCount, int[] activeGuests, int activeCount);
+	}
+
+	/**
+	 * Visits consecutive candidate slots against a single snapshot. The bookings
+	 * overlapping the whole range are collected and sorted once, then a sliding
+	 * window over their start times yields each slot's overlaps without
+	 * rescanning the buckets. Each slot's occupancy is written into arrays
+	 * allocated once per sweep, so visiting a slot allocates nothing.
+	 *
+	 * @param firstStart  start of the first slot
+	 * @param stepMin     minutes between slot starts
+	 * @param count       number of slots to visit
+	 * @param durationMin length of each slot's window in minutes
+	 * @param visitor     receives each slot's occupancy
+	 */
+	public void sweep(LocalDateTime firstStart, int stepMin, int count, int durationMin, SlotVisitor visitor) {
+		if (count <= 0)
+			return;
+
+		Snapshot s = snapshot;
+		long first = toSecond(firstStart);
+		long step = stepMin * 60L;
+		long dur = durationMin * 60L;
+
+		List<Booking> range = s.overlapping(first, first + step * (count - 1) + dur);
+		range.sort(Comparator.comparingLong(b -> b.startSecond));
+
+		int[] freeCaps = new int[s.tableCaps.length];
+		int[] guests = new int[range.size() + 1];
+		int[] pinned = new int[range.size()];
+
+		int lo = 0;
+		int hi = 0;
+		for (int i = 0; i < count; i++) {
+			long from = first + step * i;
+			long to = from + dur;
+
+			while (hi < range.size() && range.get(hi).startSecond < to)
+				hi++;
+			while (lo < hi && range.get(lo).startSecond + DURATION_SEC <= from)
+				lo++;
+
+			int pinnedCount = 0;
+			int guestCount = 0;
+			for (int j = lo; j < hi; j++) {
+				Booking b = range.get(j);
+				if (b.isPinned())
+					pinned[pinnedCount++] = b.tableId;
+				else if (b.status == ReservationStatus.ACTIVE && b.tableId == null)
+					guests[guestCount++] = b.guests;
+			}
+			Arrays.sort(pinned, 0, pinnedCount);
+
+			int freeCount = 0;
+			for (int t = 0; t < s.tableIds.length; t++) {
+				if (pinnedCount == 0 || Arrays.binarySearch(pinned, 0, pinnedCount, s.tableIds[t]) < 0)
+					freeCaps[freeCount++] = s.tableCaps[t];
+			}
+			visitor.visit(i, freeCaps, freeCount, guests, guestCount);
+		}
+	}
+
+	/**
+	 * Returns capacities of tables not pinned by any of the given bookings.
+	 *
+	 * @param s           the snapshot holding the table index
+	 * @param overlapping bookings overlapping the window of interest
+	 * @return free table capacities, smallest first
+	 */
+	private static List<Integer> freeCaps(Snapshot s, List<Booking> overlapping) {
+		Set<Integer> pinned = new HashSet<>();
+		for (Booking b : overlapping) {
+			if (b.isPinned())
+				pinned.add(b.tableId);
+		}
+
+		List<Integer> caps = new ArrayList<>(s.tableIds.length);
+		for (int i = 0; i < s.tableIds.length; i++) {
+			if (!pinned.contains(s.tableIds[i]))
+				caps.add(s.tableCaps[i]);
+		}
+		return caps;
+	}
+
+	/**
+	 * Returns party sizes of unassigned ACTIVE bookings among the given ones.
+	 *
+	 * @param overlapping bookings overlapping the window of interest
+	 * @return guest counts (mutable)
+	 */
+	private static List<Integer> activeGuests(List<Booking> overlapping) {
+		List<Integer> guests = new ArrayList<>();
+		for (Booking b : overlapping) {
+			if (b.status == ReservationStatus.ACTIVE && b.tableId == null)
+				guests.add(b.guests);
+		}
+		return guests;
+	}
+
+	// ======================== WRITES (DELTAS) ========================
+
+	/**
+	 * Re-reads one reservation and applies its current state: seat-holding
+	 * statuses are stored, anything else is removed. Used after writes whose
+	 * final values are set by the database (e.g. {@code NOW()}).
+	 *
+	 * @param reservationId the reservation to refresh
+	 * @throws SQLException if database access fails
+	 */
+	public void refreshReservation(int reservationId) throws SQLException {
+		refreshReservations(List.of(reservationId));
+	}
+
+	/**
+	 * Re-reads several reservations and applies their current state as one
+	 * delta.
+	 *
+	 * @param reservationIds the reservations to refresh
+	 * @throws SQLException if database access fails
+	 */
+	public synchronized void refreshReservations(List<Integer> reservationIds) throws SQLException {
+		if (!isLoaded() || reservationIds.isEmpty())
+			return;
+
+		// read under the writer lock so two refreshes of the same row apply in order
+		Map<Integer, Booking> changes = new HashMap<>();
+		for (Integer id : reservationIds) {
+			Reservation r = db.findReservationById(id);
+			changes.put(id, (r == null) ? null : Booking.of(r));
+		}
+		apply(changes);
+	}
+
+	/**
+	 * Records a newly inserted ACTIVE advance reservation.
+	 *
+	 * @param reservationId the new reservation ID
+	 * @param start         the reservation start
+	 * @param guests        the party size
+	 */
+	public synchronized void addActiveReservation(int reservationId, LocalDateTime start, int guests) {
+		if (!isLoaded())
+			return;
+
+		apply(Map.of(reservationId,
+				new Booking(reservationId, toSecond(start), guests, ReservationStatus.ACTIVE, null)));
+	}
+
+	/**
+	 * Records waitlist reservations that were just notified and pinned to a table.
+	 *
+	 * @param tableByReservation  reservation ID to assigned table number
+	 * @param guestsByReservation reservation ID to party size
+	 * @param notifiedAt          the time written as the reservation start
+	 */
+	public synchronized void addNotifiedReservations(Map<Integer, Integer> tableByReservation,
+			Map<Integer, Integer> guestsByReservation, LocalDateTime notifiedAt) {
+		if (!isLoaded() || tableByReservation.isEmpty())
+			return;
+
+		Map<Integer, Booking> changes = new HashMap<>();
+		for (Map.Entry<Integer, Integer> e : tableByReservation.entrySet()) {
+			int resId = e.getKey();
+			changes.put(resId, new Booking(resId, toSecond(notifiedAt), guestsByReservation.get(resId),
+					ReservationStatus.NOTIFIED, e.getValue()));
+		}
+		apply(changes);
+	}
+
+	/**
+	 * Removes a reservation that no longer holds seats (canceled, completed or
+	 * moved to the waitlist).
+	 *
+	 * @param reservationId the reservation ID
+	 */
+	public void removeReservation(int reservationId) {
+		removeReservations(List.of(reservationId));
+	}
+
+	/**
+	 * Removes several reservations that no longer hold seats, publishing one
+	 * snapshot for all of them.
+	 *
+	 * @param reservationIds the reservation IDs
+	 */
+	public synchronized void removeReservations(Collection<Integer> reservationIds) {
+		if (!isLoaded())
+			return;
+
+		Map<Integer, Booking> changes = new HashMap<>();
+		for (Integer id : reservationIds) {
+			if (bookings.containsKey(id))
+				changes.put(id, null);
+		}
+		if (!changes.isEmpty())
+			apply(changes);
+	}
+
+	/**
+	 * Adds a table or changes its capacity.
+	 *
+	 * @param tableId  the table number
+	 * @param capacity the seating capacity
+	 */
+	public synchronized void putTable(int tableId, int capacity) {
+		if (!isLoaded())
+			return;
+
+		Map<Integer, Integer> tables = new HashMap<>(snapshot.tables);
+		tables.put(tableId, capacity);
+		snapshot = snapshot.withTables(tables);
+	}
+
+	/**
+	 * Removes a table. Reservations pinned to it are detached, as
+	 * {@link DBController#deleteTable} does.
+	 *
+	 * @param tableId the table number
+	 */
+	public synchronized void removeTable(int tableId) {
+		if (!isLoaded())
+			return;
+
+		Map<Integer, Integer> tables = new HashMap<>(snapshot.tables);
+		tables.remove(tableId);
+		snapshot = snapshot.withTables(tables);
+
+		Map<Integer, Booking> changes = new HashMap<>();
+		for (Booking b : bookings.values()) {
+			if (b.tableId != null && b.tableId == tableId)
+				changes.put(b.reservationId, b.withTable(null));
+		}
+		if (!changes.isEmpty())
+			apply(changes);
+	}
+
+	/**
+	 * Applies a delta and publishes the new snapshot. Only the buckets of the
+	 * changed bookings are copied. Days whose bookings all ended before now
+	 * are dropped, since they can no longer overlap any query.
+	 *
+	 * @param changes reservation ID to its new booking, or to null to remove it
+	 */
+	private void apply(Map<Integer, Booking> changes) {
+		List<Booking> removed = new ArrayList<>();
+		List<Booking> added = new ArrayList<>();
+		for (Map.Entry<Integer, Booking> e : changes.entrySet()) {
+			Booking old = (e.getValue() == null) ? bookings.remove(e.getKey())
+					: bookings.put(e.getKey(), e.getValue());
+			if (old != null)
+				removed.add(old);
+			if (e.getValue() != null)
+				added.add(e.getValue());
+		}
+
+		long now = toSecond(LocalDateTime.now());
+		snapshot = snapshot.withBookings(removed, added, now, this::forget);
+	}
+
+	/**
+	 * Drops a booking of an expired day from the writers' index, unless it has
+	 * been replaced since.
+	 *
+	 * @param b the expired booking
+	 */
+	private void forget(Booking b) {
+		bookings.remove(b.reservationId, b);
+	}
+
+	/**
+	 * Converts a local date-time to seconds since the epoch. Only differences are
+	 * used, so the offset is irrelevant.
+	 *
+	 * @param dt the date-time
+	 * @return epoch seconds
+	 */
+	private static long toSecond(LocalDateTime dt) {
+		return dt.toEpochSecond(ZoneOffset.UTC);
+	}
+
+	/**
+	 * Returns the 30-minute slot bucket a second belongs to.
+	 *
+	 * @param second epoch seconds
+	 * @return the slot index
+	 */
+	private static long slotOf(long second) {
+		return Math.floorDiv(second, SLOT_SEC);
+	}
+
+	/**
+	 * Returns the day a slot belongs to.
+	 *
+	 * @param slot the slot index
+	 * @return the day index
+	 */
+	private static long dayOf(long slot) {
+		return Math.floorDiv(slot, SLOTS_PER_DAY);
+	}
+
+	// ======================== MODEL ========================
+
+	/**
+	 * A seat-holding reservation as seen by the engine.
+	 */
+	private static final class Booking {
+
+		/**
+		 * The reservation ID.
+		 */
+		final int reservationId;
+
+		/**
+		 * Start of the reservation in epoch seconds.
+		 */
+		final long startSecond;
+
+		/**
+		 * Party size.
+		 */
+		final int guests;
+
+		/**
+		 * Current status (ACTIVE, NOTIFIED or IN_PROGRESS).
+		 */
+		final ReservationStatus status;
+
+		/**
+		 * Assigned table, or null.
+		 */
+		final Integer tableId;
+
+		/**
+		 * Creates a booking.
+		 *
+		 * @param reservationId the reservation ID
+		 * @param startSecond   the start in epoch seconds
+		 * @param guests        the party size
+		 * @param status        the status
+		 * @param tableId       the assigned table, or null
+		 */
+		Booking(int reservationId, long startSecond, int guests, ReservationStatus status, Integer tableId) {
+			this.reservationId = reservationId;
+			this.startSecond = startSecond;
+			this.guests = guests;
+			this.status = status;
+			this.tableId = tableId;
+		}
+
+		/**
+		 * Converts a reservation into a booking if it holds seats.
+		 *
+		 * @param r the reservation
+		 * @return the booking, or null if the reservation does not hold seats
+		 */
+		static Booking of(Reservation r) {
+			ReservationStatus st = r.getStatus();
+			if (r.getReservationDateTime() == null || (st != ReservationStatus.ACTIVE
+					&& st != ReservationStatus.NOTIFIED && st != ReservationStatus.IN_PROGRESS))
+				return null;
+
+			return new Booking(r.getReservationId(), toSecond(r.getReservationDateTime()), r.getNumberOfGuests(), st,
+					r.getTableId());
+		}
+
+		/**
+		 * Returns whether this booking occupies a specific table.
+		 *
+		 * @return true for NOTIFIED/IN_PROGRESS bookings with a table
+		 */
+		boolean isPinned() {
+			return tableId != null
+					&& (status == ReservationStatus.NOTIFIED || status == ReservationStatus.IN_PROGRESS);
+		}
+
+		/**
+		 * Returns a copy with a different table assignment.
+		 *
+		 * @param newTableId the table, or null
+		 * @return the updated booking
+		 */
+		Booking withTable(Integer newTableId) {
+			return new Booking(reservationId, startSecond, guests, status, newTableId);
+		}
+	}
+
+	/**
+	 * Immutable view of tables and bookings published to readers.
+	 * <p>
+	 * Bookings are bucketed by start slot, and the buckets are grouped by day.
+	 * Buckets and days are never modified once published; a new snapshot copies
+	 * the days and buckets it changes and shares every other one.
+	 * </p>
+	 */
+	private static final class Snapshot {
+
+		/**
+		 * Table number to capacity.
+		 */
+		final Map<Integer, Integer> tables;
+
+		/**
+		 * Table numbers sorted by ascending capacity.
+		 */
+		final int[] tableIds;
+
+		/**
+		 * Capacities aligned with {@link #tableIds}.
+		 */
+		final int[] tableCaps;
+
+		/**
+		 * Table number to its index in {@link #tableIds}.
+		 */
+		final Map<Integer, Integer> tableIndex;
+
+		/**
+		 * Day index to that day's buckets, one per slot; a bucket holds the
+		 * bookings starting in its slot, or is null if there are none.
+		 */
+		final Map<Long, Booking[][]> days;
+
+		/**
+		 * Creates a snapshot from prepared structures.
+		 *
+		 * @param tables     the table inventory
+		 * @param tableIds   table numbers sorted by capacity
+		 * @param tableCaps  capacities aligned with tableIds
+		 * @param tableIndex table number to index in tableIds
+		 * @param days       the bookings by day and start slot
+		 */
+		private Snapshot(Map<Integer, Integer> tables, int[] tableIds, int[] tableCaps,
+				Map<Integer, Integer> tableIndex, Map<Long, Booking[][]> days) {
+			this.tables = tables;
+			this.tableIds = tableIds;
+			this.tableCaps = tableCaps;
+			this.tableIndex = tableIndex;
+			this.days = days;
+		}
+
+		/**
+		 * Builds the capacity index and slot buckets for the given state.
+		 *
+		 * @param tables   the table inventory
+		 * @param bookings the bookings
+		 * @return the new snapshot
+		 */
+		static Snapshot build(Map<Integer, Integer> tables, Collection<Booking> bookings) {
+			Map<Long, List<Booking>> bySlot = new HashMap<>();
+			for (Booking b : bookings)
+				bySlot.computeIfAbsent(slotOf(b.startSecond), k -> new ArrayList<>()).add(b);
+
+			Map<Long, Booking[][]> days = new HashMap<>();
+			for (Map.Entry<Long, List<Booking>> e : bySlot.entrySet()) {
+				long slot = e.getKey();
+				Booking[][] day = days.computeIfAbsent(dayOf(slot), k -> new Booking[SLOTS_PER_DAY][]);
+				day[Math.floorMod(slot, SLOTS_PER_DAY)] = e.getValue().toArray(new Booking[0]);
+			}
+			return new Snapshot(Collections.emptyMap(), new int[0], new int[0], Collections.emptyMap(), days)
+					.withTables(tables);
+		}
+
+		/**
+		 * Returns a snapshot with a different table inventory and the same
+		 * bookings.
+		 *
+		 * @param tables the table inventory
+		 * @return the new snapshot
+		 */
+		Snapshot withTables(Map<Integer, Integer> tables) {
+			Integer[] ids = tables.keySet().toArray(new Integer[0]);
+			Arrays.sort(ids, (a, b) -> {
+				int c = Integer.compare(tables.get(a), tables.get(b));
+				return c != 0 ? c : Integer.compare(a, b);
+			});
+
+			int[] ids2 = new int[ids.length];
+			int[] caps = new int[ids.length];
+			Map<Integer, Integer> index = new HashMap<>();
+			for (int i = 0; i < ids.length; i++) {
+				ids2[i] = ids[i];
+				caps[i] = tables.get(ids[i]);
+				index.put(ids[i], i);
+			}
+			return new Snapshot(Collections.unmodifiableMap(new HashMap<>(tables)), ids2, caps, index, days);
+		}
+
+		/**
+		 * Returns a snapshot with some bookings replaced. Only the days and
+		 * buckets holding a changed booking are copied; days that ended before
+		 * now are dropped.
+		 *
+		 * @param removed bookings to take out (as currently published)
+		 * @param added   bookings to put in
+		 * @param now     the current time in epoch seconds
+		 * @param expired receives each booking of a dropped day
+		 * @return the new snapshot
+		 */
+		Snapshot withBookings(List<Booking> removed, List<Booking> added, long now,
+				Consumer<Booking> expired) {
+			Map<Long, Booking[][]> next = new HashMap<>(days);
+			Set<Long> copied = new HashSet<>();
+
+			for (Booking b : removed) {
+				Booking[] bucket = bucket(next, copied, b.startSecond);
+				int idx = -1;
+				for (int i = 0; bucket != null && i < bucket.length && idx < 0; i++) {
+					if (bucket[i] == b)
+						idx = i;
+				}
+				if (idx < 0)
+					continue;
+
+				Booking[] smaller = new Booking[bucket.length - 1];
+				System.arraycopy(bucket, 0, smaller, 0, idx);
+				System.arraycopy(bucket, idx + 1, smaller, idx, smaller.length - idx);
+				setBucket(next, b.startSecond, smaller.length == 0 ? null : smaller);
+			}
+			for (Booking b : added) {
+				Booking[] bucket = bucket(next, copied, b.startSecond);
+				Booking[] larger = (bucket == null) ? new Booking[1] : Arrays.copyOf(bucket, bucket.length + 1);
+				larger[larger.length - 1] = b;
+				setBucket(next, b.startSecond, larger);
+			}
+
+			Iterator<Map.Entry<Long, Booking[][]>> it = next.entrySet().iterator();
+			while (it.hasNext()) {
+				Map.Entry<Long, Booking[][]> e = it.next();
+				if ((e.getKey() + 1) * SLOTS_PER_DAY * SLOT_SEC + DURATION_SEC > now)
+					continue;
+				for (Booking[] bucket : e.getValue()) {
+					for (int i = 0; bucket != null && i < bucket.length; i++)
+						expired.accept(bucket[i]);
+				}
+				it.remove();
+			}
+			return new Snapshot(tables, tableIds, tableCaps, tableIndex, next);
+		}
+
+		/**
+		 * Returns the bucket a start time falls in, first giving the delta its
+		 * own copy of that day's bucket array.
+		 *
+		 * @param next   the days of the snapshot being built
+		 * @param copied days already copied by this delta
+		 * @param start  the start in epoch seconds
+		 * @return the bucket, or null if it is empty
+		 */
+		private static Booking[] bucket(Map<Long, Booking[][]> next, Set<Long> copied, long start) {
+			long slot = slotOf(start);
+			long day = dayOf(slot);
+			if (copied.add(day)) {
+				Booking[][] old = next.get(day);
+				next.put(day, (old == null) ? new Booking[SLOTS_PER_DAY][] : old.clone());
+			}
+			return next.get(day)[Math.floorMod(slot, SLOTS_PER_DAY)];
+		}
+
+		/**
+		 * Replaces a bucket in a day already copied by {@link #bucket}.
+		 *
+		 * @param next   the days of the snapshot being built
+		 * @param start  a start time in the bucket, in epoch seconds
+		 * @param bucket the new bucket, or null if it is empty
+		 */
+		private static void setBucket(Map<Long, Booking[][]> next, long start, Booking[] bucket) {
+			long slot = slotOf(start);
+			next.get(dayOf(slot))[Math.floorMod(slot, SLOTS_PER_DAY)] = bucket;
+		}
+
+		/**
+		 * Returns bookings whose two-hour window overlaps [from, to).
+		 *
+		 * @param from window start in epoch seconds
+		 * @param to   window end in epoch seconds
+		 * @return overlapping bookings
+		 */
+		List<Booking> overlapping(long from, long to) {
+			List<Booking> out = new ArrayList<>();
+			long firstSlot = slotOf(from - DURATION_SEC + 1);
+			long lastSlot = slotOf(to - 1);
+
+			Booking[][] day = null;
+			long dayIndex = Long.MIN_VALUE;
+			for (long slot = firstSlot; slot <= lastSlot; slot++) {
+				if (dayOf(slot) != dayIndex) {
+					dayIndex = dayOf(slot);
+					day = days.get(dayIndex);
+				}
+				Booking[] bucket = (day == null) ? null : day[Math.floorMod(slot, SLOTS_PER_DAY)];
+				if (bucket == null)
+					continue;
+				for (Booking b : bucket) {
+					if (b.startSecond < to && b.startSecond + DURATION_SEC > from)
+						out.add(b);
+				}
+			}
+			return out;
+		}
+	}
+}
@@ -0,0 +1,290 @@
+package controllers;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Hashed timing wheel for keyed one-shot deadlines.
+ * <p>
+ * The wheel has {@link #WHEEL_SIZE} buckets of {@link #TICK_MS} each. A
+ * deadline is placed in the bucket of the tick it falls in, together with the
+ * number of full wheel rotations still to go, so scheduling and cancelling are
+ * O(1) and each tick only touches one bucket. A single ticker thread advances
+ * the wheel and hands expired tasks to a worker thread, so slow tasks never
+ * delay the clock.
+ * </p>
+ * <p>
+ * Deadlines are identified by a string key; scheduling an existing key
+ * replaces the previous deadline.
+ * </p>
+ *
+ * @author Yamen Abu Ahmad
+ * @version 1.0
+ */
+public class DeadlineScheduler {
+
+	/**
+	 * Tick length in milliseconds (deadlines fire within one tick).
+	 */
+	private static final long TICK_MS = 1000;
+
+	/**
+	 * Number of buckets (one rotation covers about 8.5 minutes).
+	 */
+	private static final int WHEEL_SIZE = 512;
+
+	/**
+	 * Mask for mapping a tick to its bucket.
+	 */
+	private static final int MASK = WHEEL_SIZE - 1;
+
+	/**
+	 * The wheel buckets.
+	 */
+	private final List<Set<Timeout>> wheel = new ArrayList<>(WHEEL_SIZE);
+
+	/**
+	 * Pending deadlines by key.
+	 */
+	private final Map<String, Timeout> byKey = new HashMap<>();
+
+	/**
+	 * Wall-clock time of tick 0, in epoch milliseconds.
+	 */
+	private final long startMillis;
+
+	/**
+	 * Index of the next tick to process. Guarded by {@code this}.
+	 */
+	private long tick;
+
+	/**
+	 * Runs expired tasks off the ticker thread.
+	 */
+	private final ExecutorService worker;
+
+	/**
+	 * Advances the wheel.
+	 */
+	private final Thread ticker;
+
+	/**
+	 * Cleared by {@link #shutdown()}.
+	 */
+	private volatile boolean running = true;
+
+	/**
+	 * Where errors of the ticker and of failed tasks are written; the server
+	 * routes them to its log.
+	 */
+	private volatile Consumer<String> errorLog = System.err::println;
+
+	/**
+	 * Creates and starts a scheduler.
+	 */
+	public DeadlineScheduler() {
+		for (int i = 0; i < WHEEL_SIZE; i++)
+			wheel.add(new LinkedHashSet<>());
+
+		startMillis = System.currentTimeMillis();
+
+		worker = Executors.newSingleThreadExecutor(r -> {
+			Thread t = new Thread(r, "deadline-worker");
+			t.setDaemon(true);
+			return t;
+		});
+
+		ticker = new Thread(this::run, "deadline-ticker");
+		ticker.setDaemon(true);
+		ticker.start();
+	}
+
+	/**
+	 * Schedules a task to run at the given time, replacing any pending deadline
+	 * with the same key. Times in the past fire on the next tick.
+	 *
+	 * @param key    the deadline key
+	 * @param fireAt when the task should run
+	 * @param task   the task to run
+	 */
+	public synchronized void schedule(String key, LocalDateTime fireAt, Runnable task) {
+		cancel(key);
+
+		long at = fireAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() - startMillis;
+		// tick k is processed at (k + 1) * TICK_MS
+		long target = Math.max(tick, Math.floorDiv(at + TICK_MS - 1, TICK_MS) - 1);
+
+		Timeout t = new Timeout(key, task, (target - tick) / WHEEL_SIZE, (int) (target & MASK));
+		wheel.get(t.bucket).add(t);
+		byKey.put(key, t);
+	}
+
+	/**
+	 * Cancels a pending deadline.
+	 *
+	 * @param key the deadline key
+	 * @return true if a deadline was pending
+	 */
+	public synchronized boolean cancel(String key) {
+		Timeout t = byKey.remove(key);
+		if (t == null)
+			return false;
+		wheel.get(t.bucket).remove(t);
+		return true;
+	}
+
+	/**
+	 * Returns the number of pending deadlines.
+	 *
+	 * @return pending deadline count
+	 */
+	public synchronized int size() {
+		return byKey.size();
+	}
+
+	/**
+	 * Sets where errors of the ticker and of failed tasks are written. Defaults
+	 * to standard error.
+	 *
+	 * @param log receives one line per error
+	 */
+	public void setErrorLog(Consumer<String> log) {
+		this.errorLog = log == null ? System.err::println : log;
+	}
+
+	/**
+	 * Stops the ticker and the worker. Pending deadlines are dropped.
+	 */
+	public void shutdown() {
+		running = false;
+		ticker.interrupt();
+		worker.shutdownNow();
+	}
+
+	/**
+	 * Ticker loop: sleeps until the next tick is due, then expires its bucket.
+	 * Falls behind gracefully by processing missed ticks without sleeping.
+	 */
+	private void run() {
+		while (running) {
+			try {
+				long due;
+				synchronized (this) {
+					due = startMillis + (tick + 1) * TICK_MS;
+				}
+				long sleep = due - System.currentTimeMillis();
+				if (sleep > 0)
+					Thread.sleep(sleep);
+
+				for (Runnable task : advance())
+					worker.execute(() -> runTask(task));
+			} catch (InterruptedException e) {
+				return;
+			} catch (RuntimeException e) {
+				reportError("Deadline scheduler error: " + e);
+			}
+		}
+	}
+
+	/**
+	 * Runs an expired task on the worker, reporting instead of propagating its
+	 * failure so the worker thread survives.
+	 *
+	 * @param task the task
+	 */
+	private void runTask(Runnable task) {
+		try {
+			task.run();
+		} catch (RuntimeException e) {
+			reportError("Deadline task error: " + e);
+		}
+	}
+
+	/**
+	 * Writes an error to the error log.
+	 *
+	 * @param message the error
+	 */
+	private void reportError(String message) {
+		try {
+			errorLog.accept(message);
+		} catch (RuntimeException e) {
+			// a failing log must not stop the scheduler
+		}
+	}
+
+	/**
+	 * Processes the current tick's bucket and moves to the next tick.
+	 *
+	 * @return the tasks that expired on this tick
+	 */
+	private synchronized List<Runnable> advance() {
+		List<Runnable> expired = new ArrayList<>();
+
+		Iterator<Timeout> it = wheel.get((int) (tick & MASK)).iterator();
+		while (it.hasNext()) {
+			Timeout t = it.next();
+			if (t.rounds > 0) {
+				t.rounds--;
+				continue;
+			}
+			it.remove();
+			byKey.remove(t.key);
+			expired.add(t.task);
+		}
+
+		tick++;
+		return expired;
+	}
+
+	/**
+	 * A pending deadline.
+	 */
+	private static final class Timeout {
+
+		/**
+		 * The deadline key.
+		 */
+		final String key;
+
+		/**
+		 * The task to run on expiry.
+		 */
+		final Runnable task;
+
+		/**
+		 * Remaining full rotations before expiry.
+		 */
+		long rounds;
+
+		/**
+		 * The bucket index holding this deadline.
+		 */
+		final int bucket;
+
+		/**
+		 * Creates a deadline.
+		 *
+		 * @param key    the deadline key
+		 * @param task   the task to run
+		 * @param rounds rotations before expiry
+		 * @param bucket the bucket index
+		 */
+		Timeout(String key, Runnable task, long rounds, int bucket) {
+			this.key = key;
+			this.task = task;
+			this.rounds = rounds;
+			this.bucket = bucket;
+		}
+	}
+}
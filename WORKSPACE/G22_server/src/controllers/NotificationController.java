@@ -3,9 +3,12 @@ package controllers;
 import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Collection;
+import java.util.List;
 
 import common.dto.Notification.CustomerContactInfo;
 import common.dto.Notification.NotificationResult;
+import common.dto.Notification.OutboxNotification;
 import common.dto.Reservation.ReservationBasicInfo;
 import common.entity.Bill;
 import common.entity.Reservation;
@@ -22,6 +25,16 @@ import server.ServerUI;
  * {@link ServerUI} interface, which displays messages to demonstrate email and
  * SMS delivery.
  * </p>
+ * <p>
+ * The {@code send*} methods only queue a notification in the database outbox
+ * and return; a {@link NotificationOutbox} delivers it in the background. Each
+ * notification type is delivered at most once per reservation. Bulk
+ * operations use the collection overloads, which queue a whole list of
+ * reservations with one set-based database call. Notifications caused by a
+ * reservation state change are queued by {@link ReservationController} in the
+ * same transaction as the change; the caller then only calls
+ * {@link #wakeUpOutbox()}.
+ * </p>
  *
  * @author Yamen Abu Ahmad
  * @version 1.0
@@ -39,7 +52,13 @@ public class NotificationController {
 	private final DBController db;
 
 	/**
-	 * Constructs a NotificationController with the specified dependencies.
+	 * Background delivery of queued notifications; null until {@link #start()}.
+	 */
+	private volatile NotificationOutbox outbox;
+
+	/**
+	 * Constructs a NotificationController with the specified dependencies. Call
+	 * {@link #start()} to begin delivering queued notifications.
 	 *
 	 * @param ui the server UI interface for displaying notifications
 	 * @param db the database controller for data access
@@ -49,6 +68,40 @@ public class NotificationController {
 		this.db = db;
 	}
 
+	/**
+	 * Starts delivering queued notifications. The outbox is created here rather
+	 * than in the constructor so it never sees a partly constructed controller.
+	 */
+	public synchronized void start() {
+		if (outbox != null)
+			return;
+		NotificationOutbox o = new NotificationOutbox(db, this, ui);
+		o.start();
+		outbox = o;
+	}
+
+	/**
+	 * Stops delivering queued notifications. Undelivered notifications stay in
+	 * the outbox and are sent after the next start.
+	 */
+	public synchronized void shutdown() {
+		if (outbox == null)
+			return;
+		outbox.shutdown();
+		outbox = null;
+	}
+
+	/**
+	 * Wakes up the outbox, if it is running. Notifications queued while it is
+	 * stopped are delivered after the next start. Called after a transaction
+	 * that queued a notification together with a state change commits.
+	 */
+	public void wakeUpOutbox() {
+		NotificationOutbox o = outbox;
+		if (o != null)
+			o.wakeUp();
+	}
+
 	/**
 	 * Resolves a reservation ID from a confirmation code.
 	 *
@@ -64,208 +117,183 @@ public class NotificationController {
 	}
 
 	/**
-	 * Sends a reservation confirmation notification to the customer.
+	 * Queues a notification for delivery and wakes up the outbox.
 	 *
-	 * @param reservationId the ID of the reservation to confirm
-	 * @return the result of the notification attempt
+	 * @param reservationId the reservation the notification is about
+	 * @param type          the notification type
+	 * @param bill          the bill for BILL_SENT, otherwise null
+	 * @param redeliver     whether a notification that was already delivered
+	 *                      should be sent again
+	 * @return the result of queuing the notification
 	 * @throws SQLException if a database error occurs
 	 */
-	public NotificationResult sendReservationConfirmation(int reservationId) throws SQLException {
-		CustomerContactInfo contact = db.getContactInfoByReservationId(reservationId);
-		ReservationBasicInfo info = db.getReservationBasicInfo(reservationId);
+	private NotificationResult enqueue(int reservationId, NotificationType type, Bill bill, boolean redeliver)
+			throws SQLException {
+		boolean queued = db.enqueueNotification(reservationId, type,
+				bill == null ? null : bill.getAmountBeforeDiscount(), bill == null ? null : bill.getFinalAmount(),
+				redeliver);
 
-		if (info == null)
-			return NotificationResult.reservationNotFound();
-		if (contact == null)
-			return NotificationResult.noContactInfo();
+		if (!queued)
+			return NotificationResult.alreadyQueued();
 
-		String msg = buildMessage(NotificationType.RESERVATION_CONFIRMATION, info.fullName, info.dateTime, info.guests,
-				info.confirmationCode, null, null);
+		wakeUpOutbox();
+		return NotificationResult.queued();
+	}
 
-		return send(contact, msg);
+	/**
+	 * Queues the same notification for many reservations with one set-based
+	 * database call, and wakes up the outbox once.
+	 *
+	 * @param reservationIds the reservations the notification is about
+	 * @param type           the notification type
+	 * @param redeliver      whether notifications that were already delivered
+	 *                       should be sent again
+	 * @return the IDs for which a notification was queued
+	 * @throws SQLException if a database error occurs
+	 */
+	private List<Integer> enqueueAll(Collection<Integer> reservationIds, NotificationType type, boolean redeliver)
+			throws SQLException {
+		List<Integer> queued = db.enqueueNotifications(reservationIds, type, redeliver);
+		if (!queued.isEmpty())
+			wakeUpOutbox();
+		return queued;
 	}
 
 	/**
-	 * Resends a reservation confirmation notification to the customer.
+	 * Queues a reservation confirmation notification to the customer.
+	 *
+	 * @param reservationId the ID of the reservation to confirm
+	 * @return the result of queuing the notification
+	 * @throws SQLException if a database error occurs
+	 */
+	public NotificationResult sendReservationConfirmation(int reservationId) throws SQLException {
+		return enqueue(reservationId, NotificationType.RESERVATION_CONFIRMATION, null, false);
+	}
+
+	/**
+	 * Queues a resend of the reservation confirmation to the customer. Unlike the
+	 * other notifications, this one is delivered again on every request.
 	 *
 	 * @param reservationId the ID of the reservation
-	 * @return the result of the notification attempt
+	 * @return the result of queuing the notification
 	 * @throws SQLException if a database error occurs
 	 */
 	public NotificationResult resendReservationConfirmation(int reservationId) throws SQLException {
-		CustomerContactInfo contact = db.getContactInfoByReservationId(reservationId);
-		ReservationBasicInfo info = db.getReservationBasicInfo(reservationId);
-
-		if (info == null)
-			return NotificationResult.reservationNotFound();
-		if (contact == null)
-			return NotificationResult.noContactInfo();
-
-		String msg = buildMessage(NotificationType.RESEND_CONFIRMATION, info.fullName, info.dateTime, info.guests,
-				info.confirmationCode, null, null);
+		return enqueue(reservationId, NotificationType.RESEND_CONFIRMATION, null, true);
+	}
 
-		return send(contact, msg);
+	/**
+	 * Queues a resend of the reservation confirmation for several reservations.
+	 *
+	 * @param reservationIds the IDs of the reservations
+	 * @return the IDs for which a resend was queued
+	 * @throws SQLException if a database error occurs
+	 */
+	public List<Integer> resendReservationConfirmations(Collection<Integer> reservationIds) throws SQLException {
+		return enqueueAll(reservationIds, NotificationType.RESEND_CONFIRMATION, true);
 	}
 
 	/**
-	 * Sends a reservation reminder notification to the customer.
+	 * Queues a reservation reminder notification to the customer.
 	 * <p>
 	 * This is typically sent 2 hours before the reservation time.
 	 * </p>
 	 *
 	 * @param reservationId the ID of the reservation
-	 * @return the result of the notification attempt
+	 * @return the result of queuing the notification
 	 * @throws SQLException if a database error occurs
 	 */
 	public NotificationResult sendReservationReminder(int reservationId) throws SQLException {
-		CustomerContactInfo contact = db.getContactInfoByReservationId(reservationId);
-		ReservationBasicInfo info = db.getReservationBasicInfo(reservationId);
-
-		if (info == null)
-			return NotificationResult.reservationNotFound();
-		if (contact == null)
-			return NotificationResult.noContactInfo();
-
-		String msg = buildMessage(NotificationType.RESERVATION_REMINDER, info.fullName, info.dateTime, info.guests,
-				info.confirmationCode, null, null);
-
-		return send(contact, msg);
+		return enqueue(reservationId, NotificationType.RESERVATION_REMINDER, null, false);
 	}
 
 	/**
-	 * Sends a table available notification to a customer on the waitlist.
+	 * Queues a table available notification to a customer on the waitlist.
 	 *
 	 * @param reservationId the ID of the waitlist reservation
-	 * @return the result of the notification attempt
+	 * @return the result of queuing the notification
 	 * @throws SQLException if a database error occurs
 	 */
 	public NotificationResult sendTableAvailable(int reservationId) throws SQLException {
-		CustomerContactInfo contact = db.getContactInfoByReservationId(reservationId);
-		ReservationBasicInfo info = db.getReservationBasicInfo(reservationId);
-
-		if (info == null)
-			return NotificationResult.reservationNotFound();
-		if (contact == null)
-			return NotificationResult.noContactInfo();
-
-		String msg = buildMessage(NotificationType.TABLE_AVAILABLE, info.fullName, null, null, info.confirmationCode,
-				null, null);
+		return enqueue(reservationId, NotificationType.TABLE_AVAILABLE, null, false);
+	}
 
-		return send(contact, msg);
+	/**
+	 * Queues table available notifications to several waitlist customers.
+	 *
+	 * @param reservationIds the IDs of the waitlist reservations
+	 * @return the IDs for which a notification was queued
+	 * @throws SQLException if a database error occurs
+	 */
+	public List<Integer> sendTableAvailable(Collection<Integer> reservationIds) throws SQLException {
+		return enqueueAll(reservationIds, NotificationType.TABLE_AVAILABLE, false);
 	}
 
 	/**
-	 * Sends a table received confirmation notification to the customer.
+	 * Queues a table received confirmation notification to the customer.
 	 *
 	 * @param reservationId the ID of the reservation
-	 * @return the result of the notification attempt
+	 * @return the result of queuing the notification
 	 * @throws SQLException if a database error occurs
 	 */
 	public NotificationResult sendTableReceived(int reservationId) throws SQLException {
-		CustomerContactInfo contact = db.getContactInfoByReservationId(reservationId);
-
-		if (contact == null)
-			return NotificationResult.noContactInfo();
-
-		String name = contact.getFullName() != null ? contact.getFullName() : "Customer";
-
-		String msg = buildMessage(NotificationType.TABLE_RECEIVED, name, null, null, null, null, null);
-
-		return send(contact, msg);
+		return enqueue(reservationId, NotificationType.TABLE_RECEIVED, null, false);
 	}
 
 	/**
-	 * Sends a bill notification to the customer with amount details.
+	 * Queues a bill notification to the customer with amount details.
 	 *
 	 * @param reservationId the ID of the reservation
 	 * @param bill          the bill containing payment amounts
-	 * @return the result of the notification attempt
+	 * @return the result of queuing the notification
 	 * @throws SQLException if a database error occurs
 	 */
 	public NotificationResult sendBillSent(int reservationId, Bill bill) throws SQLException {
-		CustomerContactInfo contact = db.getContactInfoByReservationId(reservationId);
-		ReservationBasicInfo info = db.getReservationBasicInfo(reservationId);
-
-		if (info == null)
-			return NotificationResult.reservationNotFound();
-		if (contact == null)
-			return NotificationResult.noContactInfo();
-
-		String msg = buildMessage(NotificationType.BILL_SENT, info.fullName, null, null, info.confirmationCode,
-				bill.getAmountBeforeDiscount(), bill.getFinalAmount());
-
-		return send(contact, msg);
+		return enqueue(reservationId, NotificationType.BILL_SENT, bill, false);
 	}
 
 	/**
-	 * Sends a payment success notification to the customer.
+	 * Queues a payment success notification to the customer.
 	 *
 	 * @param reservationId the ID of the reservation
-	 * @return the result of the notification attempt
+	 * @return the result of queuing the notification
 	 * @throws SQLException if a database error occurs
 	 */
 	public NotificationResult sendPaymentSuccess(int reservationId) throws SQLException {
-		CustomerContactInfo contact = db.getContactInfoByReservationId(reservationId);
-
-		if (contact == null)
-			return NotificationResult.noContactInfo();
-
-		String name = contact.getFullName() != null ? contact.getFullName() : "Customer";
-
-		String msg = buildMessage(NotificationType.PAYMENT_SUCCESS, name, null, null, null, null, null);
-
-		return send(contact, msg);
+		return enqueue(reservationId, NotificationType.PAYMENT_SUCCESS, null, false);
 	}
 
 	/**
-	 * Sends a reservation cancellation notification to the customer.
+	 * Queues a reservation cancellation notification to the customer.
 	 *
 	 * @param reservationId the ID of the cancelled reservation
-	 * @return the result of the notification attempt
+	 * @return the result of queuing the notification
 	 * @throws SQLException if a database error occurs
 	 */
 	public NotificationResult sendReservationCanceled(int reservationId) throws SQLException {
-		CustomerContactInfo contact = db.getContactInfoByReservationId(reservationId);
-
-		if (contact == null)
-			return NotificationResult.noContactInfo();
-
-		String name = contact.getFullName() != null ? contact.getFullName() : "Customer";
-
-		String msg = buildMessage(NotificationType.RESERVATION_CANCELED, name, null, null, null, null, null);
-
-		return send(contact, msg);
+		return enqueue(reservationId, NotificationType.RESERVATION_CANCELED, null, false);
 	}
 
 	/**
-	 * Sends a no-show cancellation notification to the customer.
+	 * Queues a no-show cancellation notification to the customer.
 	 * <p>
 	 * This notification is sent when a reservation is automatically cancelled
 	 * because the customer did not arrive within the grace period.
 	 * </p>
 	 *
 	 * @param reservationId the ID of the cancelled reservation
-	 * @return the result of the notification attempt
+	 * @return the result of queuing the notification
 	 * @throws SQLException if a database error occurs
 	 */
 	public NotificationResult sendReservationCanceledDueToNoShow(int reservationId) throws SQLException {
-		CustomerContactInfo contact = db.getContactInfoByReservationId(reservationId);
-
-		if (contact == null)
-			return NotificationResult.noContactInfo();
-
-		String name = contact.getFullName() != null ? contact.getFullName() : "Customer";
-
-		String msg = buildMessage(NotificationType.RESERVATION_CANCELED_NO_SHOW, name, null, null, null, null, null);
-
-		return send(contact, msg);
+		return enqueue(reservationId, NotificationType.RESERVATION_CANCELED_NO_SHOW, null, false);
 	}
 
 	/**
-	 * Sends a reservation cancellation notification using a confirmation code.
+	 * Queues a reservation cancellation notification using a confirmation code.
 	 *
 	 * @param confirmationCode the confirmation code of the reservation
-	 * @return the result of the notification attempt
+	 * @return the result of queuing the notification
 	 * @throws SQLException if a database error occurs
 	 */
 	public NotificationResult sendReservationCanceledByCode(int confirmationCode) throws SQLException {
@@ -278,71 +306,104 @@ public class NotificationController {
 	}
 
 	/**
-	 * Sends a notification when a reservation is moved to the waiting list.
+	 * Queues a notification when a reservation is moved to the waiting list.
 	 * <p>
 	 * This can occur when restaurant capacity changes affect existing reservations.
 	 * </p>
 	 *
 	 * @param reservationId the ID of the affected reservation
-	 * @return the result of the notification attempt
+	 * @return the result of queuing the notification
 	 * @throws SQLException if a database error occurs
 	 */
 	public NotificationResult sendReservationMovedToWaiting(int reservationId) throws SQLException {
-		CustomerContactInfo contact = db.getContactInfoByReservationId(reservationId);
-		ReservationBasicInfo info = db.getReservationBasicInfo(reservationId);
-
-		if (info == null)
-			return NotificationResult.reservationNotFound();
-		if (contact == null)
-			return NotificationResult.noContactInfo();
-
-		String msg = buildMessage(NotificationType.RESERVATION_MOVED_TO_WAITING, info.fullName, info.dateTime,
-				info.guests, info.confirmationCode, null, null);
+		return enqueue(reservationId, NotificationType.RESERVATION_MOVED_TO_WAITING, null, false);
+	}
 
-		return send(contact, msg);
+	/**
+	 * Queues moved-to-waiting notifications for several reservations.
+	 *
+	 * @param reservationIds the IDs of the affected reservations
+	 * @return the IDs for which a notification was queued
+	 * @throws SQLException if a database error occurs
+	 */
+	public List<Integer> sendReservationMovedToWaiting(Collection<Integer> reservationIds) throws SQLException {
+		return enqueueAll(reservationIds, NotificationType.RESERVATION_MOVED_TO_WAITING, false);
 	}
 
 	/**
-	 * Sends a cancellation notification when opening hours change affects a
+	 * Queues a cancellation notification when opening hours change affects a
 	 * reservation.
 	 *
 	 * @param reservationId the ID of the affected reservation
-	 * @return the result of the notification attempt
+	 * @return the result of queuing the notification
 	 * @throws SQLException if a database error occurs
 	 */
 	public NotificationResult sendReservationCanceledDueToHoursChange(int reservationId) throws SQLException {
-		CustomerContactInfo contact = db.getContactInfoByReservationId(reservationId);
-		ReservationBasicInfo info = db.getReservationBasicInfo(reservationId);
-
-		if (info == null)
-			return NotificationResult.reservationNotFound();
-		if (contact == null)
-			return NotificationResult.noContactInfo();
-
-		String msg = buildMessage(NotificationType.RESERVATION_CANCELED_HOURS_CHANGE, info.fullName, info.dateTime,
-				null, null, null, null);
+		return enqueue(reservationId, NotificationType.RESERVATION_CANCELED_HOURS_CHANGE, null, false);
+	}
 
-		return send(contact, msg);
+	/**
+	 * Queues hours-change cancellation notifications for several reservations.
+	 *
+	 * @param reservationIds the IDs of the affected reservations
+	 * @return the IDs for which a notification was queued
+	 * @throws SQLException if a database error occurs
+	 */
+	public List<Integer> sendReservationCanceledDueToHoursChange(Collection<Integer> reservationIds)
+			throws SQLException {
+		return enqueueAll(reservationIds, NotificationType.RESERVATION_CANCELED_HOURS_CHANGE, false);
 	}
 
 	/**
-	 * Sends a cancellation notification when a date override affects a reservation.
+	 * Queues a cancellation notification when a date override affects a
+	 * reservation.
 	 *
 	 * @param reservationId the ID of the affected reservation
-	 * @return the result of the notification attempt
+	 * @return the result of queuing the notification
 	 * @throws SQLException if a database error occurs
 	 */
 	public NotificationResult sendReservationCanceledDueToDateOverride(int reservationId) throws SQLException {
-		CustomerContactInfo contact = db.getContactInfoByReservationId(reservationId);
-		ReservationBasicInfo info = db.getReservationBasicInfo(reservationId);
+		return enqueue(reservationId, NotificationType.RESERVATION_CANCELED_DATE_OVERRIDE, null, false);
+	}
+
+	/**
+	 * Queues date-override cancellation notifications for several reservations.
+	 *
+	 * @param reservationIds the IDs of the affected reservations
+	 * @return the IDs for which a notification was queued
+	 * @throws SQLException if a database error occurs
+	 */
+	public List<Integer> sendReservationCanceledDueToDateOverride(Collection<Integer> reservationIds)
+			throws SQLException {
+		return enqueueAll(reservationIds, NotificationType.RESERVATION_CANCELED_DATE_OVERRIDE, false);
+	}
 
-		if (info == null)
-			return NotificationResult.reservationNotFound();
-		if (contact == null)
+	/**
+	 * Builds and sends a notification claimed from the outbox. Called by the
+	 * outbox delivery workers.
+	 *
+	 * @param n the claimed notification with its contact and reservation details
+	 * @return the result of the delivery attempt
+	 */
+	NotificationResult deliver(OutboxNotification n) {
+		CustomerContactInfo contact = n.getContact();
+		ReservationBasicInfo info = n.getInfo();
+
+		if (contact == null || info == null)
 			return NotificationResult.noContactInfo();
 
-		String msg = buildMessage(NotificationType.RESERVATION_CANCELED_DATE_OVERRIDE, info.fullName, info.dateTime,
-				null, null, null, null);
+		String msg = switch (n.getType()) {
+		case RESERVATION_CONFIRMATION, RESEND_CONFIRMATION, RESERVATION_REMINDER, RESERVATION_MOVED_TO_WAITING ->
+			buildMessage(n.getType(), info.fullName, info.dateTime, info.guests, info.confirmationCode, null, null);
+		case TABLE_AVAILABLE ->
+			buildMessage(n.getType(), info.fullName, null, null, info.confirmationCode, null, null);
+		case BILL_SENT -> buildMessage(n.getType(), info.fullName, null, null, info.confirmationCode,
+				n.getAmountBeforeDiscount(), n.getFinalAmount());
+		case RESERVATION_CANCELED_HOURS_CHANGE, RESERVATION_CANCELED_DATE_OVERRIDE ->
+			buildMessage(n.getType(), info.fullName, info.dateTime, null, null, null, null);
+		case TABLE_RECEIVED, PAYMENT_SUCCESS, RESERVATION_CANCELED, RESERVATION_CANCELED_NO_SHOW ->
+			buildMessage(n.getType(), contact.getFullName(), null, null, null, null, null);
+		};
 
 		return send(contact, msg);
 	}
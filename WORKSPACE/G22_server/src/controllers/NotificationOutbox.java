@@ -0,0 +1,230 @@
+package controllers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import common.dto.Notification.NotificationResult;
+import common.dto.Notification.OutboxNotification;
+import dbController.DBController;
+import server.ServerUI;
+
+/**
+ * Delivers queued notifications from the database outbox.
+ * <p>
+ * Request handlers only insert a small outbox row; this class drains the
+ * outbox off the request path. A single dispatcher thread claims batches of
+ * due notifications and hands them to a bounded pool of delivery workers. The
+ * dispatcher runs when woken up after an enqueue and, as a fallback, every
+ * {@link #POLL_SECONDS} seconds.
+ * </p>
+ * <p>
+ * Failed deliveries are retried with exponential backoff up to
+ * {@link #MAX_ATTEMPTS} times. Notifications the customer cannot receive (no
+ * contact details) are marked FAILED at once. Rows left claimed by a crash are
+ * released on {@link #start()}.
+ * </p>
+ *
+ * @author Yamen Abu Ahmad
+ * @version 1.0
+ * @see NotificationController
+ */
+public class NotificationOutbox {
+
+	/**
+	 * Number of delivery worker threads.
+	 */
+	private static final int WORKERS = 4;
+
+	/**
+	 * Maximum notifications claimed per batch.
+	 */
+	private static final int BATCH_SIZE = WORKERS * 8;
+
+	/**
+	 * Fallback polling interval in seconds.
+	 */
+	private static final long POLL_SECONDS = 5;
+
+	/**
+	 * Delivery attempts before a notification is given up.
+	 */
+	private static final int MAX_ATTEMPTS = 6;
+
+	/**
+	 * Delay before the first retry; doubled on every further attempt.
+	 */
+	private static final long BASE_BACKOFF_SECONDS = 5;
+
+	/**
+	 * Upper bound on the retry delay.
+	 */
+	private static final long MAX_BACKOFF_SECONDS = 600;
+
+	/**
+	 * Database controller used to claim and update outbox rows.
+	 */
+	private final DBController db;
+
+	/**
+	 * Builds and sends the claimed notifications.
+	 */
+	private final NotificationController notifier;
+
+	/**
+	 * Server UI used to report outbox errors.
+	 */
+	private final ServerUI ui;
+
+	/**
+	 * Claims batches of due notifications.
+	 */
+	private final ScheduledExecutorService dispatcher;
+
+	/**
+	 * Delivers claimed notifications.
+	 */
+	private final ExecutorService workers;
+
+	/**
+	 * Set while a wake-up drain is queued, so bursts of enqueues trigger a single
+	 * drain.
+	 */
+	private final AtomicBoolean drainQueued = new AtomicBoolean();
+
+	/**
+	 * Constructs an outbox. Call {@link #start()} to begin delivery.
+	 *
+	 * @param db       the database controller
+	 * @param notifier the controller that builds and sends messages
+	 * @param ui       the server UI for error reporting
+	 */
+	NotificationOutbox(DBController db, NotificationController notifier, ServerUI ui) {
+		this.db = db;
+		this.notifier = notifier;
+		this.ui = ui;
+
+		dispatcher = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread t = new Thread(r, "outbox-dispatcher");
+			t.setDaemon(true);
+			return t;
+		});
+
+		AtomicInteger n = new AtomicInteger();
+		workers = Executors.newFixedThreadPool(WORKERS, r -> {
+			Thread t = new Thread(r, "outbox-worker-" + n.incrementAndGet());
+			t.setDaemon(true);
+			return t;
+		});
+	}
+
+	/**
+	 * Releases notifications left claimed by a previous run and starts the
+	 * dispatcher.
+	 */
+	void start() {
+		try {
+			int released = db.releaseClaimedNotifications();
+			if (released > 0)
+				ui.display("Notification outbox: re-queued " + released + " interrupted deliveries.");
+		} catch (Exception e) {
+			ui.display("Notification outbox error: " + e.getMessage());
+		}
+
+		dispatcher.scheduleWithFixedDelay(this::drain, 0, POLL_SECONDS, TimeUnit.SECONDS);
+	}
+
+	/**
+	 * Asks the dispatcher to drain the outbox now (after an enqueue).
+	 */
+	void wakeUp() {
+		if (drainQueued.compareAndSet(false, true)) {
+			try {
+				dispatcher.execute(this::drain);
+			} catch (RuntimeException e) {
+				// dispatcher shut down: the next start() picks the row up
+				drainQueued.set(false);
+			}
+		}
+	}
+
+	/**
+	 * Stops the dispatcher and the delivery workers.
+	 */
+	void shutdown() {
+		dispatcher.shutdownNow();
+		workers.shutdownNow();
+	}
+
+	/**
+	 * Claims and delivers due notifications until the outbox has no more due
+	 * rows. Each batch is fully delivered before the next one is claimed, which
+	 * bounds the work in flight to one batch.
+	 */
+	private void drain() {
+		drainQueued.set(false);
+		try {
+			List<OutboxNotification> batch;
+			do {
+				batch = db.claimDueNotifications(BATCH_SIZE);
+
+				List<Callable<Void>> tasks = new ArrayList<>(batch.size());
+				for (OutboxNotification n : batch) {
+					tasks.add(() -> {
+						deliver(n);
+						return null;
+					});
+				}
+				workers.invokeAll(tasks);
+			} while (batch.size() == BATCH_SIZE);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (Exception e) {
+			ui.display("Notification outbox error: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Delivers one claimed notification and records the outcome.
+	 *
+	 * @param n the claimed notification
+	 */
+	private void deliver(OutboxNotification n) {
+		try {
+			NotificationResult result = notifier.deliver(n);
+			if (result.isSuccess())
+				db.markNotificationSent(n.getOutboxId());
+			else
+				db.rescheduleNotification(n.getOutboxId(), null, result.getMessage());
+		} catch (Exception e) {
+			retryLater(n, e.getMessage());
+		}
+	}
+
+	/**
+	 * Schedules another attempt with exponential backoff, or gives up after
+	 * {@link #MAX_ATTEMPTS} attempts.
+	 *
+	 * @param n     the notification that failed
+	 * @param error the failure reason
+	 */
+	private void retryLater(OutboxNotification n, String error) {
+		int attempt = n.getAttempts() + 1;
+		Long delay = null;
+		if (attempt < MAX_ATTEMPTS)
+			delay = Math.min(BASE_BACKOFF_SECONDS << (attempt - 1), MAX_BACKOFF_SECONDS);
+
+		try {
+			db.rescheduleNotification(n.getOutboxId(), delay, error);
+		} catch (Exception e) {
+			// row stays SENDING and is released on the next start()
+			ui.display("Notification outbox error: " + e.getMessage());
+		}
+	}
+}
@@ -0,0 +1,192 @@
+package controllers;
+
+import java.sql.SQLException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import common.entity.DateOverride;
+import common.entity.OpeningHours;
+import dbController.DBController;
+
+/**
+ * In-memory copy of the weekly opening hours and the date overrides.
+ * <p>
+ * The schedule changes only a few times a month, but it is read on every
+ * reservation create, update and availability probe. The calendar loads both
+ * tables once and answers "which hours apply on this date" with one map lookup
+ * and one array index, without touching the database.
+ * </p>
+ * <p>
+ * The loaded data is held in one immutable snapshot that is swapped as a
+ * whole, so a reader sees either the old schedule or the new one, never a mix.
+ * {@link RestaurantManagementController} calls {@link #invalidate()} after
+ * every successful hours or override write; the next read reloads the
+ * snapshot from the database.
+ * </p>
+ *
+ * @author Yamen Abu Ahmad
+ * @version 1.0
+ * @see ReservationController
+ */
+public class OpeningCalendar {
+
+	/**
+	 * One consistent view of the schedule.
+	 */
+	private static final class Snapshot {
+
+		/**
+		 * Weekly hours indexed by {@code DayOfWeek.getValue() - 1}; null if a day
+		 * is not configured.
+		 */
+		final OpeningHours[] byDay = new OpeningHours[7];
+
+		/**
+		 * Date overrides by date.
+		 */
+		final Map<LocalDate, DateOverride> overrides = new HashMap<>();
+
+		/**
+		 * Weekly hours in the order returned by the database.
+		 */
+		final List<OpeningHours> weekly;
+
+		/**
+		 * Date overrides in date order.
+		 */
+		final List<DateOverride> overrideList;
+
+		/**
+		 * Builds a snapshot from the loaded rows.
+		 *
+		 * @param weekly       the weekly hours
+		 * @param overrideList the date overrides
+		 */
+		Snapshot(List<OpeningHours> weekly, List<DateOverride> overrideList) {
+			this.weekly = weekly;
+			this.overrideList = overrideList;
+			for (OpeningHours h : weekly)
+				byDay[h.getDayOfWeek().getValue() - 1] = h;
+			for (DateOverride o : overrideList)
+				overrides.put(o.getDate(), o);
+		}
+	}
+
+	/**
+	 * Database controller used to load the schedule.
+	 */
+	private final DBController db;
+
+	/**
+	 * The current snapshot, or null if it must be reloaded.
+	 */
+	private volatile Snapshot snapshot;
+
+	/**
+	 * Constructs the calendar. It loads itself on first use, or eagerly through
+	 * {@link #load()}.
+	 *
+	 * @param db the database controller
+	 */
+	public OpeningCalendar(DBController db) {
+		this.db = db;
+	}
+
+	/**
+	 * Loads the weekly hours and all date overrides, replacing the current
+	 * snapshot.
+	 *
+	 * @throws SQLException if database access fails
+	 */
+	public synchronized void load() throws SQLException {
+		load(db.getOpeningHours(), db.getDateOverrides());
+	}
+
+	/**
+	 * Installs the given schedule, replacing the current snapshot. Used by
+	 * {@link #load()} and by the benchmarks.
+	 *
+	 * @param weekly    the weekly hours
+	 * @param overrides the date overrides, in date order
+	 */
+	synchronized void load(List<OpeningHours> weekly, List<DateOverride> overrides) {
+		snapshot = new Snapshot(weekly, overrides);
+	}
+
+	/**
+	 * Drops the current snapshot so the next read reloads it. Called after the
+	 * schedule is written; waits for a load in progress, so a snapshot read
+	 * before the write cannot be installed afterwards.
+	 */
+	public synchronized void invalidate() {
+		snapshot = null;
+	}
+
+	/**
+	 * Returns the date override of a date.
+	 *
+	 * @param date the date
+	 * @return the override, or null if none exists
+	 * @throws SQLException if the snapshot has to be reloaded and database access
+	 *                      fails
+	 */
+	public DateOverride getOverride(LocalDate date) throws SQLException {
+		return current().overrides.get(date);
+	}
+
+	/**
+	 * Returns the regular hours of a weekday.
+	 *
+	 * @param day the day of week
+	 * @return the hours, or null if the day is not configured
+	 * @throws SQLException if the snapshot has to be reloaded and database access
+	 *                      fails
+	 */
+	public OpeningHours getHours(DayOfWeek day) throws SQLException {
+		return current().byDay[day.getValue() - 1];
+	}
+
+	/**
+	 * Returns the regular opening hours of all configured days.
+	 *
+	 * @return a copy of the weekly hours
+	 * @throws SQLException if the snapshot has to be reloaded and database access
+	 *                      fails
+	 */
+	public List<OpeningHours> getOpeningHours() throws SQLException {
+		return new ArrayList<>(current().weekly);
+	}
+
+	/**
+	 * Returns all date overrides in date order.
+	 *
+	 * @return a copy of the overrides
+	 * @throws SQLException if the snapshot has to be reloaded and database access
+	 *                      fails
+	 */
+	public List<DateOverride> getDateOverrides() throws SQLException {
+		return new ArrayList<>(current().overrideList);
+	}
+
+	/**
+	 * Returns the current snapshot, reloading it if it was invalidated.
+	 *
+	 * @return the snapshot
+	 * @throws SQLException if database access fails
+	 */
+	private Snapshot current() throws SQLException {
+		Snapshot s = snapshot;
+		if (s != null)
+			return s;
+
+		synchronized (this) {
+			if (snapshot == null)
+				load();
+			return snapshot;
+		}
+	}
+}
@@ -0,0 +1,392 @@
+package controllers;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import common.dto.Report.MonthToDateReport;
+import common.entity.Reservation;
+import common.entity.TimeReportEntry;
+import common.enums.ReservationStatus;
+import common.enums.ReservationType;
+import dbController.DBController;
+
+/**
+ * Running monthly report counters, kept up to date on reservation transitions.
+ * <p>
+ * The counters of the current and the previous month are loaded once when the
+ * server starts. After that the reservation controller reports every creation,
+ * seating, completion and cancellation, and the matching month is updated in
+ * place. This gives managers a live month-to-date view without scanning the
+ * reservation table, and lets the end-of-month job store the subscriber report
+ * by freezing the month's per-customer counters. The controller passes in the
+ * fields it already holds, so counting a transition costs no query; only a
+ * bulk cancellation reads its rows back, with one query for the batch.
+ * </p>
+ * <p>
+ * Reservation counts are kept by creation month, like the subscriber report;
+ * visit figures (seated, completed visits, delay and duration histograms) are
+ * kept by check-in month, like the time report. Once a month is frozen, later
+ * transitions no longer change it, matching the report stored for it.
+ * </p>
+ *
+ * @author Yamen Abu Ahmad
+ * @version 1.0
+ * @see ReportController
+ * @see MonthToDateReport
+ */
+public class ReportAggregates {
+
+	/**
+	 * Index of the total reservation count in a per-customer counter.
+	 */
+	static final int TOTAL = 0;
+
+	/**
+	 * Index of the completed count in a per-customer counter.
+	 */
+	static final int COMPLETED = 1;
+
+	/**
+	 * Index of the cancelled count in a per-customer counter.
+	 */
+	static final int CANCELLED = 2;
+
+	/**
+	 * Index of the walk-in count in a per-customer counter.
+	 */
+	static final int WALK_INS = 3;
+
+	/**
+	 * Counters of one month.
+	 */
+	private static final class Month {
+
+		/**
+		 * Per customer ID: total, completed, cancelled and walk-in counts of the
+		 * reservations created this month.
+		 */
+		final Map<Integer, int[]> byCustomer = new HashMap<>();
+
+		/**
+		 * Reservations created this month.
+		 */
+		int created;
+
+		/**
+		 * Walk-in reservations created this month.
+		 */
+		int walkIns;
+
+		/**
+		 * Reservations created this month that completed.
+		 */
+		int completed;
+
+		/**
+		 * Reservations created this month that were cancelled.
+		 */
+		int cancelled;
+
+		/**
+		 * Parties checked in this month.
+		 */
+		int seated;
+
+		/**
+		 * Completed visits checked in this month.
+		 */
+		int visits;
+
+		/**
+		 * Guests of the completed visits.
+		 */
+		int guestsServed;
+
+		/**
+		 * Sum of the arrival delays, for the average.
+		 */
+		long delaySum;
+
+		/**
+		 * Sum of the session durations, for the average.
+		 */
+		long durationSum;
+
+		/**
+		 * Completed visits per arrival delay bucket.
+		 */
+		final int[] delayHistogram = new int[MonthToDateReport.DELAY_BOUNDS.length + 1];
+
+		/**
+		 * Completed visits per session duration bucket.
+		 */
+		final int[] durationHistogram = new int[MonthToDateReport.DURATION_BOUNDS.length + 1];
+
+		/**
+		 * Adds to one customer's counter.
+		 *
+		 * @param customerId the customer ID
+		 * @param index      the counter index
+		 */
+		void count(int customerId, int index) {
+			byCustomer.computeIfAbsent(customerId, id -> new int[4])[index]++;
+		}
+
+		/**
+		 * Adds a completed visit to the visit figures.
+		 *
+		 * @param visit the visit
+		 */
+		void addVisit(TimeReportEntry visit) {
+			long delay = visit.getArrivalDelayMinutes();
+			long duration = visit.getSessionDurationMinutes();
+
+			visits++;
+			guestsServed += visit.getNumberOfGuests();
+			delaySum += delay;
+			durationSum += duration;
+			delayHistogram[MonthToDateReport.bucketOf(delay, MonthToDateReport.DELAY_BOUNDS)]++;
+			durationHistogram[MonthToDateReport.bucketOf(duration, MonthToDateReport.DURATION_BOUNDS)]++;
+		}
+	}
+
+	/**
+	 * Database controller used to load the counters and read bulk-cancelled rows.
+	 */
+	private final DBController db;
+
+	/**
+	 * Open (not yet frozen) months.
+	 */
+	private final TreeMap<YearMonth, Month> months = new TreeMap<>();
+
+	/**
+	 * Latest frozen month; transitions in this month or earlier are ignored.
+	 */
+	private YearMonth frozenThrough;
+
+	/**
+	 * Whether the counters have been loaded.
+	 */
+	private boolean loaded;
+
+	/**
+	 * Constructs the counters. Call {@link #load()} before use.
+	 *
+	 * @param db the database controller
+	 */
+	public ReportAggregates(DBController db) {
+		this.db = db;
+	}
+
+	/**
+	 * Loads the counters of the previous and the current month from the database,
+	 * replacing any existing state.
+	 *
+	 * @throws SQLException if database access fails
+	 */
+	public synchronized void load() throws SQLException {
+		YearMonth current = YearMonth.now();
+
+		months.clear();
+		months.put(current.minusMonths(1), loadMonth(current.minusMonths(1)));
+		months.put(current, loadMonth(current));
+		frozenThrough = current.minusMonths(2);
+		loaded = true;
+	}
+
+	/**
+	 * Returns whether the counters have been loaded.
+	 *
+	 * @return true if loaded
+	 */
+	public synchronized boolean isLoaded() {
+		return loaded;
+	}
+
+	/**
+	 * Counts a newly created reservation.
+	 *
+	 * @param createdAt  when it was created
+	 * @param customerId the customer it belongs to
+	 * @param type       whether it is an advance or a walk-in reservation
+	 */
+	public synchronized void onCreated(LocalDateTime createdAt, int customerId, ReservationType type) {
+		Month m = open(createdAt);
+		if (m == null)
+			return;
+		m.created++;
+		m.count(customerId, TOTAL);
+		if (type == ReservationType.WALKIN) {
+			m.walkIns++;
+			m.count(customerId, WALK_INS);
+		}
+	}
+
+	/**
+	 * Counts a party that was just seated.
+	 *
+	 * @param checkedInAt when the party was seated
+	 */
+	public synchronized void onSeated(LocalDateTime checkedInAt) {
+		Month m = open(checkedInAt);
+		if (m != null)
+			m.seated++;
+	}
+
+	/**
+	 * Counts a reservation that was just completed, and adds its visit to the
+	 * delay and duration histograms.
+	 *
+	 * @param r            the reservation as read before completion (creation,
+	 *                     customer, start, check-in and party size are used)
+	 * @param checkedOutAt when the party left
+	 */
+	public synchronized void onCompleted(Reservation r, LocalDateTime checkedOutAt) {
+		Month created = open(r.getCreatedAt());
+		if (created != null) {
+			created.completed++;
+			created.count(r.getCustomerId(), COMPLETED);
+		}
+
+		Month visited = open(r.getCheckedInAt());
+		if (visited != null) {
+			visited.addVisit(new TimeReportEntry(r.getReservationId(), r.getReservationDateTime(),
+					r.getCheckedInAt(), checkedOutAt, r.getNumberOfGuests(), null, false));
+		}
+	}
+
+	/**
+	 * Counts a reservation that was just cancelled.
+	 *
+	 * @param createdAt  when it was created
+	 * @param customerId the customer it belongs to
+	 */
+	public synchronized void onCanceled(LocalDateTime createdAt, int customerId) {
+		countCanceled(createdAt, customerId);
+	}
+
+	/**
+	 * Counts reservations that were just cancelled together, reading them with a
+	 * single query.
+	 *
+	 * @param reservationIds the cancelled reservations
+	 * @throws SQLException if database access fails
+	 */
+	public void onCanceled(Collection<Integer> reservationIds) throws SQLException {
+		if (reservationIds.isEmpty() || !isLoaded())
+			return;
+
+		List<Reservation> rows = db.findReservationsByIds(reservationIds);
+
+		synchronized (this) {
+			for (Reservation r : rows) {
+				if (r.getStatus() == ReservationStatus.CANCELED)
+					countCanceled(r.getCreatedAt(), r.getCustomerId());
+			}
+		}
+	}
+
+	/**
+	 * Returns the live summary of a month. The cost does not depend on the number
+	 * of reservations.
+	 *
+	 * @param month the month
+	 * @return the summary; all zero if nothing was counted for the month
+	 */
+	public synchronized MonthToDateReport snapshot(YearMonth month) {
+		Month m = months.get(month);
+		if (m == null)
+			m = new Month();
+
+		return new MonthToDateReport(month.getYear(), month.getMonthValue(), LocalDateTime.now(), m.created,
+				m.walkIns, m.completed, m.cancelled, m.byCustomer.size(), m.seated, m.visits, m.guestsServed,
+				m.delayHistogram.clone(), m.durationHistogram.clone(),
+				m.visits == 0 ? 0 : (double) m.delaySum / m.visits,
+				m.visits == 0 ? 0 : (double) m.durationSum / m.visits);
+	}
+
+	/**
+	 * Freezes a month: stops counting transitions for it (and any earlier month)
+	 * and hands back its per-customer counters.
+	 *
+	 * @param month the month to freeze
+	 * @return per customer ID: total, completed, cancelled and walk-in counts, or
+	 *         null if the month's counters are not available (not loaded, or
+	 *         already frozen)
+	 */
+	public synchronized Map<Integer, int[]> freeze(YearMonth month) {
+		if (!loaded || !month.isAfter(frozenThrough))
+			return null;
+
+		Month m = months.get(month);
+		months.headMap(month, true).clear();
+		frozenThrough = month;
+		return m == null ? new HashMap<>() : m.byCustomer;
+	}
+
+	/**
+	 * Adds a cancelled reservation to its creation month. Must be called while
+	 * holding the lock.
+	 *
+	 * @param createdAt  when the reservation was created
+	 * @param customerId the customer it belongs to
+	 */
+	private void countCanceled(LocalDateTime createdAt, int customerId) {
+		Month m = open(createdAt);
+		if (m == null)
+			return;
+		m.cancelled++;
+		m.count(customerId, CANCELLED);
+	}
+
+	/**
+	 * Loads one month's counters from the database.
+	 *
+	 * @param month the month
+	 * @return the counters
+	 * @throws SQLException if database access fails
+	 */
+	private Month loadMonth(YearMonth month) throws SQLException {
+		LocalDateTime from = month.atDay(1).atStartOfDay();
+		LocalDateTime to = from.plusMonths(1);
+
+		Month m = new Month();
+		m.byCustomer.putAll(db.getReservationCountsByCustomer(from, to));
+		for (int[] c : m.byCustomer.values()) {
+			m.created += c[TOTAL];
+			m.completed += c[COMPLETED];
+			m.cancelled += c[CANCELLED];
+			m.walkIns += c[WALK_INS];
+		}
+
+		m.seated = db.countCheckInsBetween(from, to);
+		for (TimeReportEntry visit : db.getTimeReportForMonth(month.getYear(), month.getMonthValue()))
+			m.addVisit(visit);
+		return m;
+	}
+
+	/**
+	 * Returns the open month containing a time, creating it on the first event of
+	 * a new month. Must be called while holding the lock.
+	 *
+	 * @param time the event time
+	 * @return the month's counters, or null if the counters are not loaded or
+	 *         the month is frozen
+	 */
+	private Month open(LocalDateTime time) {
+		if (!loaded || time == null)
+			return null;
+
+		YearMonth month = YearMonth.from(time);
+		if (!month.isAfter(frozenThrough))
+			return null;
+		return months.computeIfAbsent(month, k -> new Month());
+	}
+}
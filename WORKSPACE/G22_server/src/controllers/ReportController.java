@@ -1,8 +1,14 @@
 package controllers;
 
 import java.sql.SQLException;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 
+import common.dto.Report.MonthToDateReport;
+import common.entity.Customer;
 import common.entity.SubscriberReportEntry;
 import common.entity.TimeReportEntry;
 import dbController.DBController;
@@ -18,7 +24,14 @@ import dbController.DBController;
  * including total reservations, completions, cancellations, and waitlist
  * entries</li>
  * </ul>
- * Reports are generated from live data and stored for historical access.
+ * Reports are generated from live data and stored for historical access. A
+ * month is stored in one transaction, so a regenerated report replaces the old
+ * one atomically.
+ * </p>
+ * <p>
+ * The current month is served live from {@link ReportAggregates}; at the end
+ * of the month its per-customer counters are frozen into the stored subscriber
+ * report.
  * </p>
  *
  * @author Yamen Abu Ahmad
@@ -26,18 +39,91 @@ import dbController.DBController;
  */
 public class ReportController {
 
+	/**
+	 * Receives progress while a report is being stored.
+	 */
+	@FunctionalInterface
+	public interface ProgressListener {
+
+		/**
+		 * Called after each batch of rows is written.
+		 *
+		 * @param written rows written so far
+		 * @param total   rows in the report
+		 */
+		void onProgress(int written, int total);
+	}
+
+	/**
+	 * Listener that ignores progress.
+	 */
+	private static final ProgressListener NO_PROGRESS = (written, total) -> {
+	};
+
 	/**
 	 * Database controller for data persistence operations.
 	 */
 	private final DBController db;
 
 	/**
-	 * Constructs a ReportController with the specified database controller.
+	 * Running monthly counters.
+	 */
+	private final ReportAggregates aggregates;
+
+	/**
+	 * Constructs a ReportController with the specified database controller and
+	 * running report counters.
 	 *
-	 * @param db the database controller for data access
+	 * @param db         the database controller for data access
+	 * @param aggregates the running monthly counters
 	 */
-	public ReportController(DBController db) {
+	public ReportController(DBController db, ReportAggregates aggregates) {
 		this.db = db;
+		this.aggregates = aggregates;
+	}
+
+	/**
+	 * Returns the live summary of the current month.
+	 *
+	 * @return the month-to-date summary
+	 */
+	public MonthToDateReport getMonthToDate() {
+		return aggregates.snapshot(YearMonth.now());
+	}
+
+	/**
+	 * Freezes a finished month's running counters and stores them as its
+	 * subscriber report.
+	 * <p>
+	 * Every subscriber gets an entry, with zero counts if they made no
+	 * reservation that month. If the month's counters are not in memory (they
+	 * failed to load, or the month was already frozen), the report is generated
+	 * from the reservation table instead.
+	 * </p>
+	 *
+	 * @param year     the year of the report
+	 * @param month    the month of the report (1-12)
+	 * @param progress receives progress while the rows are written
+	 * @return the number of rows stored
+	 * @throws SQLException if a database error occurs
+	 */
+	public int freezeSubscriberReport(int year, int month, ProgressListener progress) throws SQLException {
+		Map<Integer, int[]> counts = aggregates.freeze(YearMonth.of(year, month));
+		if (counts == null)
+			return generateAndStoreSubscriberReport(year, month, progress);
+
+		List<SubscriberReportEntry> entries = new ArrayList<>();
+		for (Customer c : db.getAllSubscribers()) {
+			int[] n = counts.getOrDefault(c.getCustomerId(), new int[4]);
+			entries.add(new SubscriberReportEntry(c.getCustomerId(), c.getFullName(), c.getSubscriptionCode(),
+					n[ReportAggregates.TOTAL], n[ReportAggregates.COMPLETED], n[ReportAggregates.CANCELLED],
+					n[ReportAggregates.WALK_INS]));
+		}
+		entries.sort(Comparator.comparingInt(SubscriberReportEntry::getTotalReservations).reversed());
+
+		int total = entries.size();
+		db.replaceSubscriberReport(year, month, entries, written -> progress.onProgress(written, total));
+		return total;
 	}
 
 	/**
@@ -58,38 +144,65 @@ public class ReportController {
 
 	/**
 	 * Generates and stores the time report for a specific month.
-	 * <p>
-	 * Clears any existing stored report for the month before inserting new data.
-	 * </p>
 	 *
 	 * @param year  the year of the report
 	 * @param month the month of the report (1-12)
 	 * @throws SQLException if a database error occurs
 	 */
 	public void generateAndStoreTimeReport(int year, int month) throws SQLException {
-		List<TimeReportEntry> entries = db.getTimeReportForMonth(year, month);
-		db.clearTimeReport(year, month);
-		for (TimeReportEntry entry : entries) {
-			db.insertTimeReportEntry(year, month, entry);
-		}
+		generateAndStoreTimeReport(year, month, NO_PROGRESS);
 	}
 
 	/**
-	 * Generates and stores the subscriber report for a specific month.
+	 * Generates and stores the time report for a specific month.
 	 * <p>
-	 * Clears any existing stored report for the month before inserting new data.
+	 * Any existing stored report for the month is replaced in the same
+	 * transaction that writes the new rows.
 	 * </p>
 	 *
+	 * @param year     the year of the report
+	 * @param month    the month of the report (1-12)
+	 * @param progress receives progress while the rows are written
+	 * @return the number of rows stored
+	 * @throws SQLException if a database error occurs
+	 */
+	public int generateAndStoreTimeReport(int year, int month, ProgressListener progress) throws SQLException {
+		List<TimeReportEntry> entries = db.getTimeReportForMonth(year, month);
+		int total = entries.size();
+		db.replaceTimeReport(year, month, entries, written -> progress.onProgress(written, total));
+		return total;
+	}
+
+	/**
+	 * Generates and stores the subscriber report for a specific month.
+	 *
 	 * @param year  the year of the report
 	 * @param month the month of the report (1-12)
 	 * @throws SQLException if a database error occurs
 	 */
 	public void generateAndStoreSubscriberReport(int year, int month) throws SQLException {
+		generateAndStoreSubscriberReport(year, month, NO_PROGRESS);
+	}
+
+	/**
+	 * Generates and stores the subscriber report for a specific month.
+	 * <p>
+	 * Any existing stored report for the month is replaced in the same
+	 * transaction that writes the new rows.
+	 * </p>
+	 *
+	 * @param year     the year of the report
+	 * @param month    the month of the report (1-12)
+	 * @param progress receives progress while the rows are written
+	 * @return the number of rows stored
+	 * @throws SQLException if a database error occurs
+	 */
+	public int generateAndStoreSubscriberReport(int year, int month, ProgressListener progress)
+			throws SQLException {
 		List<SubscriberReportEntry> entries = db.getSubscriberReportForMonth(year, month);
-		db.clearSubscriberReport(year, month);
-		for (SubscriberReportEntry entry : entries) {
-			db.insertSubscriberReportEntry(year, month, entry);
-		}
+		int total = entries.size();
+		db.replaceSubscriberReport(year, month, entries, written -> progress.onProgress(written, total));
+		return total;
 	}
 
 	/**
@@ -1,23 +1,28 @@
 package controllers;
 
+import java.sql.Connection;
 import java.sql.SQLException;
 import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.function.Consumer;
 
+import common.dto.ListQuery;
 import common.dto.Reservation.CancelReservationResult;
 import common.dto.Reservation.CreateReservationResult;
 import common.dto.Reservation.InsertReservationResult;
 import common.dto.Reservation.PayBillResult;
 import common.dto.Reservation.ReceiveTableResult;
 import common.dto.Reservation.ReservationBasicInfo;
+import common.dto.Reservation.SlotAvailability;
 import common.dto.Reservation.UpdateReservationResult;
 import common.dto.Reservation.WaitingCandidate;
 import common.entity.Bill;
@@ -26,8 +31,11 @@ import common.entity.OpeningHours;
 import common.entity.Reservation;
 import common.entity.SubscriberReportEntry;
 import common.entity.TimeReportEntry;
+import common.enums.NotificationType;
 import common.enums.ReservationStatus;
+import common.enums.ReservationType;
 import dbController.DBController;
+import dbController.Page;
 
 /**
  * Business logic controller for all reservation-related operations.
@@ -64,6 +72,53 @@ public class ReservationController {
 	 */
 	private final DBController db;
 
+	/**
+	 * In-memory occupancy model used for availability checks.
+	 */
+	private final AvailabilityEngine availability;
+
+	/**
+	 * In-memory waitlist used to match waiting parties to freed tables.
+	 */
+	private final WaitlistMatcher waitlist;
+
+	/**
+	 * Registry of no-show, reminder and billing deadlines.
+	 */
+	private final ReservationDeadlines deadlines;
+
+	/**
+	 * Running monthly report counters.
+	 */
+	private final ReportAggregates reports;
+
+	/**
+	 * In-memory opening hours and date overrides.
+	 */
+	private final OpeningCalendar calendar;
+
+	/**
+	 * In-memory table inventory.
+	 */
+	private final TableInventory tables;
+
+	/**
+	 * Assigns free tables to concurrent requests.
+	 */
+	private final TableAllocator allocator;
+
+	/**
+	 * Serializes guest customer lookup-or-create, so concurrent waitlist joins
+	 * with the same contact details do not create two customers.
+	 */
+	private final Object guestCustomerLock = new Object();
+
+	/**
+	 * Receives the IDs of reservations whose status or details changed; may be
+	 * null until set.
+	 */
+	private volatile Consumer<Collection<Integer>> changeListener;
+
 	/**
 	 * Default reservation duration in minutes (2 hours).
 	 */
@@ -80,12 +135,55 @@ public class ReservationController {
 	private static final LocalTime DEFAULT_CLOSE = LocalTime.of(2, 0);
 
 	/**
-	 * Constructs a ReservationController with the given database controller.
+	 * Constructs a ReservationController with the given database controller and
+	 * in-memory availability, waitlist, deadline and report models.
 	 *
-	 * @param db the database controller for data access
+	 * @param db           the database controller for data access
+	 * @param availability the in-memory occupancy model, kept in sync by this
+	 *                     controller
+	 * @param waitlist     the in-memory waitlist, kept in sync by this controller
+	 * @param deadlines    the reservation deadline registry, kept in sync by this
+	 *                     controller
+	 * @param reports      the running report counters, updated on every
+	 *                     creation, seating, completion and cancellation
+	 * @param calendar     the opening hours and date overrides used to validate
+	 *                     reservation times
+	 * @param tables       the table inventory
+	 * @param allocator    the table allocator used to seat and notify parties
 	 */
-	public ReservationController(DBController db) {
+	public ReservationController(DBController db, AvailabilityEngine availability, WaitlistMatcher waitlist,
+			ReservationDeadlines deadlines, ReportAggregates reports, OpeningCalendar calendar,
+			TableInventory tables, TableAllocator allocator) {
 		this.db = db;
+		this.availability = availability;
+		this.waitlist = waitlist;
+		this.deadlines = deadlines;
+		this.reports = reports;
+		this.calendar = calendar;
+		this.tables = tables;
+		this.allocator = allocator;
+	}
+
+	/**
+	 * Sets the listener told about every reservation this controller creates or
+	 * changes. It is called after the database write and the in-memory models
+	 * are updated, with the IDs of the affected reservations.
+	 *
+	 * @param changeListener the listener
+	 */
+	public void setChangeListener(Consumer<Collection<Integer>> changeListener) {
+		this.changeListener = changeListener;
+	}
+
+	/**
+	 * Passes changed reservation IDs to the listener, if one is set.
+	 *
+	 * @param reservationIds the changed reservations
+	 */
+	private void changed(Collection<Integer> reservationIds) {
+		Consumer<Collection<Integer>> l = changeListener;
+		if (l != null && !reservationIds.isEmpty())
+			l.accept(reservationIds);
 	}
 
 	/**
@@ -108,6 +206,31 @@ public class ReservationController {
 		return db.getWaitlistReservations();
 	}
 
+	/**
+	 * Retrieves one page of reservations. Without a status filter the page is
+	 * taken from the active reservations.
+	 *
+	 * @param query the search, status filter, order and page position
+	 * @return the page
+	 * @throws SQLException             if database access fails
+	 * @throws IllegalArgumentException if the page cursor is malformed
+	 */
+	public Page<Reservation> getReservationsPage(ListQuery query) throws SQLException {
+		return db.getReservationsPage(query);
+	}
+
+	/**
+	 * Retrieves one page of the waitlist.
+	 *
+	 * @param query the search, order and page position
+	 * @return the page
+	 * @throws SQLException             if database access fails
+	 * @throws IllegalArgumentException if the page cursor is malformed
+	 */
+	public Page<Reservation> getWaitlistPage(ListQuery query) throws SQLException {
+		return db.getWaitlistPage(query);
+	}
+
 	/**
 	 * Retrieves reservation history for a specific subscriber.
 	 *
@@ -156,6 +279,10 @@ public class ReservationController {
 		if (!updated)
 			return UpdateReservationResult.fail("Reservation not found or could not be updated.");
 
+		availability.refreshReservation(reservationId);
+		deadlines.refresh(reservationId);
+		changed(List.of(reservationId));
+
 		return UpdateReservationResult.ok(reservationId);
 	}
 
@@ -193,7 +320,8 @@ public class ReservationController {
 	 * Creates a reservation for an existing customer (subscriber or guest).
 	 * <p>
 	 * Validates the request against business rules and checks availability. If no
-	 * space is available, returns suggested alternative times.
+	 * space is available, returns suggested alternative times. The confirmation
+	 * notification is queued in the same transaction as the insert.
 	 * </p>
 	 *
 	 * @param customerId the customer ID
@@ -218,10 +346,20 @@ public class ReservationController {
 			return CreateReservationResult.noSpace("No space at requested time.", sug);
 		}
 
-		InsertReservationResult r = db.insertReservation(customerId, start, guests);
+		InsertReservationResult r = db.inTransaction(conn -> {
+			InsertReservationResult inserted = db.insertReservation(conn, customerId, start, guests);
+			if (inserted != null)
+				queueNotification(conn, inserted.getReservationId(), NotificationType.RESERVATION_CONFIRMATION);
+			return inserted;
+		});
 		if (r == null)
 			return CreateReservationResult.fail("Insert failed.");
 
+		availability.addActiveReservation(r.getReservationId(), start, guests);
+		deadlines.onBooked(r.getReservationId(), start);
+		reports.onCreated(LocalDateTime.now(), customerId, ReservationType.ADVANCE);
+		changed(List.of(r.getReservationId()));
+
 		return CreateReservationResult.ok(r.getReservationId(), r.getConfirmationCode());
 	}
 
@@ -269,10 +407,36 @@ public class ReservationController {
 	 * @throws SQLException if database access fails
 	 */
 	private String validateOpeningHours(LocalDateTime start) throws SQLException {
+		return validateOpeningHours(start, loadDayHours(start.toLocalDate()));
+	}
+
+	/**
+	 * Resolves the date override and regular opening hours that apply to a date
+	 * from the opening calendar.
+	 *
+	 * @param date the date
+	 * @return the hours configuration for the date
+	 * @throws SQLException if the calendar has to be reloaded and database access
+	 *                      fails
+	 */
+	private DayHours loadDayHours(LocalDate date) throws SQLException {
+		DateOverride override = calendar.getOverride(date);
+		OpeningHours hours = (override != null) ? null : calendar.getHours(date.getDayOfWeek());
+		return new DayHours(override, hours);
+	}
+
+	/**
+	 * Validates a reservation time against already loaded opening hours.
+	 *
+	 * @param start    the reservation start time
+	 * @param dayHours the hours configuration for the start date
+	 * @return error message if outside hours, null if valid
+	 */
+	private String validateOpeningHours(LocalDateTime start, DayHours dayHours) {
 		LocalDate date = start.toLocalDate();
 		LocalDateTime end = start.plusMinutes(DURATION_MIN);
 
-		DateOverride override = db.getDateOverrideForDate(date);
+		DateOverride override = dayHours.override;
 		if (override != null) {
 
 			String reason = override.getReason();
@@ -291,7 +455,7 @@ public class ReservationController {
 		}
 
 		DayOfWeek dayOfWeek = date.getDayOfWeek();
-		OpeningHours hours = db.getOpeningHoursForDay(dayOfWeek);
+		OpeningHours hours = dayHours.hours;
 		if (hours != null) {
 			if (hours.isClosed()) {
 				return "Restaurant is closed on " + dayOfWeek + "s.";
@@ -302,6 +466,34 @@ public class ReservationController {
 		return validateTimeRange(start, end, DEFAULT_OPEN, DEFAULT_CLOSE);
 	}
 
+	/**
+	 * Opening hours configuration resolved for one calendar date.
+	 */
+	private static final class DayHours {
+
+		/**
+		 * The date override, or null if none applies.
+		 */
+		final DateOverride override;
+
+		/**
+		 * The regular hours for the weekday, or null if not configured (or an
+		 * override applies).
+		 */
+		final OpeningHours hours;
+
+		/**
+		 * Creates a resolved hours configuration.
+		 *
+		 * @param override the date override, or null
+		 * @param hours    the regular hours, or null
+		 */
+		DayHours(DateOverride override, OpeningHours hours) {
+			this.override = override;
+			this.hours = hours;
+		}
+	}
+
 	/**
 	 * Validates that a reservation fits within the given time range.
 	 * <p>
@@ -314,7 +506,7 @@ public class ReservationController {
 	 * @param close   closing time
 	 * @return error message if outside range, null if valid
 	 */
-	private String validateTimeRange(LocalDateTime startDT, LocalDateTime endDT, LocalTime open, LocalTime close) {
+	static String validateTimeRange(LocalDateTime startDT, LocalDateTime endDT, LocalTime open, LocalTime close) {
 
 		if (open == null || close == null) {
 			return "Restaurant hours not configured.";
@@ -353,85 +545,141 @@ public class ReservationController {
 	}
 
 	/**
-	 * Checks if a set of reservations can be feasibly assigned to available tables.
+	 * Suggests up to 3 alternative times near the requested time.
+	 *
+	 * @param start     the originally requested time
+	 * @param newGuests number of guests
+	 * @return list of available alternative times
+	 * @throws SQLException if database access fails
+	 */
+	private List<LocalDateTime> suggestTimes(LocalDateTime start, int newGuests) throws SQLException {
+		return findNearestAvailableSlots(start, newGuests, 3);
+	}
+
+	// ======================== SLOT SEARCH ========================
+
+	/**
+	 * Finds the available slots closest to a requested time.
 	 * <p>
-	 * Uses a greedy algorithm: sort reservations by size (largest first), assign
-	 * each to the smallest available table that fits.
+	 * All candidates within 6 hours either side (30-minute steps) are evaluated in
+	 * a single sweep. On equal distance the later slot wins, as in the original
+	 * probing order.
 	 * </p>
 	 *
-	 * @param tableCaps         list of available table capacities
-	 * @param reservationGuests list of guest counts for overlapping reservations
-	 * @return true if all reservations can be seated
+	 * @param requested  the requested time (excluded from the results)
+	 * @param guests     number of guests
+	 * @param maxResults maximum number of slots to return
+	 * @return up to maxResults available times, in chronological order
+	 * @throws SQLException if database access fails
 	 */
-	private boolean feasible(List<Integer> tableCaps, List<Integer> reservationGuests) {
-		reservationGuests.sort((a, b) -> Integer.compare(b, a));
+	public List<LocalDateTime> findNearestAvailableSlots(LocalDateTime requested, int guests, int maxResults)
+			throws SQLException {
+		int radius = 12;
+		List<SlotAvailability> slots = sweepSlots(requested.minusMinutes(30L * radius), 2 * radius + 1, guests);
 
-		java.util.TreeMap<Integer, Integer> capCount = new java.util.TreeMap<>();
-		for (int c : tableCaps)
-			capCount.merge(c, 1, Integer::sum);
+		List<LocalDateTime> found = new ArrayList<>();
+		for (SlotAvailability slot : slots) {
+			if (slot.isAvailable() && !slot.getTime().equals(requested))
+				found.add(slot.getTime());
+		}
 
-		for (int g : reservationGuests) {
-			Integer cap = capCount.ceilingKey(g);
-			if (cap == null)
-				return false;
+		found.sort((a, b) -> {
+			long da = Math.abs(java.time.Duration.between(requested, a).toMinutes());
+			long db = Math.abs(java.time.Duration.between(requested, b).toMinutes());
+			return da != db ? Long.compare(da, db) : b.compareTo(a);
+		});
 
-			int cnt = capCount.get(cap);
-			if (cnt == 1)
-				capCount.remove(cap);
-			else
-				capCount.put(cap, cnt - 1);
-		}
-		return true;
+		List<LocalDateTime> nearest = new ArrayList<>(found.subList(0, Math.min(maxResults, found.size())));
+		nearest.sort(LocalDateTime::compareTo);
+		return nearest;
 	}
 
 	/**
-	 * Suggests up to 3 alternative times near the requested time.
+	 * Returns the availability of every 30-minute slot on a day for a party size,
+	 * for the booking screens' availability heatmap.
 	 *
-	 * @param start     the originally requested time
-	 * @param newGuests number of guests
-	 * @return list of available alternative times
+	 * @param date   the day
+	 * @param guests number of guests
+	 * @return 48 slots from 00:00 to 23:30
 	 * @throws SQLException if database access fails
 	 */
-	private List<LocalDateTime> suggestTimes(LocalDateTime start, int newGuests) throws SQLException {
-		List<LocalDateTime> suggestions = new ArrayList<>();
-
-		for (int i = 1; i <= 12; i++) {
-			LocalDateTime plus = start.plusMinutes(30L * i);
-			LocalDateTime minus = start.minusMinutes(30L * i);
+	public List<SlotAvailability> getDayAvailability(LocalDate date, int guests) throws SQLException {
+		return sweepSlots(date.atStartOfDay(), 48, guests);
+	}
 
-			if (isCandidateOk(plus, newGuests) && !suggestions.contains(plus)) {
-				suggestions.add(plus);
-				if (suggestions.size() >= 3)
-					break;
+	/**
+	 * Evaluates consecutive 30-minute slots in one pass.
+	 * <p>
+	 * Opening hours are resolved once per calendar day and occupancy comes from a
+	 * single sweep of the availability engine, so the cost does not grow with the
+	 * number of database round-trips per candidate.
+	 * </p>
+	 *
+	 * @param first  the first slot start (must be on :00 or :30)
+	 * @param count  number of slots
+	 * @param guests number of guests
+	 * @return one entry per slot, in time order
+	 * @throws SQLException if database access fails
+	 */
+	private List<SlotAvailability> sweepSlots(LocalDateTime first, int count, int guests) throws SQLException {
+		Map<LocalDate, DayHours> hoursByDate = new java.util.HashMap<>();
+		boolean[] open = new boolean[count];
+		for (int i = 0; i < count; i++) {
+			LocalDateTime cand = first.plusMinutes(30L * i);
+			DayHours hours = hoursByDate.get(cand.toLocalDate());
+			if (hours == null) {
+				hours = loadDayHours(cand.toLocalDate());
+				hoursByDate.put(cand.toLocalDate(), hours);
 			}
+			open[i] = isCandidateOk(cand, hours);
+		}
+
+		List<SlotAvailability> result = new ArrayList<>(count);
 
-			if (isCandidateOk(minus, newGuests) && !suggestions.contains(minus)) {
-				suggestions.add(minus);
-				if (suggestions.size() >= 3)
-					break;
+		if (!availability.isLoaded()) {
+			for (int i = 0; i < count; i++) {
+				LocalDateTime cand = first.plusMinutes(30L * i);
+				boolean ok = open[i] && guests > 0 && isAvailableAt(cand, guests);
+				result.add(new SlotAvailability(cand, open[i], ok, 0));
 			}
+			return result;
 		}
 
-		suggestions.sort(LocalDateTime::compareTo);
-		return suggestions;
+		availability.sweep(first, 30, count, DURATION_MIN, (i, freeCaps, freeCount, activeGuests, activeCount) -> {
+			LocalDateTime cand = first.plusMinutes(30L * i);
+
+			int freeSeats = 0;
+			for (int k = 0; k < freeCount; k++)
+				freeSeats += freeCaps[k];
+			for (int k = 0; k < activeCount; k++)
+				freeSeats -= activeGuests[k];
+
+			boolean ok = false;
+			if (open[i] && guests > 0) {
+				activeGuests[activeCount] = guests;
+				ok = SeatingFeasibility.feasible(freeCaps, freeCount, activeGuests, activeCount + 1);
+			}
+			result.add(new SlotAvailability(cand, open[i], ok, Math.max(0, freeSeats)));
+		});
+		return result;
 	}
 
 	/**
-	 * Checks if a candidate time is valid for a reservation.
+	 * Checks if a candidate time satisfies the booking rules (slot alignment,
+	 * booking window and opening hours). Availability is checked separately.
 	 *
-	 * @param cand      candidate date/time
-	 * @param newGuests number of guests
-	 * @return true if the time is valid and has availability
-	 * @throws SQLException if database access fails
+	 * @param cand  candidate date/time
+	 * @param hours the opening hours resolved for the candidate's date
+	 * @return true if the time may be booked
 	 */
-	private boolean isCandidateOk(LocalDateTime cand, int newGuests) throws SQLException {
+	private boolean isCandidateOk(LocalDateTime cand, DayHours hours) {
 		if (cand.getSecond() != 0 || cand.getNano() != 0)
 			return false;
 		int m = cand.getMinute();
 		if (m != 0 && m != 30)
 			return false;
 
-		if (validateOpeningHours(cand) != null)
+		if (validateOpeningHours(cand, hours) != null)
 			return false;
 
 		LocalDateTime now = LocalDateTime.now();
@@ -440,7 +688,7 @@ public class ReservationController {
 		if (cand.isAfter(now.plusMonths(1)))
 			return false;
 
-		return isAvailableAt(cand, newGuests);
+		return true;
 	}
 
 	/**
@@ -534,7 +782,9 @@ public class ReservationController {
 	/**
 	 * Cancels a reservation.
 	 * <p>
-	 * Only ACTIVE, NOTIFIED, or WAITING reservations can be cancelled.
+	 * Only ACTIVE, NOTIFIED, or WAITING reservations can be cancelled. The
+	 * cancellation notification is queued in the same transaction as the status
+	 * change.
 	 * </p>
 	 *
 	 * @param reservationId the reservation ID to cancel
@@ -543,11 +793,11 @@ public class ReservationController {
 	 */
 	public CancelReservationResult cancelReservation(int reservationId) throws SQLException {
 
-		String statusStr = db.getReservationStatus(reservationId);
-		if (statusStr == null)
+		Reservation reservation = db.findReservationById(reservationId);
+		if (reservation == null)
 			return CancelReservationResult.fail("Reservation not found.");
 
-		ReservationStatus status = ReservationStatus.valueOf(statusStr);
+		ReservationStatus status = reservation.getStatus();
 
 		if (status == ReservationStatus.CANCELED)
 			return CancelReservationResult.fail("Reservation already canceled.");
@@ -558,7 +808,19 @@ public class ReservationController {
 		if (status == ReservationStatus.IN_PROGRESS)
 			return CancelReservationResult.fail("Cannot cancel in progress reservation.");
 
-		boolean ok = db.updateReservationStatus(reservationId, ReservationStatus.CANCELED.name());
+		boolean ok = db.inTransaction(conn -> {
+			if (!db.updateReservationStatus(conn, reservationId, ReservationStatus.CANCELED.name()))
+				return false;
+			queueNotification(conn, reservationId, NotificationType.RESERVATION_CANCELED);
+			return true;
+		});
+		if (ok) {
+			availability.removeReservation(reservationId);
+			waitlist.remove(reservationId);
+			deadlines.cancelAll(reservationId);
+			reports.onCanceled(reservation.getCreatedAt(), reservation.getCustomerId());
+			changed(List.of(reservationId));
+		}
 		return ok ? CancelReservationResult.ok("Reservation canceled.", status)
 				: CancelReservationResult.fail("Cancel failed.");
 	}
@@ -586,6 +848,13 @@ public class ReservationController {
 		}
 
 		boolean ok = db.updateReservationStatus(reservationId, ReservationStatus.CANCELED.name());
+		if (ok) {
+			availability.removeReservation(reservationId);
+			waitlist.remove(reservationId);
+			deadlines.cancelAll(reservationId);
+			reports.onCanceled(reservation.getCreatedAt(), reservation.getCustomerId());
+			changed(List.of(reservationId));
+		}
 		return ok ? CancelReservationResult.ok("Reservation canceled.", status)
 				: CancelReservationResult.fail("Cancel failed.");
 	}
@@ -615,19 +884,22 @@ public class ReservationController {
 		String normPhone = phoneEmpty ? null : phone.trim();
 		String normEmail = emailEmpty ? null : email.trim().toLowerCase();
 
-		Integer existingId = db.findCustomerIdByPhoneOrEmail(normPhone, normEmail);
-		if (existingId != null)
-			return existingId;
+		synchronized (guestCustomerLock) {
+			Integer existingId = db.findCustomerIdByPhoneOrEmail(normPhone, normEmail);
+			if (existingId != null)
+				return existingId;
 
-		String safeName = (fullName == null || fullName.isBlank()) ? "Guest" : fullName.trim();
-		return db.createGuestCustomer(safeName, normPhone, normEmail);
+			String safeName = (fullName == null || fullName.isBlank()) ? "Guest" : fullName.trim();
+			return db.createGuestCustomer(safeName, normPhone, normEmail);
+		}
 	}
 
 	/**
 	 * Adds a subscriber to the waitlist.
 	 * <p>
 	 * If a table is immediately available, creates a NOTIFIED reservation instead
-	 * (GO_NOW flow). Otherwise creates a WAITING entry.
+	 * (GO_NOW flow) and queues the table available notification in the same
+	 * transaction. Otherwise creates a WAITING entry.
 	 * </p>
 	 *
 	 * @param subscriberId   the subscriber's customer ID
@@ -642,14 +914,25 @@ public class ReservationController {
 			return CreateReservationResult.fail("Invalid number of guests.");
 
 		if (isAvailableAt(LocalDateTime.now(), numberOfGuests)) {
-			Integer tableId = db.findAvailableTableId(LocalDateTime.now(), DURATION_MIN, numberOfGuests);
-
-			if (tableId != null) {
-				InsertReservationResult ins = db.insertNotifiedNow(subscriberId, numberOfGuests, tableId);
-				if (ins != null) {
-					return new CreateReservationResult(true, "RECEIVE_TABLE_NOW", ins.getReservationId(),
-							ins.getConfirmationCode(), List.of());
-				}
+			InsertReservationResult ins = allocator.allocate(numberOfGuests, tableId -> {
+				InsertReservationResult claimed = db.inTransaction(conn -> {
+					InsertReservationResult inserted = db.insertNotifiedNow(conn, subscriberId, numberOfGuests,
+							tableId, DURATION_MIN);
+					if (inserted != null)
+						queueNotification(conn, inserted.getReservationId(), NotificationType.TABLE_AVAILABLE);
+					return inserted;
+				});
+				if (claimed != null)
+					availability.refreshReservation(claimed.getReservationId());
+				return claimed;
+			});
+
+			if (ins != null) {
+				deadlines.onNotified(ins.getReservationId(), LocalDateTime.now());
+				reports.onCreated(LocalDateTime.now(), subscriberId, ReservationType.WALKIN);
+				changed(List.of(ins.getReservationId()));
+				return new CreateReservationResult(true, "RECEIVE_TABLE_NOW", ins.getReservationId(),
+						ins.getConfirmationCode(), List.of());
 			}
 		}
 
@@ -657,6 +940,10 @@ public class ReservationController {
 		if (ins == null)
 			return CreateReservationResult.fail("Insert waitlist failed.");
 
+		waitlist.refresh(ins.getReservationId());
+		reports.onCreated(LocalDateTime.now(), subscriberId, ReservationType.WALKIN);
+		changed(List.of(ins.getReservationId()));
+
 		return new CreateReservationResult(true, "WAITLIST_JOINED", ins.getReservationId(), ins.getConfirmationCode(),
 				List.of());
 	}
@@ -699,7 +986,21 @@ public class ReservationController {
 	 * @throws SQLException if database access fails
 	 */
 	private boolean isAvailableAt(LocalDateTime start, int newGuests) throws SQLException {
-		Map<Integer, Integer> tableCaps = db.getTableIdToCapacity();
+		if (availability.isLoaded()) {
+			SeatingFeasibility.Scratch s = SeatingFeasibility.acquire();
+			try {
+				int freeCount = availability.getFreeTableCapacities(start, DURATION_MIN, s);
+				int activeCount = availability.getOverlappingActiveGuests(start, DURATION_MIN, s);
+				int[] parties = s.parties(activeCount + 1);
+				parties[activeCount] = newGuests;
+				return SeatingFeasibility.feasible(s.tableCaps(freeCount), freeCount, parties, activeCount + 1, s);
+			} finally {
+				SeatingFeasibility.release(s);
+			}
+		}
+
+		// engine failed to load at startup: fall back to querying the database
+		Map<Integer, Integer> tableCaps = tables.current().getCapacities();
 
 		Set<Integer> busy = new HashSet<>(db.getOverlappingPinnedTableIds(start, DURATION_MIN));
 
@@ -713,65 +1014,92 @@ public class ReservationController {
 		List<Integer> overlappingActive = db.getOverlappingActiveGuests(start, DURATION_MIN);
 		overlappingActive.add(newGuests);
 
-		return feasible(availableCaps, overlappingActive);
+		return SeatingFeasibility.feasible(availableCaps, overlappingActive);
 	}
 
 	/**
-	 * Notifies the next eligible customer from the waitlist when capacity is freed.
+	 * Notifies as many waiting customers as the currently free tables allow.
+	 * <p>
+	 * Matching is done in memory by the {@link WaitlistMatcher} in a single pass
+	 * and all NOTIFIED transitions are written in one transaction, together with
+	 * their table available notifications. If the
+	 * in-memory models failed to load, falls back to notifying one candidate at
+	 * a time from the database.
+	 * </p>
 	 *
-	 * @param freedCapacity the capacity that was freed (seats)
-	 * @return reservation ID of the notified customer, or null if none eligible
+	 * @param maxGuests the largest party size to consider (e.g. the freed table
+	 *                  capacity)
+	 * @return IDs of the notified reservations, in waitlist order
 	 * @throws SQLException if database access fails
 	 */
-	public Integer notifyNextFromWaitlist(int freedCapacity) throws SQLException {
-
-		List<WaitingCandidate> candidates = db.getWaitingCandidates(freedCapacity);
-		if (candidates.isEmpty())
-			return null;
+	public List<Integer> notifyFromWaitlist(int maxGuests) throws SQLException {
+		List<Integer> notified;
+		if (waitlist.isLoaded()) {
+			notified = waitlist.matchFreeTables(maxGuests);
+		} else {
+			notified = new ArrayList<>();
+			Integer resId;
+			while ((resId = notifyNextFromWaitlist(maxGuests)) != null)
+				notified.add(resId);
+		}
 
 		LocalDateTime now = LocalDateTime.now();
+		for (Integer resId : notified)
+			deadlines.onNotified(resId, now);
+		changed(notified);
+		return notified;
+	}
 
-		for (WaitingCandidate c : candidates) {
-
-			if (isAvailableAt(now, c.guests)) {
-				Integer tableId = db.findAvailableTableId(now, DURATION_MIN, c.guests);
-				if (tableId == null)
-					continue;
-				boolean ok = db.notifyWaitlistReservation(c.reservationId, tableId);
-				if (!ok)
-					continue;
-
-				return c.reservationId;
-			}
-		}
-
-		return null;
+	/**
+	 * Notifies as many waiting customers (any party size) as the currently free
+	 * tables allow.
+	 *
+	 * @return IDs of the notified reservations, in waitlist order
+	 * @throws SQLException if database access fails
+	 */
+	public List<Integer> notifyFromWaitlist() throws SQLException {
+		return notifyFromWaitlist(Integer.MAX_VALUE);
 	}
 
 	/**
-	 * Notifies the next eligible customer from the waitlist (any capacity).
+	 * Notifies the next eligible customer from the waitlist by querying the
+	 * database. Used only when the in-memory models are unavailable.
 	 *
+	 * @param maxGuests the largest party size to consider
 	 * @return reservation ID of the notified customer, or null if none eligible
 	 * @throws SQLException if database access fails
 	 */
-	public Integer notifyNextFromWaitlist() throws SQLException {
-		List<WaitingCandidate> candidates = db.getWaitingCandidates();
+	private Integer notifyNextFromWaitlist(int maxGuests) throws SQLException {
+
+		List<WaitingCandidate> candidates = db.getWaitingCandidates(maxGuests);
 		if (candidates.isEmpty())
 			return null;
 
 		LocalDateTime now = LocalDateTime.now();
 
 		for (WaitingCandidate c : candidates) {
+
 			if (isAvailableAt(now, c.guests)) {
-				Integer tableId = db.findAvailableTableId(now, DURATION_MIN, c.guests);
+				Integer tableId = allocator.allocate(c.guests, id -> {
+					boolean claimed = db.inTransaction(conn -> {
+						if (!db.notifyWaitlistReservation(conn, c.reservationId, id, DURATION_MIN))
+							return false;
+						queueNotification(conn, c.reservationId, NotificationType.TABLE_AVAILABLE);
+						return true;
+					});
+					if (!claimed)
+						return null;
+					availability.refreshReservation(c.reservationId);
+					return id;
+				});
 				if (tableId == null)
 					continue;
-				boolean ok = db.notifyWaitlistReservation(c.reservationId, tableId);
-				if (!ok)
-					continue;
+				waitlist.remove(c.reservationId);
+
 				return c.reservationId;
 			}
 		}
+
 		return null;
 	}
 
@@ -779,8 +1107,14 @@ public class ReservationController {
 	 * Processes table receiving (check-in) for a reservation.
 	 * <p>
 	 * For NOTIFIED reservations, keeps the pre-assigned table. For ACTIVE
-	 * reservations, assigns an available table now. Updates status to IN_PROGRESS
-	 * and records check-in time.
+	 * reservations, claims an available table through the {@link TableAllocator}
+	 * and seats the party in the same statement. Updates status to IN_PROGRESS
+	 * and records check-in time. The table received notification is queued in
+	 * the same transaction.
+	 * </p>
+	 * <p>
+	 * Safe to call concurrently: two check-ins never get the same table, and a
+	 * reservation is seated at most once.
 	 * </p>
 	 *
 	 * @param reservationId the reservation ID
@@ -812,17 +1146,41 @@ public class ReservationController {
 			tableId = db.getTableIdByReservationId(reservationId);
 			if (tableId == null)
 				return ReceiveTableResult.fail("No table assigned for this notified reservation.");
-		} else {
-			tableId = db.findAvailableTableId(LocalDateTime.now(), DURATION_MIN, info.guests);
-			if (tableId == null)
-				return ReceiveTableResult.fail("No available table right now.");
 
-			if (!db.assignTableNow(reservationId, tableId))
-				return ReceiveTableResult.fail("Failed to assign table!");
+			boolean seated = db.inTransaction(conn -> {
+				if (!db.markSeatedNow(conn, reservationId))
+					return false;
+				queueNotification(conn, reservationId, NotificationType.TABLE_RECEIVED);
+				return true;
+			});
+			if (!seated)
+				return ReceiveTableResult.fail("Failed to mark seated");
+			availability.refreshReservation(reservationId);
+		} else {
+			tableId = allocator.allocate(info.guests, id -> {
+				boolean seated = db.inTransaction(conn -> {
+					if (!db.seatWithTableIfFree(conn, reservationId, id, DURATION_MIN))
+						return false;
+					queueNotification(conn, reservationId, NotificationType.TABLE_RECEIVED);
+					return true;
+				});
+				if (!seated)
+					return null;
+				availability.refreshReservation(reservationId);
+				return id;
+			});
+			if (tableId == null) {
+				// the claim also fails if a concurrent check-in seated the reservation first
+				return "ACTIVE".equals(db.getReservationStatus(reservationId))
+						? ReceiveTableResult.fail("No available table right now.")
+						: ReceiveTableResult.fail("Reservation status does not allow table receiving.");
+			}
 		}
 
-		if (!db.markSeatedNow(reservationId))
-			return ReceiveTableResult.fail("Failed to mark seated");
+		LocalDateTime seatedAt = LocalDateTime.now();
+		deadlines.onSeated(reservationId, seatedAt);
+		reports.onSeated(seatedAt);
+		changed(List.of(reservationId));
 
 		return ReceiveTableResult.ok(tableId);
 	}
@@ -870,8 +1228,9 @@ public class ReservationController {
 	/**
 	 * Processes bill payment.
 	 * <p>
-	 * Marks the bill as paid, updates reservation to COMPLETED status, and returns
-	 * the freed table capacity.
+	 * Marks the bill as paid, updates reservation to COMPLETED status and queues
+	 * the payment notification in one transaction, and returns the freed table
+	 * capacity.
 	 * </p>
 	 *
 	 * @param billId the bill ID to pay
@@ -902,16 +1261,39 @@ public class ReservationController {
 			return PayBillResult.fail("Reservation is not in progress.");
 		}
 
-		boolean ok = db.markBillPaidById(billId);
+		boolean ok = db.inTransaction(conn -> {
+			if (!db.markBillPaidById(conn, billId))
+				return false;
+			db.updateReservationStatus(conn, r.getReservationId(), ReservationStatus.COMPLETED.name());
+			queueNotification(conn, r.getReservationId(), NotificationType.PAYMENT_SUCCESS);
+			return true;
+		});
 		if (!ok) {
 			return PayBillResult.fail("Payment failed.");
 		}
 
-		db.updateReservationStatus(r.getReservationId(), ReservationStatus.COMPLETED.name());
+		availability.removeReservation(r.getReservationId());
+		deadlines.cancelAll(r.getReservationId());
+		reports.onCompleted(r, LocalDateTime.now());
+		changed(List.of(r.getReservationId()));
 
 		return PayBillResult.ok(r.getReservationId(), bill.getFinalAmount(), getFreedCapacity(r));
 	}
 
+	/**
+	 * Queues a customer notification in the outbox as part of a state-change
+	 * transaction, so it is committed together with the change. The caller wakes
+	 * up the outbox after the commit.
+	 *
+	 * @param conn          the connection of the transaction
+	 * @param reservationId the reservation the notification is about
+	 * @param type          the notification type
+	 * @throws SQLException if database access fails
+	 */
+	private void queueNotification(Connection conn, int reservationId, NotificationType type) throws SQLException {
+		db.enqueueNotification(conn, reservationId, type, null, null, false);
+	}
+
 	/**
 	 * Gets the freed table capacity after a reservation completes.
 	 *
@@ -922,8 +1304,8 @@ public class ReservationController {
 	private int getFreedCapacity(Reservation r) throws SQLException {
 		Integer tableId = r.getTableId();
 		if (tableId != null) {
-			Integer cap = db.getTableCapacityById(tableId);
-			if (cap != null && cap > 0)
+			int cap = tables.current().capacityOf(tableId);
+			if (cap > 0)
 				return cap;
 		}
 		return 0;
@@ -946,38 +1328,32 @@ public class ReservationController {
 		return db.findReservationsByPhoneOrEmail(phone, email);
 	}
 
-	// ======================== NO-SHOW & REMINDER OPERATIONS
+	// ======================== NO-SHOW, REMINDER & BILLING DEADLINES
 	// ========================
 
 	/**
-	 * Gets reservation IDs that are no-shows (past check-in window, not arrived).
-	 *
-	 * @return list of no-show reservation IDs
-	 * @throws SQLException if database access fails
-	 */
-	public List<Integer> getNoShowReservationIds() throws SQLException {
-		return db.getNoShowReservationIds();
-	}
-
-	/**
-	 * Cancels a no-show reservation.
+	 * Cancels a reservation whose no-show deadline passed, provided the customer
+	 * still has not arrived (status ACTIVE or NOTIFIED).
 	 *
 	 * @param reservationId the reservation ID to cancel
 	 * @return true if cancelled successfully
 	 * @throws SQLException if database access fails
 	 */
 	public boolean cancelNoShowReservation(int reservationId) throws SQLException {
-		return db.updateReservationStatus(reservationId, ReservationStatus.CANCELED.name());
+		return !cancelAwaitingArrival(List.of(reservationId), NotificationType.RESERVATION_CANCELED_NO_SHOW).isEmpty();
 	}
 
 	/**
-	 * Gets reservation IDs due for reminder notification (2 hours before).
+	 * Checks whether a reservation whose reminder deadline passed should still be
+	 * reminded (ACTIVE and not reminded yet).
 	 *
-	 * @return list of reservation IDs needing reminders
+	 * @param reservationId the reservation ID
+	 * @return true if the reminder should be sent
 	 * @throws SQLException if database access fails
 	 */
-	public List<Integer> getReservationsForReminder() throws SQLException {
-		return db.getReservationsForReminder();
+	public boolean isReminderDue(int reservationId) throws SQLException {
+		Reservation r = db.findReservationById(reservationId);
+		return r != null && r.getStatus() == ReservationStatus.ACTIVE && !r.isReminderSent();
 	}
 
 	/**
@@ -991,13 +1367,18 @@ public class ReservationController {
 	}
 
 	/**
-	 * Gets reservations ready for automatic billing.
+	 * Returns a reservation whose billing deadline passed if it still needs a
+	 * bill (IN_PROGRESS and not billed yet).
 	 *
-	 * @return list of reservations needing bills
+	 * @param reservationId the reservation ID
+	 * @return the reservation to bill, or null if no bill is needed
 	 * @throws SQLException if database access fails
 	 */
-	public List<Reservation> getReservationsForBilling() throws SQLException {
-		return db.getReservationsForBilling();
+	public Reservation getReservationForBilling(int reservationId) throws SQLException {
+		Reservation r = db.findReservationById(reservationId);
+		if (r == null || r.getStatus() != ReservationStatus.IN_PROGRESS)
+			return null;
+		return db.findBillByReservationId(reservationId) == null ? r : null;
 	}
 
 	// ======================== MANAGER REPORTS ========================
@@ -1041,14 +1422,8 @@ public class ReservationController {
 	 */
 	public List<Integer> cancelReservationsOutsideHours(DayOfWeek day, LocalTime openTime, LocalTime closeTime,
 			boolean closed) throws SQLException {
-		List<Integer> conflicting = db.getActiveReservationsOutsideHours(day, openTime, closeTime, closed);
-		List<Integer> cancelled = new ArrayList<>();
-		for (Integer resId : conflicting) {
-			if (db.updateReservationStatus(resId, ReservationStatus.CANCELED.name())) {
-				cancelled.add(resId);
-			}
-		}
-		return cancelled;
+		return cancelAwaitingArrival(db.getActiveReservationsOutsideHours(day, openTime, closeTime, closed),
+				NotificationType.RESERVATION_CANCELED_HOURS_CHANGE);
 	}
 
 	/**
@@ -1063,13 +1438,35 @@ public class ReservationController {
 	 */
 	public List<Integer> cancelReservationsOutsideHoursOnDate(LocalDate date, LocalTime openTime, LocalTime closeTime,
 			boolean closed) throws SQLException {
-		List<Integer> conflicting = db.getActiveReservationsOutsideHoursOnDate(date, openTime, closeTime, closed);
-		List<Integer> cancelled = new ArrayList<>();
-		for (Integer resId : conflicting) {
-			if (db.updateReservationStatus(resId, ReservationStatus.CANCELED.name())) {
-				cancelled.add(resId);
-			}
-		}
+		return cancelAwaitingArrival(db.getActiveReservationsOutsideHoursOnDate(date, openTime, closeTime, closed),
+				NotificationType.RESERVATION_CANCELED_DATE_OVERRIDE);
+	}
+
+	/**
+	 * Cancels the given reservations that are still waiting for the customer to
+	 * arrive (ACTIVE or NOTIFIED), with one set-based status change, and drops
+	 * them from the in-memory models. The cancellation notifications are queued
+	 * in the same transaction. Reservations that moved on in the meantime are
+	 * left alone.
+	 *
+	 * @param reservationIds the reservations to cancel
+	 * @param type           the cancellation notification to queue
+	 * @return the IDs that were actually cancelled
+	 * @throws SQLException if database access fails
+	 */
+	private List<Integer> cancelAwaitingArrival(List<Integer> reservationIds, NotificationType type)
+			throws SQLException {
+		List<Integer> cancelled = db.inTransaction(conn -> {
+			List<Integer> changed = db.transitionReservations(conn, reservationIds,
+					EnumSet.of(ReservationStatus.ACTIVE, ReservationStatus.NOTIFIED), ReservationStatus.CANCELED);
+			db.enqueueNotifications(conn, changed, type, false);
+			return changed;
+		});
+		availability.removeReservations(cancelled);
+		for (Integer resId : cancelled)
+			deadlines.cancelAll(resId);
+		reports.onCanceled(cancelled);
+		changed(cancelled);
 		return cancelled;
 	}
 
@@ -1087,7 +1484,9 @@ public class ReservationController {
 	/**
 	 * Re-validates future reservations after capacity changes.
 	 * <p>
-	 * Moves reservations to WAITING status if they can no longer be accommodated.
+	 * Moves reservations to WAITING status if they can no longer be accommodated,
+	 * queuing the moved-to-waiting notification in the same transaction as each
+	 * move.
 	 * </p>
 	 *
 	 * @param from start of the time range to check
@@ -1101,11 +1500,21 @@ public class ReservationController {
 
 		for (Reservation r : future) {
 			if (!isAvailableAt(r.getReservationDateTime(), r.getNumberOfGuests())) {
-				if (db.moveReservationToWaiting(r.getReservationId())) {
+				boolean movedNow = db.inTransaction(conn -> {
+					if (!db.moveReservationToWaiting(conn, r.getReservationId()))
+						return false;
+					queueNotification(conn, r.getReservationId(), NotificationType.RESERVATION_MOVED_TO_WAITING);
+					return true;
+				});
+				if (movedNow) {
+					availability.removeReservation(r.getReservationId());
+					waitlist.refresh(r.getReservationId());
+					deadlines.cancelAll(r.getReservationId());
 					moved.add(r.getReservationId());
 				}
 			}
 		}
+		changed(moved);
 		return moved;
 	}
 
@@ -1113,11 +1522,11 @@ public class ReservationController {
 	 * Gets the seating capacity of a table.
 	 *
 	 * @param tableNumber the table number
-	 * @return number of seats
+	 * @return number of seats, or -1 if the table does not exist
 	 * @throws SQLException if database access fails
 	 */
 	public int getTableSeats(int tableNumber) throws SQLException {
-		return db.getTableCapacity(tableNumber);
+		return tables.current().capacityOf(tableNumber);
 	}
 
 }
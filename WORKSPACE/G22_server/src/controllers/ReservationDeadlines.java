@@ -0,0 +1,271 @@
+package controllers;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+
+import common.entity.Reservation;
+import common.enums.ReservationStatus;
+import dbController.DBController;
+
+/**
+ * Keeps the time-based deadlines of each reservation registered in a
+ * {@link DeadlineScheduler}.
+ * <p>
+ * Deadlines replace periodic polling of the database:
+ * </p>
+ * <ul>
+ * <li><strong>No-show:</strong> reservation time + 15 minutes, for ACTIVE and
+ * NOTIFIED reservations</li>
+ * <li><strong>Reminder:</strong> reservation time - 2 hours, for ACTIVE
+ * reservations that were not reminded yet</li>
+ * <li><strong>Bill:</strong> seating time + 2 hours, for IN_PROGRESS
+ * reservations without a bill</li>
+ * </ul>
+ * <p>
+ * The reservation controller registers deadlines when a reservation is
+ * created, notified or seated, and cancels them on every other state change.
+ * On startup {@link #rebuild()} registers the deadlines of all open
+ * reservations. Expired deadlines are passed to the {@link Handler}, which
+ * re-checks the reservation state before acting.
+ * </p>
+ *
+ * @author Yamen Abu Ahmad
+ * @version 1.0
+ * @see DeadlineScheduler
+ */
+public class ReservationDeadlines {
+
+	/**
+	 * Minutes after the reservation time before it counts as a no-show.
+	 */
+	private static final int NO_SHOW_GRACE_MIN = 15;
+
+	/**
+	 * Minutes before the reservation time at which the reminder is sent.
+	 */
+	private static final int REMINDER_BEFORE_MIN = 120;
+
+	/**
+	 * Minutes after seating at which the bill is generated.
+	 */
+	private static final int BILL_AFTER_MIN = 120;
+
+	/**
+	 * How late a reminder may still be sent (matches the old polling window).
+	 */
+	private static final int REMINDER_TOLERANCE_MIN = 1;
+
+	/**
+	 * Receives expired deadlines.
+	 */
+	public interface Handler {
+
+		/**
+		 * Called when a reservation's no-show deadline passes.
+		 *
+		 * @param reservationId the reservation ID
+		 */
+		void onNoShowDue(int reservationId);
+
+		/**
+		 * Called when a reservation's reminder is due.
+		 *
+		 * @param reservationId the reservation ID
+		 */
+		void onReminderDue(int reservationId);
+
+		/**
+		 * Called when a seated reservation should be billed.
+		 *
+		 * @param reservationId the reservation ID
+		 */
+		void onBillDue(int reservationId);
+	}
+
+	/**
+	 * Database controller used for rebuilding and refreshing.
+	 */
+	private final DBController db;
+
+	/**
+	 * The timing wheel holding the deadlines.
+	 */
+	private final DeadlineScheduler scheduler;
+
+	/**
+	 * Receives expired deadlines; may be null until set.
+	 */
+	private volatile Handler handler;
+
+	/**
+	 * Constructs a deadline registry.
+	 *
+	 * @param db        the database controller
+	 * @param scheduler the timing wheel to register deadlines in
+	 */
+	public ReservationDeadlines(DBController db, DeadlineScheduler scheduler) {
+		this.db = db;
+		this.scheduler = scheduler;
+	}
+
+	/**
+	 * Sets the handler that receives expired deadlines.
+	 *
+	 * @param handler the handler
+	 */
+	public void setHandler(Handler handler) {
+		this.handler = handler;
+	}
+
+	/**
+	 * Registers the deadlines of every open reservation in the database.
+	 *
+	 * @return the number of pending deadlines after the rebuild
+	 * @throws SQLException if database access fails
+	 */
+	public int rebuild() throws SQLException {
+		for (Reservation r : db.getReservationsWithPendingDeadlines())
+			track(r, r.getStatus() == ReservationStatus.IN_PROGRESS);
+		return scheduler.size();
+	}
+
+	/**
+	 * Registers the deadlines of a newly booked ACTIVE reservation.
+	 *
+	 * @param reservationId the reservation ID
+	 * @param start         the reservation time
+	 */
+	public void onBooked(int reservationId, LocalDateTime start) {
+		cancelAll(reservationId);
+		scheduleNoShow(reservationId, start);
+		scheduleReminder(reservationId, start);
+	}
+
+	/**
+	 * Registers the no-show deadline of a reservation that was just notified.
+	 *
+	 * @param reservationId the reservation ID
+	 * @param notifiedAt    when the customer was notified
+	 */
+	public void onNotified(int reservationId, LocalDateTime notifiedAt) {
+		cancelAll(reservationId);
+		scheduleNoShow(reservationId, notifiedAt);
+	}
+
+	/**
+	 * Replaces the deadlines of a reservation that was just seated with its
+	 * billing deadline.
+	 *
+	 * @param reservationId the reservation ID
+	 * @param seatedAt      when the customer was seated
+	 */
+	public void onSeated(int reservationId, LocalDateTime seatedAt) {
+		cancelAll(reservationId);
+		scheduler.schedule(key("bill", reservationId), seatedAt.plusMinutes(BILL_AFTER_MIN),
+				() -> fire(h -> h.onBillDue(reservationId)));
+	}
+
+	/**
+	 * Re-reads a reservation and re-registers its deadlines from its current
+	 * state (e.g. after its time was changed).
+	 *
+	 * @param reservationId the reservation ID
+	 * @throws SQLException if database access fails
+	 */
+	public void refresh(int reservationId) throws SQLException {
+		cancelAll(reservationId);
+		Reservation r = db.findReservationById(reservationId);
+		if (r != null)
+			track(r, r.getStatus() == ReservationStatus.IN_PROGRESS
+					&& db.findBillByReservationId(reservationId) == null);
+	}
+
+	/**
+	 * Cancels every deadline of a reservation (canceled, completed, moved to
+	 * waiting).
+	 *
+	 * @param reservationId the reservation ID
+	 */
+	public void cancelAll(int reservationId) {
+		scheduler.cancel(key("noshow", reservationId));
+		scheduler.cancel(key("reminder", reservationId));
+		scheduler.cancel(key("bill", reservationId));
+	}
+
+	/**
+	 * Registers the deadlines that apply to a reservation's current state.
+	 *
+	 * @param r         the reservation
+	 * @param needsBill whether an IN_PROGRESS reservation still needs a bill
+	 */
+	private void track(Reservation r, boolean needsBill) {
+		LocalDateTime start = r.getReservationDateTime();
+		if (start == null || r.getStatus() == null)
+			return;
+
+		switch (r.getStatus()) {
+		case ACTIVE:
+			scheduleNoShow(r.getReservationId(), start);
+			if (!r.isReminderSent())
+				scheduleReminder(r.getReservationId(), start);
+			break;
+		case NOTIFIED:
+			scheduleNoShow(r.getReservationId(), start);
+			break;
+		case IN_PROGRESS:
+			if (needsBill)
+				onSeated(r.getReservationId(), start);
+			break;
+		default:
+			break;
+		}
+	}
+
+	/**
+	 * Registers a no-show deadline.
+	 *
+	 * @param reservationId the reservation ID
+	 * @param start         the reservation time
+	 */
+	private void scheduleNoShow(int reservationId, LocalDateTime start) {
+		scheduler.schedule(key("noshow", reservationId), start.plusMinutes(NO_SHOW_GRACE_MIN),
+				() -> fire(h -> h.onNoShowDue(reservationId)));
+	}
+
+	/**
+	 * Registers a reminder deadline unless the reminder time has already passed.
+	 *
+	 * @param reservationId the reservation ID
+	 * @param start         the reservation time
+	 */
+	private void scheduleReminder(int reservationId, LocalDateTime start) {
+		LocalDateTime remindAt = start.minusMinutes(REMINDER_BEFORE_MIN);
+		if (remindAt.isBefore(LocalDateTime.now().minusMinutes(REMINDER_TOLERANCE_MIN)))
+			return;
+
+		scheduler.schedule(key("reminder", reservationId), remindAt,
+				() -> fire(h -> h.onReminderDue(reservationId)));
+	}
+
+	/**
+	 * Passes an expired deadline to the handler, if one is set.
+	 *
+	 * @param call the handler call
+	 */
+	private void fire(java.util.function.Consumer<Handler> call) {
+		Handler h = handler;
+		if (h != null)
+			call.accept(h);
+	}
+
+	/**
+	 * Builds the scheduler key of a reservation deadline.
+	 *
+	 * @param kind          the deadline kind
+	 * @param reservationId the reservation ID
+	 * @return the key
+	 */
+	private static String key(String kind, int reservationId) {
+		return kind + ":" + reservationId;
+	}
+}
@@ -34,14 +34,37 @@ public class RestaurantManagementController {
 	 */
 	private final DBController db;
 
+	/**
+	 * In-memory occupancy model, updated after every table change.
+	 */
+	private final AvailabilityEngine availability;
+
+	/**
+	 * In-memory opening hours and date overrides, invalidated after every
+	 * schedule change.
+	 */
+	private final OpeningCalendar calendar;
+
+	/**
+	 * In-memory table inventory, republished after every table change.
+	 */
+	private final TableInventory tables;
+
 	/**
 	 * Constructs a RestaurantManagementController with the specified database
-	 * controller.
+	 * controller, availability engine, opening calendar and table inventory.
 	 *
-	 * @param db the database controller for data access
+	 * @param db           the database controller for data access
+	 * @param availability the in-memory occupancy model to keep in sync
+	 * @param calendar     the in-memory schedule to keep in sync
+	 * @param tables       the in-memory table inventory to keep in sync
 	 */
-	public RestaurantManagementController(DBController db) {
+	public RestaurantManagementController(DBController db, AvailabilityEngine availability,
+			OpeningCalendar calendar, TableInventory tables) {
 		this.db = db;
+		this.availability = availability;
+		this.calendar = calendar;
+		this.tables = tables;
 	}
 
 	// ======================== TABLE OPERATIONS ========================
@@ -53,7 +76,18 @@ public class RestaurantManagementController {
 	 * @throws SQLException if a database error occurs
 	 */
 	public List<Table> getAllTables() throws SQLException {
-		return db.getAllTables();
+		return tables.current().getTables();
+	}
+
+	/**
+	 * Returns the current table inventory snapshot, whose version is sent to
+	 * clients with the table list.
+	 *
+	 * @return the snapshot
+	 * @throws SQLException if a database error occurs
+	 */
+	public TableInventory.Snapshot getTableSnapshot() throws SQLException {
+		return tables.current();
 	}
 
 	/**
@@ -69,6 +103,8 @@ public class RestaurantManagementController {
 		}
 		int newTableNumber = db.addTable(seats);
 		if (newTableNumber > 0) {
+			tables.putTable(newTableNumber, seats);
+			availability.putTable(newTableNumber, seats);
 			return RestaurantManagementResult.tableAdded(newTableNumber,
 					"Table " + newTableNumber + " added successfully.");
 		}
@@ -92,6 +128,8 @@ public class RestaurantManagementController {
 		}
 		boolean updated = db.updateTableCapacity(tableNumber, newSeats);
 		if (updated) {
+			tables.putTable(tableNumber, newSeats);
+			availability.putTable(tableNumber, newSeats);
 			return RestaurantManagementResult.ok("Table " + tableNumber + " updated to " + newSeats + " seats.");
 		}
 		return RestaurantManagementResult.fail("Table " + tableNumber + " not found.");
@@ -114,6 +152,8 @@ public class RestaurantManagementController {
 		}
 		boolean deleted = db.deleteTable(tableNumber);
 		if (deleted) {
+			tables.removeTable(tableNumber);
+			availability.removeTable(tableNumber);
 			return RestaurantManagementResult.ok("Table " + tableNumber + " deleted successfully.");
 		}
 		return RestaurantManagementResult.fail("Table " + tableNumber + " not found or currently in use.");
@@ -122,13 +162,14 @@ public class RestaurantManagementController {
 	// ======================== HOURS OPERATIONS ========================
 
 	/**
-	 * Retrieves the regular opening hours for all days of the week.
+	 * Retrieves the regular opening hours for all days of the week, from the
+	 * opening calendar.
 	 *
 	 * @return a list of opening hours for each day
 	 * @throws SQLException if a database error occurs
 	 */
 	public List<OpeningHours> getOpeningHours() throws SQLException {
-		return db.getOpeningHours();
+		return calendar.getOpeningHours();
 	}
 
 	/**
@@ -151,6 +192,7 @@ public class RestaurantManagementController {
 		}
 		boolean updated = db.updateOpeningHours(day, openTime, closeTime, closed);
 		if (updated) {
+			calendar.invalidate();
 			String status = closed ? "marked as closed" : "updated to " + openTime + " - " + closeTime;
 			return RestaurantManagementResult.ok(day + " " + status + ".");
 		}
@@ -160,13 +202,14 @@ public class RestaurantManagementController {
 	// ======================== DATE OVERRIDE OPERATIONS ========================
 
 	/**
-	 * Retrieves all date-specific overrides for restaurant hours.
+	 * Retrieves all date-specific overrides for restaurant hours, from the opening
+	 * calendar.
 	 *
 	 * @return a list of all date overrides
 	 * @throws SQLException if a database error occurs
 	 */
 	public List<DateOverride> getDateOverrides() throws SQLException {
-		return db.getDateOverrides();
+		return calendar.getDateOverrides();
 	}
 
 	/**
@@ -194,6 +237,7 @@ public class RestaurantManagementController {
 		}
 		int overrideId = db.addDateOverride(date, openTime, closeTime, closed, reason);
 		if (overrideId > 0) {
+			calendar.invalidate();
 			return RestaurantManagementResult.overrideAdded(overrideId,
 					"Override for " + date + " added successfully.");
 		}
@@ -225,6 +269,7 @@ public class RestaurantManagementController {
 		}
 		boolean updated = db.updateDateOverride(id, date, openTime, closeTime, closed, reason);
 		if (updated) {
+			calendar.invalidate();
 			return RestaurantManagementResult.ok("Override for " + date + " updated successfully.");
 		}
 		return RestaurantManagementResult.fail("Override not found.");
@@ -243,6 +288,7 @@ public class RestaurantManagementController {
 		}
 		boolean deleted = db.deleteDateOverride(id);
 		if (deleted) {
+			calendar.invalidate();
 			return RestaurantManagementResult.ok("Override deleted successfully.");
 		}
 		return RestaurantManagementResult.fail("Override not found.");
@@ -0,0 +1,296 @@
+package controllers;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Checks whether a set of parties can all be seated at a set of free tables.
+ * <p>
+ * The rule is the greedy one the reservation logic has always used: parties
+ * are seated largest first, each at the smallest free table that fits it.
+ * Table capacities and party sizes are small integers, so both are counted in
+ * arrays indexed by seat count instead of sorted: the parties are visited by
+ * size from the largest down (a counting sort), and all parties of one size are
+ * seated together by walking the table counts upward from that size. A check
+ * costs O(tables + parties + largest size squared).
+ * </p>
+ * <p>
+ * The check is on the hot path of availability probes, slot suggestions and
+ * waitlist matching, so it allocates nothing: the count arrays live in a
+ * {@link Scratch}, grown only when a larger table or party than ever before is
+ * seen. The server handles each request on a new virtual thread, so scratch
+ * buffers are not kept per thread but taken from a small striped pool for the
+ * length of a check; a caller making several checks can {@link #acquire()} one
+ * and pass it in. The {@code int[]} form lets callers avoid boxing as well.
+ * </p>
+ *
+ * @author Yamen Abu Ahmad
+ * @version 1.0
+ * @see ReservationController
+ * @see AvailabilityEngine#sweep
+ */
+public final class SeatingFeasibility {
+
+	/**
+	 * Count buffers for the checks, plus input buffers a caller may fill. Used by
+	 * one thread at a time.
+	 */
+	static final class Scratch {
+
+		/**
+		 * Pool slot the buffers are returned to, or -1 if they are not pooled.
+		 */
+		private final int stripe;
+
+		/**
+		 * Free tables by capacity.
+		 */
+		private int[] tableCounts = new int[32];
+
+		/**
+		 * Parties by size.
+		 */
+		private int[] partyCounts = new int[32];
+
+		/**
+		 * Table capacities filled in by the caller.
+		 */
+		private int[] tableCaps = new int[32];
+
+		/**
+		 * Party sizes filled in by the caller.
+		 */
+		private int[] parties = new int[32];
+
+		/**
+		 * Creates buffers belonging to a pool slot.
+		 *
+		 * @param stripe the pool slot, or -1
+		 */
+		private Scratch(int stripe) {
+			this.stripe = stripe;
+		}
+
+		/**
+		 * Returns the table capacity input buffer with room for at least the given
+		 * number of entries, keeping its contents when it grows.
+		 *
+		 * @param size the number of entries needed
+		 * @return the buffer
+		 */
+		int[] tableCaps(int size) {
+			if (tableCaps.length < size)
+				tableCaps = Arrays.copyOf(tableCaps, Math.max(size, tableCaps.length * 2));
+			return tableCaps;
+		}
+
+		/**
+		 * Returns the party size input buffer with room for at least the given
+		 * number of entries, keeping its contents when it grows.
+		 *
+		 * @param size the number of entries needed
+		 * @return the buffer
+		 */
+		int[] parties(int size) {
+			if (parties.length < size)
+				parties = Arrays.copyOf(parties, Math.max(size, parties.length * 2));
+			return parties;
+		}
+
+		/**
+		 * Grows the count buffers to hold a seat count. Both are zero outside a
+		 * check.
+		 *
+		 * @param maxSeats the largest table capacity or party size to count
+		 */
+		private void fit(int maxSeats) {
+			if (tableCounts.length <= maxSeats) {
+				int size = Math.max(maxSeats + 1, tableCounts.length * 2);
+				tableCounts = new int[size];
+				partyCounts = new int[size];
+			}
+		}
+	}
+
+	/**
+	 * Number of pooled scratch buffers: enough for every carrier thread to check
+	 * at once with room to spare, so a busy slot is rare.
+	 */
+	private static final int STRIPES = 2 * Runtime.getRuntime().availableProcessors();
+
+	/**
+	 * The pooled scratch buffers. A slot is null while its buffers are in use.
+	 */
+	private static final AtomicReferenceArray<Scratch> POOL = new AtomicReferenceArray<>(STRIPES);
+
+	static {
+		for (int i = 0; i < STRIPES; i++)
+			POOL.set(i, new Scratch(i));
+	}
+
+	/**
+	 * Not instantiable.
+	 */
+	private SeatingFeasibility() {
+	}
+
+	/**
+	 * Takes scratch buffers from the pool, starting at the calling thread's slot.
+	 * If every slot is busy, returns unpooled buffers instead of waiting.
+	 * Return them with {@link #release}.
+	 *
+	 * @return buffers for the calling thread's use
+	 */
+	static Scratch acquire() {
+		int first = Math.floorMod(Thread.currentThread().threadId(), STRIPES);
+		for (int i = 0; i < STRIPES; i++) {
+			Scratch s = POOL.getAndSet((first + i) % STRIPES, null);
+			if (s != null)
+				return s;
+		}
+		return new Scratch(-1);
+	}
+
+	/**
+	 * Returns buffers taken with {@link #acquire()} to the pool.
+	 *
+	 * @param s the buffers, no longer used by the caller
+	 */
+	static void release(Scratch s) {
+		if (s.stripe >= 0)
+			POOL.set(s.stripe, s);
+	}
+
+	/**
+	 * Checks whether all parties can be seated.
+	 *
+	 * @param tableCaps  capacities of the free tables, in any order
+	 * @param tableCount number of entries of tableCaps to use
+	 * @param parties    party sizes, in any order
+	 * @param partyCount number of entries of parties to use
+	 * @return true if every party gets its own table
+	 */
+	public static boolean feasible(int[] tableCaps, int tableCount, int[] parties, int partyCount) {
+		if (partyCount == 0)
+			return true;
+		if (partyCount > tableCount)
+			return false;
+
+		Scratch s = acquire();
+		try {
+			return feasible(tableCaps, tableCount, parties, partyCount, s);
+		} finally {
+			release(s);
+		}
+	}
+
+	/**
+	 * Checks whether all parties can be seated, counting in the caller's scratch
+	 * buffers. The input arrays may be the buffers' own {@link Scratch#tableCaps}
+	 * and {@link Scratch#parties}.
+	 *
+	 * @param tableCaps  capacities of the free tables, in any order
+	 * @param tableCount number of entries of tableCaps to use
+	 * @param parties    party sizes, in any order
+	 * @param partyCount number of entries of parties to use
+	 * @param s          scratch buffers owned by the caller
+	 * @return true if every party gets its own table
+	 */
+	static boolean feasible(int[] tableCaps, int tableCount, int[] parties, int partyCount, Scratch s) {
+		if (partyCount == 0)
+			return true;
+		if (partyCount > tableCount)
+			return false;
+
+		int maxCap = -1;
+		for (int i = 0; i < tableCount; i++)
+			maxCap = Math.max(maxCap, tableCaps[i]);
+		int maxParty = 0;
+		for (int i = 0; i < partyCount; i++)
+			maxParty = Math.max(maxParty, parties[i]);
+		if (maxParty > maxCap)
+			return false;
+
+		s.fit(maxCap);
+		int[] tables = s.tableCounts;
+		int[] sizes = s.partyCounts;
+		for (int i = 0; i < tableCount; i++) {
+			if (tableCaps[i] >= 0)
+				tables[tableCaps[i]]++;
+		}
+		for (int i = 0; i < partyCount; i++)
+			sizes[Math.max(0, parties[i])]++;
+
+		return seat(tables, sizes, maxParty, maxCap);
+	}
+
+	/**
+	 * Checks whether all parties can be seated. Reads the lists without copying
+	 * or reordering them.
+	 *
+	 * @param tableCaps capacities of the free tables, in any order
+	 * @param parties   party sizes, in any order
+	 * @return true if every party gets its own table
+	 */
+	public static boolean feasible(List<Integer> tableCaps, List<Integer> parties) {
+		int partyCount = parties.size();
+		int tableCount = tableCaps.size();
+		if (partyCount == 0)
+			return true;
+		if (partyCount > tableCount)
+			return false;
+
+		int maxCap = -1;
+		for (int i = 0; i < tableCount; i++)
+			maxCap = Math.max(maxCap, tableCaps.get(i));
+		int maxParty = 0;
+		for (int i = 0; i < partyCount; i++)
+			maxParty = Math.max(maxParty, parties.get(i));
+		if (maxParty > maxCap)
+			return false;
+
+		Scratch s = acquire();
+		try {
+			s.fit(maxCap);
+			int[] tables = s.tableCounts;
+			int[] sizes = s.partyCounts;
+			for (int i = 0; i < tableCount; i++) {
+				int cap = tableCaps.get(i);
+				if (cap >= 0)
+					tables[cap]++;
+			}
+			for (int i = 0; i < partyCount; i++)
+				sizes[Math.max(0, parties.get(i))]++;
+
+			return seat(tables, sizes, maxParty, maxCap);
+		} finally {
+			release(s);
+		}
+	}
+
+	/**
+	 * Seats the counted parties, largest first, and clears both count arrays.
+	 *
+	 * @param tables   free tables by capacity, indices 0 to maxCap
+	 * @param sizes    parties by size, indices 0 to maxParty
+	 * @param maxParty the largest party size
+	 * @param maxCap   the largest table capacity (at least maxParty)
+	 * @return true if every party was seated
+	 */
+	private static boolean seat(int[] tables, int[] sizes, int maxParty, int maxCap) {
+		boolean ok = true;
+		for (int size = maxParty; size >= 0 && ok; size--) {
+			int waiting = sizes[size];
+			for (int cap = size; cap <= maxCap && waiting > 0; cap++) {
+				int seated = Math.min(waiting, tables[cap]);
+				tables[cap] -= seated;
+				waiting -= seated;
+			}
+			ok = waiting == 0;
+		}
+		Arrays.fill(tables, 0, maxCap + 1, 0);
+		Arrays.fill(sizes, 0, maxParty + 1, 0);
+		return ok;
+	}
+}
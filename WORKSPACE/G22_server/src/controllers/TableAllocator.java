@@ -0,0 +1,173 @@
+package controllers;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import dbController.DBController;
+
+/**
+ * Hands out free tables to concurrent requests without double-booking.
+ * <p>
+ * Assigning a table used to be check-then-act: find a free table, then write
+ * it in a separate statement. Two requests (or a request and the deadline
+ * thread offering a freed table to the waitlist) could pick the same table in
+ * between. Allocation now has two layers:
+ * </p>
+ * <ul>
+ * <li>In memory, each table is claimed with a compare-and-set on its own entry
+ * of a concurrent map. Threads racing for the same table do not both go to the
+ * database; the loser moves straight on to the next candidate, and threads
+ * after different tables never block each other.</li>
+ * <li>In the database, the table is written with a conditional
+ * single-statement claim that applies only if no NOTIFIED or IN_PROGRESS
+ * reservation holds the table. This is the authority: it also covers a stale
+ * candidate list and writers outside this allocator.</li>
+ * </ul>
+ * <p>
+ * A claim callback runs while its table is held, so it should write the claim
+ * and update the in-memory models before returning; the next thread to hold
+ * the table then sees it as taken.
+ * </p>
+ *
+ * @author Yamen Abu Ahmad
+ * @version 1.0
+ * @see DBController#seatWithTableIfFree(int, int, int)
+ */
+public class TableAllocator {
+
+	/**
+	 * Reservation duration used when checking table availability (2 hours).
+	 */
+	static final int DURATION_MIN = 120;
+
+	/**
+	 * Writes a claim on one table.
+	 *
+	 * @param <T> the claim result
+	 */
+	@FunctionalInterface
+	public interface Claim<T> {
+
+		/**
+		 * Tries to claim a table in the database. Called while the table is held.
+		 *
+		 * @param tableId the candidate table
+		 * @return the result, or null if the table was taken or the claim no
+		 *         longer applies
+		 * @throws SQLException if database access fails
+		 */
+		T claim(int tableId) throws SQLException;
+	}
+
+	/**
+	 * Database controller used when the occupancy model is not loaded.
+	 */
+	private final DBController db;
+
+	/**
+	 * Occupancy model used to list free tables without querying the database.
+	 */
+	private final AvailabilityEngine availability;
+
+	/**
+	 * Tables currently being claimed, each mapped to the claiming thread.
+	 */
+	private final ConcurrentHashMap<Integer, Thread> held = new ConcurrentHashMap<>();
+
+	/**
+	 * Constructs an allocator.
+	 *
+	 * @param db           the database controller
+	 * @param availability the occupancy model
+	 */
+	public TableAllocator(DBController db, AvailabilityEngine availability) {
+		this.db = db;
+		this.availability = availability;
+	}
+
+	/**
+	 * Claims the smallest free table that seats a party starting now.
+	 * <p>
+	 * Candidates are tried smallest first. Tables held by another thread are
+	 * skipped, and a candidate whose database claim fails is given up for the
+	 * next one.
+	 * </p>
+	 *
+	 * @param <T>    the claim result
+	 * @param guests the party size
+	 * @param claim  writes the claim on one table
+	 * @return the result of the first successful claim, or null if none
+	 *         succeeded
+	 * @throws SQLException if database access fails
+	 */
+	public <T> T allocate(int guests, Claim<T> claim) throws SQLException {
+		for (int tableId : candidates(LocalDateTime.now(), guests)) {
+			if (!tryHold(tableId))
+				continue;
+			try {
+				T result = claim.claim(tableId);
+				if (result != null)
+					return result;
+			} finally {
+				release(tableId);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Holds a table for the calling thread. Used by callers that claim several
+	 * tables in one transaction, such as the waitlist matcher.
+	 *
+	 * @param tableId the table
+	 * @return true if the table was free to hold; false if another thread holds
+	 *         it
+	 */
+	public boolean tryHold(int tableId) {
+		return held.putIfAbsent(tableId, Thread.currentThread()) == null;
+	}
+
+	/**
+	 * Releases a table held by the calling thread.
+	 *
+	 * @param tableId the table
+	 */
+	public void release(int tableId) {
+		held.remove(tableId, Thread.currentThread());
+	}
+
+	/**
+	 * Returns whether a table is currently held.
+	 *
+	 * @param tableId the table
+	 * @return true if some thread holds it
+	 */
+	public boolean isHeld(int tableId) {
+		return held.containsKey(tableId);
+	}
+
+	/**
+	 * Lists the tables free during a window that seat a party, smallest first.
+	 *
+	 * @param start  the window start
+	 * @param guests the party size
+	 * @return candidate table IDs
+	 * @throws SQLException if the occupancy model is not loaded and database
+	 *                      access fails
+	 */
+	private List<Integer> candidates(LocalDateTime start, int guests) throws SQLException {
+		if (!availability.isLoaded())
+			return db.findAvailableTableIds(start, DURATION_MIN, guests);
+
+		List<Integer> ids = new ArrayList<>();
+		for (Map.Entry<Integer, Integer> t : availability.getFreeTables(start, DURATION_MIN).entrySet()) {
+			if (t.getValue() >= guests)
+				ids.add(t.getKey());
+		}
+		return ids;
+	}
+}
@@ -0,0 +1,233 @@
+package controllers;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import common.entity.Table;
+import dbController.DBController;
+
+/**
+ * Versioned in-memory copy of the restaurant's table inventory.
+ * <p>
+ * The table list is read by availability checks, table assignment and the
+ * management screens, but changes only when a manager adds, resizes or deletes
+ * a table. The inventory is loaded once and published as an immutable
+ * {@link Snapshot}; {@link RestaurantManagementController} publishes a new one
+ * after every successful table write. Each snapshot carries a version number,
+ * which is sent with table responses so clients that already hold the current
+ * version can skip reloading.
+ * </p>
+ * <p>
+ * Versions start at the time of the first load, so a version a client kept
+ * from a previous server run does not match a fresh one.
+ * </p>
+ *
+ * @author Yamen Abu Ahmad
+ * @version 1.0
+ * @see AvailabilityEngine
+ */
+public class TableInventory {
+
+	/**
+	 * Immutable view of the table inventory at one version.
+	 */
+	public static final class Snapshot {
+
+		/**
+		 * The snapshot version.
+		 */
+		private final long version;
+
+		/**
+		 * Table numbers in ascending order.
+		 */
+		private final int[] ids;
+
+		/**
+		 * Capacities, parallel to {@link #ids}.
+		 */
+		private final int[] caps;
+
+		/**
+		 * Positions in {@link #ids}, ordered by capacity then table number.
+		 */
+		private final int[] byCapacity;
+
+		/**
+		 * Builds a snapshot.
+		 *
+		 * @param version the version
+		 * @param tables  table number to capacity
+		 */
+		private Snapshot(long version, Map<Integer, Integer> tables) {
+			this.version = version;
+			this.ids = tables.keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+			this.caps = new int[ids.length];
+			for (int i = 0; i < ids.length; i++)
+				caps[i] = tables.get(ids[i]);
+
+			Integer[] order = new Integer[ids.length];
+			for (int i = 0; i < order.length; i++)
+				order[i] = i;
+			Arrays.sort(order, (a, b) -> caps[a] != caps[b] ? Integer.compare(caps[a], caps[b])
+					: Integer.compare(ids[a], ids[b]));
+			this.byCapacity = new int[order.length];
+			for (int i = 0; i < order.length; i++)
+				byCapacity[i] = order[i];
+		}
+
+		/**
+		 * Returns the snapshot version.
+		 *
+		 * @return the version
+		 */
+		public long getVersion() {
+			return version;
+		}
+
+		/**
+		 * Returns the capacity of a table.
+		 *
+		 * @param tableId the table number
+		 * @return the capacity, or -1 if the table does not exist
+		 */
+		public int capacityOf(int tableId) {
+			int i = Arrays.binarySearch(ids, tableId);
+			return i < 0 ? -1 : caps[i];
+		}
+
+		/**
+		 * Returns all tables, by table number.
+		 *
+		 * @return a new list of tables
+		 */
+		public List<Table> getTables() {
+			List<Table> tables = new ArrayList<>(ids.length);
+			for (int i = 0; i < ids.length; i++)
+				tables.add(new Table(ids[i], caps[i]));
+			return tables;
+		}
+
+		/**
+		 * Returns the capacity of every table, smallest capacity first.
+		 *
+		 * @return table number to capacity, in ascending capacity order
+		 */
+		public Map<Integer, Integer> getCapacities() {
+			Map<Integer, Integer> map = new LinkedHashMap<>();
+			for (int i : byCapacity)
+				map.put(ids[i], caps[i]);
+			return Collections.unmodifiableMap(map);
+		}
+
+		/**
+		 * Returns the capacity of every table as a mutable map.
+		 *
+		 * @return table number to capacity
+		 */
+		private Map<Integer, Integer> toMap() {
+			Map<Integer, Integer> map = new HashMap<>();
+			for (int i = 0; i < ids.length; i++)
+				map.put(ids[i], caps[i]);
+			return map;
+		}
+	}
+
+	/**
+	 * Database controller used to load the inventory.
+	 */
+	private final DBController db;
+
+	/**
+	 * The current snapshot, or null before the first load.
+	 */
+	private volatile Snapshot snapshot;
+
+	/**
+	 * Constructs the inventory. It loads itself on first use, or eagerly through
+	 * {@link #load()}.
+	 *
+	 * @param db the database controller
+	 */
+	public TableInventory(DBController db) {
+		this.db = db;
+	}
+
+	/**
+	 * Loads the table inventory from the database and publishes it under a new
+	 * version.
+	 *
+	 * @throws SQLException if database access fails
+	 */
+	public synchronized void load() throws SQLException {
+		Map<Integer, Integer> tables = new HashMap<>();
+		for (Table t : db.getAllTables())
+			tables.put(t.getTableNumber(), t.getSeats());
+		snapshot = new Snapshot(nextVersion(), tables);
+	}
+
+	/**
+	 * Returns the current snapshot, loading the inventory on first use.
+	 *
+	 * @return the snapshot
+	 * @throws SQLException if the inventory has to be loaded and database access
+	 *                      fails
+	 */
+	public Snapshot current() throws SQLException {
+		Snapshot s = snapshot;
+		if (s != null)
+			return s;
+
+		synchronized (this) {
+			if (snapshot == null)
+				load();
+			return snapshot;
+		}
+	}
+
+	/**
+	 * Publishes a snapshot with a table added or resized. Called after the
+	 * database write succeeded.
+	 *
+	 * @param tableId  the table number
+	 * @param capacity the table's capacity
+	 * @throws SQLException if the inventory has to be loaded and database access
+	 *                      fails
+	 */
+	public synchronized void putTable(int tableId, int capacity) throws SQLException {
+		Map<Integer, Integer> tables = current().toMap();
+		tables.put(tableId, capacity);
+		snapshot = new Snapshot(nextVersion(), tables);
+	}
+
+	/**
+	 * Publishes a snapshot without a table. Called after the database delete
+	 * succeeded.
+	 *
+	 * @param tableId the table number
+	 * @throws SQLException if the inventory has to be loaded and database access
+	 *                      fails
+	 */
+	public synchronized void removeTable(int tableId) throws SQLException {
+		Map<Integer, Integer> tables = current().toMap();
+		tables.remove(tableId);
+		snapshot = new Snapshot(nextVersion(), tables);
+	}
+
+	/**
+	 * Returns the version for the next snapshot. Must be called while holding the
+	 * lock.
+	 *
+	 * @return the previous version plus one, or the current time for the first
+	 *         snapshot
+	 */
+	private long nextVersion() {
+		return snapshot == null ? System.currentTimeMillis() : snapshot.version + 1;
+	}
+}
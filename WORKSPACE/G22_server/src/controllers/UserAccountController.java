@@ -3,6 +3,7 @@ package controllers;
 import java.sql.SQLException;
 import java.util.List;
 
+import common.dto.ListQuery;
 import common.dto.UserAccount.SubscriberLogInResult;
 import common.dto.UserAccount.CustomerLookupResult;
 import common.entity.Customer;
@@ -10,6 +11,7 @@ import common.enums.EmployeeRole;
 import common.dto.UserAccount.EmployeeLogInResult;
 import common.dto.UserAccount.RegisterSubscriberResult;
 import dbController.DBController;
+import dbController.Page;
 
 /**
  * Controller responsible for user account management operations.
@@ -296,6 +298,21 @@ public class UserAccountController {
 		return db.getAllSubscribers();
 	}
 
+	/**
+	 * Retrieves one page of subscribers.
+	 * <p>
+	 * This operation is restricted to employees.
+	 * </p>
+	 *
+	 * @param query the search, order and page position
+	 * @return the page
+	 * @throws SQLException             if a database error occurs
+	 * @throws IllegalArgumentException if the page cursor is malformed
+	 */
+	public Page<Customer> getSubscribersPage(ListQuery query) throws SQLException {
+		return db.getSubscribersPage(query);
+	}
+
 	/**
 	 * Retrieves all customers currently dining (with in-progress reservations).
 	 * <p>
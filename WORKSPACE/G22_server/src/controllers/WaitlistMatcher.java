@@ -0,0 +1,336 @@
+package controllers;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import common.entity.Reservation;
+import common.enums.NotificationType;
+import common.enums.ReservationStatus;
+import dbController.DBController;
+
+/**
+ * In-memory waitlist that matches waiting parties to free tables.
+ * <p>
+ * WAITING reservations are loaded once when the server starts and kept in
+ * first-come-first-served order (by creation time), bucketed by party size.
+ * When tables become free, {@link #matchFreeTables(int)} walks the waiting
+ * parties once in FIFO order, assigns as many of them as the free tables allow,
+ * and writes all NOTIFIED transitions in a single database transaction.
+ * </p>
+ * <p>
+ * The controllers keep the waitlist in sync after every write that adds or
+ * removes a WAITING reservation (join, move to waiting, cancel).
+ * </p>
+ *
+ * @author Yamen Abu Ahmad
+ * @version 1.0
+ * @see AvailabilityEngine
+ */
+public class WaitlistMatcher {
+
+	/**
+	 * Reservation duration used when checking table availability (2 hours).
+	 */
+	private static final int DURATION_MIN = 120;
+
+	/**
+	 * FIFO order: creation time, then reservation ID.
+	 */
+	private static final Comparator<Entry> FIFO = Comparator.comparing((Entry e) -> e.createdAt)
+			.thenComparingInt(e -> e.reservationId);
+
+	/**
+	 * Database controller used for loading and persisting transitions.
+	 */
+	private final DBController db;
+
+	/**
+	 * Occupancy model used to find free tables without querying the database.
+	 */
+	private final AvailabilityEngine availability;
+
+	/**
+	 * Allocator whose holds keep concurrent check-ins off the matched tables.
+	 */
+	private final TableAllocator allocator;
+
+	/**
+	 * Waiting entries by reservation ID.
+	 */
+	private final Map<Integer, Entry> byId = new HashMap<>();
+
+	/**
+	 * Waiting entries by party size, each bucket in FIFO order.
+	 */
+	private final TreeMap<Integer, TreeSet<Entry>> buckets = new TreeMap<>();
+
+	/**
+	 * Whether the waitlist has been loaded.
+	 */
+	private boolean loaded;
+
+	/**
+	 * Constructs a matcher. Call {@link #load()} before use.
+	 *
+	 * @param db           the database controller
+	 * @param availability the occupancy model
+	 * @param allocator    the table allocator
+	 */
+	public WaitlistMatcher(DBController db, AvailabilityEngine availability, TableAllocator allocator) {
+		this.db = db;
+		this.availability = availability;
+		this.allocator = allocator;
+	}
+
+	/**
+	 * Loads all WAITING reservations from the database, replacing any existing
+	 * state.
+	 *
+	 * @throws SQLException if database access fails
+	 */
+	public synchronized void load() throws SQLException {
+		byId.clear();
+		buckets.clear();
+		for (Reservation r : db.getWaitlistReservations())
+			add(r);
+		loaded = true;
+	}
+
+	/**
+	 * Returns whether matching can be done from memory (both the waitlist and the
+	 * occupancy model are loaded).
+	 *
+	 * @return true if the matcher is usable
+	 */
+	public synchronized boolean isLoaded() {
+		return loaded && availability.isLoaded();
+	}
+
+	/**
+	 * Returns the number of parties currently waiting.
+	 *
+	 * @return waitlist size
+	 */
+	public synchronized int size() {
+		return byId.size();
+	}
+
+	/**
+	 * Re-reads one reservation and adds it to the waitlist if it is WAITING, or
+	 * removes it otherwise.
+	 *
+	 * @param reservationId the reservation to refresh
+	 * @throws SQLException if database access fails
+	 */
+	public synchronized void refresh(int reservationId) throws SQLException {
+		if (!loaded)
+			return;
+
+		remove(reservationId);
+		Reservation r = db.findReservationById(reservationId);
+		if (r != null && r.getStatus() == ReservationStatus.WAITING)
+			add(r);
+	}
+
+	/**
+	 * Removes a reservation from the waitlist (no-op if it is not waiting).
+	 *
+	 * @param reservationId the reservation ID
+	 */
+	public synchronized void remove(int reservationId) {
+		Entry e = byId.remove(reservationId);
+		if (e == null)
+			return;
+
+		TreeSet<Entry> bucket = buckets.get(e.guests);
+		bucket.remove(e);
+		if (bucket.isEmpty())
+			buckets.remove(e.guests);
+	}
+
+	/**
+	 * Assigns free tables to waiting parties in one pass.
+	 * <p>
+	 * Parties are considered in FIFO order across all buckets up to
+	 * {@code maxGuests}. A party is taken if the restaurant can still seat it
+	 * together with the overlapping unassigned reservations, and it gets the
+	 * smallest free table that fits. All assignments are then persisted in one
+	 * transaction, together with their table available notifications.
+	 * </p>
+	 *
+	 * @param maxGuests the largest party size to consider
+	 * @return the IDs of the notified reservations, in FIFO order
+	 * @throws SQLException if database access fails
+	 */
+	public synchronized List<Integer> matchFreeTables(int maxGuests) throws SQLException {
+		List<Integer> none = new ArrayList<>();
+		if (byId.isEmpty())
+			return none;
+
+		LocalDateTime now = LocalDateTime.now();
+		Map<Integer, Integer> freeTables = availability.getFreeTables(now, DURATION_MIN);
+		if (freeTables.isEmpty())
+			return none;
+
+		// free tables by capacity, smallest table number first within a capacity;
+		// tables another thread is claiming right now are left out
+		TreeMap<Integer, ArrayDeque<Integer>> freeByCap = new TreeMap<>();
+		for (Map.Entry<Integer, Integer> t : freeTables.entrySet()) {
+			if (!allocator.isHeld(t.getKey()))
+				freeByCap.computeIfAbsent(t.getValue(), k -> new ArrayDeque<>()).add(t.getKey());
+		}
+		if (freeByCap.isEmpty())
+			return none;
+
+		int limit = Math.min(maxGuests, freeByCap.lastKey());
+		List<Entry> candidates = new ArrayList<>();
+		for (TreeSet<Entry> bucket : buckets.headMap(limit, true).values())
+			candidates.addAll(bucket);
+		candidates.sort(FIFO);
+
+		// overlapping ACTIVE parties, with the last slot left for the candidate
+		List<Integer> activeGuests = availability.getOverlappingActiveGuests(now, DURATION_MIN);
+		int[] demand = new int[activeGuests.size() + 1];
+		for (int i = 0; i < activeGuests.size(); i++)
+			demand[i] = activeGuests.get(i);
+		int[] caps = new int[freeTables.size()];
+
+		Map<Integer, Integer> tableByReservation = new LinkedHashMap<>();
+		Map<Integer, Integer> guestsByReservation = new HashMap<>();
+
+		for (Entry e : candidates) {
+			if (freeByCap.isEmpty())
+				break;
+
+			Integer cap = freeByCap.ceilingKey(e.guests);
+			if (cap == null)
+				continue;
+
+			demand[demand.length - 1] = e.guests;
+			if (!SeatingFeasibility.feasible(caps, capacities(freeByCap, caps), demand, demand.length))
+				continue;
+
+			// hold the table until the transaction is applied; a table taken by
+			// a concurrent check-in in the meantime is dropped for the next fit
+			Integer tableId = null;
+			while (tableId == null && cap != null) {
+				ArrayDeque<Integer> ids = freeByCap.get(cap);
+				int candidate = ids.poll();
+				if (ids.isEmpty())
+					freeByCap.remove(cap);
+				if (allocator.tryHold(candidate))
+					tableId = candidate;
+				else
+					cap = freeByCap.ceilingKey(e.guests);
+			}
+			if (tableId == null)
+				continue;
+
+			tableByReservation.put(e.reservationId, tableId);
+			guestsByReservation.put(e.reservationId, e.guests);
+		}
+
+		if (tableByReservation.isEmpty())
+			return none;
+
+		List<Integer> notified;
+		Map<Integer, Integer> applied = new LinkedHashMap<>();
+		try {
+			notified = db.inTransaction(conn -> {
+				List<Integer> claimed = db.notifyWaitlistReservations(conn, tableByReservation, now, DURATION_MIN);
+				db.enqueueNotifications(conn, claimed, NotificationType.TABLE_AVAILABLE, false);
+				return claimed;
+			});
+			for (Integer resId : notified) {
+				applied.put(resId, tableByReservation.get(resId));
+				remove(resId);
+			}
+			availability.addNotifiedReservations(applied, guestsByReservation, now);
+		} finally {
+			for (Integer tableId : tableByReservation.values())
+				allocator.release(tableId);
+		}
+
+		// rows skipped by the transaction were changed elsewhere or lost their
+		// table to another claim: resync them
+		for (Integer resId : tableByReservation.keySet()) {
+			if (!applied.containsKey(resId))
+				refresh(resId);
+		}
+
+		return notified;
+	}
+
+	/**
+	 * Flattens the free-table index into a capacity array for the feasibility
+	 * check.
+	 *
+	 * @param freeByCap free tables by capacity
+	 * @param caps      receives one capacity per free table; must be large
+	 *                  enough for all of them
+	 * @return the number of capacities written
+	 */
+	private static int capacities(TreeMap<Integer, ArrayDeque<Integer>> freeByCap, int[] caps) {
+		int n = 0;
+		for (Map.Entry<Integer, ArrayDeque<Integer>> e : freeByCap.entrySet()) {
+			int cap = e.getKey();
+			for (int i = 0; i < e.getValue().size(); i++)
+				caps[n++] = cap;
+		}
+		return n;
+	}
+
+	/**
+	 * Adds a WAITING reservation to its bucket.
+	 *
+	 * @param r the reservation
+	 */
+	private void add(Reservation r) {
+		Entry e = new Entry(r.getReservationId(), r.getNumberOfGuests(), r.getCreatedAt());
+		byId.put(e.reservationId, e);
+		buckets.computeIfAbsent(e.guests, k -> new TreeSet<>(FIFO)).add(e);
+	}
+
+	/**
+	 * A waiting party.
+	 */
+	private static final class Entry {
+
+		/**
+		 * The reservation ID.
+		 */
+		final int reservationId;
+
+		/**
+		 * Party size.
+		 */
+		final int guests;
+
+		/**
+		 * When the party joined the waitlist.
+		 */
+		final LocalDateTime createdAt;
+
+		/**
+		 * Creates an entry.
+		 *
+		 * @param reservationId the reservation ID
+		 * @param guests        the party size
+		 * @param createdAt     when the reservation was created
+		 */
+		Entry(int reservationId, int guests, LocalDateTime createdAt) {
+			this.reservationId = reservationId;
+			this.guests = guests;
+			this.createdAt = createdAt;
+		}
+	}
+}
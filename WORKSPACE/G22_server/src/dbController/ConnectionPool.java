@@ -0,0 +1,708 @@
+package dbController;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Bounded JDBC connection pool used by {@link DBController}.
+ * <p>
+ * Physical connections are opened lazily through {@link DriverManager} up to
+ * {@code maxPoolSize} and then reused. Callers borrow a connection with
+ * {@link #borrow()} and return it simply by calling {@link Connection#close()}
+ * on the handle they received, so existing try-with-resources blocks keep
+ * working unchanged.
+ * </p>
+ * <ul>
+ * <li><strong>Validation:</strong> connections idle for longer than
+ * {@link #VALIDATION_INTERVAL_MS} are checked with {@link Connection#isValid}
+ * before being handed out</li>
+ * <li><strong>Idle eviction:</strong> idle connections above the minimum are
+ * closed after {@link #IDLE_TIMEOUT_MS}</li>
+ * <li><strong>Minimum idle:</strong> after eviction the housekeeper opens new
+ * connections until {@code minIdle} are waiting again, so a burst after a quiet
+ * period does not pay the connect and authentication handshakes</li>
+ * <li><strong>Max lifetime:</strong> connections older than
+ * {@link #MAX_LIFETIME_MS} are retired instead of being reused</li>
+ * <li><strong>Leak detection:</strong> borrows held longer than
+ * {@link #LEAK_THRESHOLD_MS} are reported to the leak log with the borrowing
+ * thread's stack, or with the exact borrow site when
+ * {@link #setCaptureBorrowSite(boolean)} is on</li>
+ * <li><strong>Statement reuse:</strong> statements in the
+ * {@link StatementRegistry} are prepared once per physical connection and
+ * reused by later borrowers (see {@link StatementCache}); every statement's
+ * executions are counted in {@link #getStatementStats()}, and slow ones are
+ * logged in {@link #getQueryTrace()}</li>
+ * </ul>
+ *
+ * @author Yamen Abu Ahmad
+ * @version 1.0
+ */
+public class ConnectionPool {
+
+	/**
+	 * Default maximum number of physical connections.
+	 */
+	public static final int DEFAULT_MAX_POOL_SIZE = 10;
+
+	/**
+	 * How long a caller waits for a free connection before failing.
+	 */
+	private static final long CONNECTION_TIMEOUT_MS = 10_000;
+
+	/**
+	 * Idle time after which a connection is re-validated before use.
+	 */
+	private static final long VALIDATION_INTERVAL_MS = 5_000;
+
+	/**
+	 * Idle time after which surplus connections are closed.
+	 */
+	private static final long IDLE_TIMEOUT_MS = 10 * 60_000;
+
+	/**
+	 * Maximum age of a physical connection (kept below MySQL's wait_timeout).
+	 */
+	private static final long MAX_LIFETIME_MS = 30 * 60_000;
+
+	/**
+	 * Borrow duration after which a connection is reported as possibly leaked.
+	 */
+	private static final long LEAK_THRESHOLD_MS = 60_000;
+
+	/**
+	 * Interval of the housekeeping task.
+	 */
+	private static final long HOUSEKEEPING_INTERVAL_MS = 30_000;
+
+	/**
+	 * Maximum number of stack frames printed in a leak report.
+	 */
+	private static final int LEAK_REPORT_FRAMES = 12;
+
+	/**
+	 * The JDBC URL for the database connection.
+	 */
+	private final String url;
+
+	/**
+	 * The username for database authentication.
+	 */
+	private final String user;
+
+	/**
+	 * The password for database authentication.
+	 */
+	private final String password;
+
+	/**
+	 * Maximum number of physical connections (idle + in use).
+	 */
+	private final int maxPoolSize;
+
+	/**
+	 * Number of idle connections kept open by the housekeeper: it never evicts
+	 * below this and reopens connections to get back up to it.
+	 */
+	private final int minIdle;
+
+	/**
+	 * Permits bounding the number of connections handed out at once.
+	 */
+	private final Semaphore permits;
+
+	/**
+	 * Idle connections, most recently returned first.
+	 */
+	private final LinkedBlockingDeque<PooledEntry> idle = new LinkedBlockingDeque<>();
+
+	/**
+	 * Connections currently borrowed, keyed by the handle given to the caller.
+	 */
+	private final Map<Connection, PooledEntry> inUse = new ConcurrentHashMap<>();
+
+	/**
+	 * Background task for eviction, lifetime and leak checks.
+	 */
+	private final ScheduledExecutorService housekeeper;
+
+	/**
+	 * Number of successful borrows since startup.
+	 */
+	private final AtomicLong borrowCount = new AtomicLong();
+
+	/**
+	 * Total nanoseconds callers spent waiting for a permit.
+	 */
+	private final AtomicLong totalWaitNanos = new AtomicLong();
+
+	/**
+	 * Longest single wait for a permit, in nanoseconds.
+	 */
+	private final AtomicLong maxWaitNanos = new AtomicLong();
+
+	/**
+	 * Number of borrows that timed out.
+	 */
+	private final AtomicLong timeoutCount = new AtomicLong();
+
+	/**
+	 * Execution statistics of the statements prepared on pooled connections.
+	 */
+	private final StatementStats statementStats = new StatementStats();
+
+	/**
+	 * Database time by method and the slow query log.
+	 */
+	private final QueryTrace queryTrace = new QueryTrace(statementStats);
+
+	/**
+	 * Where leak reports and refill failures are written; the server routes them
+	 * to its log.
+	 */
+	private volatile Consumer<String> leakLog = System.err::println;
+
+	/**
+	 * Whether every borrow records its stack trace for leak reports.
+	 */
+	private volatile boolean captureBorrowSite;
+
+	/**
+	 * Whether the last refill attempt failed; only the first failure of a run is
+	 * logged. Touched by the housekeeper thread only.
+	 */
+	private boolean refillFailing;
+
+	/**
+	 * Set once {@link #close()} has been called.
+	 */
+	private volatile boolean closed;
+
+	/**
+	 * Creates a pool for the given database.
+	 *
+	 * @param url         the JDBC URL
+	 * @param user        the database username
+	 * @param password    the database password
+	 * @param maxPoolSize the maximum number of physical connections (at least 1)
+	 */
+	public ConnectionPool(String url, String user, String password, int maxPoolSize) {
+		this.url = url;
+		this.user = user;
+		this.password = password;
+		this.maxPoolSize = Math.max(1, maxPoolSize);
+		this.minIdle = Math.min(2, this.maxPoolSize);
+		this.permits = new Semaphore(this.maxPoolSize, true);
+
+		this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread t = new Thread(r, "db-pool-housekeeper");
+			t.setDaemon(true);
+			return t;
+		});
+		housekeeper.scheduleWithFixedDelay(this::housekeep, HOUSEKEEPING_INTERVAL_MS, HOUSEKEEPING_INTERVAL_MS,
+				TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Borrows a connection from the pool, opening a new one if no valid idle
+	 * connection is available. Closing the returned handle gives the connection
+	 * back to the pool.
+	 *
+	 * @return a pooled connection handle
+	 * @throws SQLException if the pool is closed, the wait times out, or a new
+	 *                      connection cannot be opened
+	 */
+	public Connection borrow() throws SQLException {
+		if (closed)
+			throw new SQLException("Connection pool is closed.");
+
+		long waitStart = System.nanoTime();
+		boolean acquired;
+		try {
+			acquired = permits.tryAcquire(CONNECTION_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new SQLException("Interrupted while waiting for a database connection.", e);
+		}
+		recordWait(System.nanoTime() - waitStart);
+
+		if (!acquired) {
+			timeoutCount.incrementAndGet();
+			throw new SQLException("Timed out waiting for a database connection (pool size " + maxPoolSize + ").");
+		}
+
+		try {
+			PooledEntry entry = takeValidIdle();
+			if (entry == null)
+				entry = new PooledEntry(DriverManager.getConnection(url, user, password), statementStats,
+						queryTrace);
+
+			Connection handle = wrap(entry);
+			entry.borrowedAt = System.currentTimeMillis();
+			entry.borrower = Thread.currentThread();
+			entry.borrowSite = captureBorrowSite ? new Throwable("Connection borrowed here") : null;
+			entry.leakReported = false;
+			inUse.put(handle, entry);
+			borrowCount.incrementAndGet();
+			return handle;
+		} catch (SQLException | RuntimeException e) {
+			permits.release();
+			throw e;
+		}
+	}
+
+	/**
+	 * Polls idle connections until one passes the lifetime and validation checks.
+	 *
+	 * @return a usable idle entry, or null if none is left
+	 */
+	private PooledEntry takeValidIdle() {
+		PooledEntry entry;
+		while ((entry = idle.pollFirst()) != null) {
+			long now = System.currentTimeMillis();
+
+			if (now - entry.createdAt > MAX_LIFETIME_MS) {
+				closeQuietly(entry.physical);
+				continue;
+			}
+
+			if (now - entry.lastUsedAt > VALIDATION_INTERVAL_MS && !isValid(entry.physical)) {
+				closeQuietly(entry.physical);
+				continue;
+			}
+			return entry;
+		}
+		return null;
+	}
+
+	/**
+	 * Returns a borrowed connection to the pool. Called from the proxy when the
+	 * caller closes its handle.
+	 *
+	 * @param handle the handle that was closed
+	 */
+	private void release(Connection handle) {
+		PooledEntry entry = inUse.remove(handle);
+		if (entry == null)
+			return; // already returned
+
+		entry.borrower = null;
+		entry.borrowSite = null;
+		entry.lastUsedAt = System.currentTimeMillis();
+		entry.statements.releaseAll();
+
+		try {
+			boolean reusable = !closed && !entry.physical.isClosed()
+					&& entry.lastUsedAt - entry.createdAt <= MAX_LIFETIME_MS;
+
+			if (reusable && !entry.physical.getAutoCommit()) {
+				// a caller left a transaction open; never leak it to the next borrower
+				entry.physical.rollback();
+				entry.physical.setAutoCommit(true);
+			}
+
+			if (reusable)
+				idle.offerFirst(entry);
+			else
+				closeQuietly(entry.physical);
+		} catch (SQLException e) {
+			closeQuietly(entry.physical);
+		} finally {
+			permits.release();
+		}
+	}
+
+	/**
+	 * Periodic maintenance: closes expired and surplus idle connections, refills
+	 * the pool to {@code minIdle} and reports connections that have been borrowed
+	 * for too long.
+	 */
+	private void housekeep() {
+		long now = System.currentTimeMillis();
+
+		Iterator<PooledEntry> it = idle.descendingIterator(); // oldest first
+		while (it.hasNext()) {
+			PooledEntry entry = it.next();
+			boolean expired = now - entry.createdAt > MAX_LIFETIME_MS;
+			boolean surplus = idle.size() > minIdle && now - entry.lastUsedAt > IDLE_TIMEOUT_MS;
+			if ((expired || surplus) && idle.remove(entry))
+				closeQuietly(entry.physical);
+		}
+
+		refill();
+
+		for (PooledEntry entry : inUse.values()) {
+			Thread borrower = entry.borrower;
+			if (borrower != null && now - entry.borrowedAt > LEAK_THRESHOLD_MS && !entry.leakReported) {
+				entry.leakReported = true;
+				reportLeak(entry, borrower, now);
+			}
+		}
+	}
+
+	/**
+	 * Opens connections until {@code minIdle} are idle. Each open holds a permit
+	 * like {@link #borrow()} does, so connections being opened by borrowers count
+	 * against {@code maxPoolSize} and the semaphore stays the only bound on
+	 * physical connections. New connections go to the back of the idle queue so
+	 * warm ones keep being handed out first. A failure stops this round and is
+	 * retried on the next one.
+	 */
+	private void refill() {
+		while (!closed && idle.size() < minIdle && permits.tryAcquire()) {
+			try {
+				PooledEntry entry;
+				try {
+					entry = new PooledEntry(DriverManager.getConnection(url, user, password), statementStats,
+							queryTrace);
+				} catch (SQLException e) {
+					if (!refillFailing)
+						log("Connection pool could not reopen idle connections: " + e.getMessage());
+					refillFailing = true;
+					return;
+				}
+				refillFailing = false;
+				idle.offerLast(entry);
+
+				if (closed && idle.remove(entry)) // close() already drained the queue
+					closeQuietly(entry.physical);
+			} finally {
+				permits.release();
+			}
+		}
+	}
+
+	/**
+	 * Writes one leak report to the leak log: the borrow site if it was
+	 * captured, otherwise where the borrowing thread is now.
+	 *
+	 * @param entry    the connection held too long
+	 * @param borrower the thread that borrowed it
+	 * @param now      the current time
+	 */
+	private void reportLeak(PooledEntry entry, Thread borrower, long now) {
+		Throwable site = entry.borrowSite;
+		StringBuilder sb = new StringBuilder("Possible connection leak: borrowed ")
+				.append((now - entry.borrowedAt) / 1000).append("s ago by ").append(borrower.getName())
+				.append(" and not returned.");
+		sb.append(site != null ? " Borrowed at:" : " Borrowing thread is now at:");
+
+		StackTraceElement[] frames = site != null ? site.getStackTrace() : borrower.getStackTrace();
+		for (int i = 0; i < Math.min(frames.length, LEAK_REPORT_FRAMES); i++)
+			sb.append(System.lineSeparator()).append("\tat ").append(frames[i]);
+		if (frames.length > LEAK_REPORT_FRAMES)
+			sb.append(System.lineSeparator()).append("\t... ").append(frames.length - LEAK_REPORT_FRAMES)
+					.append(" more");
+
+		log(sb.toString());
+	}
+
+	/**
+	 * Writes a message to the leak log.
+	 *
+	 * @param message the message to write
+	 */
+	private void log(String message) {
+		try {
+			leakLog.accept(message);
+		} catch (RuntimeException e) {
+			// a failing log must not stop the housekeeper
+		}
+	}
+
+	/**
+	 * Sets where leak reports and refill failures are written. Defaults to
+	 * standard error.
+	 *
+	 * @param log receives one multi-line report per leaked borrow and one line
+	 *            when the housekeeper cannot reopen connections
+	 */
+	public void setLeakLog(Consumer<String> log) {
+		this.leakLog = log == null ? System.err::println : log;
+	}
+
+	/**
+	 * Turns recording of the borrow site on or off. When on, every borrow
+	 * captures its stack trace so a leak report shows exactly where the
+	 * connection was taken; when off (the default), borrows only record the
+	 * thread and a report shows that thread's current stack.
+	 *
+	 * @param capture whether to capture the stack of every borrow
+	 */
+	public void setCaptureBorrowSite(boolean capture) {
+		this.captureBorrowSite = capture;
+	}
+
+	/**
+	 * Closes every idle connection and stops the housekeeper. Borrowed
+	 * connections are closed when their holders return them.
+	 */
+	public void close() {
+		closed = true;
+		housekeeper.shutdownNow();
+
+		PooledEntry entry;
+		while ((entry = idle.pollFirst()) != null)
+			closeQuietly(entry.physical);
+	}
+
+	// ======================== GAUGES ========================
+
+	/**
+	 * Returns the configured maximum pool size.
+	 *
+	 * @return the maximum number of physical connections
+	 */
+	public int getMaxPoolSize() {
+		return maxPoolSize;
+	}
+
+	/**
+	 * Returns the number of connections currently borrowed.
+	 *
+	 * @return the active connection count
+	 */
+	public int getActiveCount() {
+		return inUse.size();
+	}
+
+	/**
+	 * Returns the number of open connections waiting in the pool.
+	 *
+	 * @return the idle connection count
+	 */
+	public int getIdleCount() {
+		return idle.size();
+	}
+
+	/**
+	 * Returns the number of callers currently blocked waiting for a connection.
+	 *
+	 * @return the waiting caller count
+	 */
+	public int getWaitingCount() {
+		return permits.getQueueLength();
+	}
+
+	/**
+	 * Returns the average time callers waited for a connection.
+	 *
+	 * @return the mean wait in milliseconds
+	 */
+	public double getAverageWaitMillis() {
+		long n = borrowCount.get() + timeoutCount.get();
+		return n == 0 ? 0 : totalWaitNanos.get() / 1_000_000.0 / n;
+	}
+
+	/**
+	 * Returns the longest time a caller waited for a connection.
+	 *
+	 * @return the maximum wait in milliseconds
+	 */
+	public double getMaxWaitMillis() {
+		return maxWaitNanos.get() / 1_000_000.0;
+	}
+
+	/**
+	 * Returns the number of borrows that failed because the pool was exhausted.
+	 *
+	 * @return the timeout count
+	 */
+	public long getTimeoutCount() {
+		return timeoutCount.get();
+	}
+
+	/**
+	 * Returns the per-statement execution statistics.
+	 *
+	 * @return the statement statistics
+	 */
+	public StatementStats getStatementStats() {
+		return statementStats;
+	}
+
+	/**
+	 * Returns the SQL trace: database time by method and the slow query log.
+	 *
+	 * @return the query trace
+	 */
+	public QueryTrace getQueryTrace() {
+		return queryTrace;
+	}
+
+	/**
+	 * Returns a one-line summary of the pool gauges for display.
+	 *
+	 * @return the formatted pool status
+	 */
+	public String getStatusSummary() {
+		return String.format("active %d / idle %d / max %d | waiting %d | avg wait %.1f ms, max %.1f ms | timeouts %d",
+				getActiveCount(), getIdleCount(), maxPoolSize, getWaitingCount(), getAverageWaitMillis(),
+				getMaxWaitMillis(), getTimeoutCount());
+	}
+
+	// ======================== INTERNALS ========================
+
+	/**
+	 * Records one permit wait in the wait-time gauges.
+	 *
+	 * @param nanos the time spent waiting
+	 */
+	private void recordWait(long nanos) {
+		totalWaitNanos.addAndGet(nanos);
+		maxWaitNanos.accumulateAndGet(nanos, Math::max);
+	}
+
+	/**
+	 * Checks whether a physical connection is still usable.
+	 *
+	 * @param conn the connection to check
+	 * @return true if the driver reports the connection valid
+	 */
+	private boolean isValid(Connection conn) {
+		try {
+			return conn.isValid(2);
+		} catch (SQLException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Closes a physical connection, ignoring any error.
+	 *
+	 * @param conn the connection to close
+	 */
+	private void closeQuietly(Connection conn) {
+		try {
+			conn.close();
+		} catch (SQLException ignored) {
+		}
+	}
+
+	/**
+	 * Wraps a physical connection in a handle whose {@code close()} returns it to
+	 * the pool and whose {@code prepareStatement} goes through the entry's
+	 * {@link StatementCache}. All other calls are delegated to the physical
+	 * connection.
+	 *
+	 * @param entry the pooled entry to wrap
+	 * @return the connection handle
+	 */
+	private Connection wrap(PooledEntry entry) {
+		InvocationHandler handler = new InvocationHandler() {
+			private boolean returned;
+
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+				switch (method.getName()) {
+				case "close":
+					if (!returned) {
+						returned = true;
+						release((Connection) proxy);
+					}
+					return null;
+				case "isClosed":
+					return returned || entry.physical.isClosed();
+				case "equals":
+					return proxy == args[0];
+				case "hashCode":
+					return System.identityHashCode(proxy);
+				case "toString":
+					return "Pooled" + entry.physical;
+				default:
+					if (returned)
+						throw new SQLException("Connection has already been returned to the pool.");
+					if (method.getName().equals("prepareStatement") && args.length == 1)
+						return entry.statements.prepare((String) args[0], (Connection) proxy);
+
+					Object result;
+					try {
+						result = method.invoke(entry.physical, args);
+					} catch (InvocationTargetException e) {
+						throw e.getCause();
+					}
+					if (result instanceof PreparedStatement ps && method.getName().equals("prepareStatement"))
+						return entry.statements.track(ps, (String) args[0], (Connection) proxy);
+					return result;
+				}
+			}
+		};
+		return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+				new Class<?>[] { Connection.class }, handler);
+	}
+
+	/**
+	 * A physical connection together with its pool bookkeeping.
+	 */
+	private static final class PooledEntry {
+
+		/**
+		 * The underlying driver connection.
+		 */
+		final Connection physical;
+
+		/**
+		 * When the physical connection was opened.
+		 */
+		final long createdAt;
+
+		/**
+		 * When the connection was last returned to the pool.
+		 */
+		volatile long lastUsedAt;
+
+		/**
+		 * When the connection was last borrowed.
+		 */
+		volatile long borrowedAt;
+
+		/**
+		 * The thread holding the current borrow, or null while idle.
+		 */
+		volatile Thread borrower;
+
+		/**
+		 * Stack trace of the current borrow, if borrow sites are captured.
+		 */
+		volatile Throwable borrowSite;
+
+		/**
+		 * Whether the current borrow has already been reported as a leak.
+		 */
+		volatile boolean leakReported;
+
+		/**
+		 * Registered statements prepared on this connection.
+		 */
+		final StatementCache statements;
+
+		/**
+		 * Creates an entry for a freshly opened connection.
+		 *
+		 * @param physical the driver connection
+		 * @param stats    the pool's statement statistics
+		 * @param trace    the pool's query trace
+		 */
+		PooledEntry(Connection physical, StatementStats stats, QueryTrace trace) {
+			this.physical = physical;
+			this.statements = new StatementCache(physical, stats, trace);
+			this.createdAt = System.currentTimeMillis();
+			this.lastUsedAt = createdAt;
+		}
+	}
+}
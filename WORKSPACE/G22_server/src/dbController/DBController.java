@@ -2,19 +2,28 @@ package dbController;
 
 import java.sql.Connection;
 import java.sql.Date;
-import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.Statement;
 import java.sql.Timestamp;
+import java.sql.Types;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.function.ToIntFunction;
 
+import common.dto.ListQuery;
 import common.dto.Notification.CustomerContactInfo;
+import common.dto.Notification.OutboxNotification;
 import common.dto.Reservation.InsertReservationResult;
 import common.dto.Reservation.ReservationBasicInfo;
 import common.dto.Reservation.WaitingCandidate;
@@ -27,6 +36,7 @@ import common.entity.SubscriberReportEntry;
 import common.entity.Table;
 import common.entity.TimeReportEntry;
 import common.enums.EmployeeRole;
+import common.enums.NotificationType;
 import common.enums.ReservationStatus;
 import common.enums.ReservationType;
 
@@ -65,29 +75,356 @@ public class DBController {
 	 */
 	private String password;
 
+	/**
+	 * Pool of physical connections shared by all database operations.
+	 */
+	private final ConnectionPool pool;
+
+	/**
+	 * Rows sent per {@code executeBatch} when storing a report.
+	 */
+	private static final int REPORT_BATCH_SIZE = 500;
+
+	/**
+	 * Most IDs bound into one {@code IN (...)} list; longer lists are sent in
+	 * chunks.
+	 */
+	private static final int IN_LIST_CHUNK = 500;
+
+	// ==================== HOT QUERIES ====================
+	// Shared with SchemaMigrator, which checks their plans on startup. Like the
+	// named lookups below, they are registered with StatementRegistry, so each
+	// pooled connection prepares them once and reuses them.
+
+	/**
+	 * Open reservations for the active list.
+	 */
+	static final String ACTIVE_RESERVATIONS_SQL = StatementRegistry.register("activeReservations", """
+			    SELECT * FROM reservation
+			    WHERE status IN ('ACTIVE','NOTIFIED','IN_PROGRESS')
+			    ORDER BY reservation_datetime ASC
+			""");
+
+	/**
+	 * The waitlist in arrival order.
+	 */
+	static final String WAITLIST_SQL = StatementRegistry.register("waitlist", """
+			    SELECT * FROM reservation
+			    WHERE status = 'WAITING'
+			    ORDER BY created_at ASC
+			""");
+
+	/**
+	 * Join shared by the conditional table claims. It finds NOTIFIED or
+	 * IN_PROGRESS reservations holding a table during a window, and a claim
+	 * applies only if it finds none ({@code busy.reservation_id IS NULL}).
+	 * Parameters: table ID, window end, window start minus the reservation
+	 * duration; see {@link #bindTableFree}.
+	 */
+	private static final String TABLE_FREE_JOIN = """
+			    LEFT JOIN reservation busy
+			           ON busy.table_id = ?
+			          AND busy.status IN ('NOTIFIED','IN_PROGRESS')
+			          AND busy.reservation_datetime < ?
+			          AND busy.reservation_datetime > ?
+			""";
+
+	// ==================== PAGED LISTS ====================
+
+	/**
+	 * Page order of reservation lists.
+	 */
+	private static final Keyset BY_RESERVATION_TIME = new Keyset("reservation_datetime", "reservation_id", true);
+
+	/**
+	 * Page order of the waitlist.
+	 */
+	private static final Keyset BY_CREATED_AT = new Keyset("created_at", "reservation_id", true);
+
+	/**
+	 * Page order of the subscriber list.
+	 */
+	private static final Keyset BY_CUSTOMER_NAME = new Keyset("full_name", "customer_id", false);
+
+	/**
+	 * Tables pinned by reservations overlapping a window. Parameters: window end,
+	 * window start minus the reservation duration.
+	 */
+	static final String PINNED_OVERLAP_SQL = StatementRegistry.register("pinnedTableOverlap", """
+			    SELECT DISTINCT table_id
+			    FROM reservation
+			    WHERE status IN ('IN_PROGRESS', 'NOTIFIED')
+			      AND table_id IS NOT NULL
+			      AND reservation_datetime < ?
+			      AND reservation_datetime > ?
+			""");
+
+	/**
+	 * Guest counts of unassigned ACTIVE reservations overlapping a window.
+	 * Parameters: window end, window start minus the reservation duration.
+	 */
+	static final String ACTIVE_OVERLAP_SQL = StatementRegistry.register("activeGuestOverlap", """
+			    SELECT number_of_guests
+			    FROM reservation
+			    WHERE status = 'ACTIVE'
+			      AND table_id IS NULL
+			      AND reservation_datetime < ?
+			      AND reservation_datetime > ?
+			""");
+
+	/**
+	 * Waiting reservations that fit a capacity, in arrival order. Parameter: the
+	 * capacity.
+	 */
+	static final String WAITING_CANDIDATES_SQL = StatementRegistry.register("waitingCandidates", """
+			    SELECT reservation_id, customer_id, number_of_guests
+			    FROM reservation
+			    WHERE status = 'WAITING'
+			      AND number_of_guests <= ?
+			    ORDER BY created_at ASC
+			""");
+
+	/**
+	 * Reservations in one status within a time range. Parameters: status, range
+	 * start, range end (inclusive).
+	 */
+	static final String STATUS_WINDOW_SQL = StatementRegistry.register("statusWindow", """
+			    SELECT
+			        reservation_id,
+			        reservation_datetime,
+			        number_of_guests,
+			        confirmation_code,
+			        customer_id,
+			        created_at,
+			        table_id,
+			        status,
+			        type,
+			        reminder_sent,
+			        checked_in_at,
+			        checked_out_at
+			    FROM reservation
+			    WHERE status = ?
+			      AND reservation_datetime >= ?
+			      AND reservation_datetime <= ?
+			    ORDER BY reservation_datetime ASC, reservation_id ASC
+			""");
+
+	/**
+	 * Completed visits checked in within a month. Parameters: month start, next
+	 * month start (exclusive).
+	 */
+	static final String TIME_REPORT_SQL = StatementRegistry.register("timeReport", """
+			    SELECT r.reservation_id, r.reservation_datetime, r.checked_in_at, r.checked_out_at,
+			           r.number_of_guests, c.full_name, c.is_subscribed
+			    FROM reservation r
+			    JOIN customer c ON r.customer_id = c.customer_id
+			    WHERE r.status = 'COMPLETED'
+			      AND r.checked_in_at >= ?
+			      AND r.checked_in_at < ?
+			    ORDER BY r.checked_in_at
+			""");
+
+	/**
+	 * Per-subscriber reservation counts for reservations created within a month.
+	 * Parameters: month start, next month start (exclusive).
+	 */
+	static final String SUBSCRIBER_REPORT_SQL = StatementRegistry.register("subscriberReport", """
+			    SELECT c.customer_id, c.full_name, c.subscription_code,
+			           COALESCE(m.total_reservations, 0) AS total_reservations,
+			           COALESCE(m.completed, 0) AS completed,
+			           COALESCE(m.cancelled, 0) AS cancelled,
+			           COALESCE(m.waitlist_entries, 0) AS waitlist_entries
+			    FROM customer c
+			    LEFT JOIN (
+			        SELECT r.customer_id,
+			               COUNT(*) AS total_reservations,
+			               SUM(CASE WHEN r.status = 'COMPLETED' THEN 1 ELSE 0 END) AS completed,
+			               SUM(CASE WHEN r.status = 'CANCELED' THEN 1 ELSE 0 END) AS cancelled,
+			               SUM(CASE WHEN r.type = 'WALKIN' THEN 1 ELSE 0 END) AS waitlist_entries
+			        FROM reservation r
+			        WHERE r.created_at >= ?
+			          AND r.created_at < ?
+			        GROUP BY r.customer_id
+			    ) m ON m.customer_id = c.customer_id
+			    WHERE c.is_subscribed = 1
+			    ORDER BY total_reservations DESC
+			""");
+
+	// ==================== NAMED LOOKUPS ====================
+
+	/**
+	 * Reservation by confirmation code.
+	 */
+	private static final String RESERVATION_BY_CODE_SQL = StatementRegistry.register("findReservationByConfirmationCode", """
+			    SELECT *
+			    FROM reservation
+			    WHERE confirmation_code = ?
+			    LIMIT 1
+			""");
+
+	/**
+	 * Reservation by ID.
+	 */
+	private static final String RESERVATION_BY_ID_SQL = StatementRegistry.register("findReservationById", """
+			    SELECT *
+			    FROM reservation
+			    WHERE reservation_id = ?
+			    LIMIT 1
+			""");
+
+	/**
+	 * Status of a reservation.
+	 */
+	private static final String RESERVATION_STATUS_SQL = StatementRegistry.register("getReservationStatus",
+			"SELECT status FROM reservation WHERE reservation_id=?");
+
+	/**
+	 * Contact details of the customer of a reservation.
+	 */
+	private static final String CONTACT_BY_RESERVATION_SQL = StatementRegistry.register("getContactInfoByReservationId", """
+			    SELECT c.customer_id, c.full_name, c.phone, c.email
+			    FROM reservation r
+			    JOIN customer c ON c.customer_id = r.customer_id
+			    WHERE r.reservation_id = ?
+			    LIMIT 1
+			""");
+
+	/**
+	 * Customer name, time, guests and code of a reservation.
+	 */
+	private static final String BASIC_INFO_BY_RESERVATION_SQL = StatementRegistry.register("getReservationBasicInfo", """
+			    SELECT c.full_name, r.reservation_datetime, r.number_of_guests, r.confirmation_code
+			    FROM reservation r
+			    JOIN customer c ON c.customer_id = r.customer_id
+			    WHERE r.reservation_id = ?
+			    LIMIT 1
+			""");
+
+	/**
+	 * Cancellable (ACTIVE, NOTIFIED, WAITING) reservations of a customer.
+	 */
+	private static final String CANCELLABLE_BY_CUSTOMER_SQL = StatementRegistry.register("getCancellableReservations",
+			"SELECT * FROM reservation WHERE customer_id=? AND status IN ('ACTIVE','NOTIFIED', 'WAITING')"
+					+ " ORDER BY reservation_datetime DESC");
+
+	/**
+	 * Cancellable reservation by confirmation code.
+	 */
+	private static final String CANCELLABLE_BY_CODE_SQL = StatementRegistry.register("getCancellableReservationByCode",
+			"SELECT * FROM reservation WHERE confirmation_code = ? AND status IN"
+					+ " ('ACTIVE','NOTIFIED', 'WAITING') LIMIT 1");
+
+	/**
+	 * Receivable (ACTIVE or NOTIFIED, due now) reservations of a customer.
+	 */
+	private static final String RECEIVABLE_BY_CUSTOMER_SQL = StatementRegistry.register("getReceivableReservations",
+			"SELECT * FROM reservation WHERE customer_id=? AND status IN ('ACTIVE','NOTIFIED')"
+					+ " And reservation_datetime <= NOW()" + " ORDER BY reservation_datetime DESC");
+
+	/**
+	 * Receivable reservation by confirmation code.
+	 */
+	private static final String RECEIVABLE_BY_CODE_SQL = StatementRegistry.register("getReceivableReservationByCode",
+			"SELECT * FROM reservation WHERE confirmation_code = ? AND status IN"
+					+ " ('ACTIVE','NOTIFIED') And reservation_datetime <= NOW() LIMIT 1");
+
+	/**
+	 * Payable (IN_PROGRESS) reservations of a customer.
+	 */
+	private static final String PAYABLE_BY_CUSTOMER_SQL = StatementRegistry.register("getPayableReservations",
+			"SELECT * FROM reservation WHERE customer_id=? AND status = 'IN_PROGRESS'"
+					+ " ORDER BY reservation_datetime DESC");
+
+	/**
+	 * Payable reservation by confirmation code.
+	 */
+	private static final String PAYABLE_BY_CODE_SQL = StatementRegistry.register("getPayableReservationByCode",
+			"SELECT * FROM reservation WHERE confirmation_code = ? AND status = 'IN_PROGRESS' LIMIT 1");
+
 	/**
 	 * Constructs a new DBController with the specified database connection
-	 * parameters.
+	 * parameters and the default pool size.
 	 *
 	 * @param dbName     the name of the database to connect to
 	 * @param dbUser     the username for database authentication
 	 * @param dbPassword the password for database authentication
 	 */
 	public DBController(String dbName, String dbUser, String dbPassword) {
-		this.url = "jdbc:mysql://127.0.0.1:3306/" + dbName + "?serverTimezone=Asia/Jerusalem";
+		this(dbName, dbUser, dbPassword, ConnectionPool.DEFAULT_MAX_POOL_SIZE);
+	}
+
+	/**
+	 * Constructs a new DBController with the specified database connection
+	 * parameters and connection pool size.
+	 *
+	 * @param dbName      the name of the database to connect to
+	 * @param dbUser      the username for database authentication
+	 * @param dbPassword  the password for database authentication
+	 * @param maxPoolSize the maximum number of pooled connections
+	 */
+	public DBController(String dbName, String dbUser, String dbPassword, int maxPoolSize) {
+		this.url = "jdbc:mysql://127.0.0.1:3306/" + dbName + "?serverTimezone=Asia/Jerusalem&rewriteBatchedStatements=true"
+				+ "&useServerPrepStmts=true&cachePrepStmts=true&prepStmtCacheSize=250&prepStmtCacheSqlLimit=4096";
 		this.user = dbUser;
 		this.password = dbPassword;
+		this.pool = new ConnectionPool(url, user, password, maxPoolSize);
 	}
 
 	/**
-	 * Establishes and returns a connection to the database.
+	 * Borrows a connection from the pool. Closing the returned connection gives
+	 * it back to the pool instead of closing the physical connection.
 	 *
 	 * @return a Connection object to the database
 	 * @throws SQLException if a database access error occurs
 	 */
 	private Connection getConnection() throws SQLException {
-		return DriverManager.getConnection(url, user, password);
+		return pool.borrow();
+	}
+
+	/**
+	 * Returns the connection pool, for reading its gauges.
+	 *
+	 * @return the connection pool
+	 */
+	public ConnectionPool getPool() {
+		return pool;
+	}
+
+	/**
+	 * Runs several writes on one connection in one transaction. Callers use the
+	 * {@code Connection}-taking overloads (for example
+	 * {@link #insertReservation(Connection, int, LocalDateTime, int)} and
+	 * {@link #enqueueNotification(Connection, int, NotificationType, Double, Double, boolean)})
+	 * inside the work, so a state change and the notification it causes are
+	 * committed together or not at all.
+	 *
+	 * @param <T>  the result type
+	 * @param work the writes to run
+	 * @return the result of the work
+	 * @throws SQLException if a database access error occurs (nothing is
+	 *                      committed in that case)
+	 */
+	public <T> T inTransaction(Transaction<T> work) throws SQLException {
+		try (Connection conn = getConnection()) {
+			conn.setAutoCommit(false);
+			try {
+				T result = work.run(conn);
+				conn.commit();
+				return result;
+			} catch (SQLException | RuntimeException e) {
+				conn.rollback();
+				throw e;
+			} finally {
+				conn.setAutoCommit(true);
+			}
+		}
+	}
 
+	/**
+	 * Closes all pooled connections. Called when the server stops.
+	 */
+	public void close() {
+		pool.close();
 	}
 
 	/**
@@ -139,7 +476,7 @@ public class DBController {
 	public List<Reservation> getActiveReservations() throws SQLException {
 		List<Reservation> result = new ArrayList<>();// array list to insert the Reservations in it
 
-		String sql = "SELECT * FROM reservation WHERE status IN ('ACTIVE','NOTIFIED','IN_PROGRESS')  ORDER BY reservation_datetime ASC";
+		String sql = ACTIVE_RESERVATIONS_SQL;
 
 		try (Connection conn = getConnection();
 				PreparedStatement ps = conn.prepareStatement(sql);
@@ -166,7 +503,7 @@ public class DBController {
 	public List<Reservation> getWaitlistReservations() throws SQLException {
 		List<Reservation> result = new ArrayList<>();
 
-		String sql = "SELECT * FROM reservation WHERE status = 'WAITING' ORDER BY created_at ASC";
+		String sql = WAITLIST_SQL;
 
 		try (Connection conn = getConnection();
 				PreparedStatement ps = conn.prepareStatement(sql);
@@ -179,6 +516,74 @@ public class DBController {
 		return result;
 	}
 
+	/**
+	 * Retrieves one page of reservations ordered by reservation time. Without a
+	 * status filter the page is taken from the active reservations; with one, from
+	 * every reservation in that status, including past ones.
+	 *
+	 * @param query the filter, order and page position
+	 * @return the page
+	 * @throws SQLException             if a database access error occurs
+	 * @throws IllegalArgumentException if the cursor is malformed
+	 */
+	public Page<Reservation> getReservationsPage(ListQuery query) throws SQLException {
+		ReservationStatus status = query.getStatus();
+		if (status == null)
+			return reservationPage("status IN ('ACTIVE','NOTIFIED','IN_PROGRESS')", List.of(), BY_RESERVATION_TIME,
+					query, Reservation::getReservationDateTime);
+		return reservationPage("status = ?", List.of(status.name()), BY_RESERVATION_TIME, query,
+				Reservation::getReservationDateTime);
+	}
+
+	/**
+	 * Retrieves one page of the waitlist ordered by arrival. The status filter of
+	 * the query is ignored.
+	 *
+	 * @param query the filter, order and page position
+	 * @return the page
+	 * @throws SQLException             if a database access error occurs
+	 * @throws IllegalArgumentException if the cursor is malformed
+	 */
+	public Page<Reservation> getWaitlistPage(ListQuery query) throws SQLException {
+		return reservationPage("status = 'WAITING'", List.of(), BY_CREATED_AT, query, Reservation::getCreatedAt);
+	}
+
+	/**
+	 * Runs a paged reservation query. A numeric search matches the reservation ID,
+	 * confirmation code or customer ID; any other search matches part of the
+	 * customer's name, email or phone.
+	 *
+	 * @param filter the status condition
+	 * @param params the parameters of the status condition
+	 * @param keyset the page order
+	 * @param query  the search, order and page position
+	 * @param keyOf  reads the sort value of a row
+	 * @return the page
+	 * @throws SQLException if a database access error occurs
+	 */
+	private Page<Reservation> reservationPage(String filter, List<Object> params, Keyset keyset, ListQuery query,
+			Function<Reservation, Object> keyOf) throws SQLException {
+		StringBuilder sql = new StringBuilder("SELECT * FROM reservation WHERE ").append(filter);
+		List<Object> args = new ArrayList<>(params);
+
+		String search = query.getSearch();
+		if (search != null) {
+			Integer number = parseNumber(search);
+			if (number != null) {
+				sql.append(" AND (reservation_id = ? OR confirmation_code = ? OR customer_id = ?)");
+				Collections.addAll(args, number, number, number);
+			} else {
+				String like = containsPattern(search);
+				sql.append(" AND customer_id IN (SELECT customer_id FROM customer"
+						+ " WHERE full_name LIKE ? OR email LIKE ? OR phone LIKE ?)");
+				Collections.addAll(args, like, like, like);
+			}
+		}
+
+		List<Reservation> rows = runPage(sql, args, keyset, query, this::mapReservation);
+		return toPage(rows, query.getPageSize(), keyset, keyOf, Reservation::getReservationId);
+	}
+
 	/**
 	 * Updates the datetime and number of guests for an existing reservation.
 	 *
@@ -218,6 +623,26 @@ public class DBController {
 	 */
 	public InsertReservationResult insertReservation(int customerId, LocalDateTime reservationDateTime,
 			int numberOfGuests) throws SQLException {
+		try (Connection conn = getConnection()) {
+			return insertReservation(conn, customerId, reservationDateTime, numberOfGuests);
+		}
+	}
+
+	/**
+	 * Inserts a new advance reservation on the given connection, so it can be
+	 * part of a caller's transaction.
+	 *
+	 * @param conn                the connection to use
+	 * @param customerId          the ID of the customer making the reservation
+	 * @param reservationDateTime the date and time of the reservation
+	 * @param numberOfGuests      the number of guests for the reservation
+	 * @return an InsertReservationResult containing the reservation ID and
+	 *         confirmation code, or null if insertion failed
+	 * @throws SQLException if a database access error occurs
+	 * @see #insertReservation(int, LocalDateTime, int)
+	 */
+	public InsertReservationResult insertReservation(Connection conn, int customerId,
+			LocalDateTime reservationDateTime, int numberOfGuests) throws SQLException {
 
 		String sql = "INSERT INTO reservation (reservation_datetime, number_of_guests, confirmation_code,"
 				+ " customer_id, created_at, type) VALUES (?, ?, ?, ?, ?, ?)";
@@ -228,8 +653,7 @@ public class DBController {
 
 			int confirmationCode = (int) (Math.random() * 900000) + 100000; // 6 digits
 
-			try (Connection conn = getConnection();
-					PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+			try (PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
 
 				ps.setTimestamp(1, Timestamp.valueOf(reservationDateTime));
 				ps.setInt(2, numberOfGuests);
@@ -263,21 +687,62 @@ public class DBController {
 
 	/**
 	 * Inserts a new walk-in reservation with NOTIFIED status and assigns a table
-	 * immediately.
+	 * immediately, provided the table is still free.
+	 * <p>
+	 * The check and the insert are one statement: the row is inserted only if no
+	 * NOTIFIED or IN_PROGRESS reservation holds the table within
+	 * {@code durationMin} of now. Two callers claiming the same table cannot
+	 * both succeed.
+	 * </p>
 	 *
 	 * @param customerId     the ID of the customer
 	 * @param numberOfGuests the number of guests
 	 * @param tableId        the ID of the table to assign
+	 * @param durationMin    the reservation duration in minutes
 	 * @return an InsertReservationResult containing the reservation ID and
-	 *         confirmation code, or null if insertion failed
+	 *         confirmation code, or null if the table was taken or insertion
+	 *         failed
 	 * @throws SQLException if a database access error occurs
 	 */
-	public InsertReservationResult insertNotifiedNow(int customerId, int numberOfGuests, int tableId)
-			throws SQLException {
+	public InsertReservationResult insertNotifiedNow(int customerId, int numberOfGuests, int tableId,
+			int durationMin) throws SQLException {
+		try (Connection conn = getConnection()) {
+			return insertNotifiedNow(conn, customerId, numberOfGuests, tableId, durationMin);
+		}
+	}
+
+	/**
+	 * Inserts a new walk-in reservation with NOTIFIED status on the given
+	 * connection, so it can be part of a caller's transaction. A lost lock
+	 * conflict may roll back the whole transaction in InnoDB, so the claim should
+	 * be its first write.
+	 *
+	 * @param conn           the connection to use
+	 * @param customerId     the ID of the customer
+	 * @param numberOfGuests the number of guests
+	 * @param tableId        the ID of the table to assign
+	 * @param durationMin    the reservation duration in minutes
+	 * @return an InsertReservationResult containing the reservation ID and
+	 *         confirmation code, or null if the table was taken or insertion
+	 *         failed
+	 * @throws SQLException if a database access error occurs
+	 * @see #insertNotifiedNow(int, int, int, int)
+	 */
+	public InsertReservationResult insertNotifiedNow(Connection conn, int customerId, int numberOfGuests,
+			int tableId, int durationMin) throws SQLException {
 		String sql = """
-				                        INSERT INTO reservation (reservation_datetime, number_of_guests, confirmation_code,
-				                customer_id, created_at, status, type, table_id)
-				VALUES (?, ?, ?, ?, ?, 'NOTIFIED', 'WALKIN', ?)
+				    INSERT INTO reservation (reservation_datetime, number_of_guests, confirmation_code,
+				                             customer_id, created_at, status, type, table_id)
+				    SELECT ?, ?, ?, ?, ?, 'NOTIFIED', 'WALKIN', ?
+				    FROM DUAL
+				    WHERE NOT EXISTS (
+				        SELECT 1
+				        FROM reservation busy
+				        WHERE busy.table_id = ?
+				          AND busy.status IN ('NOTIFIED','IN_PROGRESS')
+				          AND busy.reservation_datetime < ?
+				          AND busy.reservation_datetime > ?
+				    )
 				""";
 
 		LocalDateTime now = LocalDateTime.now();
@@ -285,8 +750,7 @@ public class DBController {
 		for (int attempt = 1; attempt <= 5; attempt++) {
 			int confirmationCode = (int) (Math.random() * 900000) + 100000;
 
-			try (Connection conn = getConnection();
-					PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+			try (PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
 
 				ps.setTimestamp(1, Timestamp.valueOf(now));
 				ps.setInt(2, numberOfGuests);
@@ -294,10 +758,13 @@ public class DBController {
 				ps.setInt(4, customerId);
 				ps.setTimestamp(5, Timestamp.valueOf(now));
 				ps.setInt(6, tableId);
+				ps.setInt(7, tableId);
+				ps.setTimestamp(8, Timestamp.valueOf(now.plusMinutes(durationMin)));
+				ps.setTimestamp(9, Timestamp.valueOf(now.minusMinutes(durationMin)));
 
 				int inserted = ps.executeUpdate();
 				if (inserted != 1) {
-					return null;
+					return null; // table taken
 				}
 
 				try (ResultSet keys = ps.getGeneratedKeys()) {
@@ -309,6 +776,8 @@ public class DBController {
 			} catch (SQLException e) {
 				if (e.getErrorCode() == 1062)
 					continue;
+				if (isClaimConflict(e))
+					return null;
 				throw e;
 			}
 		}
@@ -366,29 +835,6 @@ public class DBController {
 		return null;
 	}
 
-	/**
-	 * Retrieves a mapping of table IDs to their capacities.
-	 *
-	 * @return a Map with table ID as key and capacity as value
-	 * @throws SQLException if a database access error occurs
-	 */
-	public Map<Integer, Integer> getTableIdToCapacity() throws SQLException {
-		Map<Integer, Integer> map = new HashMap<>();
-		String sql = "SELECT table_id, capacity FROM restaurant_table";
-
-		try (Connection conn = getConnection();
-				PreparedStatement ps = conn.prepareStatement(sql);
-				ResultSet rs = ps.executeQuery()) {
-
-			while (rs.next()) {
-				int tableId = rs.getInt("table_id");
-				int cap = rs.getInt("capacity");
-				map.put(tableId, cap);
-			}
-		}
-		return map;
-	}
-
 	/**
 	 * Returns table IDs of reservations that are pinned to a table right now
 	 * (IN_PROGRESS or NOTIFIED) and overlap the given time window.
@@ -402,17 +848,15 @@ public class DBController {
 	public List<Integer> getOverlappingPinnedTableIds(LocalDateTime start, int durationMin) throws SQLException {
 		List<Integer> tableIds = new ArrayList<>();
 
-		String sql = "SELECT DISTINCT table_id " + "FROM reservation " + "WHERE status IN ('IN_PROGRESS', 'NOTIFIED') "
-				+ "  AND table_id IS NOT NULL " + "  AND reservation_datetime < ? "
-				+ "  AND DATE_ADD(reservation_datetime, INTERVAL ? MINUTE) > ?";
+		String sql = PINNED_OVERLAP_SQL;
 
 		LocalDateTime end = start.plusMinutes(durationMin);
 
 		try (Connection conn = getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
 
 			ps.setTimestamp(1, Timestamp.valueOf(end)); // existingStart < newEnd
-			ps.setInt(2, durationMin); // existingEnd = start + duration
-			ps.setTimestamp(3, Timestamp.valueOf(start)); // existingEnd > newStart
+			// existingStart + duration > newStart, kept index-friendly
+			ps.setTimestamp(2, Timestamp.valueOf(start.minusMinutes(durationMin)));
 
 			try (ResultSet rs = ps.executeQuery()) {
 				while (rs.next()) {
@@ -437,17 +881,14 @@ public class DBController {
 	public List<Integer> getOverlappingActiveGuests(LocalDateTime start, int durationMin) throws SQLException {
 		List<Integer> guests = new ArrayList<>();
 
-		String sql = "SELECT number_of_guests " + "FROM reservation " + "WHERE status = 'ACTIVE' "
-				+ "  AND table_id IS NULL " + "  AND reservation_datetime < ? "
-				+ "  AND DATE_ADD(reservation_datetime, INTERVAL ? MINUTE) > ?";
+		String sql = ACTIVE_OVERLAP_SQL;
 
 		LocalDateTime end = start.plusMinutes(durationMin);
 
 		try (Connection conn = getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
 
 			ps.setTimestamp(1, Timestamp.valueOf(end));
-			ps.setInt(2, durationMin);
-			ps.setTimestamp(3, Timestamp.valueOf(start));
+			ps.setTimestamp(2, Timestamp.valueOf(start.minusMinutes(durationMin)));
 
 			try (ResultSet rs = ps.executeQuery()) {
 				while (rs.next()) {
@@ -460,16 +901,20 @@ public class DBController {
 	}
 
 	/**
-	 * Finds an available table that can accommodate the specified number of guests
-	 * during the given time window.
+	 * Finds the tables that can accommodate the specified number of guests during
+	 * the given time window. The result is only a list of candidates: another
+	 * request may take a table before it is claimed, so tables are assigned
+	 * with the conditional claims ({@link #seatWithTableIfFree},
+	 * {@link #insertNotifiedNow}, {@link #notifyWaitlistReservation}).
 	 *
 	 * @param start       the start time of the reservation
 	 * @param durationMin the expected duration of the reservation in minutes
 	 * @param guests      the number of guests to accommodate
-	 * @return the table ID of an available table, or null if no table is available
+	 * @return the IDs of the available tables, smallest capacity first
 	 * @throws SQLException if a database access error occurs
 	 */
-	public Integer findAvailableTableId(LocalDateTime start, int durationMin, int guests) throws SQLException {
+	public List<Integer> findAvailableTableIds(LocalDateTime start, int durationMin, int guests)
+			throws SQLException {
 
 		String sql = """
 				    SELECT t.table_id
@@ -482,27 +927,26 @@ public class DBController {
 				            AND r.status IN ('NOTIFIED','IN_PROGRESS')
 				            AND r.reservation_datetime IS NOT NULL
 				            AND r.reservation_datetime < ?
-				            AND DATE_ADD(r.reservation_datetime, INTERVAL ? MINUTE) > ?
+				            AND r.reservation_datetime > ?
 				      )
-				    ORDER BY t.capacity ASC
-				    LIMIT 1
+				    ORDER BY t.capacity ASC, t.table_id ASC
 				""";
 
 		LocalDateTime end = start.plusMinutes(durationMin);
+		List<Integer> ids = new ArrayList<>();
 
 		try (Connection conn = getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
 			ps.setInt(1, guests);
 			ps.setTimestamp(2, Timestamp.valueOf(end)); // existingStart < newEnd
-			ps.setInt(3, durationMin); // interval
-			ps.setTimestamp(4, Timestamp.valueOf(start)); // existingEnd > newStart
+			ps.setTimestamp(3, Timestamp.valueOf(start.minusMinutes(durationMin))); // existingEnd > newStart
 
 			try (ResultSet rs = ps.executeQuery()) {
-				if (rs.next())
-					return rs.getInt(1);
+				while (rs.next())
+					ids.add(rs.getInt(1));
 			}
 		}
 
-		return null;
+		return ids;
 	}
 
 	/**
@@ -595,12 +1039,7 @@ public class DBController {
 	 * @throws SQLException if a database access error occurs
 	 */
 	public Reservation findReservationByConfirmationCode(int code) throws SQLException {
-		String sql = """
-				    SELECT *
-				    FROM reservation
-				    WHERE confirmation_code = ?
-				    LIMIT 1
-				""";
+		String sql = RESERVATION_BY_CODE_SQL;
 
 		try (Connection conn = getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
 
@@ -621,12 +1060,7 @@ public class DBController {
 	 * @throws SQLException if a database access error occurs
 	 */
 	public Reservation findReservationById(int reservationId) throws SQLException {
-		String sql = """
-				    SELECT *
-				    FROM reservation
-				    WHERE reservation_id = ?
-				    LIMIT 1
-				""";
+		String sql = RESERVATION_BY_ID_SQL;
 		try (Connection conn = getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
 			ps.setInt(1, reservationId);
 			try (ResultSet rs = ps.executeQuery()) {
@@ -637,6 +1071,39 @@ public class DBController {
 		}
 	}
 
+	/**
+	 * Finds several reservations by ID with one {@code IN (...)} query per
+	 * {@link #IN_LIST_CHUNK} IDs.
+	 *
+	 * @param reservationIds the reservation IDs
+	 * @return the reservations found, in no particular order
+	 * @throws SQLException if a database access error occurs
+	 */
+	public List<Reservation> findReservationsByIds(Collection<Integer> reservationIds) throws SQLException {
+		List<Reservation> result = new ArrayList<>();
+		if (reservationIds.isEmpty())
+			return result;
+
+		List<Integer> ids = new ArrayList<>(new LinkedHashSet<>(reservationIds));
+
+		try (Connection conn = getConnection()) {
+			for (int from = 0; from < ids.size(); from += IN_LIST_CHUNK) {
+				List<Integer> chunk = ids.subList(from, Math.min(ids.size(), from + IN_LIST_CHUNK));
+				String sql = "SELECT * FROM reservation WHERE reservation_id IN (%s)"
+						.formatted(placeholders(chunk.size()));
+
+				try (PreparedStatement ps = conn.prepareStatement(sql)) {
+					bindIds(ps, 1, chunk);
+					try (ResultSet rs = ps.executeQuery()) {
+						while (rs.next())
+							result.add(mapReservation(rs));
+					}
+				}
+			}
+		}
+		return result;
+	}
+
 	/**
 	 * Creates a new guest (non-subscribed) customer in the database.
 	 *
@@ -674,6 +1141,24 @@ public class DBController {
 	 * @throws SQLException if a database access error occurs
 	 */
 	public boolean updateReservationStatus(int reservationId, String newStatus) throws SQLException {
+		try (Connection conn = getConnection()) {
+			return updateReservationStatus(conn, reservationId, newStatus);
+		}
+	}
+
+	/**
+	 * Updates the status of a reservation on the given connection, so it can be
+	 * part of a caller's transaction.
+	 *
+	 * @param conn          the connection to use
+	 * @param reservationId the ID of the reservation to update
+	 * @param newStatus     the new status to set
+	 * @return true if the update was successful, false otherwise
+	 * @throws SQLException if a database access error occurs
+	 * @see #updateReservationStatus(int, String)
+	 */
+	public boolean updateReservationStatus(Connection conn, int reservationId, String newStatus)
+			throws SQLException {
 		String sql;
 		if ("COMPLETED".equals(newStatus)) {
 			sql = "UPDATE reservation SET status=?, checked_out_at=NOW() WHERE reservation_id=?";
@@ -683,13 +1168,98 @@ public class DBController {
 			sql = "UPDATE reservation SET status=? WHERE reservation_id=?";
 		}
 
-		try (Connection conn = getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
+		try (PreparedStatement ps = conn.prepareStatement(sql)) {
 			ps.setString(1, newStatus);
 			ps.setInt(2, reservationId);
 			return ps.executeUpdate() > 0;
 		}
 	}
 
+	/**
+	 * Moves many reservations to a new status in one transaction, but only those
+	 * currently in one of the expected statuses. The matching rows are locked and
+	 * then changed with a single conditional {@code UPDATE ... WHERE reservation_id
+	 * IN (...) AND status IN (...)} per {@link #IN_LIST_CHUNK} IDs, so a row that
+	 * another request moved in the meantime (for example a party that just
+	 * checked in) is left alone.
+	 * <p>
+	 * Like {@link #updateReservationStatus(int, String)}, moving to COMPLETED or
+	 * IN_PROGRESS also stamps the check-out or check-in time.
+	 * </p>
+	 *
+	 * @param reservationIds the reservations to move
+	 * @param from           the statuses a reservation must be in to be moved
+	 * @param to             the new status
+	 * @return the IDs that were actually changed
+	 * @throws SQLException if a database access error occurs
+	 */
+	public List<Integer> transitionReservations(Collection<Integer> reservationIds, Set<ReservationStatus> from,
+			ReservationStatus to) throws SQLException {
+		if (reservationIds.isEmpty() || from.isEmpty())
+			return new ArrayList<>();
+		return inTransaction(conn -> transitionReservations(conn, reservationIds, from, to));
+	}
+
+	/**
+	 * Moves many reservations to a new status on the given connection, so the
+	 * notifications about the change can be queued in the same transaction.
+	 *
+	 * @param conn           the connection to use, with auto-commit off
+	 * @param reservationIds the reservations to move
+	 * @param from           the statuses a reservation must be in to be moved
+	 * @param to             the new status
+	 * @return the IDs that were actually changed
+	 * @throws SQLException if a database access error occurs
+	 * @see #transitionReservations(Collection, Set, ReservationStatus)
+	 */
+	public List<Integer> transitionReservations(Connection conn, Collection<Integer> reservationIds,
+			Set<ReservationStatus> from, ReservationStatus to) throws SQLException {
+		List<Integer> changed = new ArrayList<>();
+		if (reservationIds.isEmpty() || from.isEmpty())
+			return changed;
+
+		List<Integer> ids = new ArrayList<>(new LinkedHashSet<>(reservationIds));
+		String statuses = placeholders(from.size());
+		String stamp = switch (to) {
+		case COMPLETED -> ", checked_out_at=NOW()";
+		case IN_PROGRESS -> ", checked_in_at=NOW()";
+		default -> "";
+		};
+
+		for (int start = 0; start < ids.size(); start += IN_LIST_CHUNK) {
+			List<Integer> chunk = ids.subList(start, Math.min(ids.size(), start + IN_LIST_CHUNK));
+
+			String lock = "SELECT reservation_id FROM reservation WHERE reservation_id IN (%s)"
+					.formatted(placeholders(chunk.size())) + " AND status IN (" + statuses + ") FOR UPDATE";
+
+			List<Integer> matched = new ArrayList<>();
+			try (PreparedStatement ps = conn.prepareStatement(lock)) {
+				int i = bindIds(ps, 1, chunk);
+				for (ReservationStatus st : from)
+					ps.setString(i++, st.name());
+				try (ResultSet rs = ps.executeQuery()) {
+					while (rs.next())
+						matched.add(rs.getInt("reservation_id"));
+				}
+			}
+			if (matched.isEmpty())
+				continue;
+
+			String update = "UPDATE reservation SET status=?" + stamp + " WHERE reservation_id IN (%s)"
+					.formatted(placeholders(matched.size())) + " AND status IN (" + statuses + ")";
+
+			try (PreparedStatement ps = conn.prepareStatement(update)) {
+				ps.setString(1, to.name());
+				int i = bindIds(ps, 2, matched);
+				for (ReservationStatus st : from)
+					ps.setString(i++, st.name());
+				ps.executeUpdate();
+			}
+			changed.addAll(matched);
+		}
+		return changed;
+	}
+
 	/**
 	 * Gets the customer ID associated with a reservation.
 	 *
@@ -717,7 +1287,7 @@ public class DBController {
 	 * @throws SQLException if a database access error occurs
 	 */
 	public String getReservationStatus(int reservationId) throws SQLException {
-		String sql = "SELECT status FROM reservation WHERE reservation_id=?";
+		String sql = RESERVATION_STATUS_SQL;
 		try (Connection conn = getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
 			ps.setInt(1, reservationId);
 			try (ResultSet rs = ps.executeQuery()) {
@@ -737,8 +1307,7 @@ public class DBController {
 	 * @throws SQLException if a database access error occurs
 	 */
 	public List<Reservation> getCancellableReservationsByCustomerId(int customerId) throws SQLException {
-		String sql = "SELECT * FROM reservation WHERE customer_id=? AND status IN ('ACTIVE','NOTIFIED', 'WAITING')"
-				+ " ORDER BY reservation_datetime DESC";
+		String sql = CANCELLABLE_BY_CUSTOMER_SQL;
 		List<Reservation> list = new ArrayList<>();
 
 		try (Connection conn = getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
@@ -761,8 +1330,7 @@ public class DBController {
 	 * @throws SQLException if a database access error occurs
 	 */
 	public Reservation getCancellableReservationByCode(int confirmationCode) throws SQLException {
-		String sql = "SELECT * FROM reservation WHERE confirmation_code = ? AND status IN"
-				+ " ('ACTIVE','NOTIFIED', 'WAITING') LIMIT 1";
+		String sql = CANCELLABLE_BY_CODE_SQL;
 
 		Reservation reservation = null;
 		try (Connection conn = getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
@@ -785,8 +1353,7 @@ public class DBController {
 	 * @throws SQLException if a database access error occurs
 	 */
 	public List<Reservation> getReceivableReservationsByCustomerId(int customerId) throws SQLException {
-		String sql = "SELECT * FROM reservation WHERE customer_id=? AND status IN ('ACTIVE','NOTIFIED')"
-				+ " And reservation_datetime <= NOW()" + " ORDER BY reservation_datetime DESC";
+		String sql = RECEIVABLE_BY_CUSTOMER_SQL;
 		List<Reservation> list = new ArrayList<>();
 
 		try (Connection conn = getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
@@ -809,8 +1376,7 @@ public class DBController {
 	 * @throws SQLException if a database access error occurs
 	 */
 	public Reservation getReceivableReservationByCode(int confirmationCode) throws SQLException {
-		String sql = "SELECT * FROM reservation WHERE confirmation_code = ? AND status IN"
-				+ " ('ACTIVE','NOTIFIED') And reservation_datetime <= NOW() LIMIT 1";
+		String sql = RECEIVABLE_BY_CODE_SQL;
 
 		Reservation reservation = null;
 		try (Connection conn = getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
@@ -833,8 +1399,7 @@ public class DBController {
 	 * @throws SQLException if a database access error occurs
 	 */
 	public List<Reservation> getPayableReservationsByCustomerId(int customerId) throws SQLException {
-		String sql = "SELECT * FROM reservation WHERE customer_id=? AND status = 'IN_PROGRESS'"
-				+ " ORDER BY reservation_datetime DESC";
+		String sql = PAYABLE_BY_CUSTOMER_SQL;
 		List<Reservation> list = new ArrayList<>();
 
 		try (Connection conn = getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
@@ -857,7 +1422,7 @@ public class DBController {
 	 * @throws SQLException if a database access error occurs
 	 */
 	public Reservation getPayableReservationByCode(int confirmationCode) throws SQLException {
-		String sql = "SELECT * FROM reservation WHERE confirmation_code = ? AND status = 'IN_PROGRESS' LIMIT 1";
+		String sql = PAYABLE_BY_CODE_SQL;
 
 		Reservation reservation = null;
 		try (Connection conn = getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
@@ -944,88 +1509,31 @@ public class DBController {
 	}
 
 	/**
-	 * Gets the IDs of reservations that should be marked as no-shows. A no-show is
-	 * an ACTIVE or NOTIFIED reservation that is 15+ minutes past its scheduled
-	 * time.
+	 * Marks a reservation as having had its reminder sent.
 	 *
-	 * @return a list of reservation IDs that are no-shows
+	 * @param reservationId the ID of the reservation
 	 * @throws SQLException if a database access error occurs
 	 */
-	public List<Integer> getNoShowReservationIds() throws SQLException {
-		String sql = "SELECT reservation_id " + "FROM reservation " + "WHERE status IN ('ACTIVE','NOTIFIED') "
-				+ "AND reservation_datetime <= (NOW() - INTERVAL 15 MINUTE)";
-
-		List<Integer> ids = new ArrayList<>();
-
-		try (Connection conn = getConnection();
-				PreparedStatement ps = conn.prepareStatement(sql);
-				ResultSet rs = ps.executeQuery()) {
-
-			while (rs.next())
-				ids.add(rs.getInt("reservation_id"));
+	public void markReminderSent(int reservationId) throws SQLException {
+		String sql = "UPDATE reservation SET reminder_sent=TRUE WHERE reservation_id=?";
+		try (Connection conn = getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
+			ps.setInt(1, reservationId);
+			ps.executeUpdate();
 		}
-		return ids;
 	}
 
 	/**
-	 * Gets the IDs of reservations that need a reminder notification. These are
-	 * ACTIVE reservations scheduled for approximately 2 hours from now that haven't
-	 * had a reminder sent yet.
+	 * Gets waitlist candidates that can be seated at a table with the given
+	 * capacity.
 	 *
-	 * @return a list of reservation IDs needing reminders
+	 * @param maxCapacity the maximum capacity to filter by
+	 * @return a list of WaitingCandidate objects ordered by creation time ascending
 	 * @throws SQLException if a database access error occurs
 	 */
-	public List<Integer> getReservationsForReminder() throws SQLException {
-		String sql = "SELECT reservation_id " + "FROM reservation " + "WHERE status='ACTIVE' "
-				+ "AND reminder_sent = FALSE "
-				+ "AND reservation_datetime BETWEEN (NOW() + INTERVAL 2 HOUR - INTERVAL 1 MINUTE) "
-				+ "AND (NOW() + INTERVAL 2 HOUR + INTERVAL 1 MINUTE)";
+	public List<WaitingCandidate> getWaitingCandidates(int maxCapacity) throws SQLException {
+		String sql = WAITING_CANDIDATES_SQL;
 
-		List<Integer> ids = new ArrayList<>();
-
-		try (Connection conn = getConnection();
-				PreparedStatement ps = conn.prepareStatement(sql);
-				ResultSet rs = ps.executeQuery()) {
-
-			while (rs.next()) {
-				ids.add(rs.getInt("reservation_id"));
-			}
-		}
-		return ids;
-	}
-
-	/**
-	 * Marks a reservation as having had its reminder sent.
-	 *
-	 * @param reservationId the ID of the reservation
-	 * @throws SQLException if a database access error occurs
-	 */
-	public void markReminderSent(int reservationId) throws SQLException {
-		String sql = "UPDATE reservation SET reminder_sent=TRUE WHERE reservation_id=?";
-		try (Connection conn = getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
-			ps.setInt(1, reservationId);
-			ps.executeUpdate();
-		}
-	}
-
-	/**
-	 * Gets waitlist candidates that can be seated at a table with the given
-	 * capacity.
-	 *
-	 * @param maxCapacity the maximum capacity to filter by
-	 * @return a list of WaitingCandidate objects ordered by creation time ascending
-	 * @throws SQLException if a database access error occurs
-	 */
-	public List<WaitingCandidate> getWaitingCandidates(int maxCapacity) throws SQLException {
-		String sql = """
-				    SELECT reservation_id, customer_id, number_of_guests
-				    FROM reservation
-				    WHERE status = 'WAITING'
-				      AND number_of_guests <= ?
-				    ORDER BY created_at ASC
-				""";
-
-		List<WaitingCandidate> list = new ArrayList<>();
+		List<WaitingCandidate> list = new ArrayList<>();
 
 		try (Connection conn = getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
 
@@ -1072,27 +1580,185 @@ public class DBController {
 
 	/**
 	 * Notifies a waitlist reservation by setting its status to NOTIFIED, assigning
-	 * a table, and setting the reservation datetime to now.
+	 * a table, and setting the reservation datetime to now, provided the
+	 * reservation is still WAITING and the table is still free. Both conditions
+	 * are checked by the update itself.
 	 *
 	 * @param reservationId the ID of the reservation to notify
 	 * @param tableId       the ID of the table to assign
-	 * @return true if the update was successful, false otherwise
+	 * @param durationMin   the reservation duration in minutes
+	 * @return true if the table was claimed, false if the reservation changed or
+	 *         the table was taken
 	 * @throws SQLException if a database access error occurs
 	 */
-	public boolean notifyWaitlistReservation(int reservationId, int tableId) throws SQLException {
-		String sql = """
-				    UPDATE reservation
-				    SET status = 'NOTIFIED',
-				        reservation_datetime = NOW(),
-				        table_id = ?
-				    WHERE reservation_id = ?
-				      AND status = 'WAITING'
+	public boolean notifyWaitlistReservation(int reservationId, int tableId, int durationMin) throws SQLException {
+		try (Connection conn = getConnection()) {
+			return notifyWaitlistReservation(conn, reservationId, tableId, durationMin);
+		}
+	}
+
+	/**
+	 * Notifies a waitlist reservation on the given connection, so it can be part
+	 * of a caller's transaction. A lost lock conflict may roll back the whole
+	 * transaction in InnoDB, so the claim should be its first write.
+	 *
+	 * @param conn          the connection to use
+	 * @param reservationId the ID of the reservation to notify
+	 * @param tableId       the ID of the table to assign
+	 * @param durationMin   the reservation duration in minutes
+	 * @return true if the table was claimed, false if the reservation changed or
+	 *         the table was taken
+	 * @throws SQLException if a database access error occurs
+	 * @see #notifyWaitlistReservation(int, int, int)
+	 */
+	public boolean notifyWaitlistReservation(Connection conn, int reservationId, int tableId, int durationMin)
+			throws SQLException {
+		String sql = "UPDATE reservation r " + TABLE_FREE_JOIN + """
+				    SET r.status = 'NOTIFIED',
+				        r.reservation_datetime = ?,
+				        r.table_id = ?
+				    WHERE r.reservation_id = ?
+				      AND r.status = 'WAITING'
+				      AND busy.reservation_id IS NULL
 				""";
-		try (Connection conn = getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
-			ps.setInt(1, tableId);
-			ps.setInt(2, reservationId);
+		LocalDateTime now = LocalDateTime.now();
+		try (PreparedStatement ps = conn.prepareStatement(sql)) {
+			int i = bindTableFree(ps, 1, tableId, now, durationMin);
+			ps.setTimestamp(i++, Timestamp.valueOf(now));
+			ps.setInt(i++, tableId);
+			ps.setInt(i, reservationId);
 			return ps.executeUpdate() == 1;
+		} catch (SQLException e) {
+			if (isClaimConflict(e))
+				return false;
+			throw e;
+		}
+	}
+
+	/**
+	 * Notifies several waitlist reservations in a single transaction. Each row is
+	 * set to NOTIFIED with its assigned table and the given notification time,
+	 * provided it is still WAITING and its table is still free; rows that changed
+	 * or whose table was taken in the meantime are skipped.
+	 * <p>
+	 * The WAITING rows are locked first, so no other caller can notify them
+	 * before the commit. A batch row reported as {@link Statement#SUCCESS_NO_INFO}
+	 * (as the driver may do for rewritten batches) is only counted once a re-read
+	 * in the same transaction shows it NOTIFIED at its assigned table.
+	 * </p>
+	 *
+	 * @param tableByReservation reservation ID to assigned table ID, in the order
+	 *                           the updates should be applied
+	 * @param notifiedAt         the time written to reservation_datetime
+	 * @param durationMin        the reservation duration in minutes
+	 * @return the IDs of the reservations that were actually notified; empty if
+	 *         the transaction lost a lock conflict with another claim
+	 * @throws SQLException if a database access error occurs (nothing is
+	 *                      committed in that case)
+	 */
+	public List<Integer> notifyWaitlistReservations(Map<Integer, Integer> tableByReservation,
+			LocalDateTime notifiedAt, int durationMin) throws SQLException {
+		if (tableByReservation.isEmpty())
+			return new ArrayList<>();
+		return inTransaction(conn -> notifyWaitlistReservations(conn, tableByReservation, notifiedAt, durationMin));
+	}
+
+	/**
+	 * Notifies several waitlist reservations on the given connection, so the
+	 * notifications can be queued in the same transaction. If the claim loses a
+	 * lock conflict, the transaction is rolled back and nothing is notified, so
+	 * the claim must be the first write in the transaction.
+	 *
+	 * @param conn               the connection to use, with auto-commit off
+	 * @param tableByReservation reservation ID to assigned table ID, in the order
+	 *                           the updates should be applied
+	 * @param notifiedAt         the time written to reservation_datetime
+	 * @param durationMin        the reservation duration in minutes
+	 * @return the IDs of the reservations that were actually notified; empty if
+	 *         the transaction lost a lock conflict with another claim
+	 * @throws SQLException if a database access error occurs
+	 * @see #notifyWaitlistReservations(Map, LocalDateTime, int)
+	 */
+	public List<Integer> notifyWaitlistReservations(Connection conn, Map<Integer, Integer> tableByReservation,
+			LocalDateTime notifiedAt, int durationMin) throws SQLException {
+		List<Integer> notified = new ArrayList<>();
+		if (tableByReservation.isEmpty())
+			return notified;
+
+		String sql = "UPDATE reservation r " + TABLE_FREE_JOIN + """
+				    SET r.status = 'NOTIFIED',
+				        r.reservation_datetime = ?,
+				        r.table_id = ?
+				    WHERE r.reservation_id = ?
+				      AND r.status = 'WAITING'
+				      AND busy.reservation_id IS NULL
+				""";
+
+		List<Integer> ids = new ArrayList<>(tableByReservation.keySet());
+		String lock = "SELECT reservation_id FROM reservation WHERE reservation_id IN (%s)"
+				.formatted(placeholders(ids.size())) + " AND status = 'WAITING' FOR UPDATE";
+
+		try {
+			Set<Integer> waiting = new LinkedHashSet<>();
+			try (PreparedStatement ps = conn.prepareStatement(lock)) {
+				bindIds(ps, 1, ids);
+				try (ResultSet rs = ps.executeQuery()) {
+					while (rs.next())
+						waiting.add(rs.getInt("reservation_id"));
+				}
+			}
+
+			// keep the caller's order, which is the order tables were handed out
+			List<Integer> order = new ArrayList<>(ids);
+			order.retainAll(waiting);
+			if (order.isEmpty())
+				return notified;
+
+			List<Integer> unknown = new ArrayList<>();
+			try (PreparedStatement ps = conn.prepareStatement(sql)) {
+				for (Integer resId : order) {
+					int tableId = tableByReservation.get(resId);
+					int i = bindTableFree(ps, 1, tableId, notifiedAt, durationMin);
+					ps.setTimestamp(i++, Timestamp.valueOf(notifiedAt));
+					ps.setInt(i++, tableId);
+					ps.setInt(i, resId);
+					ps.addBatch();
+				}
+
+				int[] counts = ps.executeBatch();
+				for (int i = 0; i < counts.length; i++) {
+					if (counts[i] == 1)
+						notified.add(order.get(i));
+					else if (counts[i] == Statement.SUCCESS_NO_INFO)
+						unknown.add(order.get(i));
+				}
+			}
+
+			if (!unknown.isEmpty()) {
+				String check = "SELECT reservation_id, table_id FROM reservation WHERE reservation_id IN (%s)"
+						.formatted(placeholders(unknown.size())) + " AND status = 'NOTIFIED'";
+				Set<Integer> claimed = new LinkedHashSet<>();
+				try (PreparedStatement ps = conn.prepareStatement(check)) {
+					bindIds(ps, 1, unknown);
+					try (ResultSet rs = ps.executeQuery()) {
+						while (rs.next()) {
+							if (rs.getInt("table_id") == tableByReservation.get(rs.getInt("reservation_id")))
+								claimed.add(rs.getInt("reservation_id"));
+						}
+					}
+				}
+				for (Integer resId : unknown) {
+					if (claimed.contains(resId))
+						notified.add(resId);
+				}
+			}
+		} catch (SQLException e) {
+			if (!isClaimConflict(e))
+				throw e;
+			conn.rollback();
+			return new ArrayList<>();
 		}
+		return notified;
 	}
 
 	/**
@@ -1104,6 +1770,22 @@ public class DBController {
 	 * @throws SQLException if a database access error occurs
 	 */
 	public boolean markSeatedNow(int reservationId) throws SQLException {
+		try (Connection conn = getConnection()) {
+			return markSeatedNow(conn, reservationId);
+		}
+	}
+
+	/**
+	 * Marks a reservation as seated on the given connection, so it can be part
+	 * of a caller's transaction.
+	 *
+	 * @param conn          the connection to use
+	 * @param reservationId the ID of the reservation to mark as seated
+	 * @return true if the update was successful, false otherwise
+	 * @throws SQLException if a database access error occurs
+	 * @see #markSeatedNow(int)
+	 */
+	public boolean markSeatedNow(Connection conn, int reservationId) throws SQLException {
 		String sql = """
 				    UPDATE reservation
 				    SET status='IN_PROGRESS',
@@ -1113,27 +1795,29 @@ public class DBController {
 				      AND status IN ('ACTIVE','NOTIFIED')
 				""";
 
-		try (Connection conn = getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
+		try (PreparedStatement ps = conn.prepareStatement(sql)) {
 			ps.setInt(1, reservationId);
 			return ps.executeUpdate() == 1;
 		}
 	}
 
 	/**
-	 * Gets reservations that are ready for billing. These are IN_PROGRESS
-	 * reservations that started 2+ hours ago and don't have a bill yet.
+	 * Retrieves reservations that still have a time-based deadline ahead of them:
+	 * ACTIVE and NOTIFIED reservations (no-show, reminder) and IN_PROGRESS
+	 * reservations that have not been billed yet. Used to rebuild the deadline
+	 * scheduler when the server starts.
 	 *
-	 * @return a list of reservations ready for billing
+	 * @return a list of reservations with pending deadlines
 	 * @throws SQLException if a database access error occurs
 	 */
-	public List<Reservation> getReservationsForBilling() throws SQLException {
+	public List<Reservation> getReservationsWithPendingDeadlines() throws SQLException {
 		String sql = """
 				    SELECT r.*
 				    FROM reservation r
 				    LEFT JOIN bill b ON b.reservation_id = r.reservation_id
-				    WHERE r.status = 'IN_PROGRESS'
-				      AND r.reservation_datetime <= NOW() - INTERVAL 2 HOUR
-				      AND b.bill_id IS NULL
+				    WHERE r.reservation_datetime IS NOT NULL
+				      AND (r.status IN ('ACTIVE', 'NOTIFIED')
+				           OR (r.status = 'IN_PROGRESS' AND b.bill_id IS NULL))
 				""";
 
 		List<Reservation> list = new ArrayList<>();
@@ -1262,12 +1946,28 @@ public class DBController {
 	 * @throws SQLException if a database access error occurs
 	 */
 	public boolean markBillPaidById(int billId) throws SQLException {
+		try (Connection conn = getConnection()) {
+			return markBillPaidById(conn, billId);
+		}
+	}
+
+	/**
+	 * Marks a bill as paid on the given connection, so it can be part of a
+	 * caller's transaction.
+	 *
+	 * @param conn   the connection to use
+	 * @param billId the ID of the bill to mark as paid
+	 * @return true if the update was successful, false otherwise
+	 * @throws SQLException if a database access error occurs
+	 * @see #markBillPaidById(int)
+	 */
+	public boolean markBillPaidById(Connection conn, int billId) throws SQLException {
 		String sql = """
 				    UPDATE bill
 				    SET paid = 1, paid_at = NOW()
 				    WHERE bill_id = ? AND paid = 0
 				""";
-		try (Connection conn = getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
+		try (PreparedStatement ps = conn.prepareStatement(sql)) {
 			ps.setInt(1, billId);
 			return ps.executeUpdate() == 1;
 		}
@@ -1307,25 +2007,6 @@ public class DBController {
 		}
 	}
 
-	/**
-	 * Gets the capacity of a table by its ID.
-	 *
-	 * @param tableId the ID of the table
-	 * @return the capacity of the table, or null if not found
-	 * @throws SQLException if a database access error occurs
-	 */
-	public Integer getTableCapacityById(int tableId) throws SQLException {
-		String sql = "SELECT capacity FROM restaurant_table WHERE table_id = ? LIMIT 1";
-		try (Connection conn = getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
-			ps.setInt(1, tableId);
-			try (ResultSet rs = ps.executeQuery()) {
-				if (rs.next())
-					return rs.getInt(1);
-			}
-		}
-		return null;
-	}
-
 	/**
 	 * Checks if a table has any active reservations (IN_PROGRESS or NOTIFIED
 	 * status).
@@ -1362,26 +2043,7 @@ public class DBController {
 	 * @throws SQLException if a database access error occurs
 	 */
 	public List<Reservation> getFutureActiveReservations(LocalDateTime from, LocalDateTime to) throws SQLException {
-		String sql = """
-				    SELECT
-				        reservation_id,
-				        reservation_datetime,
-				        number_of_guests,
-				        confirmation_code,
-				        customer_id,
-				        created_at,
-				        table_id,
-				        status,
-				        type,
-				        reminder_sent,
-				        checked_in_at,
-				        checked_out_at
-				    FROM reservation
-				    WHERE status = ?
-				      AND reservation_datetime >= ?
-				      AND reservation_datetime <= ?
-				    ORDER BY reservation_datetime ASC, reservation_id ASC
-				""";
+		String sql = STATUS_WINDOW_SQL;
 
 		List<Reservation> list = new ArrayList<>();
 
@@ -1409,13 +2071,29 @@ public class DBController {
 	 * @throws SQLException if a database access error occurs
 	 */
 	public boolean moveReservationToWaiting(int reservationId) throws SQLException {
+		try (Connection conn = getConnection()) {
+			return moveReservationToWaiting(conn, reservationId);
+		}
+	}
+
+	/**
+	 * Moves a reservation to WAITING status on the given connection, so it can
+	 * be part of a caller's transaction.
+	 *
+	 * @param conn          the connection to use
+	 * @param reservationId the ID of the reservation to move
+	 * @return true if the update was successful, false otherwise
+	 * @throws SQLException if a database access error occurs
+	 * @see #moveReservationToWaiting(int)
+	 */
+	public boolean moveReservationToWaiting(Connection conn, int reservationId) throws SQLException {
 		String sql = """
 				    UPDATE reservation
 				    SET status = ?, table_id = NULL
 				    WHERE reservation_id = ?
 				""";
 
-		try (Connection conn = getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
+		try (PreparedStatement ps = conn.prepareStatement(sql)) {
 
 			ps.setString(1, ReservationStatus.WAITING.name());
 			ps.setInt(2, reservationId);
@@ -1424,26 +2102,6 @@ public class DBController {
 		}
 	}
 
-	/**
-	 * Gets the seating capacity of a table by its table number.
-	 *
-	 * @param tableNumber the table number
-	 * @return the capacity of the table, or -1 if not found
-	 * @throws SQLException if a database access error occurs
-	 */
-	public int getTableCapacity(int tableNumber) throws SQLException {
-		String sql = "SELECT capacity FROM restaurant_table WHERE table_id = ?";
-		try (Connection conn = getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
-			ps.setInt(1, tableNumber);
-			try (ResultSet rs = ps.executeQuery()) {
-				if (rs.next()) {
-					return rs.getInt("capacity");
-				}
-			}
-		}
-		return -1;
-	}
-
 	/**
 	 * Gets the table ID assigned to a reservation.
 	 *
@@ -1503,13 +2161,7 @@ public class DBController {
 	 * @throws SQLException if a database access error occurs
 	 */
 	public CustomerContactInfo getContactInfoByReservationId(int reservationId) throws SQLException {
-		String sql = """
-				    SELECT c.customer_id, c.full_name, c.phone, c.email
-				    FROM reservation r
-				    JOIN customer c ON c.customer_id = r.customer_id
-				    WHERE r.reservation_id = ?
-				    LIMIT 1
-				""";
+		String sql = CONTACT_BY_RESERVATION_SQL;
 
 		try (Connection conn = getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
 
@@ -1533,13 +2185,7 @@ public class DBController {
 	 * @throws SQLException if a database access error occurs
 	 */
 	public ReservationBasicInfo getReservationBasicInfo(int reservationId) throws SQLException {
-		String sql = """
-				    SELECT c.full_name, r.reservation_datetime, r.number_of_guests, r.confirmation_code
-				    FROM reservation r
-				    JOIN customer c ON c.customer_id = r.customer_id
-				    WHERE r.reservation_id = ?
-				    LIMIT 1
-				""";
+		String sql = BASIC_INFO_BY_RESERVATION_SQL;
 
 		try (Connection conn = getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
 
@@ -1559,26 +2205,61 @@ public class DBController {
 	}
 
 	/**
-	 * Assigns a table to a reservation.
+	 * Seats an ACTIVE reservation at a table: assigns the table, sets the status
+	 * to IN_PROGRESS and records the check-in time, in one statement that applies
+	 * only if the reservation is still ACTIVE and the table is still free.
 	 *
 	 * @param reservationId the ID of the reservation
-	 * @param newTableId    the ID of the table to assign
-	 * @return true if the assignment was successful, false otherwise
+	 * @param tableId       the ID of the table to claim
+	 * @param durationMin   the reservation duration in minutes
+	 * @return true if the table was claimed, false if the reservation changed or
+	 *         the table was taken
 	 * @throws SQLException if a database access error occurs
 	 */
-	public boolean assignTableNow(int reservationId, int newTableId) throws SQLException {
-		String sql = """
-				    UPDATE reservation
-				    SET table_id = ?
-				    WHERE reservation_id = ?
-				""";
-
-		try (Connection conn = getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
+	public boolean seatWithTableIfFree(int reservationId, int tableId, int durationMin) throws SQLException {
+		try (Connection conn = getConnection()) {
+			return seatWithTableIfFree(conn, reservationId, tableId, durationMin);
+		}
+	}
 
-			ps.setInt(1, newTableId);
-			ps.setInt(2, reservationId);
+	/**
+	 * Seats an ACTIVE reservation at a table on the given connection, so it can
+	 * be part of a caller's transaction. A lost lock conflict may roll back the
+	 * whole transaction in InnoDB, so the claim should be its first write.
+	 *
+	 * @param conn          the connection to use
+	 * @param reservationId the ID of the reservation
+	 * @param tableId       the ID of the table to claim
+	 * @param durationMin   the reservation duration in minutes
+	 * @return true if the table was claimed, false if the reservation changed or
+	 *         the table was taken
+	 * @throws SQLException if a database access error occurs
+	 * @see #seatWithTableIfFree(int, int, int)
+	 */
+	public boolean seatWithTableIfFree(Connection conn, int reservationId, int tableId, int durationMin)
+			throws SQLException {
+		String sql = "UPDATE reservation r " + TABLE_FREE_JOIN + """
+				    SET r.table_id = ?,
+				        r.status = 'IN_PROGRESS',
+				        r.reservation_datetime = ?,
+				        r.checked_in_at = ?
+				    WHERE r.reservation_id = ?
+				      AND r.status = 'ACTIVE'
+				      AND busy.reservation_id IS NULL
+				""";
 
+		LocalDateTime now = LocalDateTime.now();
+		try (PreparedStatement ps = conn.prepareStatement(sql)) {
+			int i = bindTableFree(ps, 1, tableId, now, durationMin);
+			ps.setInt(i++, tableId);
+			ps.setTimestamp(i++, Timestamp.valueOf(now));
+			ps.setTimestamp(i++, Timestamp.valueOf(now));
+			ps.setInt(i, reservationId);
 			return ps.executeUpdate() == 1;
+		} catch (SQLException e) {
+			if (isClaimConflict(e))
+				return false;
+			throw e;
 		}
 	}
 
@@ -1798,6 +2479,40 @@ public class DBController {
 		return list;
 	}
 
+	/**
+	 * Gets one page of subscribed customers ordered by name. A numeric search
+	 * matches the customer ID or subscription code; any other search matches part
+	 * of the name or email, or the whole subscription code.
+	 *
+	 * @param query the search, order and page position
+	 * @return the page
+	 * @throws SQLException             if a database access error occurs
+	 * @throws IllegalArgumentException if the cursor is malformed
+	 */
+	public Page<Customer> getSubscribersPage(ListQuery query) throws SQLException {
+		StringBuilder sql = new StringBuilder("""
+				SELECT customer_id, full_name, phone, email, is_subscribed, subscription_code
+				FROM customer
+				WHERE is_subscribed = 1""");
+		List<Object> args = new ArrayList<>();
+
+		String search = query.getSearch();
+		if (search != null) {
+			Integer number = parseNumber(search);
+			if (number != null) {
+				sql.append(" AND (customer_id = ? OR subscription_code = ?)");
+				Collections.addAll(args, number, search);
+			} else {
+				String like = containsPattern(search);
+				sql.append(" AND (full_name LIKE ? OR email LIKE ? OR subscription_code = ?)");
+				Collections.addAll(args, like, like, search);
+			}
+		}
+
+		List<Customer> rows = runPage(sql, args, BY_CUSTOMER_NAME, query, this::mapCustomer);
+		return toPage(rows, query.getPageSize(), BY_CUSTOMER_NAME, Customer::getFullName, Customer::getCustomerId);
+	}
+
 	/**
 	 * Gets all customers who are currently dining (have IN_PROGRESS reservations).
 	 *
@@ -1827,6 +2542,45 @@ public class DBController {
 		return list;
 	}
 
+	/**
+	 * Gets those of the given customers who are currently dining. Used to work
+	 * out which diners joined or left after a batch of status changes.
+	 *
+	 * @param customerIds the customer IDs to check
+	 * @return the customers among them with an IN_PROGRESS reservation
+	 * @throws SQLException if a database access error occurs
+	 */
+	public List<Customer> getCurrentDinersAmong(Collection<Integer> customerIds) throws SQLException {
+		List<Customer> list = new ArrayList<>();
+		if (customerIds.isEmpty())
+			return list;
+
+		List<Integer> ids = new ArrayList<>(new LinkedHashSet<>(customerIds));
+
+		try (Connection conn = getConnection()) {
+			for (int from = 0; from < ids.size(); from += IN_LIST_CHUNK) {
+				List<Integer> chunk = ids.subList(from, Math.min(ids.size(), from + IN_LIST_CHUNK));
+				String sql = """
+						    SELECT c.customer_id, c.full_name, c.phone, c.email,
+						           c.is_subscribed, c.subscription_code
+						    FROM customer c
+						    WHERE c.customer_id IN (%s)
+						      AND EXISTS (SELECT 1 FROM reservation r
+						                  WHERE r.customer_id = c.customer_id AND r.status = 'IN_PROGRESS')
+						""".formatted(placeholders(chunk.size()));
+
+				try (PreparedStatement ps = conn.prepareStatement(sql)) {
+					bindIds(ps, 1, chunk);
+					try (ResultSet rs = ps.executeQuery()) {
+						while (rs.next())
+							list.add(mapCustomer(rs));
+					}
+				}
+			}
+		}
+		return list;
+	}
+
 	/**
 	 * Finds an employee ID by their login credentials.
 	 *
@@ -1990,6 +2744,339 @@ public class DBController {
 		}
 	}
 
+	// ======================== NOTIFICATION OUTBOX ========================
+
+	/**
+	 * Queues a notification in the outbox. At most one notification of each type
+	 * is kept per reservation, so queuing the same notification twice does not
+	 * deliver it twice.
+	 *
+	 * @param reservationId        the reservation the notification is about
+	 * @param type                 the notification type
+	 * @param amountBeforeDiscount bill amount before discount, or null
+	 * @param finalAmount          bill final amount, or null
+	 * @param redeliver            whether an already delivered (or failed)
+	 *                             notification should be sent again
+	 * @return true if a delivery was queued, false if one was already pending or
+	 *         the reservation does not exist
+	 * @throws SQLException if a database access error occurs
+	 */
+	public boolean enqueueNotification(int reservationId, NotificationType type, Double amountBeforeDiscount,
+			Double finalAmount, boolean redeliver) throws SQLException {
+		try (Connection conn = getConnection()) {
+			return enqueueNotification(conn, reservationId, type, amountBeforeDiscount, finalAmount, redeliver);
+		}
+	}
+
+	/**
+	 * Queues a notification in the outbox on the given connection. Used inside
+	 * {@link #inTransaction(Transaction)} so the notification is committed with
+	 * the state change that causes it.
+	 *
+	 * @param conn                 the connection to use
+	 * @param reservationId        the reservation the notification is about
+	 * @param type                 the notification type
+	 * @param amountBeforeDiscount bill amount before discount, or null
+	 * @param finalAmount          bill final amount, or null
+	 * @param redeliver            whether an already delivered (or failed)
+	 *                             notification should be sent again
+	 * @return true if a delivery was queued, false if one was already pending or
+	 *         the reservation does not exist
+	 * @throws SQLException if a database access error occurs
+	 * @see #enqueueNotification(int, NotificationType, Double, Double, boolean)
+	 */
+	public boolean enqueueNotification(Connection conn, int reservationId, NotificationType type,
+			Double amountBeforeDiscount, Double finalAmount, boolean redeliver) throws SQLException {
+		// a plain INSERT IGNORE reports 0 rows for a duplicate; an upsert would
+		// report 1 under the driver's found-rows counting
+		String insert = """
+				    INSERT IGNORE INTO notification_outbox
+				        (reservation_id, type, amount_before_discount, final_amount, status, attempts, next_attempt_at)
+				    VALUES (?, ?, ?, ?, 'PENDING', 0, NOW())
+				""";
+
+		String requeue = """
+				    UPDATE notification_outbox
+				    SET status = 'PENDING', attempts = 0, next_attempt_at = NOW()
+				    WHERE reservation_id = ? AND type = ? AND status IN ('SENT','FAILED')
+				""";
+
+		try (PreparedStatement ps = conn.prepareStatement(insert)) {
+			ps.setInt(1, reservationId);
+			ps.setString(2, type.name());
+			ps.setObject(3, amountBeforeDiscount, Types.DOUBLE);
+			ps.setObject(4, finalAmount, Types.DOUBLE);
+			if (ps.executeUpdate() > 0)
+				return true;
+		}
+		if (!redeliver)
+			return false;
+
+		try (PreparedStatement ps = conn.prepareStatement(requeue)) {
+			ps.setInt(1, reservationId);
+			ps.setString(2, type.name());
+			return ps.executeUpdate() > 0;
+		}
+	}
+
+	/**
+	 * Queues the same notification for many reservations in one go. All chunks
+	 * run in one transaction on a single connection. For each chunk of
+	 * {@link #IN_LIST_CHUNK} IDs, one locking query finds which reservations
+	 * actually need a delivery. Then one multi-row insert queues the new ones,
+	 * and one update re-queues delivered ones when {@code redeliver} is set. The
+	 * lock is on the reservation rows, which a concurrent enqueue of the same
+	 * reservation also needs (for its foreign key check), so no other caller
+	 * can queue one of them between the check and the write.
+	 *
+	 * @param reservationIds the reservations the notification is about
+	 * @param type           the notification type
+	 * @param redeliver      whether an already delivered (or failed)
+	 *                       notification should be sent again
+	 * @return the IDs for which a delivery was queued; reservations that do not
+	 *         exist or already have one pending are left out
+	 * @throws SQLException if a database access error occurs (nothing is
+	 *                      committed in that case)
+	 * @see #enqueueNotification(int, NotificationType, Double, Double, boolean)
+	 */
+	public List<Integer> enqueueNotifications(Collection<Integer> reservationIds, NotificationType type,
+			boolean redeliver) throws SQLException {
+		if (reservationIds.isEmpty())
+			return new ArrayList<>();
+		return inTransaction(conn -> enqueueNotifications(conn, reservationIds, type, redeliver));
+	}
+
+	/**
+	 * Queues the same notification for many reservations on the given
+	 * connection. Used inside {@link #inTransaction(Transaction)} so the
+	 * notifications are committed with the state change that causes them.
+	 *
+	 * @param conn           the connection to use, with auto-commit off
+	 * @param reservationIds the reservations the notification is about
+	 * @param type           the notification type
+	 * @param redeliver      whether an already delivered (or failed)
+	 *                       notification should be sent again
+	 * @return the IDs for which a delivery was queued
+	 * @throws SQLException if a database access error occurs
+	 * @see #enqueueNotifications(Collection, NotificationType, boolean)
+	 */
+	public List<Integer> enqueueNotifications(Connection conn, Collection<Integer> reservationIds,
+			NotificationType type, boolean redeliver) throws SQLException {
+		List<Integer> queued = new ArrayList<>();
+		if (reservationIds.isEmpty())
+			return queued;
+
+		List<Integer> ids = new ArrayList<>(new LinkedHashSet<>(reservationIds));
+
+		for (int from = 0; from < ids.size(); from += IN_LIST_CHUNK) {
+			List<Integer> chunk = ids.subList(from, Math.min(ids.size(), from + IN_LIST_CHUNK));
+
+			String select = """
+					    SELECT r.reservation_id, o.status
+					    FROM reservation r
+					    LEFT JOIN notification_outbox o
+					           ON o.reservation_id = r.reservation_id AND o.type = ?
+					    WHERE r.reservation_id IN (%s)
+					    FOR UPDATE
+					""".formatted(placeholders(chunk.size()));
+
+			List<Integer> fresh = new ArrayList<>();
+			List<Integer> delivered = new ArrayList<>();
+			try (PreparedStatement ps = conn.prepareStatement(select)) {
+				ps.setString(1, type.name());
+				bindIds(ps, 2, chunk);
+				try (ResultSet rs = ps.executeQuery()) {
+					while (rs.next()) {
+						String status = rs.getString("status");
+						if (status == null)
+							fresh.add(rs.getInt("reservation_id"));
+						else if (redeliver && (status.equals("SENT") || status.equals("FAILED")))
+							delivered.add(rs.getInt("reservation_id"));
+					}
+				}
+			}
+
+			if (!fresh.isEmpty()) {
+				String insert = """
+						    INSERT INTO notification_outbox
+						        (reservation_id, type, status, attempts, next_attempt_at)
+						    VALUES %s
+						""".formatted(String.join(",",
+						Collections.nCopies(fresh.size(), "(?, ?, 'PENDING', 0, NOW())")));
+
+				try (PreparedStatement ps = conn.prepareStatement(insert)) {
+					int i = 1;
+					for (int id : fresh) {
+						ps.setInt(i++, id);
+						ps.setString(i++, type.name());
+					}
+					ps.executeUpdate();
+				}
+			}
+
+			if (!delivered.isEmpty()) {
+				String requeue = """
+						    UPDATE notification_outbox
+						    SET status = 'PENDING', attempts = 0, next_attempt_at = NOW()
+						    WHERE type = ? AND reservation_id IN (%s) AND status IN ('SENT','FAILED')
+						""".formatted(placeholders(delivered.size()));
+
+				try (PreparedStatement ps = conn.prepareStatement(requeue)) {
+					ps.setString(1, type.name());
+					bindIds(ps, 2, delivered);
+					ps.executeUpdate();
+				}
+			}
+			queued.addAll(fresh);
+			queued.addAll(delivered);
+		}
+		return queued;
+	}
+
+	/**
+	 * Claims up to {@code limit} due notifications for delivery and marks them
+	 * SENDING. Rows locked by another claimer are skipped. The returned entries
+	 * carry the contact and reservation details needed to build the message.
+	 *
+	 * @param limit maximum number of notifications to claim
+	 * @return the claimed notifications, oldest due first
+	 * @throws SQLException if a database access error occurs
+	 */
+	public List<OutboxNotification> claimDueNotifications(int limit) throws SQLException {
+		String select = """
+				    SELECT o.outbox_id, o.reservation_id, o.type, o.attempts,
+				           o.amount_before_discount, o.final_amount,
+				           c.customer_id, c.full_name, c.phone, c.email,
+				           r.reservation_datetime, r.number_of_guests, r.confirmation_code
+				    FROM notification_outbox o
+				    JOIN reservation r ON r.reservation_id = o.reservation_id
+				    LEFT JOIN customer c ON c.customer_id = r.customer_id
+				    WHERE o.status = 'PENDING'
+				      AND o.next_attempt_at <= NOW()
+				    ORDER BY o.next_attempt_at, o.outbox_id
+				    LIMIT ?
+				    FOR UPDATE OF o SKIP LOCKED
+				""";
+
+		String claim = """
+				    UPDATE notification_outbox
+				    SET status = 'SENDING'
+				    WHERE outbox_id = ?
+				""";
+
+		List<OutboxNotification> claimed = new ArrayList<>();
+
+		try (Connection conn = getConnection()) {
+			conn.setAutoCommit(false);
+			try (PreparedStatement ps = conn.prepareStatement(select);
+					PreparedStatement up = conn.prepareStatement(claim)) {
+				ps.setInt(1, limit);
+
+				try (ResultSet rs = ps.executeQuery()) {
+					while (rs.next()) {
+						CustomerContactInfo contact = null;
+						ReservationBasicInfo info = null;
+
+						int customerId = rs.getInt("customer_id");
+						if (!rs.wasNull()) {
+							contact = new CustomerContactInfo(customerId, rs.getString("full_name"),
+									rs.getString("phone"), rs.getString("email"));
+
+							Timestamp ts = rs.getTimestamp("reservation_datetime");
+							info = new ReservationBasicInfo(rs.getString("full_name"),
+									ts == null ? null : ts.toLocalDateTime(), rs.getInt("number_of_guests"),
+									rs.getInt("confirmation_code"));
+						}
+
+						claimed.add(new OutboxNotification(rs.getInt("outbox_id"), rs.getInt("reservation_id"),
+								NotificationType.valueOf(rs.getString("type")), rs.getInt("attempts"), contact, info,
+								rs.getObject("amount_before_discount", Double.class),
+								rs.getObject("final_amount", Double.class)));
+
+						up.setInt(1, rs.getInt("outbox_id"));
+						up.addBatch();
+					}
+				}
+
+				if (!claimed.isEmpty())
+					up.executeBatch();
+				conn.commit();
+			} catch (SQLException e) {
+				conn.rollback();
+				throw e;
+			} finally {
+				conn.setAutoCommit(true);
+			}
+		}
+		return claimed;
+	}
+
+	/**
+	 * Marks a claimed notification as delivered.
+	 *
+	 * @param outboxId the outbox row ID
+	 * @throws SQLException if a database access error occurs
+	 */
+	public void markNotificationSent(int outboxId) throws SQLException {
+		String sql = """
+				    UPDATE notification_outbox
+				    SET status = 'SENT', attempts = attempts + 1, sent_at = NOW(), last_error = NULL
+				    WHERE outbox_id = ?
+				""";
+
+		try (Connection conn = getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
+			ps.setInt(1, outboxId);
+			ps.executeUpdate();
+		}
+	}
+
+	/**
+	 * Returns a claimed notification to the queue after a failed attempt, or
+	 * gives up on it. The retry time is computed from the database clock, the
+	 * same clock {@link #claimDueNotifications(int)} compares it against.
+	 *
+	 * @param outboxId          the outbox row ID
+	 * @param retryDelaySeconds seconds from now until the next attempt, or null
+	 *                          to give up (status FAILED)
+	 * @param error             the failure reason
+	 * @throws SQLException if a database access error occurs
+	 */
+	public void rescheduleNotification(int outboxId, Long retryDelaySeconds, String error) throws SQLException {
+		String sql = """
+				    UPDATE notification_outbox
+				    SET status = ?, attempts = attempts + 1,
+				        next_attempt_at = COALESCE(NOW() + INTERVAL ? SECOND, next_attempt_at), last_error = ?
+				    WHERE outbox_id = ?
+				""";
+
+		try (Connection conn = getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
+			ps.setString(1, retryDelaySeconds == null ? "FAILED" : "PENDING");
+			ps.setObject(2, retryDelaySeconds, Types.BIGINT);
+			ps.setString(3, error == null ? null : error.substring(0, Math.min(error.length(), 255)));
+			ps.setInt(4, outboxId);
+			ps.executeUpdate();
+		}
+	}
+
+	/**
+	 * Returns notifications left in SENDING (e.g. by a crash during delivery) to
+	 * the queue.
+	 *
+	 * @return number of notifications released
+	 * @throws SQLException if a database access error occurs
+	 */
+	public int releaseClaimedNotifications() throws SQLException {
+		String sql = """
+				    UPDATE notification_outbox
+				    SET status = 'PENDING', next_attempt_at = NOW()
+				    WHERE status = 'SENDING'
+				""";
+
+		try (Connection conn = getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
+			return ps.executeUpdate();
+		}
+	}
+
 	// ======================== TABLE MANAGEMENT ========================
 
 	/**
@@ -2278,66 +3365,15 @@ public class DBController {
 		}
 	}
 
-	// ======================== SPECIFIC DAY/DATE LOOKUPS ========================
-
-	/**
-	 * Gets the opening hours for a specific day of the week.
-	 *
-	 * @param day the day of the week
-	 * @return the OpeningHours for that day, or null if not found
-	 * @throws SQLException if a database access error occurs
-	 */
-	public OpeningHours getOpeningHoursForDay(DayOfWeek day) throws SQLException {
-		int dayNum = toDbDay(day);
-		String sql = "SELECT day_of_week, open_time, close_time, is_closed FROM opening_hours WHERE day_of_week = ?";
-
-		try (Connection conn = getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
-
-			ps.setInt(1, dayNum);
-			try (ResultSet rs = ps.executeQuery()) {
-				if (rs.next()) {
-					LocalTime openTime = rs.getTime("open_time") != null ? rs.getTime("open_time").toLocalTime() : null;
-					LocalTime closeTime = rs.getTime("close_time") != null ? rs.getTime("close_time").toLocalTime()
-							: null;
-					boolean closed = rs.getBoolean("is_closed");
-					return new OpeningHours(day, openTime, closeTime, closed);
-				}
-			}
-		}
-		return null;
-	}
-
-	/**
-	 * Gets the date override for a specific date.
-	 *
-	 * @param date the date to check
-	 * @return the DateOverride for that date, or null if no override exists
-	 * @throws SQLException if a database access error occurs
-	 */
-	public DateOverride getDateOverrideForDate(LocalDate date) throws SQLException {
-		String sql = "SELECT override_id, override_date, open_time, close_time, is_closed, reason FROM date_override WHERE override_date = ?";
-
-		try (Connection conn = getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
-
-			ps.setDate(1, Date.valueOf(date));
-			try (ResultSet rs = ps.executeQuery()) {
-				if (rs.next()) {
-					LocalTime openTime = rs.getTime("open_time") != null ? rs.getTime("open_time").toLocalTime() : null;
-					LocalTime closeTime = rs.getTime("close_time") != null ? rs.getTime("close_time").toLocalTime()
-							: null;
-					return new DateOverride(rs.getInt("override_id"), date, openTime, closeTime,
-							rs.getBoolean("is_closed"), rs.getString("reason"));
-				}
-			}
-		}
-		return null;
-	}
-
 	// ======================== REPORTS ========================
 
 	/**
 	 * Gets time report data for a specific month. Includes completed reservations
 	 * with check-in and check-out times.
+	 * <p>
+	 * The month is passed as a half-open range on {@code checked_in_at}, so the
+	 * query reads only that month's slice of {@code idx_res_status_checkin}.
+	 * </p>
 	 *
 	 * @param year  the year
 	 * @param month the month (1-12)
@@ -2345,23 +3381,15 @@ public class DBController {
 	 * @throws SQLException if a database access error occurs
 	 */
 	public List<TimeReportEntry> getTimeReportForMonth(int year, int month) throws SQLException {
-		String sql = """
-				    SELECT r.reservation_id, r.reservation_datetime, r.checked_in_at, r.checked_out_at,
-				           r.number_of_guests, c.full_name, c.is_subscribed
-				    FROM reservation r
-				    JOIN customer c ON r.customer_id = c.customer_id
-				    WHERE r.status = 'COMPLETED'
-				      AND r.checked_in_at IS NOT NULL
-				      AND YEAR(r.checked_in_at) = ?
-				      AND MONTH(r.checked_in_at) = ?
-				    ORDER BY r.checked_in_at
-				""";
+		String sql = TIME_REPORT_SQL;
+
+		LocalDateTime from = LocalDate.of(year, month, 1).atStartOfDay();
 
 		List<TimeReportEntry> list = new ArrayList<>();
 
 		try (Connection conn = getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
-			ps.setInt(1, year);
-			ps.setInt(2, month);
+			ps.setTimestamp(1, Timestamp.valueOf(from));
+			ps.setTimestamp(2, Timestamp.valueOf(from.plusMonths(1)));
 
 			try (ResultSet rs = ps.executeQuery()) {
 				while (rs.next()) {
@@ -2387,6 +3415,12 @@ public class DBController {
 	/**
 	 * Gets subscriber report data for a specific month. Includes reservation
 	 * statistics for each subscribed customer.
+	 * <p>
+	 * The month's reservations are aggregated per customer first, from a
+	 * half-open range on {@code created_at} covered by
+	 * {@code idx_res_created_customer}; only the small per-customer result is
+	 * joined to the subscribers.
+	 * </p>
 	 *
 	 * @param year  the year
 	 * @param month the month (1-12)
@@ -2395,25 +3429,15 @@ public class DBController {
 	 */
 	public List<SubscriberReportEntry> getSubscriberReportForMonth(int year, int month)
 			throws SQLException {
-		String sql = """
-				    SELECT c.customer_id, c.full_name, c.subscription_code,
-				           COUNT(r.reservation_id) AS total_reservations,
-				           SUM(CASE WHEN r.status = 'COMPLETED' THEN 1 ELSE 0 END) AS completed,
-				           SUM(CASE WHEN r.status = 'CANCELED' THEN 1 ELSE 0 END) AS cancelled,
-				           SUM(CASE WHEN r.type = 'WALKIN' THEN 1 ELSE 0 END) AS waitlist_entries
-				    FROM customer c
-				    LEFT JOIN reservation r ON c.customer_id = r.customer_id
-				         AND YEAR(r.created_at) = ? AND MONTH(r.created_at) = ?
-				    WHERE c.is_subscribed = 1
-				    GROUP BY c.customer_id, c.full_name, c.subscription_code
-				    ORDER BY total_reservations DESC
-				""";
+		String sql = SUBSCRIBER_REPORT_SQL;
+
+		LocalDateTime from = LocalDate.of(year, month, 1).atStartOfDay();
 
 		List<SubscriberReportEntry> list = new ArrayList<>();
 
 		try (Connection conn = getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
-			ps.setInt(1, year);
-			ps.setInt(2, month);
+			ps.setTimestamp(1, Timestamp.valueOf(from));
+			ps.setTimestamp(2, Timestamp.valueOf(from.plusMonths(1)));
 
 			try (ResultSet rs = ps.executeQuery()) {
 				while (rs.next()) {
@@ -2427,6 +3451,71 @@ public class DBController {
 		return list;
 	}
 
+	/**
+	 * Counts the reservations created in a time range, per customer. This is the
+	 * starting point of the live report counters.
+	 *
+	 * @param from range start (inclusive)
+	 * @param to   range end (exclusive)
+	 * @return per customer ID: total, completed, cancelled and walk-in counts
+	 * @throws SQLException if a database access error occurs
+	 */
+	public Map<Integer, int[]> getReservationCountsByCustomer(LocalDateTime from, LocalDateTime to)
+			throws SQLException {
+		String sql = """
+				    SELECT customer_id,
+				           COUNT(*) AS total_reservations,
+				           SUM(CASE WHEN status = 'COMPLETED' THEN 1 ELSE 0 END) AS completed,
+				           SUM(CASE WHEN status = 'CANCELED' THEN 1 ELSE 0 END) AS cancelled,
+				           SUM(CASE WHEN type = 'WALKIN' THEN 1 ELSE 0 END) AS waitlist_entries
+				    FROM reservation
+				    WHERE created_at >= ?
+				      AND created_at < ?
+				    GROUP BY customer_id
+				""";
+
+		Map<Integer, int[]> counts = new HashMap<>();
+
+		try (Connection conn = getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
+			ps.setTimestamp(1, Timestamp.valueOf(from));
+			ps.setTimestamp(2, Timestamp.valueOf(to));
+
+			try (ResultSet rs = ps.executeQuery()) {
+				while (rs.next()) {
+					counts.put(rs.getInt("customer_id"), new int[] { rs.getInt("total_reservations"),
+							rs.getInt("completed"), rs.getInt("cancelled"), rs.getInt("waitlist_entries") });
+				}
+			}
+		}
+		return counts;
+	}
+
+	/**
+	 * Counts the parties seated (checked in) in a time range, whether they are
+	 * still dining or already completed.
+	 *
+	 * @param from range start (inclusive)
+	 * @param to   range end (exclusive)
+	 * @return the number of check-ins
+	 * @throws SQLException if a database access error occurs
+	 */
+	public int countCheckInsBetween(LocalDateTime from, LocalDateTime to) throws SQLException {
+		String sql = """
+				    SELECT COUNT(*)
+				    FROM reservation
+				    WHERE status IN ('IN_PROGRESS', 'COMPLETED')
+				      AND checked_in_at >= ?
+				      AND checked_in_at < ?
+				""";
+		try (Connection conn = getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
+			ps.setTimestamp(1, Timestamp.valueOf(from));
+			ps.setTimestamp(2, Timestamp.valueOf(to));
+			try (ResultSet rs = ps.executeQuery()) {
+				return rs.next() ? rs.getInt(1) : 0;
+			}
+		}
+	}
+
 	// ======================== REPORT STORAGE ========================
 
 	/**
@@ -2446,34 +3535,70 @@ public class DBController {
 	}
 
 	/**
-	 * Inserts a time report entry into storage.
+	 * Replaces the stored time report of a month with new entries.
+	 * <p>
+	 * The old rows are deleted and the new rows inserted in one transaction, in
+	 * batches of {@link #REPORT_BATCH_SIZE}, so readers see either the previous
+	 * report or the complete new one. On failure the previous report is kept.
+	 * </p>
 	 *
-	 * @param year  the year
-	 * @param month the month (1-12)
-	 * @param entry the TimeReportEntry to store
+	 * @param year     the year
+	 * @param month    the month (1-12)
+	 * @param entries  the entries to store
+	 * @param progress receives the number of rows written after each batch
 	 * @throws SQLException if a database access error occurs
 	 */
-	public void insertTimeReportEntry(int year, int month, TimeReportEntry entry)
+	public void replaceTimeReport(int year, int month, List<TimeReportEntry> entries, IntConsumer progress)
 			throws SQLException {
-		String sql = """
+		String delete = "DELETE FROM time_report WHERE report_year = ? AND report_month = ?";
+		String insert = """
 				    INSERT INTO time_report (report_year, report_month, reservation_id, scheduled_time,
 				        checked_in_at, checked_out_at, arrival_delay_minutes, session_duration_minutes,
 				        number_of_guests, customer_name, is_subscriber)
 				    VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
 				""";
-		try (Connection conn = getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
-			ps.setInt(1, year);
-			ps.setInt(2, month);
-			ps.setInt(3, entry.getReservationId());
-			ps.setTimestamp(4, entry.getScheduledTime() != null ? Timestamp.valueOf(entry.getScheduledTime()) : null);
-			ps.setTimestamp(5, entry.getCheckedInAt() != null ? Timestamp.valueOf(entry.getCheckedInAt()) : null);
-			ps.setTimestamp(6, entry.getCheckedOutAt() != null ? Timestamp.valueOf(entry.getCheckedOutAt()) : null);
-			ps.setLong(7, entry.getArrivalDelayMinutes());
-			ps.setLong(8, entry.getSessionDurationMinutes());
-			ps.setInt(9, entry.getNumberOfGuests());
-			ps.setString(10, entry.getCustomerName());
-			ps.setBoolean(11, entry.isSubscriber());
-			ps.executeUpdate();
+
+		try (Connection conn = getConnection()) {
+			conn.setAutoCommit(false);
+			try (PreparedStatement del = conn.prepareStatement(delete);
+					PreparedStatement ps = conn.prepareStatement(insert)) {
+				del.setInt(1, year);
+				del.setInt(2, month);
+				del.executeUpdate();
+
+				int written = 0;
+				for (TimeReportEntry entry : entries) {
+					ps.setInt(1, year);
+					ps.setInt(2, month);
+					ps.setInt(3, entry.getReservationId());
+					ps.setTimestamp(4,
+							entry.getScheduledTime() != null ? Timestamp.valueOf(entry.getScheduledTime()) : null);
+					ps.setTimestamp(5, entry.getCheckedInAt() != null ? Timestamp.valueOf(entry.getCheckedInAt()) : null);
+					ps.setTimestamp(6,
+							entry.getCheckedOutAt() != null ? Timestamp.valueOf(entry.getCheckedOutAt()) : null);
+					ps.setLong(7, entry.getArrivalDelayMinutes());
+					ps.setLong(8, entry.getSessionDurationMinutes());
+					ps.setInt(9, entry.getNumberOfGuests());
+					ps.setString(10, entry.getCustomerName());
+					ps.setBoolean(11, entry.isSubscriber());
+					ps.addBatch();
+
+					if (++written % REPORT_BATCH_SIZE == 0) {
+						ps.executeBatch();
+						progress.accept(written);
+					}
+				}
+				if (written % REPORT_BATCH_SIZE != 0) {
+					ps.executeBatch();
+					progress.accept(written);
+				}
+				conn.commit();
+			} catch (SQLException e) {
+				conn.rollback();
+				throw e;
+			} finally {
+				conn.setAutoCommit(true);
+			}
 		}
 	}
 
@@ -2494,31 +3619,64 @@ public class DBController {
 	}
 
 	/**
-	 * Inserts a subscriber report entry into storage.
+	 * Replaces the stored subscriber report of a month with new entries.
+	 * <p>
+	 * Same transaction and batching as
+	 * {@link #replaceTimeReport(int, int, List, IntConsumer)}.
+	 * </p>
 	 *
-	 * @param year  the year
-	 * @param month the month (1-12)
-	 * @param entry the SubscriberReportEntry to store
+	 * @param year     the year
+	 * @param month    the month (1-12)
+	 * @param entries  the entries to store
+	 * @param progress receives the number of rows written after each batch
 	 * @throws SQLException if a database access error occurs
 	 */
-	public void insertSubscriberReportEntry(int year, int month, SubscriberReportEntry entry)
-			throws SQLException {
-		String sql = """
+	public void replaceSubscriberReport(int year, int month, List<SubscriberReportEntry> entries,
+			IntConsumer progress) throws SQLException {
+		String delete = "DELETE FROM subscriber_report WHERE report_year = ? AND report_month = ?";
+		String insert = """
 				    INSERT INTO subscriber_report (report_year, report_month, customer_id, customer_name,
 				        subscription_code, total_reservations, completed_reservations, cancelled_reservations, waitlist_entries)
 				    VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
 				""";
-		try (Connection conn = getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
-			ps.setInt(1, year);
-			ps.setInt(2, month);
-			ps.setInt(3, entry.getCustomerId());
-			ps.setString(4, entry.getCustomerName());
-			ps.setString(5, entry.getSubscriptionCode());
-			ps.setInt(6, entry.getTotalReservations());
-			ps.setInt(7, entry.getCompletedReservations());
-			ps.setInt(8, entry.getCancelledReservations());
-			ps.setInt(9, entry.getWaitlistEntries());
-			ps.executeUpdate();
+
+		try (Connection conn = getConnection()) {
+			conn.setAutoCommit(false);
+			try (PreparedStatement del = conn.prepareStatement(delete);
+					PreparedStatement ps = conn.prepareStatement(insert)) {
+				del.setInt(1, year);
+				del.setInt(2, month);
+				del.executeUpdate();
+
+				int written = 0;
+				for (SubscriberReportEntry entry : entries) {
+					ps.setInt(1, year);
+					ps.setInt(2, month);
+					ps.setInt(3, entry.getCustomerId());
+					ps.setString(4, entry.getCustomerName());
+					ps.setString(5, entry.getSubscriptionCode());
+					ps.setInt(6, entry.getTotalReservations());
+					ps.setInt(7, entry.getCompletedReservations());
+					ps.setInt(8, entry.getCancelledReservations());
+					ps.setInt(9, entry.getWaitlistEntries());
+					ps.addBatch();
+
+					if (++written % REPORT_BATCH_SIZE == 0) {
+						ps.executeBatch();
+						progress.accept(written);
+					}
+				}
+				if (written % REPORT_BATCH_SIZE != 0) {
+					ps.executeBatch();
+					progress.accept(written);
+				}
+				conn.commit();
+			} catch (SQLException e) {
+				conn.rollback();
+				throw e;
+			} finally {
+				conn.setAutoCommit(true);
+			}
 		}
 	}
 
@@ -2842,4 +4000,184 @@ public class DBController {
 		}
 		return ids;
 	}
+
+	/**
+	 * Completes and runs a paged query: appends the cursor condition, the order
+	 * and a limit one above the page size, so the extra row tells whether another
+	 * page follows.
+	 *
+	 * @param <T>    the row type
+	 * @param sql    the query up to and including its filter
+	 * @param args   the parameters of the filter
+	 * @param keyset the page order
+	 * @param query  the order and page position
+	 * @param mapper maps one row
+	 * @return up to page size plus one rows
+	 * @throws SQLException if a database access error occurs
+	 */
+	private <T> List<T> runPage(StringBuilder sql, List<Object> args, Keyset keyset, ListQuery query,
+			RowMapper<T> mapper) throws SQLException {
+		Keyset.Position after = query.getCursor() == null ? null : keyset.decode(query.getCursor());
+		if (after != null)
+			sql.append(" AND ").append(keyset.after(after, query.isDescending()));
+		sql.append(" ORDER BY ").append(keyset.orderBy(query.isDescending())).append(" LIMIT ?");
+
+		List<T> rows = new ArrayList<>();
+		try (Connection conn = getConnection(); PreparedStatement ps = conn.prepareStatement(sql.toString())) {
+			int i = 1;
+			for (Object arg : args)
+				ps.setObject(i++, arg);
+			if (after != null)
+				i = keyset.bind(ps, i, after);
+			ps.setInt(i, query.getPageSize() + 1);
+
+			try (ResultSet rs = ps.executeQuery()) {
+				while (rs.next())
+					rows.add(mapper.map(rs));
+			}
+		}
+		return rows;
+	}
+
+	/**
+	 * Cuts the rows of a paged query to a page. If the query returned the extra
+	 * row, the cursor of the next page points at the last row kept.
+	 *
+	 * @param <T>      the row type
+	 * @param rows     the rows, up to page size plus one
+	 * @param pageSize the page size
+	 * @param keyset   the page order
+	 * @param keyOf    reads the sort value of a row
+	 * @param idOf     reads the ID of a row
+	 * @return the page
+	 */
+	private static <T> Page<T> toPage(List<T> rows, int pageSize, Keyset keyset, Function<T, Object> keyOf,
+			ToIntFunction<T> idOf) {
+		if (rows.size() <= pageSize)
+			return new Page<>(rows, null);
+		List<T> items = new ArrayList<>(rows.subList(0, pageSize));
+		T last = items.get(pageSize - 1);
+		return new Page<>(items, keyset.encode(keyOf.apply(last), idOf.applyAsInt(last)));
+	}
+
+	/**
+	 * Writes run by {@link DBController#inTransaction(Transaction)}.
+	 *
+	 * @param <T> the result type
+	 */
+	@FunctionalInterface
+	public interface Transaction<T> {
+
+		/**
+		 * Runs the writes.
+		 *
+		 * @param conn the connection of the transaction
+		 * @return the result
+		 * @throws SQLException if a write fails; the transaction is rolled back
+		 */
+		T run(Connection conn) throws SQLException;
+	}
+
+	/**
+	 * Maps the current row of a result set.
+	 *
+	 * @param <T> the row type
+	 */
+	@FunctionalInterface
+	private interface RowMapper<T> {
+
+		/**
+		 * Maps the current row.
+		 *
+		 * @param rs the result set, positioned on a row
+		 * @return the mapped row
+		 * @throws SQLException if a column cannot be read
+		 */
+		T map(ResultSet rs) throws SQLException;
+	}
+
+	/**
+	 * Parses a search that is a whole non-negative number.
+	 *
+	 * @param search the search text
+	 * @return the number, or null if the text is not one
+	 */
+	private static Integer parseNumber(String search) {
+		if (search.length() > 9)
+			return null;
+		for (int i = 0; i < search.length(); i++) {
+			if (!Character.isDigit(search.charAt(i)))
+				return null;
+		}
+		return Integer.valueOf(search);
+	}
+
+	/**
+	 * Builds a LIKE pattern matching text that contains a search, with the
+	 * search's own wildcards escaped.
+	 *
+	 * @param search the search text
+	 * @return the pattern
+	 */
+	private static String containsPattern(String search) {
+		String escaped = search.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+		return "%" + escaped + "%";
+	}
+
+	/**
+	 * Binds the parameters of {@link #TABLE_FREE_JOIN}.
+	 *
+	 * @param ps          the statement
+	 * @param first       the index of the first parameter
+	 * @param tableId     the table being claimed
+	 * @param at          the start of the new reservation
+	 * @param durationMin the reservation duration in minutes
+	 * @return the index of the parameter after the last bound one
+	 * @throws SQLException if a parameter cannot be set
+	 */
+	private static int bindTableFree(PreparedStatement ps, int first, int tableId, LocalDateTime at,
+			int durationMin) throws SQLException {
+		ps.setInt(first, tableId);
+		ps.setTimestamp(first + 1, Timestamp.valueOf(at.plusMinutes(durationMin))); // existingStart < newEnd
+		ps.setTimestamp(first + 2, Timestamp.valueOf(at.minusMinutes(durationMin))); // existingEnd > newStart
+		return first + 3;
+	}
+
+	/**
+	 * Returns whether a statement failed because a concurrent claim on the same
+	 * rows won: InnoDB rolled it back as a deadlock victim (1213) or it timed out
+	 * waiting for the winner's locks (1205). The claim is then simply lost.
+	 *
+	 * @param e the exception
+	 * @return true for a lost lock conflict
+	 */
+	private static boolean isClaimConflict(SQLException e) {
+		return e.getErrorCode() == 1213 || e.getErrorCode() == 1205;
+	}
+
+	/**
+	 * Builds the parameter list of an {@code IN (...)} clause.
+	 *
+	 * @param count the number of parameters, at least one
+	 * @return {@code count} comma-separated question marks
+	 */
+	private static String placeholders(int count) {
+		return String.join(",", Collections.nCopies(count, "?"));
+	}
+
+	/**
+	 * Binds IDs to consecutive parameters.
+	 *
+	 * @param ps    the statement
+	 * @param first the index of the first parameter
+	 * @param ids   the IDs to bind
+	 * @return the index of the parameter after the last bound one
+	 * @throws SQLException if a parameter cannot be set
+	 */
+	private static int bindIds(PreparedStatement ps, int first, List<Integer> ids) throws SQLException {
+		int i = first;
+		for (int id : ids)
+			ps.setInt(i++, id);
+		return i;
+	}
 }
@@ -0,0 +1,113 @@
+package dbController;
+
+/**
+ * Time and number of SQL statements executed by the current thread's request.
+ * <p>
+ * Every statement executed through a pooled connection adds its execution time
+ * and one round-trip to a per-thread counter. A request handler starts the
+ * counter, naming the request, when it begins and reads it when it ends, which
+ * splits the request's latency into database time and everything else and
+ * tells how many queries it issued. Connections are borrowed and used on the
+ * thread that handles the request, so the counter sees all of its statements;
+ * the request name also labels the entries of the slow query log.
+ * </p>
+ *
+ * @author Yamen Abu Ahmad
+ * @version 1.0
+ * @see StatementCache
+ * @see QueryTrace
+ */
+public final class DbClock {
+
+	/**
+	 * Counters of one thread.
+	 */
+	private static final class Context {
+
+		/**
+		 * Nanoseconds spent in statements since the last start.
+		 */
+		long nanos;
+
+		/**
+		 * Statements executed since the last start.
+		 */
+		int queries;
+
+		/**
+		 * The request being handled, or null outside a request.
+		 */
+		String request;
+	}
+
+	/**
+	 * Counters of each thread.
+	 */
+	private static final ThreadLocal<Context> CURRENT = ThreadLocal.withInitial(Context::new);
+
+	/**
+	 * Not instantiable.
+	 */
+	private DbClock() {
+	}
+
+	/**
+	 * Adds one statement execution to the current thread's counters.
+	 *
+	 * @param nanos the execution time
+	 */
+	static void add(long nanos) {
+		Context c = CURRENT.get();
+		c.nanos += nanos;
+		c.queries++;
+	}
+
+	/**
+	 * Returns the request the current thread is handling.
+	 *
+	 * @return the request name, or null outside a request
+	 */
+	static String currentRequest() {
+		return CURRENT.get().request;
+	}
+
+	/**
+	 * Resets the current thread's counters at the start of a request.
+	 *
+	 * @param request the request name
+	 */
+	public static void start(String request) {
+		Context c = CURRENT.get();
+		c.nanos = 0;
+		c.queries = 0;
+		c.request = request;
+	}
+
+	/**
+	 * Marks the end of the current thread's request. The counters keep their
+	 * values until the next start.
+	 */
+	public static void stop() {
+		CURRENT.get().request = null;
+	}
+
+	/**
+	 * Returns the time the current thread spent in statements since the last
+	 * start.
+	 *
+	 * @return the elapsed time in nanoseconds
+	 */
+	public static long elapsedNanos() {
+		return CURRENT.get().nanos;
+	}
+
+	/**
+	 * Returns the number of statements the current thread executed since the
+	 * last start.
+	 *
+	 * @return the query count
+	 */
+	public static int queryCount() {
+		return CURRENT.get().queries;
+	}
+}
@@ -0,0 +1,172 @@
+package dbController;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Keyset pagination over one sort column with the primary key as tie-breaker.
+ * <p>
+ * A page ends at some row; its cursor holds that row's sort value and ID.
+ * The next page selects the rows ordered after that pair, which the database
+ * finds by seeking in an index on the sort column instead of reading and
+ * discarding every earlier row as {@code OFFSET} would.
+ * </p>
+ * <p>
+ * The sort column may be NULL. MySQL sorts NULL first in ascending order and
+ * last in descending order, and the conditions built here follow that.
+ * Cursors are opaque to clients: Base64 of {@code id:} for a NULL sort value,
+ * or {@code id:=value} otherwise.
+ * </p>
+ *
+ * @author Yamen Abu Ahmad
+ * @version 1.0
+ * @see DBController
+ */
+final class Keyset {
+
+	/**
+	 * A decoded cursor: the sort value and ID of the last row of a page.
+	 */
+	static final class Position {
+
+		/**
+		 * The sort value, a String or LocalDateTime; null for a NULL column.
+		 */
+		final Object key;
+
+		/**
+		 * The row ID.
+		 */
+		final int id;
+
+		/**
+		 * Creates a position.
+		 *
+		 * @param key the sort value, or null
+		 * @param id  the row ID
+		 */
+		Position(Object key, int id) {
+			this.key = key;
+			this.id = id;
+		}
+	}
+
+	/**
+	 * The qualified sort column.
+	 */
+	private final String sortColumn;
+
+	/**
+	 * The qualified primary key column.
+	 */
+	private final String idColumn;
+
+	/**
+	 * Whether the sort column holds timestamps (otherwise strings).
+	 */
+	private final boolean dateTime;
+
+	/**
+	 * Creates a keyset definition.
+	 *
+	 * @param sortColumn the qualified sort column
+	 * @param idColumn   the qualified primary key column
+	 * @param dateTime   whether the sort column is a DATETIME
+	 */
+	Keyset(String sortColumn, String idColumn, boolean dateTime) {
+		this.sortColumn = sortColumn;
+		this.idColumn = idColumn;
+		this.dateTime = dateTime;
+	}
+
+	/**
+	 * Returns the ORDER BY list.
+	 *
+	 * @param descending whether to sort in reverse order
+	 * @return the sort column and ID, both in the same direction
+	 */
+	String orderBy(boolean descending) {
+		String dir = descending ? " DESC" : " ASC";
+		return sortColumn + dir + ", " + idColumn + dir;
+	}
+
+	/**
+	 * Returns the condition selecting the rows after a position. Its parameters
+	 * are bound by {@link #bind(PreparedStatement, int, Position)}.
+	 *
+	 * @param p          the position
+	 * @param descending whether the list is sorted in reverse order
+	 * @return the condition, in parentheses
+	 */
+	String after(Position p, boolean descending) {
+		String s = sortColumn;
+		String id = idColumn;
+		if (p.key == null) {
+			return descending ? "(" + s + " IS NULL AND " + id + " < ?)" : "(" + s + " IS NOT NULL OR " + id + " > ?)";
+		}
+		return descending ? "(" + s + " < ? OR (" + s + " = ? AND " + id + " < ?) OR " + s + " IS NULL)"
+				: "(" + s + " > ? OR (" + s + " = ? AND " + id + " > ?))";
+	}
+
+	/**
+	 * Binds the parameters of {@link #after(Position, boolean)}.
+	 *
+	 * @param ps    the statement
+	 * @param index the first parameter index
+	 * @param p     the position
+	 * @return the next free parameter index
+	 * @throws SQLException if binding fails
+	 */
+	int bind(PreparedStatement ps, int index, Position p) throws SQLException {
+		if (p.key != null) {
+			for (int i = 0; i < 2; i++) {
+				if (p.key instanceof LocalDateTime t)
+					ps.setTimestamp(index++, Timestamp.valueOf(t));
+				else
+					ps.setString(index++, (String) p.key);
+			}
+		}
+		ps.setInt(index++, p.id);
+		return index;
+	}
+
+	/**
+	 * Encodes the position of a row.
+	 *
+	 * @param key the row's sort value, or null
+	 * @param id  the row ID
+	 * @return the cursor
+	 */
+	String encode(Object key, int id) {
+		String raw = id + ":" + (key == null ? "" : "=" + key);
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Decodes a cursor produced by {@link #encode(Object, int)}.
+	 *
+	 * @param cursor the cursor
+	 * @return the position
+	 * @throws IllegalArgumentException if the cursor is malformed
+	 */
+	Position decode(String cursor) {
+		try {
+			String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+			int colon = raw.indexOf(':');
+			int id = Integer.parseInt(raw.substring(0, colon));
+			String rest = raw.substring(colon + 1);
+			if (rest.isEmpty())
+				return new Position(null, id);
+			if (rest.charAt(0) != '=')
+				throw new IllegalArgumentException("Invalid page cursor.");
+			String value = rest.substring(1);
+			return new Position(dateTime ? LocalDateTime.parse(value) : value, id);
+		} catch (RuntimeException e) {
+			throw new IllegalArgumentException("Invalid page cursor.", e);
+		}
+	}
+}
@@ -0,0 +1,53 @@
+package dbController;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated list.
+ *
+ * @param <T> the row type
+ * @author Yamen Abu Ahmad
+ * @version 1.0
+ * @see common.dto.ListQuery
+ */
+public final class Page<T> {
+
+	/**
+	 * The rows of the page.
+	 */
+	private final List<T> items;
+
+	/**
+	 * Cursor of the next page; null on the last page.
+	 */
+	private final String nextCursor;
+
+	/**
+	 * Creates a page.
+	 *
+	 * @param items      the rows
+	 * @param nextCursor the next page's cursor, or null
+	 */
+	Page(List<T> items, String nextCursor) {
+		this.items = items;
+		this.nextCursor = nextCursor;
+	}
+
+	/**
+	 * Returns the rows of the page.
+	 *
+	 * @return the rows
+	 */
+	public List<T> getItems() {
+		return items;
+	}
+
+	/**
+	 * Returns the cursor of the next page.
+	 *
+	 * @return the cursor, or null if this is the last page
+	 */
+	public String getNextCursor() {
+		return nextCursor;
+	}
+}
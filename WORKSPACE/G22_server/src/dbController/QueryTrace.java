@@ -0,0 +1,355 @@
+package dbController;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * SQL tracing of the connection pool: database time by calling method and a
+ * log of slow queries.
+ * <p>
+ * The tracing is kept cheap for the common case. The method that issues a
+ * statement is looked up on the stack once per distinct SQL text and stored
+ * with its {@link StatementStats} entry, so the time of every statement can be
+ * summed by method without walking the stack again. Only an execution slower
+ * than the threshold costs more: it is looked up precisely and recorded, with
+ * the request that issued it, the shape of its bind parameters, its rows and
+ * its time, in a ring buffer holding the last {@value #CAPACITY} slow queries.
+ * </p>
+ *
+ * @author Yamen Abu Ahmad
+ * @version 1.0
+ * @see ConnectionPool#getQueryTrace()
+ * @see DbClock
+ */
+public class QueryTrace {
+
+	/**
+	 * Default slow query threshold in milliseconds.
+	 */
+	public static final long DEFAULT_SLOW_THRESHOLD_MS = 50;
+
+	/**
+	 * Number of slow queries kept.
+	 */
+	static final int CAPACITY = 200;
+
+	/**
+	 * Walks the stack to find the caller of a statement.
+	 */
+	private static final StackWalker WALKER = StackWalker.getInstance();
+
+	/**
+	 * One execution slower than the threshold.
+	 */
+	public static final class SlowQuery {
+
+		/**
+		 * When the execution finished.
+		 */
+		private final LocalDateTime at;
+
+		/**
+		 * The request that issued it, or null for background work.
+		 */
+		private final String request;
+
+		/**
+		 * The method that executed it.
+		 */
+		private final String method;
+
+		/**
+		 * The statement name or shortened SQL.
+		 */
+		private final String statement;
+
+		/**
+		 * Types of the bound parameters.
+		 */
+		private final String parameters;
+
+		/**
+		 * Execution time in nanoseconds.
+		 */
+		private final long nanos;
+
+		/**
+		 * Rows changed, or rows read so far from its result set. Written only by
+		 * the thread that executed the statement.
+		 */
+		private volatile long rows;
+
+		/**
+		 * Creates a slow query record.
+		 *
+		 * @param request    the request, or null
+		 * @param method     the calling method
+		 * @param statement  the statement label
+		 * @param parameters the parameter shape
+		 * @param nanos      the execution time
+		 */
+		private SlowQuery(String request, String method, String statement, String parameters, long nanos) {
+			this.at = LocalDateTime.now();
+			this.request = request;
+			this.method = method;
+			this.statement = statement;
+			this.parameters = parameters;
+			this.nanos = nanos;
+		}
+
+		/**
+		 * Adds rows read or written.
+		 *
+		 * @param n the number of rows
+		 */
+		void addRows(long n) {
+			rows += n;
+		}
+
+		/**
+		 * Returns when the execution finished.
+		 *
+		 * @return the time
+		 */
+		public LocalDateTime getAt() {
+			return at;
+		}
+
+		/**
+		 * Returns the request that issued the query.
+		 *
+		 * @return the request name, or null for background work
+		 */
+		public String getRequest() {
+			return request;
+		}
+
+		/**
+		 * Returns the method that executed the query.
+		 *
+		 * @return the class and method name
+		 */
+		public String getMethod() {
+			return method;
+		}
+
+		/**
+		 * Returns the statement label.
+		 *
+		 * @return the statement name or shortened SQL
+		 */
+		public String getStatement() {
+			return statement;
+		}
+
+		/**
+		 * Returns the types of the bound parameters.
+		 *
+		 * @return the shape, such as {@code (Int, String, Timestamp)}
+		 */
+		public String getParameters() {
+			return parameters;
+		}
+
+		/**
+		 * Returns the execution time.
+		 *
+		 * @return the time in milliseconds
+		 */
+		public double getMillis() {
+			return nanos / 1_000_000.0;
+		}
+
+		/**
+		 * Returns the rows changed or read.
+		 *
+		 * @return the row count
+		 */
+		public long getRows() {
+			return rows;
+		}
+	}
+
+	/**
+	 * The pool's statement statistics, summed by method for display.
+	 */
+	private final StatementStats stats;
+
+	/**
+	 * Executions at or above this time are logged, in nanoseconds.
+	 */
+	private volatile long thresholdNanos = DEFAULT_SLOW_THRESHOLD_MS * 1_000_000;
+
+	/**
+	 * The last slow queries, indexed by sequence number modulo the capacity.
+	 */
+	private final AtomicReferenceArray<SlowQuery> ring = new AtomicReferenceArray<>(CAPACITY);
+
+	/**
+	 * Number of slow queries recorded so far.
+	 */
+	private final AtomicLong recorded = new AtomicLong();
+
+	/**
+	 * Creates the trace of a pool.
+	 *
+	 * @param stats the pool's statement statistics
+	 */
+	QueryTrace(StatementStats stats) {
+		this.stats = stats;
+	}
+
+	/**
+	 * Sets the slow query threshold.
+	 *
+	 * @param millis the threshold in milliseconds (at least 0)
+	 */
+	public void setSlowThresholdMillis(long millis) {
+		thresholdNanos = Math.max(0, millis) * 1_000_000;
+	}
+
+	/**
+	 * Returns the slow query threshold.
+	 *
+	 * @return the threshold in milliseconds
+	 */
+	public long getSlowThresholdMillis() {
+		return thresholdNanos / 1_000_000;
+	}
+
+	/**
+	 * Records an execution if it is slow.
+	 *
+	 * @param entry      the statement's counters
+	 * @param nanos      the execution time
+	 * @param parameters the method names of the bind calls, by parameter index
+	 * @param count      the highest bound parameter index
+	 * @return the record, to which rows read later are added; null if the
+	 *         execution was not slow
+	 */
+	SlowQuery record(StatementStats.Entry entry, long nanos, String[] parameters, int count) {
+		if (nanos < thresholdNanos)
+			return null;
+		SlowQuery q = new SlowQuery(DbClock.currentRequest(), callerMethod(), entry.getName(),
+				shape(parameters, count), nanos);
+		ring.set((int) (recorded.getAndIncrement() % CAPACITY), q);
+		return q;
+	}
+
+	/**
+	 * Returns the number of slow queries recorded since the server started,
+	 * including those no longer kept.
+	 *
+	 * @return the count
+	 */
+	public long getSlowQueryCount() {
+		return recorded.get();
+	}
+
+	/**
+	 * Returns the kept slow queries, newest first.
+	 *
+	 * @return the slow queries
+	 */
+	public List<SlowQuery> getSlowQueries() {
+		long last = recorded.get();
+		List<SlowQuery> list = new ArrayList<>();
+		for (long seq = last - 1; seq >= 0 && seq >= last - CAPACITY; seq--) {
+			SlowQuery q = ring.get((int) (seq % CAPACITY));
+			if (q != null)
+				list.add(q);
+		}
+		return list;
+	}
+
+	/**
+	 * Formats the database time by method and the slow query log as text
+	 * tables for display.
+	 *
+	 * @return the two tables
+	 */
+	public String format() {
+		Map<String, double[]> byMethod = new LinkedHashMap<>();
+		double totalMillis = 0;
+		for (StatementStats.Entry e : stats.getEntries()) {
+			String method = e.getMethod() != null ? e.getMethod() : "?";
+			double[] sums = byMethod.computeIfAbsent(method, m -> new double[2]);
+			sums[0] += e.getExecutions();
+			sums[1] += e.getTotalMillis();
+			totalMillis += e.getTotalMillis();
+		}
+		List<Map.Entry<String, double[]>> methods = new ArrayList<>(byMethod.entrySet());
+		methods.sort(Comparator.comparingDouble((Map.Entry<String, double[]> m) -> m.getValue()[1]).reversed());
+
+		StringBuilder sb = new StringBuilder("DB time by method\n");
+		sb.append(String.format("%-56s %10s %12s %7s%n", "Method", "Queries", "Total ms", "Share"));
+		for (Map.Entry<String, double[]> m : methods) {
+			double[] sums = m.getValue();
+			sb.append(String.format("%-56s %10d %12.1f %6.1f%%%n", m.getKey(), (long) sums[0], sums[1],
+					totalMillis == 0 ? 0 : 100 * sums[1] / totalMillis));
+		}
+
+		sb.append(String.format("%nSlow queries (>= %d ms): %d recorded, last %d shown%n", getSlowThresholdMillis(),
+				getSlowQueryCount(), Math.min(CAPACITY, getSlowQueryCount())));
+		sb.append(String.format("%-8s %9s %6s  %-36s %-44s %-40s %s%n", "Time", "ms", "Rows", "Request", "Method",
+				"Statement", "Parameters"));
+		for (SlowQuery q : getSlowQueries()) {
+			sb.append(String.format("%-8s %9.1f %6d  %-36s %-44s %-40s %s%n", q.getAt().toLocalTime().withNano(0),
+					q.getMillis(), q.getRows(), q.getRequest() == null ? "(background)" : q.getRequest(),
+					q.getMethod(), q.getStatement(), q.getParameters()));
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Finds the method that executed a statement: the first frame outside the
+	 * pool's own classes, the JDK and the driver.
+	 *
+	 * @return the simple class name and method name, or "?" if not found
+	 */
+	static String callerMethod() {
+		return WALKER.walk(frames -> frames.filter(f -> !isInfrastructure(f.getClassName()))
+				.findFirst()
+				.map(f -> f.getClassName().substring(f.getClassName().lastIndexOf('.') + 1) + "." + f.getMethodName())
+				.orElse("?"));
+	}
+
+	/**
+	 * Returns whether a class is part of the statement plumbing rather than the
+	 * code issuing the statement.
+	 *
+	 * @param className the fully qualified class name
+	 * @return true for the pool, statement cache, trace, proxies, JDK and driver
+	 */
+	private static boolean isInfrastructure(String className) {
+		return className.startsWith("dbController.StatementCache") || className.startsWith("dbController.ConnectionPool")
+				|| className.startsWith("dbController.QueryTrace") || className.startsWith("java.")
+				|| className.startsWith("jdk.") || className.startsWith("com.sun.")
+				|| className.startsWith("com.mysql.");
+	}
+
+	/**
+	 * Describes the bound parameters by type, from the names of the setter
+	 * methods used.
+	 *
+	 * @param parameters the setter names by parameter index
+	 * @param count      the highest bound parameter index
+	 * @return the shape, such as {@code (Int, String, Timestamp)}
+	 */
+	private static String shape(String[] parameters, int count) {
+		StringBuilder sb = new StringBuilder("(");
+		for (int i = 1; i <= count; i++) {
+			if (i > 1)
+				sb.append(", ");
+			String setter = i < parameters.length ? parameters[i] : null;
+			sb.append(setter == null ? "?" : setter.substring(3));
+		}
+		return sb.append(')').toString();
+	}
+}
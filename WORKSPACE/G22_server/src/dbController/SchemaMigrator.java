@@ -0,0 +1,430 @@
+package dbController;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Brings the database schema up to date on server start and checks the plans
+ * of the hot reservation queries.
+ * <p>
+ * Migrations are numbered and applied in order; each applied version is
+ * recorded in the {@code schema_version} table, so a migration runs once per
+ * database. Index steps check {@code information_schema} first and tables are
+ * created with {@code IF NOT EXISTS}, which makes a migration safe to run on a
+ * database restored from a dump that already has the index or table. A named lock keeps two servers from migrating at the same time.
+ * </p>
+ * <p>
+ * {@link #checkQueryPlans()} runs {@code EXPLAIN} on the {@link DBController}
+ * hot queries and reports every full table scan. On a near-empty table MySQL
+ * may still prefer a scan; the row estimate in the warning tells the two cases
+ * apart.
+ * </p>
+ *
+ * @author Yamen Abu Ahmad
+ * @version 1.0
+ */
+public class SchemaMigrator {
+
+	/**
+	 * Name of the MySQL lock held while migrating.
+	 */
+	private static final String LOCK_NAME = "bistro_schema_migration";
+
+	/**
+	 * Seconds to wait for another server's migration to finish.
+	 */
+	private static final int LOCK_TIMEOUT_SECONDS = 60;
+
+	/**
+	 * One step of a migration.
+	 */
+	private interface Step {
+
+		/**
+		 * Applies the step.
+		 *
+		 * @param conn the connection
+		 * @throws SQLException if the step fails
+		 */
+		void apply(Connection conn) throws SQLException;
+	}
+
+	/**
+	 * A numbered schema change.
+	 */
+	private static final class Migration {
+
+		/**
+		 * Version number; migrations are applied in increasing order.
+		 */
+		final int version;
+
+		/**
+		 * Short description stored with the version.
+		 */
+		final String description;
+
+		/**
+		 * The steps, applied in order.
+		 */
+		final Step[] steps;
+
+		/**
+		 * Creates a migration.
+		 *
+		 * @param version     the version number
+		 * @param description the description
+		 * @param steps       the steps
+		 */
+		Migration(int version, String description, Step... steps) {
+			this.version = version;
+			this.description = description;
+			this.steps = steps;
+		}
+	}
+
+	/**
+	 * A hot query whose plan is checked on startup.
+	 */
+	private static final class HotQuery {
+
+		/**
+		 * Name used in warnings.
+		 */
+		final String name;
+
+		/**
+		 * The SQL, shared with {@link DBController}.
+		 */
+		final String sql;
+
+		/**
+		 * Representative parameter values, in order.
+		 */
+		final Object[] params;
+
+		/**
+		 * Creates a hot query.
+		 *
+		 * @param name   the name
+		 * @param sql    the SQL
+		 * @param params representative parameter values
+		 */
+		HotQuery(String name, String sql, Object... params) {
+			this.name = name;
+			this.sql = sql;
+			this.params = params;
+		}
+	}
+
+	/**
+	 * All migrations, in version order. Append only; never edit an applied one.
+	 */
+	private static final Migration[] MIGRATIONS = {
+			new Migration(1, "reservation hot-query indexes",
+					// active list, no-show, day window: status + time range, ordered by time
+					addIndex("reservation", "idx_res_status_datetime", "status, reservation_datetime"),
+					// waitlist and waiting candidates: covers the whole candidate row
+					addIndex("reservation", "idx_res_status_created",
+							"status, created_at, number_of_guests, customer_id"),
+					// overlap checks: pinned tables and unassigned guests, index-only
+					addIndex("reservation", "idx_res_status_table_datetime",
+							"status, table_id, reservation_datetime, number_of_guests"),
+					// reminder candidates
+					addIndex("reservation", "idx_res_status_reminder", "status, reminder_sent, reservation_datetime"),
+					// per-customer lists filtered by status and ordered by time
+					addIndex("reservation", "idx_res_customer_status", "customer_id, status, reservation_datetime")),
+			new Migration(2, "drop duplicate bill index",
+					// same columns as the reservation_id unique key; only costs writes
+					dropIndex("bill", "reservation_id_2")),
+			new Migration(3, "report month-range indexes",
+					// time report: completed visits by check-in time
+					addIndex("reservation", "idx_res_status_checkin", "status, checked_in_at"),
+					// subscriber report: the month's reservations, index-only
+					addIndex("reservation", "idx_res_created_customer", "created_at, customer_id, status, type")),
+			new Migration(4, "subscriber list index",
+					// paged subscriber list: subscribed customers by name, then ID
+					addIndex("customer", "idx_customer_subscribed_name", "is_subscribed, full_name")),
+			new Migration(5, "notification outbox",
+					// state changes queue their notification in the same transaction
+					execute("""
+							    CREATE TABLE IF NOT EXISTS notification_outbox (
+							        outbox_id int NOT NULL AUTO_INCREMENT,
+							        reservation_id int NOT NULL,
+							        type varchar(40) NOT NULL,
+							        amount_before_discount double DEFAULT NULL,
+							        final_amount double DEFAULT NULL,
+							        status enum('PENDING','SENDING','SENT','FAILED') NOT NULL DEFAULT 'PENDING',
+							        attempts int NOT NULL DEFAULT '0',
+							        next_attempt_at datetime NOT NULL,
+							        last_error varchar(255) DEFAULT NULL,
+							        created_at datetime NOT NULL DEFAULT CURRENT_TIMESTAMP,
+							        sent_at datetime DEFAULT NULL,
+							        PRIMARY KEY (outbox_id),
+							        UNIQUE KEY uq_outbox_reservation_type (reservation_id, type),
+							        KEY idx_outbox_due (status, next_attempt_at),
+							        CONSTRAINT fk_outbox_reservation FOREIGN KEY (reservation_id)
+							            REFERENCES reservation (reservation_id) ON DELETE CASCADE
+							    ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci
+							""")) };
+
+	/**
+	 * Connection pool to run the migrations on.
+	 */
+	private final ConnectionPool pool;
+
+	/**
+	 * Creates a migrator.
+	 *
+	 * @param pool the connection pool
+	 */
+	public SchemaMigrator(ConnectionPool pool) {
+		this.pool = pool;
+	}
+
+	/**
+	 * Returns the newest version this server knows about.
+	 *
+	 * @return the latest migration version
+	 */
+	public static int getLatestVersion() {
+		return MIGRATIONS[MIGRATIONS.length - 1].version;
+	}
+
+	/**
+	 * Applies every migration newer than the database's current version.
+	 *
+	 * @return the number of migrations applied
+	 * @throws SQLException if a migration fails (later ones are not attempted)
+	 */
+	public int migrate() throws SQLException {
+		try (Connection conn = pool.borrow()) {
+			try (Statement st = conn.createStatement()) {
+				st.execute("""
+						    CREATE TABLE IF NOT EXISTS schema_version (
+						        version int NOT NULL,
+						        description varchar(200) NOT NULL,
+						        applied_at datetime NOT NULL DEFAULT CURRENT_TIMESTAMP,
+						        PRIMARY KEY (version)
+						    )
+						""");
+			}
+
+			if (!acquireLock(conn))
+				throw new SQLException("Timed out waiting for another schema migration");
+
+			try {
+				int current = getCurrentVersion(conn);
+				int applied = 0;
+
+				for (Migration m : MIGRATIONS) {
+					if (m.version <= current)
+						continue;
+
+					// MySQL DDL commits implicitly, so each step must be idempotent
+					for (Step step : m.steps)
+						step.apply(conn);
+
+					try (PreparedStatement ps = conn
+							.prepareStatement("INSERT INTO schema_version (version, description) VALUES (?, ?)")) {
+						ps.setInt(1, m.version);
+						ps.setString(2, m.description);
+						ps.executeUpdate();
+					}
+					applied++;
+				}
+				return applied;
+			} finally {
+				releaseLock(conn);
+			}
+		}
+	}
+
+	/**
+	 * Returns the database's current schema version.
+	 *
+	 * @return the version, or 0 if no migration was applied
+	 * @throws SQLException if a database access error occurs
+	 */
+	public int getCurrentVersion() throws SQLException {
+		try (Connection conn = pool.borrow()) {
+			return getCurrentVersion(conn);
+		}
+	}
+
+	/**
+	 * Runs EXPLAIN on the hot reservation queries and reports full table scans.
+	 *
+	 * @return one warning per scanned table, empty if every query uses an index
+	 * @throws SQLException if a database access error occurs
+	 */
+	public List<String> checkQueryPlans() throws SQLException {
+		LocalDateTime now = LocalDateTime.now();
+		HotQuery[] queries = {
+				new HotQuery("active reservations", DBController.ACTIVE_RESERVATIONS_SQL),
+				new HotQuery("waitlist", DBController.WAITLIST_SQL),
+				new HotQuery("pinned-table overlap", DBController.PINNED_OVERLAP_SQL, now.plusHours(2),
+						now.minusHours(2)),
+				new HotQuery("active-guest overlap", DBController.ACTIVE_OVERLAP_SQL, now.plusHours(2),
+						now.minusHours(2)),
+				new HotQuery("waiting candidates", DBController.WAITING_CANDIDATES_SQL, 4),
+				new HotQuery("status window", DBController.STATUS_WINDOW_SQL, "ACTIVE", now, now.plusDays(1)),
+				new HotQuery("time report", DBController.TIME_REPORT_SQL, now.minusMonths(1), now),
+				new HotQuery("subscriber report", DBController.SUBSCRIBER_REPORT_SQL, now.minusMonths(1), now) };
+
+		List<String> warnings = new ArrayList<>();
+
+		try (Connection conn = pool.borrow()) {
+			for (HotQuery q : queries) {
+				try (PreparedStatement ps = conn.prepareStatement("EXPLAIN " + q.sql)) {
+					for (int i = 0; i < q.params.length; i++) {
+						Object p = q.params[i];
+						if (p instanceof LocalDateTime t)
+							ps.setTimestamp(i + 1, Timestamp.valueOf(t));
+						else
+							ps.setObject(i + 1, p);
+					}
+
+					try (ResultSet rs = ps.executeQuery()) {
+						while (rs.next()) {
+							if ("ALL".equalsIgnoreCase(rs.getString("type"))) {
+								warnings.add(q.name + ": full scan of " + rs.getString("table") + " (~"
+										+ rs.getLong("rows") + " rows)");
+							}
+						}
+					}
+				}
+			}
+		}
+		return warnings;
+	}
+
+	/**
+	 * Reads the current version on an open connection.
+	 *
+	 * @param conn the connection
+	 * @return the version, or 0 if none
+	 * @throws SQLException if a database access error occurs
+	 */
+	private static int getCurrentVersion(Connection conn) throws SQLException {
+		try (Statement st = conn.createStatement();
+				ResultSet rs = st.executeQuery("SELECT COALESCE(MAX(version), 0) FROM schema_version")) {
+			rs.next();
+			return rs.getInt(1);
+		}
+	}
+
+	/**
+	 * Takes the migration lock.
+	 *
+	 * @param conn the connection that will hold the lock
+	 * @return true if the lock was taken
+	 * @throws SQLException if a database access error occurs
+	 */
+	private static boolean acquireLock(Connection conn) throws SQLException {
+		try (PreparedStatement ps = conn.prepareStatement("SELECT GET_LOCK(?, ?)")) {
+			ps.setString(1, LOCK_NAME);
+			ps.setInt(2, LOCK_TIMEOUT_SECONDS);
+			try (ResultSet rs = ps.executeQuery()) {
+				return rs.next() && rs.getInt(1) == 1;
+			}
+		}
+	}
+
+	/**
+	 * Releases the migration lock.
+	 *
+	 * @param conn the connection holding the lock
+	 * @throws SQLException if a database access error occurs
+	 */
+	private static void releaseLock(Connection conn) throws SQLException {
+		try (PreparedStatement ps = conn.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+			ps.setString(1, LOCK_NAME);
+			ps.executeQuery().close();
+		}
+	}
+
+	/**
+	 * Returns whether an index exists in the current database.
+	 *
+	 * @param conn  the connection
+	 * @param table the table name
+	 * @param index the index name
+	 * @return true if the index exists
+	 * @throws SQLException if a database access error occurs
+	 */
+	private static boolean indexExists(Connection conn, String table, String index) throws SQLException {
+		String sql = """
+				    SELECT 1
+				    FROM information_schema.statistics
+				    WHERE table_schema = DATABASE()
+				      AND table_name = ?
+				      AND index_name = ?
+				    LIMIT 1
+				""";
+		try (PreparedStatement ps = conn.prepareStatement(sql)) {
+			ps.setString(1, table);
+			ps.setString(2, index);
+			try (ResultSet rs = ps.executeQuery()) {
+				return rs.next();
+			}
+		}
+	}
+
+	/**
+	 * Step that creates an index unless it already exists.
+	 *
+	 * @param table   the table name
+	 * @param index   the index name
+	 * @param columns the indexed columns, comma separated
+	 * @return the step
+	 */
+	private static Step addIndex(String table, String index, String columns) {
+		return conn -> {
+			if (indexExists(conn, table, index))
+				return;
+			try (Statement st = conn.createStatement()) {
+				st.execute("CREATE INDEX " + index + " ON " + table + " (" + columns + ")");
+			}
+		};
+	}
+
+	/**
+	 * Step that runs one idempotent statement, such as
+	 * {@code CREATE TABLE IF NOT EXISTS}.
+	 *
+	 * @param sql the statement
+	 * @return the step
+	 */
+	private static Step execute(String sql) {
+		return conn -> {
+			try (Statement st = conn.createStatement()) {
+				st.execute(sql);
+			}
+		};
+	}
+
+	/**
+	 * Step that drops an index if it exists.
+	 *
+	 * @param table the table name
+	 * @param index the index name
+	 * @return the step
+	 */
+	private static Step dropIndex(String table, String index) {
+		return conn -> {
+			if (!indexExists(conn, table, index))
+				return;
+			try (Statement st = conn.createStatement()) {
+				st.execute("DROP INDEX " + index + " ON " + table);
+			}
+		};
+	}
+}
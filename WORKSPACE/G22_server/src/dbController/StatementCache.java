@@ -0,0 +1,302 @@
+package dbController;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Prepared statements of one pooled connection.
+ * <p>
+ * Statements whose SQL is in the {@link StatementRegistry} are prepared once
+ * per physical connection and kept open. Closing the handle returned by
+ * {@link #prepare(String, Connection)} only clears its parameters, so the next
+ * borrower of the connection reuses the same statement; with
+ * {@code useServerPrepStmts} the SQL is parsed by the server once per
+ * connection instead of once per call. If a registered statement is asked for
+ * while it is still open (a nested use on the same connection), a fresh
+ * statement is prepared instead.
+ * </p>
+ * <p>
+ * Every statement handed out, cached or not, records its executions, latency
+ * and rows in the pool's {@link StatementStats}, and adds its execution time to
+ * the calling thread's {@link DbClock}. Each handle remembers the types of its
+ * bound parameters so a slow execution can be logged in the pool's
+ * {@link QueryTrace} with its parameter shape.
+ * </p>
+ * <p>
+ * A connection is used by one borrower at a time, so this class is not
+ * thread-safe.
+ * </p>
+ *
+ * @author Yamen Abu Ahmad
+ * @version 1.0
+ * @see ConnectionPool
+ */
+final class StatementCache {
+
+	/**
+	 * The physical connection the statements belong to.
+	 */
+	private final Connection physical;
+
+	/**
+	 * The pool's statement statistics.
+	 */
+	private final StatementStats stats;
+
+	/**
+	 * The pool's query trace.
+	 */
+	private final QueryTrace trace;
+
+	/**
+	 * Open registered statements by SQL text.
+	 */
+	private final Map<String, PreparedStatement> cached = new HashMap<>();
+
+	/**
+	 * Registered statements currently handed out, by SQL text.
+	 */
+	private final Set<String> checkedOut = new HashSet<>();
+
+	/**
+	 * Creates the cache of a physical connection.
+	 *
+	 * @param physical the driver connection
+	 * @param stats    the pool's statement statistics
+	 * @param trace    the pool's query trace
+	 */
+	StatementCache(Connection physical, StatementStats stats, QueryTrace trace) {
+		this.physical = physical;
+		this.stats = stats;
+		this.trace = trace;
+	}
+
+	/**
+	 * Returns a prepared statement for the SQL, reusing the cached one when the
+	 * SQL is registered and the statement is free.
+	 *
+	 * @param sql    the SQL text
+	 * @param handle the pooled connection handle, returned by
+	 *               {@link Statement#getConnection()}
+	 * @return the statement handle
+	 * @throws SQLException if the statement cannot be prepared
+	 */
+	PreparedStatement prepare(String sql, Connection handle) throws SQLException {
+		if (StatementRegistry.nameOf(sql) == null || checkedOut.contains(sql))
+			return track(physical.prepareStatement(sql), sql, handle, false);
+
+		PreparedStatement ps = cached.get(sql);
+		if (ps == null || ps.isClosed()) {
+			ps = physical.prepareStatement(sql);
+			cached.put(sql, ps);
+		}
+		checkedOut.add(sql);
+		return track(ps, sql, handle, true);
+	}
+
+	/**
+	 * Wraps a statement prepared with extra arguments (generated keys, result set
+	 * type) so it is counted in the statistics. Such statements are not cached.
+	 *
+	 * @param ps     the driver statement
+	 * @param sql    the SQL text
+	 * @param handle the pooled connection handle
+	 * @return the statement handle
+	 */
+	PreparedStatement track(PreparedStatement ps, String sql, Connection handle) {
+		return track(ps, sql, handle, false);
+	}
+
+	/**
+	 * Marks every cached statement as free. Called when the connection returns
+	 * to the pool, in case a borrower did not close a statement.
+	 */
+	void releaseAll() {
+		checkedOut.clear();
+	}
+
+	/**
+	 * Wraps a driver statement in a handle that records statistics and, for a
+	 * cached statement, keeps it open on close.
+	 *
+	 * @param ps     the driver statement
+	 * @param sql    the SQL text
+	 * @param handle the pooled connection handle
+	 * @param reused whether the statement is cached
+	 * @return the statement handle
+	 */
+	private PreparedStatement track(PreparedStatement ps, String sql, Connection handle, boolean reused) {
+		StatementStats.Entry entry = stats.forSql(sql);
+
+		InvocationHandler handler = new InvocationHandler() {
+			private boolean closed;
+
+			/**
+			 * Setter method names by parameter index, for the slow query log.
+			 */
+			private String[] parameters = new String[8];
+
+			/**
+			 * Highest parameter index bound.
+			 */
+			private int parameterCount;
+
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+				switch (method.getName()) {
+				case "close":
+					if (!closed) {
+						closed = true;
+						if (reused) {
+							ps.clearParameters();
+							ps.clearBatch();
+							checkedOut.remove(sql);
+						} else {
+							ps.close();
+						}
+					}
+					return null;
+				case "isClosed":
+					return closed || ps.isClosed();
+				case "getConnection":
+					return handle;
+				case "equals":
+					return proxy == args[0];
+				case "hashCode":
+					return System.identityHashCode(proxy);
+				case "toString":
+					return "Tracked" + ps;
+				default:
+					if (closed)
+						throw new SQLException("Statement has already been closed.");
+					if (!method.getName().startsWith("execute")) {
+						if (method.getName().startsWith("set") && args != null && args.length >= 2
+								&& args[0] instanceof Integer index)
+							bound(index, method.getName());
+						else if (method.getName().equals("clearParameters"))
+							parameterCount = 0;
+						return call(method, args);
+					}
+
+					long start = System.nanoTime();
+					Object result;
+					try {
+						result = call(method, args);
+					} catch (Throwable t) {
+						DbClock.add(System.nanoTime() - start);
+						throw t;
+					}
+					long elapsed = System.nanoTime() - start;
+					DbClock.add(elapsed);
+					entry.recordExecution(elapsed);
+					if (entry.getMethod() == null)
+						entry.setMethod(QueryTrace.callerMethod());
+					QueryTrace.SlowQuery slow = trace.record(entry, elapsed, parameters, parameterCount);
+
+					long rows = 0;
+					if (result instanceof ResultSet rs)
+						return countRows(rs, entry, slow);
+					if (result instanceof Integer n && n > 0)
+						rows = n;
+					else if (result instanceof Long n && n > 0)
+						rows = n;
+					else if (result instanceof int[] counts)
+						rows = batchRows(counts);
+					entry.addRows(rows);
+					if (slow != null)
+						slow.addRows(rows);
+					return result;
+				}
+			}
+
+			/**
+			 * Remembers the setter used for a parameter.
+			 *
+			 * @param index  the parameter index
+			 * @param setter the setter method name
+			 */
+			private void bound(int index, String setter) {
+				if (index >= parameters.length)
+					parameters = Arrays.copyOf(parameters, Math.max(index + 1, parameters.length * 2));
+				if (index > 0)
+					parameters[index] = setter;
+				parameterCount = Math.max(parameterCount, index);
+			}
+
+			/**
+			 * Calls the driver statement, unwrapping reflection errors.
+			 *
+			 * @param method the method to call
+			 * @param args   the arguments
+			 * @return the driver's result
+			 * @throws Throwable whatever the driver threw
+			 */
+			private Object call(Method method, Object[] args) throws Throwable {
+				try {
+					return method.invoke(ps, args);
+				} catch (InvocationTargetException e) {
+					throw e.getCause();
+				}
+			}
+		};
+		return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+				new Class<?>[] { PreparedStatement.class }, handler);
+	}
+
+	/**
+	 * Wraps a result set so every row read is counted.
+	 *
+	 * @param rs    the driver result set
+	 * @param entry the statement's counters
+	 * @param slow  the slow query record of the execution, or null
+	 * @return the counting result set
+	 */
+	private static ResultSet countRows(ResultSet rs, StatementStats.Entry entry, QueryTrace.SlowQuery slow) {
+		InvocationHandler handler = (proxy, method, args) -> {
+			Object result;
+			try {
+				result = method.invoke(rs, args);
+			} catch (InvocationTargetException e) {
+				throw e.getCause();
+			}
+			if (Boolean.TRUE.equals(result) && method.getName().equals("next")) {
+				entry.addRows(1);
+				if (slow != null)
+					slow.addRows(1);
+			}
+			return result;
+		};
+		return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[] { ResultSet.class },
+				handler);
+	}
+
+	/**
+	 * Sums the update counts of a batch; rewritten batches report
+	 * {@link Statement#SUCCESS_NO_INFO}, which counts as one row.
+	 *
+	 * @param counts the batch update counts
+	 * @return the number of rows written
+	 */
+	private static long batchRows(int[] counts) {
+		long rows = 0;
+		for (int c : counts) {
+			if (c > 0)
+				rows += c;
+			else if (c == Statement.SUCCESS_NO_INFO)
+				rows++;
+		}
+		return rows;
+	}
+}
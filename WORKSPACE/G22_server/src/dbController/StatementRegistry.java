@@ -0,0 +1,70 @@
+package dbController;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Fixed set of named SQL statements that are prepared once per pooled
+ * connection and reused.
+ * <p>
+ * {@link DBController} registers its hot statements when the class is loaded,
+ * by wrapping the SQL constant in {@link #register(String, String)}. When a
+ * pooled connection is asked to prepare a registered SQL string, the
+ * connection's {@link StatementCache} hands out the already prepared statement
+ * instead of preparing it again. Unregistered SQL is prepared normally. The
+ * name is also the label shown in {@link StatementStats}.
+ * </p>
+ *
+ * @author Yamen Abu Ahmad
+ * @version 1.0
+ * @see StatementCache
+ */
+final class StatementRegistry {
+
+	/**
+	 * Statement name by SQL text.
+	 */
+	private static final Map<String, String> NAMES = new ConcurrentHashMap<>();
+
+	/**
+	 * Utility class.
+	 */
+	private StatementRegistry() {
+	}
+
+	/**
+	 * Registers a named statement.
+	 *
+	 * @param name the statement name
+	 * @param sql  the SQL text
+	 * @return the SQL text, so the call can initialize a constant
+	 * @throws IllegalStateException if the SQL is already registered under
+	 *                               another name
+	 */
+	static String register(String name, String sql) {
+		String previous = NAMES.putIfAbsent(sql, name);
+		if (previous != null && !previous.equals(name))
+			throw new IllegalStateException("SQL of '" + name + "' is already registered as '" + previous + "'");
+		return sql;
+	}
+
+	/**
+	 * Returns the name of a registered statement.
+	 *
+	 * @param sql the SQL text
+	 * @return the name, or null if the SQL is not registered
+	 */
+	static String nameOf(String sql) {
+		return NAMES.get(sql);
+	}
+
+	/**
+	 * Returns the number of registered statements, which bounds the size of each
+	 * connection's statement cache.
+	 *
+	 * @return the registry size
+	 */
+	static int size() {
+		return NAMES.size();
+	}
+}
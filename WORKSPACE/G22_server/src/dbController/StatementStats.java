@@ -0,0 +1,227 @@
+package dbController;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import metrics.LatencyHistogram;
+
+/**
+ * Per-statement execution statistics of the connection pool.
+ * <p>
+ * Every prepared statement executed through a pooled connection is counted
+ * under its {@link StatementRegistry} name, or under a shortened form of its
+ * SQL when it is not registered. For each statement the pool keeps the number
+ * of executions, the total and the distribution of execution times, and the
+ * number of rows read or written. Latencies go into a {@link LatencyHistogram},
+ * so the p99 is accurate to about 6% at a fixed memory cost.
+ * </p>
+ *
+ * @author Yamen Abu Ahmad
+ * @version 1.0
+ * @see ConnectionPool#getStatementStats()
+ */
+public class StatementStats {
+
+	/**
+	 * Longest label shown for unregistered SQL.
+	 */
+	private static final int MAX_LABEL = 60;
+
+	/**
+	 * Counters of one statement.
+	 */
+	public static final class Entry {
+
+		/**
+		 * Statement name or shortened SQL.
+		 */
+		private final String name;
+
+		/**
+		 * Sum of execution times in nanoseconds.
+		 */
+		private final LongAdder totalNanos = new LongAdder();
+
+		/**
+		 * Rows returned by queries or changed by updates.
+		 */
+		private final LongAdder rows = new LongAdder();
+
+		/**
+		 * Distribution of execution times; also counts the executions.
+		 */
+		private final LatencyHistogram latency = new LatencyHistogram();
+
+		/**
+		 * The method that first executed the statement; null until then.
+		 */
+		private volatile String method;
+
+		/**
+		 * Creates the counters of a statement.
+		 *
+		 * @param name the statement label
+		 */
+		private Entry(String name) {
+			this.name = name;
+		}
+
+		/**
+		 * Records one execution.
+		 *
+		 * @param nanos the execution time
+		 */
+		void recordExecution(long nanos) {
+			totalNanos.add(nanos);
+			latency.recordNanos(nanos);
+		}
+
+		/**
+		 * Adds rows read or written.
+		 *
+		 * @param n the number of rows
+		 */
+		void addRows(long n) {
+			rows.add(n);
+		}
+
+		/**
+		 * Sets the method that executes the statement.
+		 *
+		 * @param method the class and method name
+		 */
+		void setMethod(String method) {
+			this.method = method;
+		}
+
+		/**
+		 * Returns the method that executes the statement, as seen on its first
+		 * execution.
+		 *
+		 * @return the class and method name, or null if not executed yet
+		 */
+		public String getMethod() {
+			return method;
+		}
+
+		/**
+		 * Returns the statement label.
+		 *
+		 * @return the name or shortened SQL
+		 */
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 * Returns the number of executions.
+		 *
+		 * @return the execution count
+		 */
+		public long getExecutions() {
+			return latency.getCount();
+		}
+
+		/**
+		 * Returns the total execution time.
+		 *
+		 * @return the total in milliseconds
+		 */
+		public double getTotalMillis() {
+			return totalNanos.sum() / 1_000_000.0;
+		}
+
+		/**
+		 * Returns the mean execution time.
+		 *
+		 * @return the mean in milliseconds
+		 */
+		public double getMeanMillis() {
+			long n = latency.getCount();
+			return n == 0 ? 0 : totalNanos.sum() / 1_000_000.0 / n;
+		}
+
+		/**
+		 * Returns the 99th percentile execution time, as the upper bound of the
+		 * bucket holding it.
+		 *
+		 * @return the p99 in milliseconds
+		 */
+		public double getP99Millis() {
+			return latency.getPercentileMillis(99);
+		}
+
+		/**
+		 * Returns the rows read or written.
+		 *
+		 * @return the row count
+		 */
+		public long getRows() {
+			return rows.sum();
+		}
+	}
+
+	/**
+	 * Counters by statement label.
+	 */
+	private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+	/**
+	 * Counters by SQL text, so the label is worked out once per statement.
+	 */
+	private final Map<String, Entry> bySql = new ConcurrentHashMap<>();
+
+	/**
+	 * Returns the counters of a statement, creating them on first use.
+	 *
+	 * @param sql the SQL text
+	 * @return the statement's counters
+	 */
+	Entry forSql(String sql) {
+		return bySql.computeIfAbsent(sql, s -> {
+			String name = StatementRegistry.nameOf(s);
+			return entries.computeIfAbsent(name != null ? name : shorten(s), Entry::new);
+		});
+	}
+
+	/**
+	 * Returns the counters of every executed statement, most total time first.
+	 *
+	 * @return the entries
+	 */
+	public List<Entry> getEntries() {
+		List<Entry> list = new ArrayList<>(entries.values());
+		list.sort(Comparator.comparingDouble(Entry::getTotalMillis).reversed());
+		return list;
+	}
+
+	/**
+	 * Formats the statistics as a fixed-width text table for display.
+	 *
+	 * @return the table, one statement per line
+	 */
+	public String format() {
+		StringBuilder sb = new StringBuilder(String.format("%-60s %10s %10s %10s %12s%n", "Statement", "Executions",
+				"Mean ms", "p99 ms", "Rows"));
+		for (Entry e : getEntries()) {
+			sb.append(String.format("%-60s %10d %10.2f %10.2f %12d%n", e.getName(), e.getExecutions(),
+					e.getMeanMillis(), e.getP99Millis(), e.getRows()));
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Turns unregistered SQL into a one-line label.
+	 *
+	 * @param sql the SQL text
+	 * @return the collapsed, truncated SQL
+	 */
+	private static String shorten(String sql) {
+		String s = sql.strip().replaceAll("\\s+", " ");
+		return s.length() <= MAX_LABEL ? s : s.substring(0, MAX_LABEL - 3) + "...";
+	}
+}
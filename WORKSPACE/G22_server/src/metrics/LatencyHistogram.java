@@ -0,0 +1,167 @@
+package metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Concurrent latency histogram with bounded relative error.
+ * <p>
+ * Values are recorded in microseconds into log-linear buckets, in the manner
+ * of HdrHistogram: each power of two is split into {@value #SUB_BUCKETS} equal
+ * sub-buckets, so any percentile is reported within 1/{@value #SUB_BUCKETS}
+ * (about 6%) of the recorded value while the memory stays fixed at a few
+ * kilobytes. Values below {@value #SUB_BUCKETS} microseconds are exact; values
+ * above {@link #MAX_MICROS} are recorded as that maximum.
+ * </p>
+ * <p>
+ * Recording is lock-free. A reader may see a recording that is only partly
+ * applied, which is acceptable for monitoring.
+ * </p>
+ * <p>
+ * This is the one histogram of the server: request timings and per-statement
+ * database timings both use it, so their percentiles have the same precision.
+ * </p>
+ *
+ * @author Yamen Abu Ahmad
+ * @version 1.0
+ * @see server.RequestMetrics
+ * @see dbController.StatementStats
+ */
+public final class LatencyHistogram {
+
+	/**
+	 * Bits of precision kept within each power of two.
+	 */
+	private static final int SUB_BITS = 4;
+
+	/**
+	 * Sub-buckets per power of two.
+	 */
+	private static final int SUB_BUCKETS = 1 << SUB_BITS;
+
+	/**
+	 * Largest recordable value, about 19 hours.
+	 */
+	static final long MAX_MICROS = (1L << 36) - 1;
+
+	/**
+	 * Number of buckets needed to cover {@link #MAX_MICROS}.
+	 */
+	private static final int BUCKETS = indexOf(MAX_MICROS) + 1;
+
+	/**
+	 * Recordings per bucket.
+	 */
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+	/**
+	 * Number of recordings.
+	 */
+	private final LongAdder count = new LongAdder();
+
+	/**
+	 * Sum of recorded values in microseconds.
+	 */
+	private final LongAdder sum = new LongAdder();
+
+	/**
+	 * Largest recorded value in microseconds.
+	 */
+	private final AtomicLong max = new AtomicLong();
+
+	/**
+	 * Records one duration.
+	 *
+	 * @param nanos the duration in nanoseconds; negative values count as zero
+	 */
+	public void recordNanos(long nanos) {
+		long micros = Math.min(MAX_MICROS, Math.max(0, nanos / 1_000));
+		counts.incrementAndGet(indexOf(micros));
+		count.increment();
+		sum.add(micros);
+		if (micros > max.get())
+			max.accumulateAndGet(micros, Math::max);
+	}
+
+	/**
+	 * Returns the number of recordings.
+	 *
+	 * @return the count
+	 */
+	public long getCount() {
+		return count.sum();
+	}
+
+	/**
+	 * Returns the mean recorded value.
+	 *
+	 * @return the mean in milliseconds, or 0 if nothing was recorded
+	 */
+	public double getMeanMillis() {
+		long n = count.sum();
+		return n == 0 ? 0 : sum.sum() / 1_000.0 / n;
+	}
+
+	/**
+	 * Returns the largest recorded value.
+	 *
+	 * @return the maximum in milliseconds
+	 */
+	public double getMaxMillis() {
+		return max.get() / 1_000.0;
+	}
+
+	/**
+	 * Returns a percentile, as the upper bound of the bucket holding it.
+	 *
+	 * @param percentile the percentile, from 0 to 100
+	 * @return the value in milliseconds, or 0 if nothing was recorded
+	 */
+	public double getPercentileMillis(double percentile) {
+		long[] snapshot = new long[BUCKETS];
+		long n = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			snapshot[i] = counts.get(i);
+			n += snapshot[i];
+		}
+		if (n == 0)
+			return 0;
+
+		long target = Math.max(1, (long) Math.ceil(n * percentile / 100.0));
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += snapshot[i];
+			if (seen >= target)
+				return Math.min(upperBound(i), max.get()) / 1_000.0;
+		}
+		return getMaxMillis();
+	}
+
+	/**
+	 * Returns the bucket of a value.
+	 *
+	 * @param micros the value, from 0 to {@link #MAX_MICROS}
+	 * @return the bucket index
+	 */
+	private static int indexOf(long micros) {
+		if (micros < SUB_BUCKETS)
+			return (int) micros;
+		int shift = 63 - Long.numberOfLeadingZeros(micros) - SUB_BITS;
+		return SUB_BUCKETS + shift * SUB_BUCKETS + (int) (micros >>> shift) - SUB_BUCKETS;
+	}
+
+	/**
+	 * Returns the largest value that falls into a bucket.
+	 *
+	 * @param index the bucket index
+	 * @return the value in microseconds
+	 */
+	private static long upperBound(int index) {
+		if (index < SUB_BUCKETS)
+			return index;
+		int shift = index / SUB_BUCKETS - 1;
+		long mantissa = SUB_BUCKETS + index % SUB_BUCKETS;
+		return ((mantissa + 1) << shift) - 1;
+	}
+}
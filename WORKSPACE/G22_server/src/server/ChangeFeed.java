@@ -0,0 +1,367 @@
+package server;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import common.dto.Feed.FeedEvent;
+import common.dto.Feed.FeedResponse;
+import common.entity.Customer;
+import common.entity.Reservation;
+import common.entity.Table;
+import common.enums.FeedTopic;
+import common.enums.ReservationStatus;
+import controllers.TableInventory;
+import dbController.DBController;
+import ocsf.server.ConnectionToClient;
+
+/**
+ * Pushes changes of the waitlist, the active reservations, the current diners
+ * and the tables to the connections subscribed to them.
+ * <p>
+ * A subscriber first receives a snapshot of each topic, tagged with the
+ * current sequence number, and from then on one {@link FeedEvent} per changed
+ * entry. Events carry the entry's state as read from the database when the
+ * change is published, so applying an event more than once, or applying one
+ * the snapshot already reflects, leaves the client with the right state.
+ * </p>
+ * <p>
+ * Subscribing and publishing are serialized on this object. A snapshot is
+ * therefore taken either before or after a publish, never during one: every
+ * event with a sequence number at or below the snapshot's is already in it,
+ * and every later event is numbered above it. The client buffers events that
+ * arrive before the snapshot and drops those it already covers.
+ * </p>
+ * <p>
+ * Publishing never writes to a socket. Each subscriber has a bounded queue of
+ * {@link #QUEUE_CAPACITY} events, which a sender thread of its own drains in
+ * sequence order, so a dashboard that reads slowly cannot hold up the request
+ * that published the change. A subscriber whose queue overflows is dropped
+ * and sent a {@link FeedEvent#resync} event instead of the backlog; the client
+ * then subscribes again and starts from a fresh snapshot.
+ * </p>
+ * <p>
+ * When nobody is subscribed to a topic, publishing to it costs nothing.
+ * Connections that fail to receive an event, disconnect or unsubscribe are
+ * removed.
+ * </p>
+ *
+ * @author Yamen Abu Ahmad
+ * @version 1.0
+ * @see common.dto.Feed.FeedRequest
+ */
+public class ChangeFeed {
+
+	/**
+	 * Reservation statuses shown in the active reservations topic.
+	 */
+	private static final Set<ReservationStatus> ACTIVE_STATUSES = EnumSet.of(ReservationStatus.ACTIVE,
+			ReservationStatus.NOTIFIED, ReservationStatus.IN_PROGRESS);
+
+	/**
+	 * Events a subscriber may have queued before it is dropped as too slow.
+	 */
+	private static final int QUEUE_CAPACITY = 1024;
+
+	/**
+	 * Database controller used to read snapshots and changed entries.
+	 */
+	private final DBController db;
+
+	/**
+	 * Table inventory used for the tables topic.
+	 */
+	private final TableInventory tables;
+
+	/**
+	 * Subscribers per topic.
+	 */
+	private final Map<FeedTopic, Set<Subscriber>> subscribers = new EnumMap<>(FeedTopic.class);
+
+	/**
+	 * Subscriber of each subscribed connection.
+	 */
+	private final Map<ConnectionToClient, Subscriber> byClient = new ConcurrentHashMap<>();
+
+	/**
+	 * Runs the subscribers' sender tasks, one virtual thread per task, so a
+	 * blocked socket write holds up only its own subscriber.
+	 */
+	private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+
+	/**
+	 * Sequence number of the last event; guarded by this object.
+	 */
+	private long seq;
+
+	/**
+	 * Constructs the change feed.
+	 *
+	 * @param db     the database controller
+	 * @param tables the table inventory
+	 */
+	public ChangeFeed(DBController db, TableInventory tables) {
+		this.db = db;
+		this.tables = tables;
+		for (FeedTopic topic : FeedTopic.values())
+			subscribers.put(topic, ConcurrentHashMap.newKeySet());
+	}
+
+	/**
+	 * Subscribes a connection to topics and returns their snapshot.
+	 *
+	 * @param client the connection
+	 * @param topics the topics
+	 * @return the snapshot response; lists of topics not requested are null
+	 * @throws SQLException if database access fails; the connection is then not
+	 *                      subscribed
+	 */
+	public synchronized FeedResponse subscribe(ConnectionToClient client, Set<FeedTopic> topics)
+			throws SQLException {
+		List<Reservation> waitlist = topics.contains(FeedTopic.WAITLIST) ? db.getWaitlistReservations() : null;
+		List<Reservation> active = topics.contains(FeedTopic.ACTIVE_RESERVATIONS) ? db.getActiveReservations()
+				: null;
+		List<Customer> diners = topics.contains(FeedTopic.DINERS) ? db.getCurrentDiners() : null;
+		List<Table> tableList = topics.contains(FeedTopic.TABLES) ? tables.current().getTables() : null;
+
+		Subscriber sub = byClient.computeIfAbsent(client, Subscriber::new);
+		for (FeedTopic topic : topics)
+			subscribers.get(topic).add(sub);
+		return FeedResponse.subscribed(seq, waitlist, active, diners, tableList);
+	}
+
+	/**
+	 * Unsubscribes a connection from topics.
+	 *
+	 * @param client the connection
+	 * @param topics the topics
+	 */
+	public void unsubscribe(ConnectionToClient client, Set<FeedTopic> topics) {
+		Subscriber sub = byClient.get(client);
+		if (sub == null)
+			return;
+		for (FeedTopic topic : topics)
+			subscribers.get(topic).remove(sub);
+	}
+
+	/**
+	 * Unsubscribes a connection from every topic and discards the events still
+	 * queued for it. Called when it disconnects.
+	 *
+	 * @param client the connection
+	 */
+	public void remove(ConnectionToClient client) {
+		Subscriber sub = byClient.remove(client);
+		if (sub == null)
+			return;
+		for (Set<Subscriber> set : subscribers.values())
+			set.remove(sub);
+		sub.closed = true;
+		sub.queue.clear();
+	}
+
+	/**
+	 * Stops the sender threads. Events not yet sent are discarded.
+	 */
+	public void close() {
+		senders.shutdownNow();
+	}
+
+	/**
+	 * Publishes the current state of changed reservations to the waitlist,
+	 * active reservations and diners topics. The reservations are read with one
+	 * query and the affected customers' diner status with another.
+	 *
+	 * @param reservationIds the changed reservations
+	 * @throws SQLException if database access fails
+	 */
+	public synchronized void reservationsChanged(Collection<Integer> reservationIds) throws SQLException {
+		boolean toWaitlist = hasSubscribers(FeedTopic.WAITLIST);
+		boolean toActive = hasSubscribers(FeedTopic.ACTIVE_RESERVATIONS);
+		boolean toDiners = hasSubscribers(FeedTopic.DINERS);
+		if (!toWaitlist && !toActive && !toDiners)
+			return;
+
+		Map<Integer, Reservation> rows = new HashMap<>();
+		for (Reservation r : db.findReservationsByIds(reservationIds))
+			rows.put(r.getReservationId(), r);
+
+		for (Integer id : new HashSet<>(reservationIds)) {
+			Reservation r = rows.get(id);
+			ReservationStatus status = r == null ? null : r.getStatus();
+			if (toWaitlist)
+				publish(FeedTopic.WAITLIST, id, status == ReservationStatus.WAITING ? r : null);
+			if (toActive)
+				publish(FeedTopic.ACTIVE_RESERVATIONS, id, ACTIVE_STATUSES.contains(status) ? r : null);
+		}
+
+		if (toDiners) {
+			Set<Integer> customerIds = new HashSet<>();
+			for (Reservation r : rows.values())
+				customerIds.add(r.getCustomerId());
+
+			for (Customer c : db.getCurrentDinersAmong(customerIds)) {
+				customerIds.remove(c.getCustomerId());
+				publish(FeedTopic.DINERS, c.getCustomerId(), c);
+			}
+			for (Integer customerId : customerIds)
+				publish(FeedTopic.DINERS, customerId, null);
+		}
+	}
+
+	/**
+	 * Publishes the current state of changed tables to the tables topic. Called
+	 * after the table inventory was updated.
+	 *
+	 * @param tableNumbers the added, resized or deleted tables
+	 * @throws SQLException if the inventory has to be loaded and database access
+	 *                      fails
+	 */
+	public synchronized void tablesChanged(Collection<Integer> tableNumbers) throws SQLException {
+		if (!hasSubscribers(FeedTopic.TABLES))
+			return;
+
+		TableInventory.Snapshot snapshot = tables.current();
+		for (Integer tableNumber : tableNumbers) {
+			int seats = snapshot.capacityOf(tableNumber);
+			publish(FeedTopic.TABLES, tableNumber, seats < 0 ? null : new Table(tableNumber, seats));
+		}
+	}
+
+	/**
+	 * Returns whether a topic has subscribers.
+	 *
+	 * @param topic the topic
+	 * @return true if at least one connection is subscribed
+	 */
+	private boolean hasSubscribers(FeedTopic topic) {
+		return !subscribers.get(topic).isEmpty();
+	}
+
+	/**
+	 * Numbers an event and queues it for every subscriber of its topic. A
+	 * subscriber whose queue is full is dropped and told to resubscribe. Must
+	 * be called while holding the lock.
+	 *
+	 * @param topic the topic
+	 * @param key   the entry key
+	 * @param value the entry's state, or null if it left the topic
+	 */
+	private void publish(FeedTopic topic, int key, Serializable value) {
+		FeedEvent event = value == null ? FeedEvent.remove(topic, ++seq, key)
+				: FeedEvent.upsert(topic, ++seq, key, value);
+
+		List<Subscriber> overflowed = new ArrayList<>();
+		for (Subscriber sub : subscribers.get(topic)) {
+			if (sub.queue.offer(event))
+				schedule(sub);
+			else
+				overflowed.add(sub);
+		}
+		for (Subscriber sub : overflowed)
+			resync(sub);
+	}
+
+	/**
+	 * Drops a subscriber that fell behind: its backlog is replaced by a single
+	 * resync event, after which it receives nothing until it subscribes again.
+	 *
+	 * @param sub the subscriber
+	 */
+	private void resync(Subscriber sub) {
+		byClient.remove(sub.client, sub);
+		for (Set<Subscriber> set : subscribers.values())
+			set.remove(sub);
+		sub.queue.clear();
+		sub.queue.offer(FeedEvent.resync(seq));
+		schedule(sub);
+	}
+
+	/**
+	 * Starts a sender task for a subscriber unless one is already running.
+	 *
+	 * @param sub the subscriber with queued events
+	 */
+	private void schedule(Subscriber sub) {
+		if (!sub.sending.compareAndSet(false, true))
+			return;
+		try {
+			senders.execute(() -> drain(sub));
+		} catch (RejectedExecutionException e) {
+			sub.sending.set(false); // feed closed
+		}
+	}
+
+	/**
+	 * Sends a subscriber's queued events in order until the queue is empty. A
+	 * connection that cannot be written to is unsubscribed from everything.
+	 *
+	 * @param sub the subscriber
+	 */
+	private void drain(Subscriber sub) {
+		while (true) {
+			FeedEvent event;
+			while (!sub.closed && (event = sub.queue.poll()) != null) {
+				try {
+					sub.client.sendToClient(event);
+				} catch (IOException e) {
+					remove(sub.client);
+				}
+			}
+			sub.sending.set(false);
+			// an event queued after the last poll but before the flag was cleared
+			if (sub.closed || sub.queue.isEmpty() || !sub.sending.compareAndSet(false, true))
+				return;
+		}
+	}
+
+	/**
+	 * A subscribed connection and the events waiting to be sent to it.
+	 */
+	private static final class Subscriber {
+
+		/**
+		 * The connection.
+		 */
+		final ConnectionToClient client;
+
+		/**
+		 * Events not yet sent, in sequence order.
+		 */
+		final ArrayBlockingQueue<FeedEvent> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+
+		/**
+		 * Whether a sender task is running for this subscriber.
+		 */
+		final AtomicBoolean sending = new AtomicBoolean();
+
+		/**
+		 * Set when the connection is removed; queued events are then discarded.
+		 */
+		volatile boolean closed;
+
+		/**
+		 * Creates a subscriber.
+		 *
+		 * @param client the connection
+		 */
+		Subscriber(ConnectionToClient client) {
+			this.client = client;
+		}
+	}
+}
@@ -0,0 +1,507 @@
+package server;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import dbController.DbClock;
+import metrics.LatencyHistogram;
+
+/**
+ * Latency and throughput of the request dispatcher, per operation.
+ * <p>
+ * Each request is timed from the moment it is dispatched, before it waits for
+ * the request lock, until its response has been sent. For every operation the
+ * server keeps the number of requests, the number that failed with a server
+ * error, the number currently in flight, the rate over the last minute, and
+ * latency histograms of the whole request, of the time spent executing SQL
+ * ({@link DbClock}) and of the rest (lock wait, controller logic, encoding and
+ * sending), and the number of SQL statements each request ran. Response sizes
+ * are the bytes written to the socket, for codec frames and serialized replies
+ * alike.
+ * </p>
+ * <p>
+ * The request being handled is tracked per thread, so code deep inside a
+ * request (an error handler, the socket writer) can attribute to it without
+ * the sample being passed along.
+ * </p>
+ *
+ * @author Yamen Abu Ahmad
+ * @version 1.0
+ * @see LatencyHistogram
+ */
+public class RequestMetrics {
+
+	/**
+	 * Length of the throughput window in seconds.
+	 */
+	private static final int RATE_WINDOW = 60;
+
+	/**
+	 * Counters of one operation.
+	 */
+	public static final class Operation {
+
+		/**
+		 * Operation label, such as {@code Reservation.CREATE_RESERVATION}.
+		 */
+		private final String name;
+
+		/**
+		 * Number of completed requests.
+		 */
+		private final LongAdder count = new LongAdder();
+
+		/**
+		 * Number of requests that ended in a server error.
+		 */
+		private final LongAdder errors = new LongAdder();
+
+		/**
+		 * Requests started but not yet completed.
+		 */
+		private final AtomicInteger inFlight = new AtomicInteger();
+
+		/**
+		 * Whole request latency.
+		 */
+		private final LatencyHistogram total = new LatencyHistogram();
+
+		/**
+		 * Time spent executing SQL statements.
+		 */
+		private final LatencyHistogram db = new LatencyHistogram();
+
+		/**
+		 * Time spent outside SQL statements.
+		 */
+		private final LatencyHistogram other = new LatencyHistogram();
+
+		/**
+		 * Sum of SQL statements run by completed requests.
+		 */
+		private final LongAdder queries = new LongAdder();
+
+		/**
+		 * Most SQL statements run by one request.
+		 */
+		private final AtomicLong maxQueries = new AtomicLong();
+
+		/**
+		 * Number of responses whose size was measured.
+		 */
+		private final LongAdder sizedResponses = new LongAdder();
+
+		/**
+		 * Sum of measured response sizes in bytes.
+		 */
+		private final LongAdder responseBytes = new LongAdder();
+
+		/**
+		 * Largest measured response in bytes.
+		 */
+		private final AtomicLong maxResponseBytes = new AtomicLong();
+
+		/**
+		 * Epoch second each slot of {@link #window} counts.
+		 */
+		private final AtomicLongArray windowSecond = new AtomicLongArray(RATE_WINDOW);
+
+		/**
+		 * Completed requests per second over the last minute, indexed by epoch
+		 * second modulo the window length.
+		 */
+		private final AtomicLongArray window = new AtomicLongArray(RATE_WINDOW);
+
+		/**
+		 * Creates the counters of an operation.
+		 *
+		 * @param name the operation label
+		 */
+		private Operation(String name) {
+			this.name = name;
+		}
+
+		/**
+		 * Counts a completed request in the throughput window. A slot is cleared
+		 * when it moves on to a new second; a request counted by another thread at
+		 * that instant may be lost, which is acceptable for a rate.
+		 *
+		 * @param second the current epoch second
+		 */
+		private void tick(long second) {
+			int slot = (int) (second % RATE_WINDOW);
+			long seen = windowSecond.get(slot);
+			if (seen != second && windowSecond.compareAndSet(slot, seen, second))
+				window.set(slot, 0);
+			window.incrementAndGet(slot);
+		}
+
+		/**
+		 * Returns the operation label.
+		 *
+		 * @return the label
+		 */
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 * Returns the number of completed requests.
+		 *
+		 * @return the count
+		 */
+		public long getCount() {
+			return count.sum();
+		}
+
+		/**
+		 * Returns the number of requests that ended in a server error.
+		 *
+		 * @return the error count
+		 */
+		public long getErrors() {
+			return errors.sum();
+		}
+
+		/**
+		 * Returns the number of requests in flight.
+		 *
+		 * @return the gauge value
+		 */
+		public int getInFlight() {
+			return inFlight.get();
+		}
+
+		/**
+		 * Returns the mean rate of completed requests over the last minute.
+		 *
+		 * @return requests per second
+		 */
+		public double getRatePerSecond() {
+			long now = System.currentTimeMillis() / 1_000;
+			long n = 0;
+			for (int i = 0; i < RATE_WINDOW; i++) {
+				if (now - windowSecond.get(i) < RATE_WINDOW)
+					n += window.get(i);
+			}
+			return n / (double) RATE_WINDOW;
+		}
+
+		/**
+		 * Returns the whole request latency.
+		 *
+		 * @return the histogram
+		 */
+		public LatencyHistogram getTotal() {
+			return total;
+		}
+
+		/**
+		 * Returns the time spent executing SQL statements.
+		 *
+		 * @return the histogram
+		 */
+		public LatencyHistogram getDb() {
+			return db;
+		}
+
+		/**
+		 * Returns the time spent outside SQL statements.
+		 *
+		 * @return the histogram
+		 */
+		public LatencyHistogram getOther() {
+			return other;
+		}
+
+		/**
+		 * Returns the mean number of SQL statements run per request.
+		 *
+		 * @return the mean, or 0 if no request completed
+		 */
+		public double getMeanQueries() {
+			long n = count.sum();
+			return n == 0 ? 0 : queries.sum() / (double) n;
+		}
+
+		/**
+		 * Returns the most SQL statements run by one request.
+		 *
+		 * @return the maximum
+		 */
+		public long getMaxQueries() {
+			return maxQueries.get();
+		}
+
+		/**
+		 * Returns the number of responses whose size was measured.
+		 *
+		 * @return the count
+		 */
+		public long getSizedResponses() {
+			return sizedResponses.sum();
+		}
+
+		/**
+		 * Returns the mean measured response size.
+		 *
+		 * @return the mean in bytes, or 0 if none was measured
+		 */
+		public double getMeanResponseBytes() {
+			long n = sizedResponses.sum();
+			return n == 0 ? 0 : responseBytes.sum() / (double) n;
+		}
+
+		/**
+		 * Returns the largest measured response size.
+		 *
+		 * @return the maximum in bytes
+		 */
+		public long getMaxResponseBytes() {
+			return maxResponseBytes.get();
+		}
+	}
+
+	/**
+	 * One request in progress.
+	 */
+	public static final class Sample {
+
+		/**
+		 * The operation being timed.
+		 */
+		private final Operation operation;
+
+		/**
+		 * When the request was dispatched, from {@link System#nanoTime()}.
+		 */
+		private final long start;
+
+		/**
+		 * Bytes of the responses sent so far.
+		 */
+		private long bytes;
+
+		/**
+		 * Whether any response was sent.
+		 */
+		private boolean sized;
+
+		/**
+		 * Whether the request ended in a server error.
+		 */
+		private boolean failed;
+
+		/**
+		 * Starts a sample.
+		 *
+		 * @param operation the operation
+		 */
+		private Sample(Operation operation) {
+			this.operation = operation;
+			this.start = System.nanoTime();
+		}
+	}
+
+	/**
+	 * Counters by operation label.
+	 */
+	private final Map<String, Operation> operations = new ConcurrentHashMap<>();
+
+	/**
+	 * The request each thread is handling.
+	 */
+	private final ThreadLocal<Sample> current = new ThreadLocal<>();
+
+	/**
+	 * When the metrics were created.
+	 */
+	private final LocalDateTime since = LocalDateTime.now();
+
+	/**
+	 * Starts timing a request on the calling thread.
+	 *
+	 * @param operation the operation label
+	 * @return the sample to pass to {@link #end(Sample)}
+	 */
+	public Sample begin(String operation) {
+		Operation op = operations.computeIfAbsent(operation, Operation::new);
+		op.inFlight.incrementAndGet();
+		DbClock.start(operation);
+		Sample sample = new Sample(op);
+		current.set(sample);
+		return sample;
+	}
+
+	/**
+	 * Marks the calling thread's request as failed with a server error.
+	 */
+	public void fail() {
+		Sample sample = current.get();
+		if (sample != null)
+			sample.failed = true;
+	}
+
+	/**
+	 * Counts a response sent by the calling thread toward its request. Messages
+	 * sent outside a request (such as change feed events) are ignored.
+	 *
+	 * @param bytes the bytes written to the socket for the response
+	 */
+	public void countResponse(long bytes) {
+		Sample sample = current.get();
+		if (sample != null) {
+			sample.bytes += bytes;
+			sample.sized = true;
+		}
+	}
+
+	/**
+	 * Stops timing a request and records it.
+	 *
+	 * @param sample the sample returned by {@link #begin(String)}
+	 */
+	public void end(Sample sample) {
+		long elapsed = System.nanoTime() - sample.start;
+		long dbNanos = Math.min(elapsed, DbClock.elapsedNanos());
+		int queryCount = DbClock.queryCount();
+		DbClock.stop();
+		current.remove();
+
+		Operation op = sample.operation;
+		op.inFlight.decrementAndGet();
+		op.count.increment();
+		if (sample.failed)
+			op.errors.increment();
+		op.total.recordNanos(elapsed);
+		op.db.recordNanos(dbNanos);
+		op.other.recordNanos(elapsed - dbNanos);
+		op.queries.add(queryCount);
+		if (queryCount > op.maxQueries.get())
+			op.maxQueries.accumulateAndGet(queryCount, Math::max);
+		if (sample.sized) {
+			op.sizedResponses.increment();
+			op.responseBytes.add(sample.bytes);
+			if (sample.bytes > op.maxResponseBytes.get())
+				op.maxResponseBytes.accumulateAndGet(sample.bytes, Math::max);
+		}
+		op.tick(System.currentTimeMillis() / 1_000);
+	}
+
+	/**
+	 * Returns the counters of every operation seen, most total time first.
+	 *
+	 * @return the operations
+	 */
+	public List<Operation> getOperations() {
+		List<Operation> list = new ArrayList<>(operations.values());
+		list.sort(Comparator.comparingDouble((Operation op) -> op.getTotal().getMeanMillis() * op.getCount())
+				.reversed());
+		return list;
+	}
+
+	/**
+	 * Formats the metrics as a fixed-width text table for display.
+	 *
+	 * @return the table, one operation per line
+	 */
+	public String format() {
+		StringBuilder sb = new StringBuilder(String.format("Since %s%n", since.withNano(0)));
+		sb.append(String.format("%-44s %8s %6s %5s %7s %9s %9s %9s %9s %9s %9s %7s %6s %9s%n", "Operation", "Count",
+				"Errors", "Now", "Req/s", "p50 ms", "p99 ms", "Max ms", "DB p50", "DB p99", "Other p99", "Q/req",
+				"Q max", "Avg bytes"));
+		for (Operation op : getOperations()) {
+			LatencyHistogram t = op.getTotal();
+			sb.append(String.format("%-44s %8d %6d %5d %7.2f %9.2f %9.2f %9.2f %9.2f %9.2f %9.2f %7.1f %6d %9s%n",
+					op.getName(), op.getCount(), op.getErrors(), op.getInFlight(), op.getRatePerSecond(),
+					t.getPercentileMillis(50), t.getPercentileMillis(99), t.getMaxMillis(),
+					op.getDb().getPercentileMillis(50), op.getDb().getPercentileMillis(99),
+					op.getOther().getPercentileMillis(99), op.getMeanQueries(), op.getMaxQueries(),
+					op.getSizedResponses() == 0 ? "-" : String.format("%.0f", op.getMeanResponseBytes())));
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Renders every counter as plain text, one {@code name{labels} value} line
+	 * each, for other tools to read.
+	 *
+	 * @return the metrics text
+	 */
+	public String export() {
+		StringBuilder sb = new StringBuilder();
+		sb.append("# bistro request metrics since ").append(since.withNano(0)).append('\n');
+		for (Operation op : getOperations()) {
+			String label = "{op=\"" + op.getName() + "\"";
+			line(sb, "requests_total", label + "}", op.getCount());
+			line(sb, "request_errors_total", label + "}", op.getErrors());
+			line(sb, "requests_in_flight", label + "}", op.getInFlight());
+			line(sb, "requests_per_second_1m", label + "}", op.getRatePerSecond());
+			latency(sb, label, "total", op.getTotal());
+			latency(sb, label, "db", op.getDb());
+			latency(sb, label, "other", op.getOther());
+			line(sb, "queries_per_request_mean", label + "}", op.getMeanQueries());
+			line(sb, "queries_per_request_max", label + "}", op.getMaxQueries());
+			line(sb, "response_sized_total", label + "}", op.getSizedResponses());
+			line(sb, "response_bytes_mean", label + "}", op.getMeanResponseBytes());
+			line(sb, "response_bytes_max", label + "}", op.getMaxResponseBytes());
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Writes {@link #export()} to a file, replacing it.
+	 *
+	 * @param file the target file
+	 * @throws IOException if the file cannot be written
+	 */
+	public void exportTo(Path file) throws IOException {
+		Files.writeString(file, export(), StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Appends the summary lines of one latency histogram.
+	 *
+	 * @param sb        the output
+	 * @param label     the open label set of the operation
+	 * @param part      total, db or other
+	 * @param histogram the histogram
+	 */
+	private static void latency(StringBuilder sb, String label, String part, LatencyHistogram histogram) {
+		String base = label + ",part=\"" + part + "\"";
+		for (double q : new double[] { 50, 90, 99, 99.9 })
+			line(sb, "request_latency_ms", base + ",quantile=\"" + q / 100 + "\"}", histogram.getPercentileMillis(q));
+		line(sb, "request_latency_ms_max", base + "}", histogram.getMaxMillis());
+		line(sb, "request_latency_ms_mean", base + "}", histogram.getMeanMillis());
+	}
+
+	/**
+	 * Appends one metric line.
+	 *
+	 * @param sb     the output
+	 * @param name   the metric name, without prefix
+	 * @param labels the label set
+	 * @param value  the value
+	 */
+	private static void line(StringBuilder sb, String name, String labels, Number value) {
+		sb.append("bistro_").append(name).append(labels).append(' ');
+		if (value instanceof Double d)
+			sb.append(String.format(Locale.ROOT, "%.3f", d));
+		else
+			sb.append(value);
+		sb.append('\n');
+	}
+}
@@ -1,15 +1,25 @@
 package server;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.sql.SQLException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
+import common.dto.CorrelatedMessage;
+import common.dto.Feed.FeedRequest;
+import common.dto.Feed.FeedResponse;
 import common.dto.Reservation.CancelReservationResult;
 import common.dto.Reservation.CreateReservationResult;
 import common.dto.Reservation.PayBillResult;
@@ -35,10 +45,24 @@ import common.enums.LoggedInStatus;
 import common.enums.ReservationOperation;
 import common.enums.ReservationStatus;
 import common.enums.RestaurantManagementOperation;
+import dbController.ConnectionPool;
 import dbController.DBController;
+import dbController.Page;
+import dbController.QueryTrace;
+import dbController.SchemaMigrator;
+import common.codec.WireCodec;
+import ocsf.codec.MessageCodec;
 import ocsf.server.AbstractServer;
 import ocsf.server.ConnectionToClient;
 import serverGUI.ServerFrameController;
+import controllers.AvailabilityEngine;
+import controllers.WaitlistMatcher;
+import controllers.DeadlineScheduler;
+import controllers.ReservationDeadlines;
+import controllers.ReportAggregates;
+import controllers.OpeningCalendar;
+import controllers.TableAllocator;
+import controllers.TableInventory;
 import controllers.UserAccountController;
 import controllers.NotificationController;
 import controllers.ReservationController;
@@ -91,11 +115,38 @@ public class Server extends AbstractServer {
 	 */
 	private String dbPassword;
 
+	/**
+	 * Maximum number of pooled database connections.
+	 */
+	private int dbPoolSize = ConnectionPool.DEFAULT_MAX_POOL_SIZE;
+
+	/**
+	 * SQL executions at least this slow are kept in the slow query log.
+	 */
+	private long slowQueryMillis = QueryTrace.DEFAULT_SLOW_THRESHOLD_MS;
+
 	/**
 	 * Counter to assign unique IDs to each connected client.
 	 */
 	private int clientCounter = 0;
 
+	/**
+	 * In-memory occupancy model shared by the reservation and management
+	 * controllers.
+	 */
+	private AvailabilityEngine availabilityEngine;
+
+	/**
+	 * Assigns free tables to concurrent check-ins, walk-ins and waitlist
+	 * matches.
+	 */
+	private TableAllocator tableAllocator;
+
+	/**
+	 * In-memory waitlist used to match waiting parties to freed tables.
+	 */
+	private WaitlistMatcher waitlistMatcher;
+
 	/**
 	 * Controller handling all reservation-related business logic.
 	 */
@@ -107,19 +158,37 @@ public class Server extends AbstractServer {
 	private UserAccountController userAccountController;
 
 	/**
-	 * Scheduled executor for periodic no-show detection tasks.
+	 * Timing wheel that fires no-show, reminder and billing deadlines.
 	 */
-	private ScheduledExecutorService noShowScheduler;
+	private DeadlineScheduler deadlineScheduler;
 
 	/**
-	 * Scheduled executor for sending reservation reminder notifications.
+	 * Per-reservation deadline registry kept in sync by the reservation
+	 * controller.
 	 */
-	private ScheduledExecutorService reminderScheduler;
+	private ReservationDeadlines reservationDeadlines;
 
 	/**
-	 * Scheduled executor for automatic billing operations.
+	 * Running monthly report counters kept in sync by the reservation controller.
 	 */
-	private ScheduledExecutorService billingScheduler;
+	private ReportAggregates reportAggregates;
+
+	/**
+	 * Opening hours and date overrides shared by the reservation and management
+	 * controllers.
+	 */
+	private OpeningCalendar openingCalendar;
+
+	/**
+	 * Versioned table inventory shared by availability, assignment and the
+	 * management screens.
+	 */
+	private TableInventory tableInventory;
+
+	/**
+	 * Pushes reservation and table changes to subscribed staff dashboards.
+	 */
+	private ChangeFeed changeFeed;
 
 	/**
 	 * Controller handling notification delivery (email, SMS).
@@ -156,6 +225,73 @@ public class Server extends AbstractServer {
 	 */
 	private static final String SESSION_EMPLOYEE_ROLE = "employeeRole";
 
+	/**
+	 * Number of client requests handled at the same time. Connections are served
+	 * by virtual threads, so idle clients cost no platform thread. Only requests
+	 * on the read side of {@link #requestLock} actually overlap.
+	 */
+	private static final int MAX_CONCURRENT_REQUESTS = 8;
+
+	/**
+	 * Reservation operations that only read state and may run concurrently.
+	 */
+	private static final Set<ReservationOperation> READ_ONLY_RESERVATION_OPS = EnumSet.of(
+			ReservationOperation.GET_ACTIVE_RESERVATIONS, ReservationOperation.GET_WAITLIST,
+			ReservationOperation.GET_CUSTOMER_RESERVATIONS_FOR_CANCELLATION,
+			ReservationOperation.GET_CUSTOMER_RESERVATIONS_FOR_RECEIVING,
+			ReservationOperation.GET_CUSTOMER_RESERVATIONS_FOR_CHECKOUT,
+			ReservationOperation.GET_RESERVATION_By_CONFIRMATION_CODE_FOR_CANCELLATION,
+			ReservationOperation.GET_RESERVATION_By_CONFIRMATION_CODE_FOR_RECEIVING,
+			ReservationOperation.GET_RESERVATION_By_CONFIRMATION_CODE_FOR_CHECKOUT,
+			ReservationOperation.GET_SUBSCRIBER_HISTORY, ReservationOperation.GET_DAY_AVAILABILITY);
+
+	/**
+	 * Reservation operations that write but may run concurrently with reads and
+	 * with each other. Check-in and an immediate seat from the waitlist claim
+	 * their table through the {@link TableAllocator} and a conditional update;
+	 * any other waitlist join is a plain insert into the synchronized waitlist
+	 * model. Neither relies on running alone.
+	 */
+	private static final Set<ReservationOperation> CONCURRENT_RESERVATION_OPS = EnumSet
+			.of(ReservationOperation.RECEIVE_TABLE, ReservationOperation.JOIN_WAITLIST);
+
+	/**
+	 * User account operations that only read state and may run concurrently.
+	 */
+	private static final Set<UserAccountOperation> READ_ONLY_USER_ACCOUNT_OPS = EnumSet.of(
+			UserAccountOperation.LOGGED_IN_STATUS, UserAccountOperation.GET_SUBSCRIBER_PROFILE,
+			UserAccountOperation.LOOKUP_CUSTOMER_BY_SUBSCRIPTION_CODE, UserAccountOperation.LOOKUP_CUSTOMER_BY_PHONE,
+			UserAccountOperation.LOOKUP_CUSTOMER_BY_EMAIL, UserAccountOperation.GET_ALL_SUBSCRIBERS,
+			UserAccountOperation.GET_CURRENT_DINERS);
+
+	/**
+	 * User account operations that change the connection's session.
+	 */
+	private static final Set<UserAccountOperation> SESSION_USER_ACCOUNT_OPS = EnumSet.of(
+			UserAccountOperation.SUBSCRIBER_LOG_IN, UserAccountOperation.EMPLOYEE_LOG_IN, UserAccountOperation.LOGOUT);
+
+	/**
+	 * Restaurant management operations that only read state and may run
+	 * concurrently.
+	 */
+	private static final Set<RestaurantManagementOperation> READ_ONLY_MANAGEMENT_OPS = EnumSet.of(
+			RestaurantManagementOperation.GET_ALL_TABLES, RestaurantManagementOperation.GET_OPENING_HOURS,
+			RestaurantManagementOperation.GET_DATE_OVERRIDES);
+
+	/**
+	 * Lets read-only requests (and the few writes that are safe concurrently) run
+	 * side by side while every other request runs alone, because the
+	 * controllers' check-then-write sequences assume no concurrent writer. The
+	 * deadline handlers and the monthly report job hold the write side too. Fair,
+	 * so a stream of reads cannot starve a write.
+	 */
+	private final ReentrantReadWriteLock requestLock = new ReentrantReadWriteLock(true);
+
+	/**
+	 * Per-operation latency, throughput and error counters of the dispatcher.
+	 */
+	private final RequestMetrics requestMetrics = new RequestMetrics();
+
 	/**
 	 * Constructs a new Server instance with the specified port and UI.
 	 *
@@ -167,6 +303,11 @@ public class Server extends AbstractServer {
 		this.ui = ui;
 
 		setTimeout(500);
+		setUseVirtualThreads(true);
+		setMaxConcurrentRequests(MAX_CONCURRENT_REQUESTS);
+
+		// clients offering the binary codec get compact frames for the hot DTOs
+		setCodecs(MessageCodec.of(WireCodec.NAME, WireCodec::canEncode, WireCodec::encode, WireCodec::decode));
 	}
 
 	/**
@@ -186,6 +327,82 @@ public class Server extends AbstractServer {
 		this.dbPassword = dbPassword;
 	}
 
+	/**
+	 * Configures the database connection parameters and the connection pool size.
+	 *
+	 * @param dbName     the name of the database
+	 * @param dbUser     the username for database authentication
+	 * @param dbPassword the password for database authentication
+	 * @param poolSize   the maximum number of pooled database connections
+	 */
+	public void setDatabaseConfig(String dbName, String dbUser, String dbPassword, int poolSize) {
+		setDatabaseConfig(dbName, dbUser, dbPassword);
+		this.dbPoolSize = poolSize;
+	}
+
+	/**
+	 * Sets the threshold of the slow query log. Takes effect immediately if the
+	 * database is initialized, otherwise when it is.
+	 *
+	 * @param millis the threshold in milliseconds
+	 */
+	public void setSlowQueryThreshold(long millis) {
+		this.slowQueryMillis = millis;
+		if (db != null)
+			db.getPool().getQueryTrace().setSlowThresholdMillis(millis);
+	}
+
+	/**
+	 * Returns a one-line summary of the database connection pool gauges (active,
+	 * idle, waiting callers and wait times).
+	 *
+	 * @return the pool status, or "N/A" if the database is not initialized
+	 */
+	public String getDbPoolStatus() {
+		return db == null ? "N/A" : db.getPool().getStatusSummary();
+	}
+
+	/**
+	 * Returns the per-statement execution statistics of the connection pool as a
+	 * text table (executions, mean and p99 latency, rows).
+	 *
+	 * @return the table, or "N/A" if the database is not initialized
+	 */
+	public String getStatementStats() {
+		return db == null ? "N/A" : db.getPool().getStatementStats().format();
+	}
+
+	/**
+	 * Returns the SQL trace as text: database time by calling method and the
+	 * most recent slow queries with their request, parameter shape and rows.
+	 *
+	 * @return the trace, or "N/A" if the database is not initialized
+	 */
+	public String getQueryTrace() {
+		return db == null ? "N/A" : db.getPool().getQueryTrace().format();
+	}
+
+	/**
+	 * Returns the per-operation request metrics as a text table (count, errors,
+	 * in flight, rate, latency percentiles split into database and other time,
+	 * queries per request, response size).
+	 *
+	 * @return the table
+	 */
+	public String getRequestMetrics() {
+		return requestMetrics.format();
+	}
+
+	/**
+	 * Writes every request metric to a plain-text file, one value per line.
+	 *
+	 * @param file the target file
+	 * @throws IOException if the file cannot be written
+	 */
+	public void exportRequestMetrics(Path file) throws IOException {
+		requestMetrics.exportTo(file);
+	}
+
 	// Returns Logged In Subscriber ID
 	private Integer getSessionSubscriberId(ConnectionToClient client) {
 		return (Integer) client.getInfo(SESSION_SUBSCRIBER_ID);
@@ -215,6 +432,7 @@ public class Server extends AbstractServer {
 		client.setInfo(SESSION_SUBSCRIBER_ID, null);
 		client.setInfo(SESSION_EMPLOYEE_ID, null);
 		client.setInfo(SESSION_EMPLOYEE_ROLE, null);
+		changeFeed.remove(client);
 	}
 
 	/**
@@ -226,17 +444,118 @@ public class Server extends AbstractServer {
 	 * authentication, enforces authorization rules, and sends appropriate responses
 	 * back to the client.
 	 * </p>
+	 * <p>
+	 * Read-only requests, check-ins and waitlist joins hold the read side of
+	 * {@link #requestLock} and may run concurrently; all other requests hold the
+	 * write side and run alone.
+	 * </p>
+	 * <p>
+	 * Every request is timed in {@link #requestMetrics}, including its wait for
+	 * the lock.
+	 * </p>
 	 *
 	 * @param msg    the message object received from the client
 	 * @param client the connection to the client that sent the message
 	 */
 	@Override
 	protected void handleMessageFromClient(Object msg, ConnectionToClient client) {
+		RequestMetrics.Sample sample = requestMetrics.begin(operationName(msg));
+		try {
+			Lock lock = isSharedRequest(msg) ? requestLock.readLock() : requestLock.writeLock();
+			lock.lock();
+			try {
+				handleRequest(msg, client);
+			} finally {
+				lock.unlock();
+			}
+		} finally {
+			requestMetrics.end(sample);
+		}
+	}
+
+	/**
+	 * Returns the label a request is counted under in the metrics.
+	 *
+	 * @param msg the message received from the client
+	 * @return the request kind and operation, such as
+	 *         {@code Reservation.CREATE_RESERVATION}
+	 */
+	private static String operationName(Object msg) {
+		if (msg instanceof ReservationRequest r)
+			return "Reservation." + r.getOperation();
+		if (msg instanceof UserAccountRequest r)
+			return "UserAccount." + r.getOperation();
+		if (msg instanceof RestaurantManagementRequest r)
+			return "Management." + r.getOperation();
+		if (msg instanceof ReportRequest r)
+			return "Report." + r.getOperation();
+		if (msg instanceof FeedRequest r)
+			return r.isSubscribe() ? "Feed.SUBSCRIBE" : "Feed.UNSUBSCRIBE";
+		return msg == null ? "null" : msg.getClass().getSimpleName();
+	}
+
+	/**
+	 * Lets tracked requests (non-zero correlation ID) be handled while the
+	 * connection keeps reading, so the client can pipeline them and receive the
+	 * replies out of order. Untracked requests keep the old in-order behaviour,
+	 * and so do requests that change the session, so that the requests after
+	 * them on the connection see the new session.
+	 *
+	 * @param msg the message received from the client
+	 * @return true if the message is a tracked request that leaves the session
+	 *         alone
+	 */
+	@Override
+	protected boolean canHandleConcurrently(Object msg) {
+		if (msg instanceof UserAccountRequest r && SESSION_USER_ACCOUNT_OPS.contains(r.getOperation()))
+			return false;
+		return msg instanceof CorrelatedMessage c && c.getRequestId() != 0;
+	}
+
+	/**
+	 * Returns whether a request may run concurrently with other such requests:
+	 * it only reads state, or its writes are safe without the write lock.
+	 *
+	 * @param msg the message received from the client
+	 * @return true for requests that hold the read side of the lock
+	 */
+	private static boolean isSharedRequest(Object msg) {
+		if (msg instanceof ReservationRequest r)
+			return READ_ONLY_RESERVATION_OPS.contains(r.getOperation())
+					|| CONCURRENT_RESERVATION_OPS.contains(r.getOperation());
+		if (msg instanceof UserAccountRequest r)
+			return READ_ONLY_USER_ACCOUNT_OPS.contains(r.getOperation());
+		if (msg instanceof RestaurantManagementRequest r)
+			return READ_ONLY_MANAGEMENT_OPS.contains(r.getOperation());
+		return msg instanceof ReportRequest || msg instanceof FeedRequest;
+	}
+
+	/**
+	 * Sends a response, copying the correlation ID of the request it answers.
+	 *
+	 * @param client   the connection to reply to
+	 * @param request  the request being answered
+	 * @param response the response
+	 * @throws IOException if sending fails
+	 */
+	private void reply(ConnectionToClient client, Object request, CorrelatedMessage response) throws IOException {
+		if (request instanceof CorrelatedMessage c)
+			response.setRequestId(c.getRequestId());
+		client.sendToClient(response);
+	}
+
+	/**
+	 * Dispatches one request to its controller and sends the response.
+	 *
+	 * @param msg    the message object received from the client
+	 * @param client the connection to the client that sent the message
+	 */
+	private void handleRequest(Object msg, ConnectionToClient client) {
 
 		try {
 			// if DB not initialized
 			if (db == null) {
-				client.sendToClient(ReservationResponse.fail("Database not configured!", null));
+				reply(client, msg, failureFor(msg, "Database not configured!"));
 				ui.display("Client attempted Request but DB not configured.");
 				return;
 			}
@@ -393,8 +712,15 @@ public class Server extends AbstractServer {
 								userReq.getOperation());
 					} else {
 						try {
-							List<Customer> subscribers = userAccountController.getAllSubscribers();
-							userResp = UserAccountResponse.subscribersLoaded(subscribers);
+							if (userReq.getQuery() != null) {
+								Page<Customer> page = userAccountController.getSubscribersPage(userReq.getQuery());
+								userResp = UserAccountResponse.subscribersPage(page.getItems(), page.getNextCursor());
+							} else {
+								List<Customer> subscribers = userAccountController.getAllSubscribers();
+								userResp = UserAccountResponse.subscribersLoaded(subscribers);
+							}
+						} catch (IllegalArgumentException e) {
+							userResp = UserAccountResponse.subscribersLoadFail("Invalid page cursor.");
 						} catch (SQLException e) {
 							e.printStackTrace();
 							userResp = UserAccountResponse.subscribersLoadFail("Failed to load subscribers.");
@@ -420,7 +746,7 @@ public class Server extends AbstractServer {
 				default:
 					userResp = UserAccountResponse.fail("Invalid Operation!", userReq.getOperation());
 				}
-				client.sendToClient(userResp);// returns response to the client
+				reply(client, msg, userResp);// returns response to the client
 				return;
 			}
 
@@ -449,6 +775,16 @@ public class Server extends AbstractServer {
 						resResp = ReservationResponse.fail("Not authorized.", resReq.getOperation());
 						break;
 					}
+					if (resReq.getQuery() != null) {
+						try {
+							Page<Reservation> page = reservationController.getReservationsPage(resReq.getQuery());
+							resResp = ReservationResponse.page("Reservations loaded.", page.getItems(), page.getNextCursor(),
+									resReq.getOperation());
+						} catch (IllegalArgumentException e) {
+							resResp = ReservationResponse.fail("Invalid page cursor.", resReq.getOperation());
+						}
+						break;
+					}
 					resResp = ReservationResponse.withReservations(true, "Reservations loaded.",
 							reservationController.getAllActiveReservations(), resReq.getOperation());
 					break;
@@ -458,6 +794,16 @@ public class Server extends AbstractServer {
 						resResp = ReservationResponse.fail("Not authorized.", resReq.getOperation());
 						break;
 					}
+					if (resReq.getQuery() != null) {
+						try {
+							Page<Reservation> page = reservationController.getWaitlistPage(resReq.getQuery());
+							resResp = ReservationResponse.page("Waitlist loaded.", page.getItems(), page.getNextCursor(),
+									resReq.getOperation());
+						} catch (IllegalArgumentException e) {
+							resResp = ReservationResponse.fail("Invalid page cursor.", resReq.getOperation());
+						}
+						break;
+					}
 					resResp = ReservationResponse.withReservations(true, "Waitlist loaded.",
 							reservationController.getWaitlistReservations(), resReq.getOperation());
 					break;
@@ -486,7 +832,7 @@ public class Server extends AbstractServer {
 						resResp = ReservationResponse.created(r.getReservationId(), r.getConfirmationCode(),
 								r.getMessage(), resReq.getOperation());
 
-						notificationController.sendReservationConfirmation(r.getReservationId());
+						notificationController.wakeUpOutbox();
 					} else
 						resResp = ReservationResponse.createFailedWithSuggestions(r.getMessage(), r.getSuggestions(),
 								resReq.getOperation());
@@ -499,11 +845,10 @@ public class Server extends AbstractServer {
 					int sentCount = 0;
 
 					if (resList != null) {
-						for (Reservation res : resList) {
-							if (notificationController.resendReservationConfirmation(res.getReservationId())
-									.isSuccess())
-								sentCount++;
-						}
+						List<Integer> resIds = new ArrayList<>(resList.size());
+						for (Reservation res : resList)
+							resIds.add(res.getReservationId());
+						sentCount = notificationController.resendReservationConfirmations(resIds).size();
 					}
 
 					resResp = ReservationResponse.resendResult(sentCount, resReq.getOperation());
@@ -552,7 +897,7 @@ public class Server extends AbstractServer {
 					}
 
 					if (cr.isSuccess())
-						notificationController.sendReservationCanceled(resReq.getReservationId());
+						notificationController.wakeUpOutbox();
 
 					break;
 
@@ -568,7 +913,7 @@ public class Server extends AbstractServer {
 
 					if (jwr.isSuccess()) {
 						if (jwr.getMessage() == "RECEIVE_TABLE_NOW")
-							notificationController.sendTableAvailable(jwr.getReservationId());
+							notificationController.wakeUpOutbox();
 
 						resResp = ReservationResponse.created(jwr.getReservationId(), jwr.getConfirmationCode(),
 								jwr.getMessage(), resReq.getOperation());
@@ -607,7 +952,7 @@ public class Server extends AbstractServer {
 							: ReservationResponse.fail(rtr.getMessage(), resReq.getOperation());
 
 					if (rtr.isSuccess())
-						notificationController.sendTableReceived(resReq.getReservationId());
+						notificationController.wakeUpOutbox();
 					break;
 
 				case GET_CUSTOMER_RESERVATIONS_FOR_CHECKOUT:
@@ -648,7 +993,7 @@ public class Server extends AbstractServer {
 						runNotifyCheck(pbr.getFreedCapacity());
 
 					if (pbr.isSuccess())
-						notificationController.sendPaymentSuccess(pbr.getReservationId());
+						notificationController.wakeUpOutbox();
 
 					break;
 
@@ -663,11 +1008,22 @@ public class Server extends AbstractServer {
 					}
 					break;
 
+				case GET_DAY_AVAILABILITY:
+					if (resReq.getReservationDateTime() == null || resReq.getNumberOfGuests() <= 0) {
+						resResp = ReservationResponse.fail("Date and number of guests are required.",
+								resReq.getOperation());
+						break;
+					}
+					resResp = ReservationResponse.dayAvailability(reservationController.getDayAvailability(
+							resReq.getReservationDateTime().toLocalDate(), resReq.getNumberOfGuests()),
+							resReq.getOperation());
+					break;
+
 				default:
 					resResp = ReservationResponse.fail("Unknown operation", resReq.getOperation());
 
 				}
-				client.sendToClient(resResp);// returns response to the client
+				reply(client, msg, resResp);// returns response to the client
 				return;
 			}
 
@@ -677,7 +1033,7 @@ public class Server extends AbstractServer {
 
 				if (!isManagerLoggedIn) {
 					repResp = ReportResponse.fail("Manager login required.", repReq.getOperation());
-					client.sendToClient(repResp);
+					reply(client, msg, repResp);
 					return;
 				}
 
@@ -694,10 +1050,29 @@ public class Server extends AbstractServer {
 					repResp = ReportResponse.subscriberReport(subEntries, repReq.getYear(), repReq.getMonth());
 					break;
 
+				case GET_MONTH_TO_DATE:
+					repResp = ReportResponse.monthToDate(reportController.getMonthToDate());
+					break;
+
 				default:
 					repResp = ReportResponse.fail("Unknown report operation", repReq.getOperation());
 				}
-				client.sendToClient(repResp);
+				reply(client, msg, repResp);
+				return;
+			}
+
+			if (msg instanceof FeedRequest feedReq) {
+				FeedResponse feedResp;
+
+				if (!isEmployeeLoggedIn) {
+					feedResp = FeedResponse.fail("Not authorized. Employee login required.");
+				} else if (feedReq.isSubscribe()) {
+					feedResp = changeFeed.subscribe(client, feedReq.getTopics());
+				} else {
+					changeFeed.unsubscribe(client, feedReq.getTopics());
+					feedResp = FeedResponse.unsubscribed();
+				}
+				reply(client, msg, feedResp);
 				return;
 			}
 
@@ -711,7 +1086,7 @@ public class Server extends AbstractServer {
 				if (!isEmployeeLoggedIn && !isReadOnly) {
 					mgrResp = RestaurantManagementResponse.fail("Not authorized. Employee login required.",
 							mgrReq.getOperation());
-					client.sendToClient(mgrResp);
+					reply(client, msg, mgrResp);
 					return;
 				}
 
@@ -719,16 +1094,21 @@ public class Server extends AbstractServer {
 
 				// Table operations
 				case GET_ALL_TABLES:
-					mgrResp = RestaurantManagementResponse.tablesLoaded(restaurantManagementController.getAllTables());
+					TableInventory.Snapshot tables = restaurantManagementController.getTableSnapshot();
+					mgrResp = tables.getVersion() == mgrReq.getKnownTableVersion()
+							? RestaurantManagementResponse.tablesUnchanged(tables.getVersion())
+							: RestaurantManagementResponse.tablesLoaded(tables.getTables(), tables.getVersion());
 					break;
 
 				case ADD_TABLE:
 					RestaurantManagementResult addResult = restaurantManagementController.addTable(mgrReq.getSeats());
+					TableInventory.Snapshot afterAdd = restaurantManagementController.getTableSnapshot();
 					mgrResp = addResult.isSuccess()
 							? RestaurantManagementResponse.tableAdded(addResult.getNewTableNumber(),
-									restaurantManagementController.getAllTables())
+									afterAdd.getTables(), afterAdd.getVersion())
 							: RestaurantManagementResponse.fail(addResult.getMessage(), mgrReq.getOperation());
 					if (addResult.isSuccess()) {
+						publishTableChange(addResult.getNewTableNumber());
 						runNotifyCheck();
 					}
 					break;
@@ -754,10 +1134,13 @@ public class Server extends AbstractServer {
 					}
 
 					// 3) revalidate AFTER update
+					publishTableChange(tableNum);
 					runPostCapacityReductionRevalidation(tableNum, newCap);
 
 					// 4) response
-					mgrResp = RestaurantManagementResponse.tableUpdated(restaurantManagementController.getAllTables());
+					TableInventory.Snapshot afterUpdate = restaurantManagementController.getTableSnapshot();
+					mgrResp = RestaurantManagementResponse.tableUpdated(afterUpdate.getTables(),
+							afterUpdate.getVersion());
 					break;
 
 				case DELETE_TABLE:
@@ -778,10 +1161,13 @@ public class Server extends AbstractServer {
 					}
 
 					// 3) revalidate AFTER deletion
+					publishTableChange(tableId);
 					runPostDeletionCapacityRevalidation();
 
 					// 4) response
-					mgrResp = RestaurantManagementResponse.tableDeleted(restaurantManagementController.getAllTables());
+					TableInventory.Snapshot afterDelete = restaurantManagementController.getTableSnapshot();
+					mgrResp = RestaurantManagementResponse.tableDeleted(afterDelete.getTables(),
+							afterDelete.getVersion());
 
 					break;
 
@@ -858,22 +1244,51 @@ public class Server extends AbstractServer {
 				}
 				System.out.println("res sending " + mgrReq.getOperation());
 				System.out.println(mgrResp.getMessage() + mgrResp.getOperation());
-				client.sendToClient(mgrResp);
+				reply(client, msg, mgrResp);
 				return;
 			}
 
 		} catch (SQLException e) {
+			requestMetrics.fail();
 			ui.display("SQL Error: " + e.getMessage());
 			e.printStackTrace();
 			try {
-				client.sendToClient(ReservationResponse.fail("Database error occurred", null));
+				reply(client, msg, failureFor(msg, "Database error occurred"));
 			} catch (Exception ignored) {
 			}
 		} catch (Exception e) {
+			requestMetrics.fail();
 			ui.display("Unexpected error: " + e.getMessage());
+			try {
+				reply(client, msg, failureFor(msg, "Unexpected server error"));
+			} catch (Exception ignored) {
+			}
 		}
 	}
 
+	/**
+	 * Builds the failure response matching the kind of a request, so a client
+	 * waiting for a typed reply receives a failure instead of an unexpected
+	 * response type.
+	 *
+	 * @param msg     the request that failed
+	 * @param message the error message
+	 * @return the failure response
+	 */
+	private static CorrelatedMessage failureFor(Object msg, String message) {
+		if (msg instanceof UserAccountRequest r)
+			return UserAccountResponse.fail(message, r.getOperation());
+		if (msg instanceof RestaurantManagementRequest r)
+			return RestaurantManagementResponse.fail(message, r.getOperation());
+		if (msg instanceof ReportRequest r)
+			return ReportResponse.fail(message, r.getOperation());
+		if (msg instanceof FeedRequest)
+			return FeedResponse.fail(message);
+		if (msg instanceof ReservationRequest r)
+			return ReservationResponse.fail(message, r.getOperation());
+		return ReservationResponse.fail(message, null);
+	}
+
 	/**
 	 * Called when a new client connects to the server.
 	 * <p>
@@ -897,6 +1312,20 @@ public class Server extends AbstractServer {
 		ui.updateClientStatus(String.valueOf(clientCounter), host, ip, "CONNECTED");
 	}
 
+	/**
+	 * Called after a message has been written to a client. Counts its size on the
+	 * wire toward the request being answered on this thread, whether it was sent
+	 * as a codec frame or serialized.
+	 *
+	 * @param msg    the message sent
+	 * @param client the connection it was sent on
+	 * @param bytes  the bytes written to the socket
+	 */
+	@Override
+	protected void messageSentToClient(Object msg, ConnectionToClient client, long bytes) {
+		requestMetrics.countResponse(bytes);
+	}
+
 	/**
 	 * Called when a client disconnects from the server.
 	 * <p>
@@ -907,6 +1336,8 @@ public class Server extends AbstractServer {
 	 */
 	@Override
 	protected void clientDisconnected(ConnectionToClient client) {
+		changeFeed.remove(client);
+
 		Integer id = (Integer) client.getInfo("id");
 		if (id == null)
 			return;
@@ -933,8 +1364,8 @@ public class Server extends AbstractServer {
 	 * Called when the server has successfully started listening for connections.
 	 * <p>
 	 * Initializes the database connection, creates all business logic controllers,
-	 * and starts scheduled tasks for no-show detection, reminders, billing, and
-	 * monthly report generation.
+	 * registers the no-show, reminder and billing deadlines of open reservations,
+	 * and starts the monthly report generation task.
 	 * </p>
 	 */
 	@Override
@@ -942,52 +1373,122 @@ public class Server extends AbstractServer {
 		System.out.println("Server started on port: " + getPort());
 
 		try {
-			db = new DBController(dbName, dbUser, dbPassword);
+			db = new DBController(dbName, dbUser, dbPassword, dbPoolSize);
+			db.getPool().getQueryTrace().setSlowThresholdMillis(slowQueryMillis);
+			db.getPool().setLeakLog(ui::display);
 			ui.display("Database connection initialized.");
 		} catch (Exception e) {
 			ui.display("Database initialization failed: " + e.getMessage());
 		}
 
-		reservationController = new ReservationController(db);
+		if (db != null) {
+			SchemaMigrator migrator = new SchemaMigrator(db.getPool());
+			try {
+				int applied = migrator.migrate();
+				ui.display("Database schema at version " + migrator.getCurrentVersion()
+						+ (applied > 0 ? " (" + applied + " migration(s) applied)." : "."));
+				for (String warning : migrator.checkQueryPlans())
+					ui.display("Query plan warning: " + warning);
+			} catch (Exception e) {
+				ui.display("Schema migration failed: " + e.getMessage());
+			}
+		}
+
+		tableInventory = new TableInventory(db);
+		try {
+			tableInventory.load();
+			ui.display("Table inventory loaded.");
+		} catch (Exception e) {
+			ui.display("Table inventory load failed, will retry on first use: " + e.getMessage());
+		}
+
+		availabilityEngine = new AvailabilityEngine(db, tableInventory);
+		try {
+			availabilityEngine.load();
+			ui.display("Availability model loaded.");
+		} catch (Exception e) {
+			ui.display("Availability model load failed, using database checks: " + e.getMessage());
+		}
+
+		tableAllocator = new TableAllocator(db, availabilityEngine);
+		waitlistMatcher = new WaitlistMatcher(db, availabilityEngine, tableAllocator);
+		try {
+			waitlistMatcher.load();
+			ui.display("Waitlist loaded: " + waitlistMatcher.size() + " waiting.");
+		} catch (Exception e) {
+			ui.display("Waitlist load failed, using database matching: " + e.getMessage());
+		}
+
+		deadlineScheduler = new DeadlineScheduler();
+		deadlineScheduler.setErrorLog(ui::display);
+		reservationDeadlines = new ReservationDeadlines(db, deadlineScheduler);
+
+		reportAggregates = new ReportAggregates(db);
+		try {
+			reportAggregates.load();
+			ui.display("Report counters loaded.");
+		} catch (Exception e) {
+			ui.display("Report counters load failed, month-to-date view unavailable: " + e.getMessage());
+		}
+
+		openingCalendar = new OpeningCalendar(db);
+		try {
+			openingCalendar.load();
+			ui.display("Opening hours loaded.");
+		} catch (Exception e) {
+			ui.display("Opening hours load failed, will retry on first use: " + e.getMessage());
+		}
+
+		reservationController = new ReservationController(db, availabilityEngine, waitlistMatcher,
+				reservationDeadlines, reportAggregates, openingCalendar, tableInventory, tableAllocator);
 		userAccountController = new UserAccountController(db);
-		restaurantManagementController = new RestaurantManagementController(db);
+		restaurantManagementController = new RestaurantManagementController(db, availabilityEngine, openingCalendar,
+				tableInventory);
 		notificationController = new NotificationController(ui, db);
+		notificationController.start();
 
-		reportController = new controllers.ReportController(db);
+		reportController = new controllers.ReportController(db, reportAggregates);
 
-		noShowScheduler = Executors.newSingleThreadScheduledExecutor();
-		noShowScheduler.scheduleAtFixedRate(() -> {
+		changeFeed = new ChangeFeed(db, tableInventory);
+		reservationController.setChangeListener(ids -> {
 			try {
-				runNoShowCheck();
+				changeFeed.reservationsChanged(ids);
 			} catch (Exception e) {
-				ui.display("No-Show check error: " + e.getMessage());
+				ui.display("Change feed error: " + e.getMessage());
 			}
-		}, 10, 60, TimeUnit.SECONDS); // start after 10s, then every 60s
+		});
 
-		reminderScheduler = Executors.newSingleThreadScheduledExecutor();
-		reminderScheduler.scheduleAtFixedRate(() -> {
-			try {
-				runReminderCheck();
-			} catch (Exception e) {
-				ui.display("Reminder error: " + e.getMessage());
+		reservationDeadlines.setHandler(new ReservationDeadlines.Handler() {
+			@Override
+			public void onNoShowDue(int reservationId) {
+				handleNoShowDeadline(reservationId);
 			}
-		}, 10, 60, TimeUnit.SECONDS);
 
-		billingScheduler = Executors.newSingleThreadScheduledExecutor();
-		billingScheduler.scheduleAtFixedRate(() -> {
-			try {
-				runBillingCheck();
-			} catch (Exception e) {
-				ui.display("Billing check error: " + e.getMessage());
+			@Override
+			public void onReminderDue(int reservationId) {
+				handleReminderDeadline(reservationId);
+			}
+
+			@Override
+			public void onBillDue(int reservationId) {
+				handleBillingDeadline(reservationId);
 			}
-		}, 10, 60, TimeUnit.SECONDS);
+		});
+		try {
+			ui.display("Deadlines scheduled: " + reservationDeadlines.rebuild() + " pending.");
+		} catch (Exception e) {
+			ui.display("Deadline rebuild error: " + e.getMessage());
+		}
 
 		reportScheduler = Executors.newSingleThreadScheduledExecutor();
 		reportScheduler.scheduleAtFixedRate(() -> {
+			requestLock.writeLock().lock();
 			try {
 				runMonthlyReportCheck();
 			} catch (Exception e) {
 				ui.display("Report generation error: " + e.getMessage());
+			} finally {
+				requestLock.writeLock().unlock();
 			}
 		}, 30, 3600, TimeUnit.SECONDS); // start after 30s, check every hour
 
@@ -1004,6 +1505,8 @@ public class Server extends AbstractServer {
 	 */
 	@Override
 	protected void clientException(ConnectionToClient client, Throwable exception) {
+		changeFeed.remove(client);
+
 		Integer id = (Integer) client.getInfo("id");
 		if (id == null)
 			return;
@@ -1015,8 +1518,8 @@ public class Server extends AbstractServer {
 	/**
 	 * Called when the server stops listening for connections.
 	 * <p>
-	 * Shuts down all scheduled tasks (no-show, reminder, billing, report) and
-	 * updates the UI to reflect the stopped state.
+	 * Shuts down the deadline scheduler, notification delivery and the report
+	 * task and updates the UI to reflect the stopped state.
 	 * </p>
 	 */
 	@Override
@@ -1026,98 +1529,127 @@ public class Server extends AbstractServer {
 		// Remove all clients
 		ui.updateClientStatus("ALL", "", "", "DISCONNECTED");
 
-		if (noShowScheduler != null) {
-			noShowScheduler.shutdownNow();
-			noShowScheduler = null;
+		if (deadlineScheduler != null) {
+			deadlineScheduler.shutdown();
+			deadlineScheduler = null;
 		}
 
-		if (reminderScheduler != null) {
-			reminderScheduler.shutdownNow();
-			reminderScheduler = null;
-		}
+		if (notificationController != null)
+			notificationController.shutdown();
 
-		if (billingScheduler != null) {
-			billingScheduler.shutdownNow();
-			billingScheduler = null;
-		}
+		if (changeFeed != null)
+			changeFeed.close();
 
 		if (reportScheduler != null) {
 			reportScheduler.shutdownNow();
 			reportScheduler = null;
 		}
 
-	}
+		if (db != null) {
+			db.close();
+			db = null;
+		}
 
-	private void runNoShowCheck() throws SQLException {
-		List<Integer> ids = reservationController.getNoShowReservationIds();
-		if (ids.isEmpty())
-			return;
+	}
 
-		int canceledCount = 0;
-		for (Integer id : ids) {
-			boolean ok = reservationController.cancelNoShowReservation(id);
-			if (ok) {
-				canceledCount++;
-				notificationController.sendReservationCanceledDueToNoShow(id);
-			}
-		}
+	/**
+	 * Cancels a reservation whose no-show deadline passed and offers its table to
+	 * the waitlist. Does nothing if the customer has arrived in the meantime.
+	 *
+	 * @param reservationId the reservation ID
+	 */
+	private void handleNoShowDeadline(int reservationId) {
+		requestLock.writeLock().lock();
+		try {
+			if (!reservationController.cancelNoShowReservation(reservationId))
+				return;
 
-		if (canceledCount > 0) {
-			ui.display("No-Show: auto-canceled " + canceledCount + " reservations.");
+			notificationController.wakeUpOutbox();
+			ui.display("No-Show: auto-canceled reservation " + reservationId + ".");
 			runNotifyCheck();
+		} catch (Exception e) {
+			ui.display("No-Show check error: " + e.getMessage());
+		} finally {
+			requestLock.writeLock().unlock();
 		}
-
 	}
 
-	private void runReminderCheck() throws SQLException {
-		List<Integer> ids = reservationController.getReservationsForReminder();
-		if (ids.isEmpty())
-			return;
+	/**
+	 * Sends the reminder of a reservation whose reminder deadline passed, unless
+	 * it is no longer active or was already reminded.
+	 *
+	 * @param reservationId the reservation ID
+	 */
+	private void handleReminderDeadline(int reservationId) {
+		requestLock.writeLock().lock();
+		try {
+			if (!reservationController.isReminderDue(reservationId))
+				return;
 
-		for (Integer id : ids) {
-			notificationController.sendReservationReminder(id);
-			reservationController.markReminderSent(id);
+			notificationController.sendReservationReminder(reservationId);
+			reservationController.markReminderSent(reservationId);
+		} catch (Exception e) {
+			ui.display("Reminder error: " + e.getMessage());
+		} finally {
+			requestLock.writeLock().unlock();
 		}
 	}
 
-	private void runBillingCheck() throws SQLException {
-		List<Reservation> res = reservationController.getReservationsForBilling();
-		if (res.isEmpty())
-			return;
-
-		int sent = 0;
+	/**
+	 * Bills a seated reservation whose billing deadline passed, unless it was
+	 * already billed or is no longer in progress.
+	 *
+	 * @param reservationId the reservation ID
+	 */
+	private void handleBillingDeadline(int reservationId) {
+		requestLock.writeLock().lock();
+		try {
+			Reservation r = reservationController.getReservationForBilling(reservationId);
+			if (r == null)
+				return;
 
-		for (Reservation r : res) {
 			Bill bill = reservationController.computeBill(r);
 			if (bill != null) {
-				sent++;
 				notificationController.sendBillSent(r.getReservationId(), bill);
+				ui.display("💳 Bill sent for reservation " + r.getReservationId());
 			}
+		} catch (Exception e) {
+			ui.display("Billing check error: " + e.getMessage());
+		} finally {
+			requestLock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Pushes an added, resized or deleted table to subscribed dashboards. A
+	 * failed push is reported but does not fail the table operation.
+	 *
+	 * @param tableNumber the table number
+	 */
+	private void publishTableChange(int tableNumber) {
+		try {
+			changeFeed.tablesChanged(List.of(tableNumber));
+		} catch (Exception e) {
+			ui.display("Change feed error: " + e.getMessage());
 		}
-		if (sent > 0)
-			ui.display("💳 Bills sent: " + sent);
 	}
 
 	private void runNotifyCheck() throws SQLException {
-		Integer notifiedReservationId = null;
-		while ((notifiedReservationId = reservationController.notifyNextFromWaitlist()) != null)
-			notificationController.sendTableAvailable(notifiedReservationId);
+		if (!reservationController.notifyFromWaitlist().isEmpty())
+			notificationController.wakeUpOutbox();
 	}
 
 	private void runNotifyCheck(int freedCapacity) throws SQLException {
-		Integer notifiedReservationId = null;
-		while ((notifiedReservationId = reservationController.notifyNextFromWaitlist(freedCapacity)) != null)
-			notificationController.sendTableAvailable(notifiedReservationId);
+		if (!reservationController.notifyFromWaitlist(freedCapacity).isEmpty())
+			notificationController.wakeUpOutbox();
 	}
 
 	private void runConflictCheckForHoursChange(java.time.DayOfWeek day, java.time.LocalTime openTime,
 			java.time.LocalTime closeTime, boolean closed) throws SQLException {
 		List<Integer> cancelled = reservationController.cancelReservationsOutsideHours(day, openTime, closeTime,
 				closed);
-		for (Integer resId : cancelled) {
-			notificationController.sendReservationCanceledDueToHoursChange(resId);
-		}
 		if (!cancelled.isEmpty()) {
+			notificationController.wakeUpOutbox();
 			ui.display("Hours change: auto-canceled " + cancelled.size() + " reservations outside new hours.");
 			runNotifyCheck();
 		}
@@ -1127,10 +1659,8 @@ public class Server extends AbstractServer {
 			java.time.LocalTime closeTime, boolean closed) throws SQLException {
 		List<Integer> cancelled = reservationController.cancelReservationsOutsideHoursOnDate(date, openTime, closeTime,
 				closed);
-		for (Integer resId : cancelled) {
-			notificationController.sendReservationCanceledDueToDateOverride(resId);
-		}
 		if (!cancelled.isEmpty()) {
+			notificationController.wakeUpOutbox();
 			ui.display("Date override: auto-canceled " + cancelled.size() + " reservations on " + date + ".");
 			runNotifyCheck();
 		}
@@ -1150,11 +1680,8 @@ public class Server extends AbstractServer {
 
 		List<Integer> moved = reservationController.revalidateFutureActiveReservations(now, to);
 
-		for (Integer resId : moved) {
-			notificationController.sendReservationMovedToWaiting(resId);
-		}
-
 		if (!moved.isEmpty()) {
+			notificationController.wakeUpOutbox();
 			ui.display("Table deletion: moved " + moved.size()
 					+ " future reservations to WAITING due to capacity change.");
 			runNotifyCheck();
@@ -1175,11 +1702,8 @@ public class Server extends AbstractServer {
 
 		List<Integer> moved = reservationController.revalidateFutureActiveReservations(now, to);
 
-		for (Integer resId : moved) {
-			notificationController.sendReservationMovedToWaiting(resId);
-		}
-
 		if (!moved.isEmpty()) {
+			notificationController.wakeUpOutbox();
 			ui.display("Capacity reduced (table " + tableNumber + " -> " + newCapacity + "): moved " + moved.size()
 					+ " future reservations to WAITING due to capacity change.");
 			runNotifyCheck();
@@ -1201,15 +1725,30 @@ public class Server extends AbstractServer {
 
 		if (!timeExists) {
 			ui.display("Generating time report for " + month + "/" + year + "...");
-			reportController.generateAndStoreTimeReport(year, month);
-			ui.display("Time report generated for " + month + "/" + year);
+			int rows = reportController.generateAndStoreTimeReport(year, month, reportProgress("Time report"));
+			ui.display("Time report generated for " + month + "/" + year + " (" + rows + " rows)");
 		}
 
 		if (!subExists) {
 			ui.display("Generating subscriber report for " + month + "/" + year + "...");
-			reportController.generateAndStoreSubscriberReport(year, month);
-			ui.display("Subscriber report generated for " + month + "/" + year);
+			int rows = reportController.freezeSubscriberReport(year, month, reportProgress("Subscriber report"));
+			ui.display("Subscriber report generated for " + month + "/" + year + " (" + rows + " rows)");
 		}
 	}
 
+	/**
+	 * Progress listener that shows report storage progress on the server UI.
+	 * Only intermediate batches are shown; the caller reports completion, so a
+	 * report written in one batch adds no extra line.
+	 *
+	 * @param name the report name shown in the log
+	 * @return the listener
+	 */
+	private controllers.ReportController.ProgressListener reportProgress(String name) {
+		return (written, total) -> {
+			if (written < total)
+				ui.display(name + ": " + written + "/" + total + " rows written (" + (written * 100 / total) + "%)");
+		};
+	}
+
 }
\ No newline at end of file
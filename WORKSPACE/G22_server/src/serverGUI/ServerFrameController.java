@@ -1,12 +1,23 @@
 package serverGUI;
 
+import java.io.File;
+import java.io.IOException;
+
+import dbController.ConnectionPool;
 import dbController.DBController;
+import dbController.QueryTrace;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
 import javafx.application.Platform;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
+import javafx.scene.Node;
 import javafx.scene.control.*;
+import javafx.scene.layout.VBox;
+import javafx.stage.FileChooser;
+import javafx.util.Duration;
 import server.Server;
 import server.ServerUI;
 import server.ClientStatusInfo;
@@ -65,6 +76,18 @@ public class ServerFrameController implements ServerUI {
 	@FXML
 	private TextField dbPasswordField;
 
+	/**
+	 * Text field for entering the maximum number of pooled database connections.
+	 */
+	@FXML
+	private TextField dbPoolSizeField;
+
+	/**
+	 * Text field for entering the slow query log threshold in milliseconds.
+	 */
+	@FXML
+	private TextField slowQueryField;
+
 	/**
 	 * Label displaying the current server status (RUNNING, STOPPED, ERROR).
 	 */
@@ -77,6 +100,17 @@ public class ServerFrameController implements ServerUI {
 	@FXML
 	private Label dbStatusLabel;
 
+	/**
+	 * Label displaying the connection pool gauges (active, idle, wait times).
+	 */
+	@FXML
+	private Label dbPoolLabel;
+
+	/**
+	 * Refreshes the pool gauges once per second while the server runs.
+	 */
+	private Timeline poolGaugeRefresher;
+
 	/**
 	 * Label for displaying log messages and server activity.
 	 */
@@ -134,6 +168,46 @@ public class ServerFrameController implements ServerUI {
 
 		clientTable.setItems(FXCollections.observableArrayList());
 
+		poolGaugeRefresher = new Timeline(new KeyFrame(Duration.seconds(1), e -> refreshPoolGauges()));
+		poolGaugeRefresher.setCycleCount(Timeline.INDEFINITE);
+	}
+
+	/**
+	 * Updates the pool gauge label from the running server.
+	 */
+	private void refreshPoolGauges() {
+		Server s = getServer();
+		dbPoolLabel.setText(s == null ? "N/A" : s.getDbPoolStatus());
+	}
+
+	/**
+	 * Parses the pool size field, falling back to the default for blank or invalid
+	 * input.
+	 *
+	 * @return the requested maximum pool size
+	 */
+	private int readPoolSize() {
+		try {
+			int size = Integer.parseInt(dbPoolSizeField.getText().trim());
+			return size > 0 ? size : ConnectionPool.DEFAULT_MAX_POOL_SIZE;
+		} catch (NumberFormatException e) {
+			return ConnectionPool.DEFAULT_MAX_POOL_SIZE;
+		}
+	}
+
+	/**
+	 * Parses the slow query threshold field, falling back to the default for blank
+	 * or invalid input.
+	 *
+	 * @return the threshold in milliseconds
+	 */
+	private long readSlowQueryMillis() {
+		try {
+			long millis = Long.parseLong(slowQueryField.getText().trim());
+			return millis >= 0 ? millis : QueryTrace.DEFAULT_SLOW_THRESHOLD_MS;
+		} catch (NumberFormatException e) {
+			return QueryTrace.DEFAULT_SLOW_THRESHOLD_MS;
+		}
 	}
 
 	/**
@@ -153,9 +227,11 @@ public class ServerFrameController implements ServerUI {
 			activeServer = server;
 
 			server.setDatabaseConfig(dbNameField.getText().trim(), dbUserField.getText().trim(),
-					dbPasswordField.getText().trim());
+					dbPasswordField.getText().trim(), readPoolSize());
+			server.setSlowQueryThreshold(readSlowQueryMillis());
 
 			server.listen();
+			poolGaugeRefresher.play();
 
 			if (server.isListening()) {
 				System.out.println("Server is now listening.");
@@ -186,6 +262,7 @@ public class ServerFrameController implements ServerUI {
 		try {
 			getServer().close();
 			activeServer = null;
+			poolGaugeRefresher.stop();
 			serverStatusLabel.setText("STOPPED");
 
 		} catch (Exception e) {
@@ -193,6 +270,125 @@ public class ServerFrameController implements ServerUI {
 		}
 	}
 
+	/**
+	 * Handles the "Statement Stats" button click event.
+	 * <p>
+	 * Shows the executions, latency and rows of every SQL statement run through
+	 * the connection pool since the server started.
+	 * </p>
+	 */
+	@FXML
+	public void onShowStatementStats() {
+		Server s = getServer();
+
+		TextArea table = new TextArea(s == null ? "N/A" : s.getStatementStats());
+		table.setEditable(false);
+		table.setStyle("-fx-font-family: monospace;");
+		table.setPrefSize(900, 400);
+
+		Alert alert = new Alert(Alert.AlertType.INFORMATION);
+		alert.setTitle("Statement Stats");
+		alert.setHeaderText(null);
+		alert.getDialogPane().setContent(table);
+		alert.setResizable(true);
+		alert.show();
+	}
+
+	/**
+	 * Handles the "SQL Trace" button click event.
+	 * <p>
+	 * Shows the database time of every method that ran SQL and the most recent
+	 * queries slower than the configured threshold.
+	 * </p>
+	 */
+	@FXML
+	public void onShowQueryTrace() {
+		Server s = getServer();
+
+		TextArea table = new TextArea(s == null ? "N/A" : s.getQueryTrace());
+		table.setEditable(false);
+		table.setStyle("-fx-font-family: monospace;");
+		table.setPrefSize(1150, 500);
+
+		Alert alert = new Alert(Alert.AlertType.INFORMATION);
+		alert.setTitle("SQL Trace");
+		alert.setHeaderText(null);
+		alert.getDialogPane().setContent(table);
+		alert.setResizable(true);
+		alert.show();
+	}
+
+	/**
+	 * Handles the "Request Metrics" button click event.
+	 * <p>
+	 * Shows the count, errors, rate, latency percentiles (split into database and
+	 * other time) and response size of every request operation, refreshed every
+	 * second while the window is open. The export button saves every metric to a
+	 * plain-text file.
+	 * </p>
+	 */
+	@FXML
+	public void onShowRequestMetrics() {
+		TextArea table = new TextArea(requestMetricsText());
+		table.setEditable(false);
+		table.setStyle("-fx-font-family: monospace;");
+		table.setPrefSize(1150, 400);
+
+		Button export = new Button("Export...");
+		export.setOnAction(e -> exportRequestMetrics(table));
+
+		Timeline refresher = new Timeline(new KeyFrame(Duration.seconds(1), e -> {
+			double scroll = table.getScrollTop();
+			table.setText(requestMetricsText());
+			table.setScrollTop(scroll);
+		}));
+		refresher.setCycleCount(Timeline.INDEFINITE);
+
+		Alert alert = new Alert(Alert.AlertType.INFORMATION);
+		alert.setTitle("Request Metrics");
+		alert.setHeaderText(null);
+		alert.getDialogPane().setContent(new VBox(8, table, export));
+		alert.setResizable(true);
+		alert.setOnHidden(e -> refresher.stop());
+		alert.show();
+		refresher.play();
+	}
+
+	/**
+	 * Returns the request metrics table of the running server.
+	 *
+	 * @return the table, or "N/A" if the server is not running
+	 */
+	private String requestMetricsText() {
+		Server s = getServer();
+		return s == null ? "N/A" : s.getRequestMetrics();
+	}
+
+	/**
+	 * Asks for a file and writes the request metrics to it.
+	 *
+	 * @param owner a node of the metrics window, used to place the file dialog
+	 */
+	private void exportRequestMetrics(Node owner) {
+		Server s = getServer();
+		if (s == null)
+			return;
+
+		FileChooser chooser = new FileChooser();
+		chooser.setTitle("Export Request Metrics");
+		chooser.setInitialFileName("request-metrics.txt");
+		File file = chooser.showSaveDialog(owner.getScene().getWindow());
+		if (file == null)
+			return;
+
+		try {
+			s.exportRequestMetrics(file.toPath());
+			display("Request metrics exported to " + file.getName());
+		} catch (IOException ex) {
+			display("Export failed: " + ex.getMessage());
+		}
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * <p>
@@ -0,0 +1 @@
+// This file contains material supporting section 3.8 of the textbook:// "Object Oriented Software Engineering" and is issued under the open-source// license found at www.lloseng.compackage ocsf.codec;import java.io.*;/*** Message exchanged once, right after a client connects, to agree on a* <code> MessageCodec </code>. The client sends the names of the codecs* it supports, in order of preference; the server replies with a* single name, or with none to keep plain Java serialization.<p>** Negotiation messages are consumed by the framework and never reach* <code> handleMessageFromClient </code> or* <code> handleMessageFromServer </code>.<p>** Project Name: OCSF (Object Client-Server Framework)<p>** @see ocsf.codec.MessageCodec*/public class CodecNegotiation implements Serializable{  private static final long serialVersionUID = 1L;  /**   * The offered codec names, or the single accepted one.   */  private String[] codecNames;  /**   * Constructs a negotiation message.   *   * @param codecNames the offered names, or the accepted name.   */  public CodecNegotiation(String... codecNames)  {    this.codecNames = codecNames == null ? new String[0] : codecNames.clone();  }  /**   * Returns the codec names carried by this message.   *   * @return the codec names.   */  public String[] getCodecNames()  {    return codecNames.clone();  }  /**   * Returns the codec among <code> codecs </code> whose name is   * carried by this message, taking <code> codecs </code> in order.   *   * @param codecs the candidate codecs.   * @return the first matching codec, or null if none matches.   */  public MessageCodec select(MessageCodec[] codecs)  {    if (codecs == null)      return null;    for (int i = 0; i < codecs.length; i++)    {      for (int j = 0; j < codecNames.length; j++)      {        if (codecs[i].getName().equals(codecNames[j]))          return codecs[i];      }    }    return null;  }}// End of CodecNegotiation class
\ No newline at end of file
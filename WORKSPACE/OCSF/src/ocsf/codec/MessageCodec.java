@@ -0,0 +1 @@
+// This file contains material supporting section 3.8 of the textbook:// "Object Oriented Software Engineering" and is issued under the open-source// license found at www.lloseng.compackage ocsf.codec;import java.io.*;import java.util.function.*;/*** A <code> MessageCodec </code> encodes selected message types into* compact binary frames, so that they do not have to go through Java* serialization.<p>** Codecs are negotiated per connection: the client offers the names* of its codecs right after connecting and the server answers with the* first of its own codecs that the client offered (see* <code> CodecNegotiation </code>). Once both sides agree, every message* accepted by <code> canEncode </code> is sent as a <code> byte[] </code>* frame on the existing object stream; all other messages are still* serialized as before. While a codec is active, byte arrays received* from the peer are therefore always treated as frames.<p>** Project Name: OCSF (Object Client-Server Framework)<p>** @see ocsf.codec.CodecNegotiation*/public interface MessageCodec{  /**   * Returns the name of the codec. Both sides must use the same name   * for the same frame layout, so the name should change with the   * layout version.   *   * @return the codec name.   */  String getName();  /**   * Returns true if the message can be encoded by this codec.   *   * @param msg the message.   * @return true if <code> encode </code> accepts the message.   */  boolean canEncode(Object msg);  /**   * Encodes a message into a frame.   *   * @param msg the message.   * @return the encoded frame.   * @exception IOException if the message cannot be encoded.   */  byte[] encode(Object msg) throws IOException;  /**   * Decodes a frame produced by <code> encode </code>.   *   * @param frame the encoded frame.   * @return the decoded message.   * @exception IOException if the frame is malformed.   */  Object decode(byte[] frame) throws IOException;  /**   * Encoding function used by <code> of </code>.   */  interface Encoder  {    /**     * Encodes a message.     *     * @param msg the message.     * @return the encoded frame.     * @exception IOException if the message cannot be encoded.     */    byte[] encode(Object msg) throws IOException;  }  /**   * Decoding function used by <code> of </code>.   */  interface Decoder  {    /**     * Decodes a frame.     *     * @param frame the encoded frame.     * @return the decoded message.     * @exception IOException if the frame is malformed.     */    Object decode(byte[] frame) throws IOException;  }  /**   * Builds a codec from plain functions, so that the message classes   * can provide their encoding without depending on this framework.   *   * @param name the codec name.   * @param canEncode selects the messages the codec handles.   * @param encoder the encoding function.   * @param decoder the decoding function.   * @return the codec.   */  static MessageCodec of(final String name,    final Predicate<Object> canEncode, final Encoder encoder,    final Decoder decoder)  {    return new MessageCodec()    {      public String getName()      {        return name;      }      public boolean canEncode(Object msg)      {        return canEncode.test(msg);      }      public byte[] encode(Object msg) throws IOException      {        return encoder.encode(msg);      }      public Object decode(byte[] frame) throws IOException      {        return decoder.decode(frame);      }    };  }}// End of MessageCodec interface
\ No newline at end of file
@@ -1 +1 @@
-// This file contains material supporting section 3.8 of the textbook:// "Object Oriented Software Engineering" and is issued under the open-source// license found at www.lloseng.com package ocsf.server;import java.net.*;import java.util.*;import java.io.*;/*** The <code> AbstractServer </code> class maintains a thread that waits* for connection attempts from clients. When a connection attempt occurs* it creates a new <code> ConnectionToClient </code> instance which* runs as a thread. When a client is thus connected to the* server, the two programs can then exchange <code> Object </code>* instances.<p>** Method <code> handleMessageFromClient </code> must be defined by* a concrete subclass. Several other hook methods may also be* overriden.<p>** Several public service methods are provided to applications that use* this framework, and several hook methods are also available<p>** Project Name: OCSF (Object Client-Server Framework)<p>** @author Dr Robert Lagani&egrave;re* @author Dr Timothy C. Lethbridge* @author Fran&ccedil;ois B&eacute;langer* @author Paul Holden* @version February 2001 (2.12)* @see ocsf.server.ConnectionToClient*/public abstract class AbstractServer implements Runnable{  // INSTANCE VARIABLES *********************************************  /**   * The server socket: listens for clients who want to connect.   */  private ServerSocket serverSocket = null;  /**   * The connection listener thread.   */  private Thread connectionListener;  /**   * The port number   */  private int port;  /**   * The server timeout while for accepting connections.   * After timing out, the server will check to see if a command to   * stop the server has been issued; it not it will resume accepting   * connections.   * Set to half a second by default.   */  private int timeout = 500;  /**   * The maximum queue length; i.e. the maximum number of clients that   * can be waiting to connect.   * Set to 10 by default.   */  private int backlog = 10;  /**   * The thread group associated with client threads. Each member of the   * thread group is a <code> ConnectionToClient </code>.   */  private ThreadGroup clientThreadGroup;  /**   * Indicates if the listening thread is ready to stop.  Set to   * false by default.   */  private boolean readyToStop = false;// CONSTRUCTOR ******************************************************  /**   * Constructs a new server.   *   * @param port the port number on which to listen.   */  public AbstractServer(int port)  {    this.port = port;    this.clientThreadGroup =      new ThreadGroup("ConnectionToClient threads")      {        // All uncaught exceptions in connection threads will        // be sent to the clientException callback method.        public void uncaughtException(          Thread thread, Throwable exception)        {          clientException((ConnectionToClient)thread, exception);        }      };  }// INSTANCE METHODS *************************************************  /**   * Begins the thread that waits for new clients.   * If the server is already in listening mode, this   * call has no effect.   *   * @exception IOException if an I/O error occurs   * when creating the server socket.   */  final public void listen() throws IOException  {    if (!isListening())    {      if (serverSocket == null)      {        serverSocket = new ServerSocket(getPort(), backlog);      }      serverSocket.setSoTimeout(timeout);      readyToStop = false;      connectionListener = new Thread(this);      connectionListener.start();    }  }  /**   * Causes the server to stop accepting new connections.   */  final public void stopListening()  {    readyToStop = true;  }  /**   * Closes the server socket and the connections with all clients.   * Any exception thrown while closing a client is ignored.   * If one wishes to catch these exceptions, then clients   * should be individually closed before calling this method.   * The method also stops listening if this thread is running.   * If the server is already closed, this   * call has no effect.   *   * @exception IOException if an I/O error occurs while   * closing the server socket.   */  final synchronized public void close() throws IOException  {    if (serverSocket == null)      return;      stopListening();    try    {      serverSocket.close();    }    finally    {      // Close the client sockets of the already connected clients      Thread[] clientThreadList = getClientConnections();      for (int i=0; i<clientThreadList.length; i++)      {         try         {           ((ConnectionToClient)clientThreadList[i]).close();         }         // Ignore all exceptions when closing clients.         catch(Exception ex) {}      }      serverSocket = null;      serverClosed();    }  }  /**   * Sends a message to every client connected to the server.   * This is merely a utility; a subclass may want to do some checks   * before actually sending messages to all clients.  This method   * can be overriden, but if so it should still perform the general   * function of sending to all clients, perhaps after some kind   * of filtering is done. Any exception thrown while   * sending the message to a particular client is ignored.   *   * @param msg   Object The message to be sent   */  public void sendToAllClients(Object msg)  {    Thread[] clientThreadList = getClientConnections();    for (int i=0; i<clientThreadList.length; i++)    {      try      {        ((ConnectionToClient)clientThreadList[i]).sendToClient(msg);      }      catch (Exception ex) {}    }  }// ACCESSING METHODS ------------------------------------------------  /**   * Returns true if the server is ready to accept new clients.   *   * @return true if the server is listening.   */  final public boolean isListening()  {    return (connectionListener != null);  }  /**   * Returns an array containing the existing   * client connections. This can be used by   * concrete subclasses to implement messages that do something with   * each connection (e.g. kill it, send a message to it etc.).   * Remember that after this array is obtained, some clients   * in this migth disconnect. New clients can also connect,   * these later will not appear in the array.   *   * @return an array of <code>Thread</code> containing   * <code>ConnectionToClient</code> instances.   */  synchronized final public Thread[] getClientConnections()  {    Thread[] clientThreadList = new      Thread[clientThreadGroup.activeCount()];    clientThreadGroup.enumerate(clientThreadList);    return clientThreadList;  }  /**   * Counts the number of clients currently connected.   *   * @return the number of clients currently connected.   */  final public int getNumberOfClients()  {    return clientThreadGroup.activeCount();  }  /**   * Returns the port number.   *   * @return the port number.   */  final public int getPort()  {    return port;  }  /**   * Sets the port number for the next connection.   * The server must be closed and restarted for the port   * change to be in effect.   *   * @param port the port number.   */  final public void setPort(int port)  {    this.port = port;  }  /**   * Sets the timeout time when accepting connections.   * The default is half a second. This means that stopping the   * server may take up to timeout duration to actually stop.   * The server must be stopped and restarted for the timeout   * change to be effective.   *   * @param timeout the timeout time in ms.   */  final public void setTimeout(int timeout)  {    this.timeout = timeout;  }  /**   * Sets the maximum number of waiting connections accepted by the   * operating system. The default is 20.   * The server must be closed and restarted for the backlog   * change to be in effect.   *   * @param backlog the maximum number of connections.   */  final public void setBacklog(int backlog)  {    this.backlog = backlog;  }// RUN METHOD -------------------------------------------------------  /**   * Runs the listening thread that allows clients to connect.   * Not to be called.   */  final public void run()  {    // call the hook method to notify that the server is starting    serverStarted();    try    {      // Repeatedly waits for a new client connection, accepts it, and      // starts a new thread to handle data exchange.      while(!readyToStop)      {        try        {          // Wait here for new connection attempts, or a timeout          Socket clientSocket = serverSocket.accept();          // When a client is accepted, create a thread to handle          // the data exchange, then add it to thread group          synchronized(this)          {            ConnectionToClient c = new ConnectionToClient(              this.clientThreadGroup, clientSocket, this);          }        }        catch (InterruptedIOException exception)        {          // This will be thrown when a timeout occurs.          // The server will continue to listen if not ready to stop.        }      }      // call the hook method to notify that the server has stopped      serverStopped();    }    catch (IOException exception)    {      if (!readyToStop)      {        // Closing the socket must have thrown a SocketException        listeningException(exception);      }      else      {        serverStopped();      }    }    finally    {      readyToStop = true;      connectionListener = null;    }  }// METHODS DESIGNED TO BE OVERRIDDEN BY CONCRETE SUBCLASSES ---------  /**   * Hook method called each time a new client connection is   * accepted. The default implementation does nothing.   * @param client the connection connected to the client.   */  protected void clientConnected(ConnectionToClient client) {}  /**   * Hook method called each time a client disconnects.   * The default implementation does nothing. The method   * may be overridden by subclasses but should remains synchronized.   *   * @param client the connection with the client.   */  synchronized protected void clientDisconnected(    ConnectionToClient client) {}  /**   * Hook method called each time an exception is thrown in a   * ConnectionToClient thread.   * The method may be overridden by subclasses but should remains   * synchronized.   *   * @param client the client that raised the exception.   * @param Throwable the exception thrown.   */  synchronized protected void clientException(    ConnectionToClient client, Throwable exception) {}  /**   * Hook method called when the server stops accepting   * connections because an exception has been raised.   * The default implementation does nothing.   * This method may be overriden by subclasses.   *   * @param exception the exception raised.   */  protected void listeningException(Throwable exception) {}  /**   * Hook method called when the server starts listening for   * connections.  The default implementation does nothing.   * The method may be overridden by subclasses.   */  protected void serverStarted() {}  /**   * Hook method called when the server stops accepting   * connections.  The default implementation   * does nothing. This method may be overriden by subclasses.   */  protected void serverStopped() {}  /**   * Hook method called when the server is clased.   * The default implementation does nothing. This method may be   * overriden by subclasses. When the server is closed while still   * listening, serverStopped() will also be called.   */  protected void serverClosed() {}  /**   * Handles a command sent from one client to the server.   * This MUST be implemented by subclasses, who should respond to   * messages.   * This method is called by a synchronized method so it is also   * implcitly synchronized.   *   * @param msg   the message sent.   * @param client the connection connected to the client that   *  sent the message.   */  protected abstract void handleMessageFromClient(    Object msg, ConnectionToClient client);// METHODS TO BE USED FROM WITHIN THE FRAMEWORK ONLY ----------------  /**   * Receives a command sent from the client to the server.   * Called by the run method of <code>ConnectionToClient</code>   * instances that are watching for messages coming from the server   * This method is synchronized to ensure that whatever effects it has   * do not conflict with work being done by other threads. The method   * simply calls the <code>handleMessageFromClient</code> slot method.   *   * @param msg   the message sent.   * @param client the connection connected to the client that   *  sent the message.   */  final synchronized void receiveMessageFromClient(    Object msg, ConnectionToClient client)  {    this.handleMessageFromClient(msg, client);  }}// End of AbstractServer Class
\ No newline at end of file
+// This file contains material supporting section 3.8 of the textbook:// "Object Oriented Software Engineering" and is issued under the open-source// license found at www.lloseng.com package ocsf.server;import java.net.*;import java.util.*;import java.util.concurrent.*;import java.io.*;import ocsf.codec.*;/*** The <code> AbstractServer </code> class maintains a thread that waits* for connection attempts from clients. When a connection attempt occurs* it creates a new <code> ConnectionToClient </code> instance which* runs as a thread. When a client is thus connected to the* server, the two programs can then exchange <code> Object </code>* instances.<p>** Method <code> handleMessageFromClient </code> must be defined by* a concrete subclass. Several other hook methods may also be* overriden.<p>** Several public service methods are provided to applications that use* this framework, and several hook methods are also available<p>** Connections can optionally be served by virtual threads (see* <code> setUseVirtualThreads </code>), in which case an idle connection* costs no platform thread stack and the number of messages handled at* the same time is limited by <code> setMaxConcurrentRequests </code>.<p>** Project Name: OCSF (Object Client-Server Framework)<p>** @author Dr Robert Lagani&egrave;re* @author Dr Timothy C. Lethbridge* @author Fran&ccedil;ois B&eacute;langer* @author Paul Holden* @version February 2001 (2.12)* @see ocsf.server.ConnectionToClient*/public abstract class AbstractServer implements Runnable{  // INSTANCE VARIABLES *********************************************  /**   * The server socket: listens for clients who want to connect.   */  private ServerSocket serverSocket = null;  /**   * The connection listener thread.   */  private Thread connectionListener;  /**   * The port number   */  private int port;  /**   * The server timeout while for accepting connections.   * After timing out, the server will check to see if a command to   * stop the server has been issued; it not it will resume accepting   * connections.   * Set to half a second by default.   */  private int timeout = 500;  /**   * The maximum queue length; i.e. the maximum number of clients that   * can be waiting to connect.   * Set to 10 by default.   */  private int backlog = 10;  /**   * The thread group associated with client threads. Each member of the   * thread group is a <code> ConnectionToClient </code>.   */  private ThreadGroup clientThreadGroup;  /**   * Indicates if the listening thread is ready to stop.  Set to   * false by default.   */  private boolean readyToStop = false;  /**   * Indicates if new connections are served by virtual threads instead   * of platform threads in the client thread group. Set to false by   * default.   */  private boolean useVirtualThreads = false;  /**   * The connections served by virtual threads. Virtual threads cannot   * be members of a custom thread group, so they are tracked here.   */  private Set<ConnectionToClient> virtualConnections =    ConcurrentHashMap.newKeySet();  /**   * The maximum number of messages from virtual-thread connections   * handled at the same time. Set to 1 by default, which keeps   * <code> handleMessageFromClient </code> serialized.   */  private int maxConcurrentRequests = 1;  /**   * Permits for handling messages from virtual-thread connections.   */  private Semaphore requestPermits = new Semaphore(1, true);  /**   * The codecs the server accepts, in order of preference. Empty by   * default, so that all messages are serialized.   */  private volatile MessageCodec[] codecs = new MessageCodec[0];  /**   * The maximum number of messages from one virtual-thread connection   * that may be handled at the same time, for messages accepted by   * <code> canHandleConcurrently </code>. Set to 16 by default.   */  private int maxPipelinedRequests = 16;// CONSTRUCTOR ******************************************************  /**   * Constructs a new server.   *   * @param port the port number on which to listen.   */  public AbstractServer(int port)  {    this.port = port;    this.clientThreadGroup =      new ThreadGroup("ConnectionToClient threads")      {        // All uncaught exceptions in connection threads will        // be sent to the clientException callback method.        public void uncaughtException(          Thread thread, Throwable exception)        {          clientException((ConnectionToClient)thread, exception);        }      };  }// INSTANCE METHODS *************************************************  /**   * Begins the thread that waits for new clients.   * If the server is already in listening mode, this   * call has no effect.   *   * @exception IOException if an I/O error occurs   * when creating the server socket.   */  final public void listen() throws IOException  {    if (!isListening())    {      if (serverSocket == null)      {        serverSocket = new ServerSocket(getPort(), backlog);      }      serverSocket.setSoTimeout(timeout);      readyToStop = false;      connectionListener = new Thread(this);      connectionListener.start();    }  }  /**   * Causes the server to stop accepting new connections.   */  final public void stopListening()  {    readyToStop = true;  }  /**   * Closes the server socket and the connections with all clients.   * Any exception thrown while closing a client is ignored.   * If one wishes to catch these exceptions, then clients   * should be individually closed before calling this method.   * The method also stops listening if this thread is running.   * If the server is already closed, this   * call has no effect.   *   * @exception IOException if an I/O error occurs while   * closing the server socket.   */  final synchronized public void close() throws IOException  {    if (serverSocket == null)      return;      stopListening();    try    {      serverSocket.close();    }    finally    {      // Close the client sockets of the already connected clients      Thread[] clientThreadList = getClientConnections();      for (int i=0; i<clientThreadList.length; i++)      {         try         {           ((ConnectionToClient)clientThreadList[i]).close();         }         // Ignore all exceptions when closing clients.         catch(Exception ex) {}      }      serverSocket = null;      serverClosed();    }  }  /**   * Sends a message to every client connected to the server.   * This is merely a utility; a subclass may want to do some checks   * before actually sending messages to all clients.  This method   * can be overriden, but if so it should still perform the general   * function of sending to all clients, perhaps after some kind   * of filtering is done. Any exception thrown while   * sending the message to a particular client is ignored.   *   * @param msg   Object The message to be sent   */  public void sendToAllClients(Object msg)  {    Thread[] clientThreadList = getClientConnections();    for (int i=0; i<clientThreadList.length; i++)    {      try      {        ((ConnectionToClient)clientThreadList[i]).sendToClient(msg);      }      catch (Exception ex) {}    }  }// ACCESSING METHODS ------------------------------------------------  /**   * Returns true if the server is ready to accept new clients.   *   * @return true if the server is listening.   */  final public boolean isListening()  {    return (connectionListener != null);  }  /**   * Returns an array containing the existing   * client connections. This can be used by   * concrete subclasses to implement messages that do something with   * each connection (e.g. kill it, send a message to it etc.).   * Remember that after this array is obtained, some clients   * in this migth disconnect. New clients can also connect,   * these later will not appear in the array.   *   * @return an array of <code>Thread</code> containing   * <code>ConnectionToClient</code> instances.   */  synchronized final public Thread[] getClientConnections()  {    Thread[] groupThreads = new      Thread[clientThreadGroup.activeCount()];    int count = clientThreadGroup.enumerate(groupThreads);    List<Thread> clientThreadList = new ArrayList<Thread>(      count + virtualConnections.size());    clientThreadList.addAll(Arrays.asList(groupThreads).subList(0, count));    clientThreadList.addAll(virtualConnections);    return clientThreadList.toArray(new Thread[0]);  }  /**   * Counts the number of clients currently connected.   *   * @return the number of clients currently connected.   */  final public int getNumberOfClients()  {    return clientThreadGroup.activeCount() + virtualConnections.size();  }  /**   * Returns the port number.   *   * @return the port number.   */  final public int getPort()  {    return port;  }  /**   * Sets the port number for the next connection.   * The server must be closed and restarted for the port   * change to be in effect.   *   * @param port the port number.   */  final public void setPort(int port)  {    this.port = port;  }  /**   * Sets the timeout time when accepting connections.   * The default is half a second. This means that stopping the   * server may take up to timeout duration to actually stop.   * The server must be stopped and restarted for the timeout   * change to be effective.   *   * @param timeout the timeout time in ms.   */  final public void setTimeout(int timeout)  {    this.timeout = timeout;  }  /**   * Sets the maximum number of waiting connections accepted by the   * operating system. The default is 20.   * The server must be closed and restarted for the backlog   * change to be in effect.   *   * @param backlog the maximum number of connections.   */  final public void setBacklog(int backlog)  {    this.backlog = backlog;  }  /**   * Sets whether new connections are served by virtual threads.   * A virtual thread blocked on the socket or on a database call   * does not hold a platform thread, so thousands of idle clients   * can be connected with a flat memory footprint. This should be   * set before the server starts listening.   *   * @param useVirtualThreads true to use virtual threads.   */  final public void setUseVirtualThreads(boolean useVirtualThreads)  {    this.useVirtualThreads = useVirtualThreads;  }  /**   * Returns true if new connections are served by virtual threads.   *   * @return true if virtual threads are used.   */  final public boolean isUsingVirtualThreads()  {    return useVirtualThreads;  }  /**   * Sets the maximum number of messages from virtual-thread   * connections that are handled at the same time. Further messages   * wait, in arrival order, until a handler finishes. This caps the   * database work the server does at once. The default of 1 keeps   * <code> handleMessageFromClient </code> serialized; a larger value   * requires a thread-safe implementation. Connections served by   * platform threads are always serialized.   *   * @param maxConcurrentRequests the maximum, at least 1.   */  final public synchronized void setMaxConcurrentRequests(    int maxConcurrentRequests)  {    if (maxConcurrentRequests < 1)      throw new IllegalArgumentException(        "maxConcurrentRequests must be at least 1");    this.maxConcurrentRequests = maxConcurrentRequests;    this.requestPermits = new Semaphore(maxConcurrentRequests, true);  }  /**   * Returns the maximum number of messages from virtual-thread   * connections handled at the same time.   *   * @return the maximum number of concurrent requests.   */  final public int getMaxConcurrentRequests()  {    return maxConcurrentRequests;  }  /**   * Returns the number of messages waiting for a handling permit.   *   * @return the number of waiting requests.   */  final public int getWaitingRequestCount()  {    return requestPermits.getQueueLength();  }  /**   * Sets the maximum number of messages from one connection that are   * handled at the same time (see <code> canHandleConcurrently </code>).   * When the limit is reached the connection stops reading until one of   * its messages is done. Only affects connections opened afterwards.   *   * @param maxPipelinedRequests the maximum, at least 1.   */  final public void setMaxPipelinedRequests(int maxPipelinedRequests)  {    if (maxPipelinedRequests < 1)      throw new IllegalArgumentException(        "maxPipelinedRequests must be at least 1");    this.maxPipelinedRequests = maxPipelinedRequests;  }  /**   * Returns the maximum number of messages from one connection that   * are handled at the same time.   *   * @return the maximum number of pipelined requests.   */  final public int getMaxPipelinedRequests()  {    return maxPipelinedRequests;  }  /**   * Sets the codecs the server accepts, in order of preference. Each   * new client that offers one of them is switched to the first match;   * other clients keep plain Java serialization. Connections already   * negotiated are not affected.   *   * @param codecs the accepted codecs.   */  final public void setCodecs(MessageCodec... codecs)  {    this.codecs = codecs == null ? new MessageCodec[0] : codecs.clone();  }  /**   * Returns the codecs the server accepts.   *   * @return the accepted codecs, in order of preference.   */  final public MessageCodec[] getCodecs()  {    return codecs.clone();  }// RUN METHOD -------------------------------------------------------  /**   * Runs the listening thread that allows clients to connect.   * Not to be called.   */  final public void run()  {    // call the hook method to notify that the server is starting    serverStarted();    try    {      // Repeatedly waits for a new client connection, accepts it, and      // starts a new thread to handle data exchange.      while(!readyToStop)      {        try        {          // Wait here for new connection attempts, or a timeout          Socket clientSocket = serverSocket.accept();          // When a client is accepted, create a thread to handle          // the data exchange, then add it to thread group          synchronized(this)          {            ConnectionToClient c = new ConnectionToClient(              this.clientThreadGroup, clientSocket, this);          }        }        catch (InterruptedIOException exception)        {          // This will be thrown when a timeout occurs.          // The server will continue to listen if not ready to stop.        }      }      // call the hook method to notify that the server has stopped      serverStopped();    }    catch (IOException exception)    {      if (!readyToStop)      {        // Closing the socket must have thrown a SocketException        listeningException(exception);      }      else      {        serverStopped();      }    }    finally    {      readyToStop = true;      connectionListener = null;    }  }// METHODS DESIGNED TO BE OVERRIDDEN BY CONCRETE SUBCLASSES ---------  /**   * Hook method called each time a new client connection is   * accepted. The default implementation does nothing.   * @param client the connection connected to the client.   */  protected void clientConnected(ConnectionToClient client) {}  /**   * Hook method called each time a client disconnects.   * The default implementation does nothing. The method   * may be overridden by subclasses but should remains synchronized.   *   * @param client the connection with the client.   */  synchronized protected void clientDisconnected(    ConnectionToClient client) {}  /**   * Hook method called each time an exception is thrown in a   * ConnectionToClient thread.   * The method may be overridden by subclasses but should remains   * synchronized.   *   * @param client the client that raised the exception.   * @param Throwable the exception thrown.   */  synchronized protected void clientException(    ConnectionToClient client, Throwable exception) {}  /**   * Hook method called when the server stops accepting   * connections because an exception has been raised.   * The default implementation does nothing.   * This method may be overriden by subclasses.   *   * @param exception the exception raised.   */  protected void listeningException(Throwable exception) {}  /**   * Hook method called when the server starts listening for   * connections.  The default implementation does nothing.   * The method may be overridden by subclasses.   */  protected void serverStarted() {}  /**   * Hook method called when the server stops accepting   * connections.  The default implementation   * does nothing. This method may be overriden by subclasses.   */  protected void serverStopped() {}  /**   * Hook method called when the server is clased.   * The default implementation does nothing. This method may be   * overriden by subclasses. When the server is closed while still   * listening, serverStopped() will also be called.   */  protected void serverClosed() {}  /**   * Hook method called after a message has been written to a client,   * on the thread that sent it. The default implementation does   * nothing. The method may be overridden by subclasses.   *   * @param msg    the message sent.   * @param client the connection the message was sent on.   * @param bytes  the number of bytes written to the socket for it.   */  protected void messageSentToClient(Object msg,    ConnectionToClient client, long bytes) {}  /**   * Handles a command sent from one client to the server.   * This MUST be implemented by subclasses, who should respond to   * messages.   * For platform-thread connections this method is called by a   * synchronized block so it is also implcitly synchronized; for   * virtual-thread connections at most   * <code> getMaxConcurrentRequests </code> calls run at once.   *   * @param msg   the message sent.   * @param client the connection connected to the client that   *  sent the message.   */  protected abstract void handleMessageFromClient(    Object msg, ConnectionToClient client);  /**   * Hook method deciding whether a message may be handled while the   * connection keeps reading, possibly finishing after messages that   * arrived later. Only used for virtual-thread connections. A message   * for which this returns false waits until all earlier messages of   * the connection are done, so it sees their effects. The default   * implementation returns false, which keeps every connection strictly   * in order.   *   * @param msg the message received.   * @return true if the message may be handled concurrently.   */  protected boolean canHandleConcurrently(Object msg)  {    return false;  }// METHODS TO BE USED FROM WITHIN THE FRAMEWORK ONLY ----------------  /**   * Starts serving a newly accepted connection, either on its own   * platform thread or on a virtual thread.   *   * @param client the connection to start.   */  final void startConnection(final ConnectionToClient client)  {    if (!useVirtualThreads)    {      client.start();      return;    }    virtualConnections.add(client);    Thread.ofVirtual()      .name("ConnectionToClient " + client)      .uncaughtExceptionHandler(        (thread, exception) -> clientException(client, exception))      .start(client);  }  /**   * Called when the run method of a connection returns.   *   * @param client the connection that ended.   */  final void connectionEnded(ConnectionToClient client)  {    virtualConnections.remove(client);  }  /**   * Hands a message from a virtual-thread connection to a new virtual   * thread, so that the connection can read its next message at once.   * Blocks while the connection already has the maximum number of   * messages in flight.   *   * @param msg the message sent.   * @param client the connection that sent the message.   * @param inFlight the connection's in-flight permits.   */  final void receiveMessageConcurrently(final Object msg,    final ConnectionToClient client, final Semaphore inFlight)  {    inFlight.acquireUninterruptibly();    try    {      Thread.ofVirtual()        .name("Request " + client)        .uncaughtExceptionHandler(          (thread, exception) -> clientException(client, exception))        .start(() ->        {          try          {            receiveMessageFromClient(msg, client);          }          finally          {            inFlight.release();          }        });    }    catch (RuntimeException ex)    {      inFlight.release();      throw ex;    }  }  /**   * Receives a command sent from the client to the server.   * Called by the run method of <code>ConnectionToClient</code>   * instances that are watching for messages coming from the server   * For platform-thread connections this method synchronizes on the   * server to ensure that whatever effects it has do not conflict with   * work being done by other threads. Virtual-thread connections take a   * request permit instead, so a waiting message parks its virtual   * thread without holding a carrier thread. The method   * simply calls the <code>handleMessageFromClient</code> slot method.   *   * @param msg   the message sent.   * @param client the connection connected to the client that   *  sent the message.   */  final void receiveMessageFromClient(    Object msg, ConnectionToClient client)  {    if (!Thread.currentThread().isVirtual())    {      synchronized (this)      {        this.handleMessageFromClient(msg, client);      }      return;    }    Semaphore permits = requestPermits;    permits.acquireUninterruptibly();    try    {      this.handleMessageFromClient(msg, client);    }    finally    {      permits.release();    }  }}// End of AbstractServer Class
\ No newline at end of file
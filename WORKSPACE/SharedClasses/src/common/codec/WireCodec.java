@@ -0,0 +1,134 @@
+package common.codec;
+
+import java.io.IOException;
+
+import common.dto.Reservation.ReservationRequest;
+import common.dto.Reservation.ReservationResponse;
+import common.dto.UserAccount.UserAccountRequest;
+import common.dto.UserAccount.UserAccountResponse;
+
+/**
+ * Compact binary encoding of the high-volume request and response DTOs.
+ * <p>
+ * Java serialization writes class descriptors and field names into every
+ * message; reservation lists in particular grow large. This codec writes the
+ * same DTOs as a tagged frame: one version byte, one type tag, then the fields
+ * in a fixed order using {@link WireOutput}. Each DTO owns its field layout in
+ * {@code writeTo} / {@code readFrom}.
+ * </p>
+ * <p>
+ * The codec is chosen per connection by name, so client and server only use
+ * it when both offer the same {@link #NAME}. Any change to a DTO layout must
+ * bump {@link #VERSION}; peers with different versions fall back to Java
+ * serialization. Messages that {@link #canEncode(Object)} rejects are always
+ * sent with Java serialization.
+ * </p>
+ *
+ * @author Yamen Abu Ahmad
+ * @version 1.0
+ */
+public final class WireCodec {
+
+	/**
+	 * Layout version; bumped on every DTO layout change.
+	 */
+	public static final int VERSION = 3;
+
+	/**
+	 * Codec name offered during connection negotiation.
+	 */
+	public static final String NAME = "bistro-binary/" + VERSION;
+
+	/**
+	 * Type tag of {@link ReservationRequest}.
+	 */
+	private static final int TAG_RESERVATION_REQUEST = 1;
+
+	/**
+	 * Type tag of {@link ReservationResponse}.
+	 */
+	private static final int TAG_RESERVATION_RESPONSE = 2;
+
+	/**
+	 * Type tag of {@link UserAccountRequest}.
+	 */
+	private static final int TAG_USER_ACCOUNT_REQUEST = 3;
+
+	/**
+	 * Type tag of {@link UserAccountResponse}.
+	 */
+	private static final int TAG_USER_ACCOUNT_RESPONSE = 4;
+
+	/**
+	 * Utility class.
+	 */
+	private WireCodec() {
+	}
+
+	/**
+	 * Returns whether a message has a binary layout.
+	 *
+	 * @param msg the message
+	 * @return true if {@link #encode(Object)} accepts it
+	 */
+	public static boolean canEncode(Object msg) {
+		return msg instanceof ReservationRequest || msg instanceof ReservationResponse
+				|| msg instanceof UserAccountRequest || msg instanceof UserAccountResponse;
+	}
+
+	/**
+	 * Encodes a message into a binary frame.
+	 *
+	 * @param msg the message
+	 * @return the encoded frame
+	 * @throws IOException if the message type has no binary layout
+	 */
+	public static byte[] encode(Object msg) throws IOException {
+		WireOutput out = new WireOutput();
+		out.writeByte(VERSION);
+
+		if (msg instanceof ReservationRequest r) {
+			out.writeByte(TAG_RESERVATION_REQUEST);
+			r.writeTo(out);
+		} else if (msg instanceof ReservationResponse r) {
+			out.writeByte(TAG_RESERVATION_RESPONSE);
+			r.writeTo(out);
+		} else if (msg instanceof UserAccountRequest r) {
+			out.writeByte(TAG_USER_ACCOUNT_REQUEST);
+			r.writeTo(out);
+		} else if (msg instanceof UserAccountResponse r) {
+			out.writeByte(TAG_USER_ACCOUNT_RESPONSE);
+			r.writeTo(out);
+		} else {
+			throw new IOException("No binary layout for " + (msg == null ? "null" : msg.getClass().getName()));
+		}
+		return out.toByteArray();
+	}
+
+	/**
+	 * Decodes a binary frame produced by {@link #encode(Object)}.
+	 *
+	 * @param frame the encoded frame
+	 * @return the decoded message
+	 * @throws IOException if the frame is malformed or has another version
+	 */
+	public static Object decode(byte[] frame) throws IOException {
+		WireInput in = new WireInput(frame);
+		int version = in.readByte();
+		if (version != VERSION)
+			throw new IOException("Unsupported wire version " + version);
+
+		int tag = in.readByte();
+		Object msg = switch (tag) {
+		case TAG_RESERVATION_REQUEST -> ReservationRequest.readFrom(in);
+		case TAG_RESERVATION_RESPONSE -> ReservationResponse.readFrom(in);
+		case TAG_USER_ACCOUNT_REQUEST -> UserAccountRequest.readFrom(in);
+		case TAG_USER_ACCOUNT_RESPONSE -> UserAccountResponse.readFrom(in);
+		default -> throw new IOException("Unknown wire type tag " + tag);
+		};
+
+		if (in.hasRemaining())
+			throw new IOException("Trailing bytes in wire frame");
+		return msg;
+	}
+}
@@ -0,0 +1,231 @@
+package common.codec;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Reader for the primitives written by {@link WireOutput}.
+ * <p>
+ * Every read checks the remaining length, so a truncated or corrupt frame
+ * fails with an {@link IOException} instead of an index error.
+ * </p>
+ *
+ * @author Yamen Abu Ahmad
+ * @version 1.0
+ * @see WireOutput
+ * @see WireCodec
+ */
+public class WireInput {
+
+	/**
+	 * The encoded bytes.
+	 */
+	private final byte[] buf;
+
+	/**
+	 * Read position.
+	 */
+	private int pos;
+
+	/**
+	 * Creates an input over an encoded frame.
+	 *
+	 * @param buf the encoded bytes
+	 */
+	public WireInput(byte[] buf) {
+		this.buf = buf;
+	}
+
+	/**
+	 * Returns whether unread bytes remain.
+	 *
+	 * @return true if more bytes can be read
+	 */
+	public boolean hasRemaining() {
+		return pos < buf.length;
+	}
+
+	/**
+	 * Reads a single unsigned byte.
+	 *
+	 * @return the byte value (0-255)
+	 * @throws IOException if the frame is truncated
+	 */
+	public int readByte() throws IOException {
+		if (pos >= buf.length)
+			throw new IOException("Truncated wire frame");
+		return buf[pos++] & 0xFF;
+	}
+
+	/**
+	 * Reads a boolean.
+	 *
+	 * @return the value
+	 * @throws IOException if the frame is truncated
+	 */
+	public boolean readBoolean() throws IOException {
+		return readByte() != 0;
+	}
+
+	/**
+	 * Reads an unsigned varint.
+	 *
+	 * @return the value
+	 * @throws IOException if the frame is truncated or the varint is too long
+	 */
+	public int readVarInt() throws IOException {
+		int v = 0;
+		for (int shift = 0; shift < 35; shift += 7) {
+			int b = readByte();
+			v |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0)
+				return v;
+		}
+		throw new IOException("Malformed varint");
+	}
+
+	/**
+	 * Reads an unsigned varint long.
+	 *
+	 * @return the value
+	 * @throws IOException if the frame is truncated or the varint is too long
+	 */
+	public long readVarLong() throws IOException {
+		long v = 0;
+		for (int shift = 0; shift < 70; shift += 7) {
+			int b = readByte();
+			v |= (long) (b & 0x7F) << shift;
+			if ((b & 0x80) == 0)
+				return v;
+		}
+		throw new IOException("Malformed varint");
+	}
+
+	/**
+	 * Reads a zig-zag encoded signed int.
+	 *
+	 * @return the value
+	 * @throws IOException if the frame is truncated
+	 */
+	public int readSignedInt() throws IOException {
+		int v = readVarInt();
+		return (v >>> 1) ^ -(v & 1);
+	}
+
+	/**
+	 * Reads a zig-zag encoded signed long.
+	 *
+	 * @return the value
+	 * @throws IOException if the frame is truncated
+	 */
+	public long readSignedLong() throws IOException {
+		long v = readVarLong();
+		return (v >>> 1) ^ -(v & 1);
+	}
+
+	/**
+	 * Reads a nullable Integer.
+	 *
+	 * @return the value, or null
+	 * @throws IOException if the frame is truncated
+	 */
+	public Integer readNullableInt() throws IOException {
+		long v = readVarLong();
+		if (v == 0)
+			return null;
+		v--;
+		return (int) ((v >>> 1) ^ -(v & 1));
+	}
+
+	/**
+	 * Reads an eight-byte double.
+	 *
+	 * @return the value
+	 * @throws IOException if the frame is truncated
+	 */
+	public double readDouble() throws IOException {
+		long bits = 0;
+		for (int i = 0; i < 8; i++)
+			bits |= (long) readByte() << (8 * i);
+		return Double.longBitsToDouble(bits);
+	}
+
+	/**
+	 * Reads a nullable Double.
+	 *
+	 * @return the value, or null
+	 * @throws IOException if the frame is truncated
+	 */
+	public Double readNullableDouble() throws IOException {
+		return readBoolean() ? readDouble() : null;
+	}
+
+	/**
+	 * Reads a nullable UTF-8 string.
+	 *
+	 * @return the string, or null
+	 * @throws IOException if the frame is truncated
+	 */
+	public String readString() throws IOException {
+		int len = readVarInt() - 1;
+		if (len < 0)
+			return null;
+		if (len > buf.length - pos)
+			throw new IOException("Truncated wire frame");
+		String s = new String(buf, pos, len, StandardCharsets.UTF_8);
+		pos += len;
+		return s;
+	}
+
+	/**
+	 * Reads a nullable enum constant.
+	 *
+	 * @param <E>    the enum type
+	 * @param values the constants of the enum ({@code E.values()})
+	 * @return the constant, or null
+	 * @throws IOException if the frame is truncated or the ordinal is unknown
+	 */
+	public <E extends Enum<E>> E readEnum(E[] values) throws IOException {
+		int v = readVarInt();
+		if (v == 0)
+			return null;
+		if (v > values.length)
+			throw new IOException("Unknown enum ordinal " + (v - 1));
+		return values[v - 1];
+	}
+
+	/**
+	 * Reads a nullable timestamp written by {@link WireOutput#writeDateTime}.
+	 *
+	 * @return the timestamp, or null
+	 * @throws IOException if the frame is truncated
+	 */
+	public LocalDateTime readDateTime() throws IOException {
+		if (!readBoolean())
+			return null;
+
+		long v = readSignedLong();
+		long epochSecond = (v >> 1) * 60;
+		int nano = 0;
+		if ((v & 1) != 0) {
+			epochSecond += readVarInt();
+			nano = readVarInt();
+		}
+		return LocalDateTime.ofEpochSecond(epochSecond, nano, ZoneOffset.UTC);
+	}
+
+	/**
+	 * Reads a list length written by {@link WireOutput#writeLength}.
+	 *
+	 * @return the length, or -1 for a null list
+	 * @throws IOException if the frame is truncated or the length is implausible
+	 */
+	public int readLength() throws IOException {
+		int len = readVarInt() - 1;
+		if (len < -1 || len > buf.length - pos)
+			throw new IOException("Implausible list length " + len);
+		return len;
+	}
+}
@@ -0,0 +1,218 @@
+package common.codec;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+/**
+ * Growable byte buffer with the primitive writers of the binary wire format.
+ * <p>
+ * Integers are written as LEB128 varints (signed values zig-zag encoded), so
+ * small IDs, counts and guest numbers take one or two bytes. Nullable values
+ * use 0 for null and shift the value by one. Timestamps are written as epoch
+ * minutes with a flag bit; the seconds and nanoseconds follow only when the
+ * value is not minute-aligned.
+ * </p>
+ *
+ * @author Yamen Abu Ahmad
+ * @version 1.0
+ * @see WireInput
+ * @see WireCodec
+ */
+public class WireOutput {
+
+	/**
+	 * The buffer.
+	 */
+	private byte[] buf;
+
+	/**
+	 * Number of bytes written.
+	 */
+	private int size;
+
+	/**
+	 * Creates an output with a small initial buffer.
+	 */
+	public WireOutput() {
+		buf = new byte[128];
+	}
+
+	/**
+	 * Returns a copy of the written bytes.
+	 *
+	 * @return the encoded bytes
+	 */
+	public byte[] toByteArray() {
+		return Arrays.copyOf(buf, size);
+	}
+
+	/**
+	 * Writes a single byte.
+	 *
+	 * @param b the byte
+	 */
+	public void writeByte(int b) {
+		ensure(1);
+		buf[size++] = (byte) b;
+	}
+
+	/**
+	 * Writes a boolean as one byte.
+	 *
+	 * @param v the value
+	 */
+	public void writeBoolean(boolean v) {
+		writeByte(v ? 1 : 0);
+	}
+
+	/**
+	 * Writes an unsigned varint. Negative values take five bytes.
+	 *
+	 * @param v the value
+	 */
+	public void writeVarInt(int v) {
+		ensure(5);
+		while ((v & ~0x7F) != 0) {
+			buf[size++] = (byte) ((v & 0x7F) | 0x80);
+			v >>>= 7;
+		}
+		buf[size++] = (byte) v;
+	}
+
+	/**
+	 * Writes an unsigned varint long.
+	 *
+	 * @param v the value
+	 */
+	public void writeVarLong(long v) {
+		ensure(10);
+		while ((v & ~0x7FL) != 0) {
+			buf[size++] = (byte) ((v & 0x7F) | 0x80);
+			v >>>= 7;
+		}
+		buf[size++] = (byte) v;
+	}
+
+	/**
+	 * Writes a signed int as a zig-zag varint.
+	 *
+	 * @param v the value
+	 */
+	public void writeSignedInt(int v) {
+		writeVarInt((v << 1) ^ (v >> 31));
+	}
+
+	/**
+	 * Writes a signed long as a zig-zag varint.
+	 *
+	 * @param v the value
+	 */
+	public void writeSignedLong(long v) {
+		writeVarLong((v << 1) ^ (v >> 63));
+	}
+
+	/**
+	 * Writes a nullable Integer.
+	 *
+	 * @param v the value, or null
+	 */
+	public void writeNullableInt(Integer v) {
+		if (v == null) {
+			writeVarInt(0);
+		} else {
+			writeVarLong((((long) v << 1) ^ ((long) v >> 63)) + 1);
+		}
+	}
+
+	/**
+	 * Writes a double as eight bytes.
+	 *
+	 * @param v the value
+	 */
+	public void writeDouble(double v) {
+		long bits = Double.doubleToLongBits(v);
+		ensure(8);
+		for (int i = 0; i < 8; i++) {
+			buf[size++] = (byte) bits;
+			bits >>>= 8;
+		}
+	}
+
+	/**
+	 * Writes a nullable Double.
+	 *
+	 * @param v the value, or null
+	 */
+	public void writeNullableDouble(Double v) {
+		writeBoolean(v != null);
+		if (v != null)
+			writeDouble(v);
+	}
+
+	/**
+	 * Writes a nullable UTF-8 string prefixed with its byte length.
+	 *
+	 * @param s the string, or null
+	 */
+	public void writeString(String s) {
+		if (s == null) {
+			writeVarInt(0);
+			return;
+		}
+		byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+		writeVarInt(bytes.length + 1);
+		ensure(bytes.length);
+		System.arraycopy(bytes, 0, buf, size, bytes.length);
+		size += bytes.length;
+	}
+
+	/**
+	 * Writes a nullable enum constant by ordinal.
+	 *
+	 * @param e the constant, or null
+	 */
+	public void writeEnum(Enum<?> e) {
+		writeVarInt(e == null ? 0 : e.ordinal() + 1);
+	}
+
+	/**
+	 * Writes a nullable timestamp as epoch minutes (UTC wall clock), followed by
+	 * the second and nanosecond only when they are not zero.
+	 *
+	 * @param t the timestamp, or null
+	 */
+	public void writeDateTime(LocalDateTime t) {
+		writeBoolean(t != null);
+		if (t == null)
+			return;
+
+		long minute = Math.floorDiv(t.toEpochSecond(ZoneOffset.UTC), 60);
+		boolean exact = t.getSecond() == 0 && t.getNano() == 0;
+		writeSignedLong(minute << 1 | (exact ? 0 : 1));
+		if (!exact) {
+			writeVarInt(t.getSecond());
+			writeVarInt(t.getNano());
+		}
+	}
+
+	/**
+	 * Writes a list length, or 0 for a null list (lengths are shifted by one).
+	 *
+	 * @param length the list length, or -1 for null
+	 */
+	public void writeLength(int length) {
+		writeVarInt(length + 1);
+	}
+
+	/**
+	 * Grows the buffer to fit {@code n} more bytes.
+	 *
+	 * @param n bytes about to be written
+	 */
+	private void ensure(int n) {
+		if (size + n > buf.length)
+			buf = Arrays.copyOf(buf, Math.max(buf.length * 2, size + n));
+	}
+}
@@ -0,0 +1,31 @@
+package common.dto;
+
+/**
+ * A request or response that carries a correlation ID.
+ * <p>
+ * The client stamps every request it wants to track with a non-zero ID and
+ * the server copies that ID into the response. This lets the client keep
+ * several requests of the same type in flight and match each reply to its
+ * request, even when the server answers them out of order. An ID of 0 means
+ * the message is not correlated (fire-and-forget requests, server pushes).
+ * </p>
+ *
+ * @author Yamen Abu Ahmad
+ * @version 1.0
+ */
+public interface CorrelatedMessage {
+
+	/**
+	 * Returns the correlation ID.
+	 *
+	 * @return the ID, or 0 if the message is not correlated
+	 */
+	int getRequestId();
+
+	/**
+	 * Sets the correlation ID.
+	 *
+	 * @param requestId the ID, or 0 for none
+	 */
+	void setRequestId(int requestId);
+}
@@ -0,0 +1,154 @@
+package common.dto.Feed;
+
+import java.io.Serializable;
+
+import common.enums.FeedTopic;
+
+/**
+ * One change of a subscribed topic, pushed by the server.
+ * <p>
+ * An event carries the current state of one entry, not a difference: the
+ * value replaces whatever the client holds under the key, and a null value
+ * removes the entry. Applying the same event twice is therefore harmless.
+ * Events of all topics share one sequence number that increases by one per
+ * event.
+ * </p>
+ * <p>
+ * A {@link #resync} event has no topic: the server dropped the subscription
+ * because the client fell too far behind, and the client should subscribe
+ * again to get a fresh snapshot.
+ * </p>
+ *
+ * @author Yamen Abu Ahmad
+ * @version 1.0
+ * @see FeedRequest
+ * @see FeedResponse
+ */
+public class FeedEvent implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * The topic the entry belongs to, or null for a resync event.
+	 */
+	private final FeedTopic topic;
+
+	/**
+	 * The event's sequence number.
+	 */
+	private final long seq;
+
+	/**
+	 * Reservation ID, customer ID or table number, depending on the topic.
+	 */
+	private final int key;
+
+	/**
+	 * The entry's new state, or null if it left the topic.
+	 */
+	private final Serializable value;
+
+	/**
+	 * Private constructor used by factory methods.
+	 *
+	 * @param topic the topic
+	 * @param seq   the sequence number
+	 * @param key   the entry key
+	 * @param value the new state, or null
+	 */
+	private FeedEvent(FeedTopic topic, long seq, int key, Serializable value) {
+		this.topic = topic;
+		this.seq = seq;
+		this.key = key;
+		this.value = value;
+	}
+
+	/**
+	 * Factory method to create an event that adds or replaces an entry.
+	 *
+	 * @param topic the topic
+	 * @param seq   the sequence number
+	 * @param key   the entry key
+	 * @param value the entry's new state
+	 * @return the event
+	 */
+	public static FeedEvent upsert(FeedTopic topic, long seq, int key, Serializable value) {
+		return new FeedEvent(topic, seq, key, value);
+	}
+
+	/**
+	 * Factory method to create an event that removes an entry.
+	 *
+	 * @param topic the topic
+	 * @param seq   the sequence number
+	 * @param key   the entry key
+	 * @return the event
+	 */
+	public static FeedEvent remove(FeedTopic topic, long seq, int key) {
+		return new FeedEvent(topic, seq, key, null);
+	}
+
+	/**
+	 * Factory method to create an event telling the client its subscription was
+	 * dropped and it must subscribe again.
+	 *
+	 * @param seq the sequence number of the last event published
+	 * @return the event
+	 */
+	public static FeedEvent resync(long seq) {
+		return new FeedEvent(null, seq, 0, null);
+	}
+
+	/**
+	 * Returns the topic the entry belongs to.
+	 *
+	 * @return the topic, or null for a resync event
+	 */
+	public FeedTopic getTopic() {
+		return topic;
+	}
+
+	/**
+	 * Returns the event's sequence number.
+	 *
+	 * @return the sequence number
+	 */
+	public long getSeq() {
+		return seq;
+	}
+
+	/**
+	 * Returns the entry key.
+	 *
+	 * @return the reservation ID, customer ID or table number
+	 */
+	public int getKey() {
+		return key;
+	}
+
+	/**
+	 * Returns the entry's new state.
+	 *
+	 * @return a Reservation, Customer or Table, or null if the entry was removed
+	 */
+	public Serializable getValue() {
+		return value;
+	}
+
+	/**
+	 * Returns whether the client must subscribe again.
+	 *
+	 * @return true for a resync event
+	 */
+	public boolean isResync() {
+		return topic == null;
+	}
+
+	/**
+	 * Returns whether the entry left the topic.
+	 *
+	 * @return true if the entry should be removed
+	 */
+	public boolean isRemoval() {
+		return value == null;
+	}
+}
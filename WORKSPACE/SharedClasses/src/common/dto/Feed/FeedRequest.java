@@ -0,0 +1,113 @@
+package common.dto.Feed;
+
+import java.io.Serializable;
+import java.util.EnumSet;
+import java.util.Set;
+
+import common.dto.CorrelatedMessage;
+import common.enums.FeedTopic;
+
+/**
+ * Request DTO for subscribing to or unsubscribing from the change feed.
+ * <p>
+ * This class is immutable from outside and can be created only through the
+ * provided static factory methods. A subscribe request is answered with a
+ * {@link FeedResponse} holding a snapshot of every requested topic; the server
+ * then pushes a {@link FeedEvent} for each change until the client
+ * unsubscribes or disconnects.
+ * </p>
+ *
+ * @author Yamen Abu Ahmad
+ * @version 1.0
+ * @see FeedResponse
+ * @see FeedEvent
+ */
+public class FeedRequest implements Serializable, CorrelatedMessage {
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Correlation ID chosen by the client; 0 if the request is not tracked.
+	 */
+	private int requestId;
+
+	/**
+	 * Whether the client subscribes (true) or unsubscribes (false).
+	 */
+	private boolean subscribe;
+
+	/**
+	 * The topics to subscribe to or unsubscribe from.
+	 */
+	private EnumSet<FeedTopic> topics;
+
+	/**
+	 * Private constructor to enforce factory method usage.
+	 */
+	private FeedRequest() {
+	}
+
+	/**
+	 * Creates a request to subscribe to topics. Topics the client is already
+	 * subscribed to are snapshotted again.
+	 *
+	 * @param topics the topics
+	 * @return a FeedRequest configured for subscribing
+	 */
+	public static FeedRequest createSubscribeRequest(Set<FeedTopic> topics) {
+		FeedRequest req = new FeedRequest();
+		req.subscribe = true;
+		req.topics = topics.isEmpty() ? EnumSet.noneOf(FeedTopic.class) : EnumSet.copyOf(topics);
+		return req;
+	}
+
+	/**
+	 * Creates a request to stop receiving events of topics.
+	 *
+	 * @param topics the topics
+	 * @return a FeedRequest configured for unsubscribing
+	 */
+	public static FeedRequest createUnsubscribeRequest(Set<FeedTopic> topics) {
+		FeedRequest req = new FeedRequest();
+		req.subscribe = false;
+		req.topics = topics.isEmpty() ? EnumSet.noneOf(FeedTopic.class) : EnumSet.copyOf(topics);
+		return req;
+	}
+
+	/**
+	 * Returns whether this is a subscribe request.
+	 *
+	 * @return true to subscribe, false to unsubscribe
+	 */
+	public boolean isSubscribe() {
+		return subscribe;
+	}
+
+	/**
+	 * Returns the requested topics.
+	 *
+	 * @return a copy of the topics
+	 */
+	public Set<FeedTopic> getTopics() {
+		return EnumSet.copyOf(topics);
+	}
+
+	/**
+	 * Returns the correlation ID of this request.
+	 *
+	 * @return the ID, or 0 if not correlated
+	 */
+	@Override
+	public int getRequestId() {
+		return requestId;
+	}
+
+	/**
+	 * Sets the correlation ID of this request.
+	 *
+	 * @param requestId the ID, or 0 for none
+	 */
+	@Override
+	public void setRequestId(int requestId) {
+		this.requestId = requestId;
+	}
+}
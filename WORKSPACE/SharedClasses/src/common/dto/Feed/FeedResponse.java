@@ -0,0 +1,207 @@
+package common.dto.Feed;
+
+import java.io.Serializable;
+import java.util.List;
+
+import common.dto.CorrelatedMessage;
+import common.entity.Customer;
+import common.entity.Reservation;
+import common.entity.Table;
+
+/**
+ * Response DTO for change feed requests sent from server to client.
+ * <p>
+ * A successful subscribe response carries a snapshot of each subscribed
+ * topic; lists of topics that were not requested are null. The snapshot is
+ * tagged with the feed sequence number at the time it was taken. Events with a
+ * sequence number at or below it are already reflected in the snapshot and
+ * can be ignored.
+ * </p>
+ *
+ * @author Yamen Abu Ahmad
+ * @version 1.0
+ * @see FeedRequest
+ * @see FeedEvent
+ */
+public class FeedResponse implements Serializable, CorrelatedMessage {
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Correlation ID copied from the request; 0 for untracked requests.
+	 */
+	private int requestId;
+
+	/**
+	 * Whether the request succeeded.
+	 */
+	private final boolean success;
+
+	/**
+	 * Descriptive message about the result.
+	 */
+	private final String message;
+
+	/**
+	 * Feed sequence number the snapshot is consistent with.
+	 */
+	private final long seq;
+
+	/**
+	 * Waiting reservations (null if not subscribed).
+	 */
+	private final List<Reservation> waitlist;
+
+	/**
+	 * Active reservations (null if not subscribed).
+	 */
+	private final List<Reservation> activeReservations;
+
+	/**
+	 * Current diners (null if not subscribed).
+	 */
+	private final List<Customer> diners;
+
+	/**
+	 * All tables (null if not subscribed).
+	 */
+	private final List<Table> tables;
+
+	/**
+	 * Private constructor used by factory methods.
+	 *
+	 * @param success            whether the request succeeded
+	 * @param message            descriptive result message
+	 * @param seq                snapshot sequence number
+	 * @param waitlist           waiting reservations (nullable)
+	 * @param activeReservations active reservations (nullable)
+	 * @param diners             current diners (nullable)
+	 * @param tables             all tables (nullable)
+	 */
+	private FeedResponse(boolean success, String message, long seq, List<Reservation> waitlist,
+			List<Reservation> activeReservations, List<Customer> diners, List<Table> tables) {
+		this.success = success;
+		this.message = message;
+		this.seq = seq;
+		this.waitlist = waitlist;
+		this.activeReservations = activeReservations;
+		this.diners = diners;
+		this.tables = tables;
+	}
+
+	/**
+	 * Factory method to create a subscribe response.
+	 *
+	 * @param seq                snapshot sequence number
+	 * @param waitlist           waiting reservations, or null if not subscribed
+	 * @param activeReservations active reservations, or null if not subscribed
+	 * @param diners             current diners, or null if not subscribed
+	 * @param tables             all tables, or null if not subscribed
+	 * @return response containing the snapshot
+	 */
+	public static FeedResponse subscribed(long seq, List<Reservation> waitlist, List<Reservation> activeReservations,
+			List<Customer> diners, List<Table> tables) {
+		return new FeedResponse(true, "Subscribed.", seq, waitlist, activeReservations, diners, tables);
+	}
+
+	/**
+	 * Factory method to create an unsubscribe response.
+	 *
+	 * @return response without data
+	 */
+	public static FeedResponse unsubscribed() {
+		return new FeedResponse(true, "Unsubscribed.", 0, null, null, null, null);
+	}
+
+	/**
+	 * Factory method to create a failure response.
+	 *
+	 * @param message failure message
+	 * @return failed response
+	 */
+	public static FeedResponse fail(String message) {
+		return new FeedResponse(false, message, 0, null, null, null, null);
+	}
+
+	/**
+	 * Returns whether the request succeeded.
+	 *
+	 * @return true if successful
+	 */
+	public boolean isSuccess() {
+		return success;
+	}
+
+	/**
+	 * Returns the result message.
+	 *
+	 * @return descriptive message
+	 */
+	public String getMessage() {
+		return message;
+	}
+
+	/**
+	 * Returns the sequence number the snapshot is consistent with.
+	 *
+	 * @return the snapshot sequence number
+	 */
+	public long getSeq() {
+		return seq;
+	}
+
+	/**
+	 * Returns the waiting reservations.
+	 *
+	 * @return the waitlist, or null if not subscribed
+	 */
+	public List<Reservation> getWaitlist() {
+		return waitlist;
+	}
+
+	/**
+	 * Returns the active reservations.
+	 *
+	 * @return the active reservations, or null if not subscribed
+	 */
+	public List<Reservation> getActiveReservations() {
+		return activeReservations;
+	}
+
+	/**
+	 * Returns the current diners.
+	 *
+	 * @return the diners, or null if not subscribed
+	 */
+	public List<Customer> getDiners() {
+		return diners;
+	}
+
+	/**
+	 * Returns all tables.
+	 *
+	 * @return the tables, or null if not subscribed
+	 */
+	public List<Table> getTables() {
+		return tables;
+	}
+
+	/**
+	 * Returns the correlation ID of this response.
+	 *
+	 * @return the ID, or 0 if not correlated
+	 */
+	@Override
+	public int getRequestId() {
+		return requestId;
+	}
+
+	/**
+	 * Sets the correlation ID of this response.
+	 *
+	 * @param requestId the ID, or 0 for none
+	 */
+	@Override
+	public void setRequestId(int requestId) {
+		this.requestId = requestId;
+	}
+}
@@ -0,0 +1,190 @@
+package common.dto;
+
+import java.io.IOException;
+import java.io.Serializable;
+
+import common.codec.WireInput;
+import common.codec.WireOutput;
+import common.enums.ReservationStatus;
+
+/**
+ * Filter, sort order and page position of a list request.
+ * <p>
+ * List requests that carry a query are answered one page at a time. The first
+ * page is requested with {@link #firstPage}; each response includes an opaque
+ * cursor naming the last row sent, and {@link #next(String)} asks for the rows
+ * after it. The server seeks to the cursor through an index instead of
+ * skipping rows, so every page costs the same however deep it is, and rows
+ * inserted or removed between requests do not shift later pages.
+ * </p>
+ * <p>
+ * This class is immutable and can be created only through the provided
+ * static factory methods.
+ * </p>
+ *
+ * @author Yamen Abu Ahmad
+ * @version 1.0
+ * @see common.dto.Reservation.ReservationRequest
+ * @see common.dto.UserAccount.UserAccountRequest
+ */
+public class ListQuery implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Page size used when the client does not choose one.
+	 */
+	public static final int DEFAULT_PAGE_SIZE = 50;
+
+	/**
+	 * Largest page the server returns.
+	 */
+	public static final int MAX_PAGE_SIZE = 200;
+
+	/**
+	 * Free-text search; null or blank for none.
+	 */
+	private String search;
+
+	/**
+	 * Status filter for reservation lists; null for the list's default.
+	 */
+	private ReservationStatus status;
+
+	/**
+	 * Whether the list is sorted in reverse order.
+	 */
+	private boolean descending;
+
+	/**
+	 * Requested number of rows per page.
+	 */
+	private int pageSize;
+
+	/**
+	 * Position after which the page starts; null for the first page.
+	 */
+	private String cursor;
+
+	/**
+	 * Private constructor to enforce factory method usage.
+	 */
+	private ListQuery() {
+	}
+
+	/**
+	 * Creates a query for the first page of a list.
+	 *
+	 * @param search     free-text search, or null for none
+	 * @param status     status filter for reservation lists, or null for the
+	 *                   list's default statuses; ignored by subscriber lists
+	 * @param descending whether to sort in reverse order
+	 * @param pageSize   rows per page; values outside 1 to
+	 *                   {@link #MAX_PAGE_SIZE} are clamped by the server
+	 * @return the query
+	 */
+	public static ListQuery firstPage(String search, ReservationStatus status, boolean descending, int pageSize) {
+		ListQuery q = new ListQuery();
+		q.search = search == null || search.isBlank() ? null : search.trim();
+		q.status = status;
+		q.descending = descending;
+		q.pageSize = pageSize;
+		return q;
+	}
+
+	/**
+	 * Creates the query for the page after a cursor, keeping the filter and
+	 * sort order.
+	 *
+	 * @param cursor the next-page cursor of the previous response
+	 * @return the query
+	 */
+	public ListQuery next(String cursor) {
+		ListQuery q = firstPage(search, status, descending, pageSize);
+		q.cursor = cursor;
+		return q;
+	}
+
+	/**
+	 * Returns the free-text search.
+	 *
+	 * @return the trimmed search text, or null for none
+	 */
+	public String getSearch() {
+		return search;
+	}
+
+	/**
+	 * Returns the status filter.
+	 *
+	 * @return the status, or null for the list's default
+	 */
+	public ReservationStatus getStatus() {
+		return status;
+	}
+
+	/**
+	 * Returns whether the list is sorted in reverse order.
+	 *
+	 * @return true for descending order
+	 */
+	public boolean isDescending() {
+		return descending;
+	}
+
+	/**
+	 * Returns the page size, clamped to 1 to {@link #MAX_PAGE_SIZE}.
+	 *
+	 * @return the number of rows per page
+	 */
+	public int getPageSize() {
+		if (pageSize <= 0)
+			return DEFAULT_PAGE_SIZE;
+		return Math.min(pageSize, MAX_PAGE_SIZE);
+	}
+
+	/**
+	 * Returns the position after which the page starts.
+	 *
+	 * @return the cursor, or null for the first page
+	 */
+	public String getCursor() {
+		return cursor;
+	}
+
+	/**
+	 * Writes a nullable query in the binary wire format.
+	 *
+	 * @param out   the output
+	 * @param query the query, or null
+	 * @see common.codec.WireCodec
+	 */
+	public static void writeTo(WireOutput out, ListQuery query) {
+		out.writeBoolean(query != null);
+		if (query == null)
+			return;
+		out.writeString(query.search);
+		out.writeEnum(query.status);
+		out.writeBoolean(query.descending);
+		out.writeSignedInt(query.pageSize);
+		out.writeString(query.cursor);
+	}
+
+	/**
+	 * Reads a query written by {@link #writeTo(WireOutput, ListQuery)}.
+	 *
+	 * @param in the input
+	 * @return the query, or null
+	 * @throws IOException if the input is malformed
+	 */
+	public static ListQuery readFrom(WireInput in) throws IOException {
+		if (!in.readBoolean())
+			return null;
+		ListQuery q = new ListQuery();
+		q.search = in.readString();
+		q.status = in.readEnum(ReservationStatus.values());
+		q.descending = in.readBoolean();
+		q.pageSize = in.readSignedInt();
+		q.cursor = in.readString();
+		return q;
+	}
+}
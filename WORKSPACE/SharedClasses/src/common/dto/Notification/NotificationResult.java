@@ -102,6 +102,25 @@ public class NotificationResult implements Serializable {
 		return new NotificationResult(true, message, channel);
 	}
 
+	/**
+	 * Factory method for a notification that was queued for delivery.
+	 *
+	 * @return success result without a channel
+	 */
+	public static NotificationResult queued() {
+		return new NotificationResult(true, "Notification queued for delivery.", null);
+	}
+
+	/**
+	 * Factory method for a notification that was already queued or delivered
+	 * earlier (duplicate requests are not sent twice).
+	 *
+	 * @return success result without a channel
+	 */
+	public static NotificationResult alreadyQueued() {
+		return new NotificationResult(true, "Notification already queued or delivered.", null);
+	}
+
 	/**
 	 * Factory method for a failed notification attempt.
 	 *
@@ -0,0 +1,154 @@
+package common.dto.Notification;
+
+import common.dto.Reservation.ReservationBasicInfo;
+import common.enums.NotificationType;
+
+/**
+ * A notification claimed from the outbox for delivery.
+ * <p>
+ * Carries everything needed to build and send the message (contact details,
+ * reservation details and bill amounts), so the delivery worker does not have
+ * to query the database again.
+ * </p>
+ *
+ * @author Yamen Abu Ahmad
+ * @version 1.0
+ */
+public class OutboxNotification {
+
+	/**
+	 * The outbox row ID.
+	 */
+	private final int outboxId;
+
+	/**
+	 * The reservation the notification is about.
+	 */
+	private final int reservationId;
+
+	/**
+	 * The notification type.
+	 */
+	private final NotificationType type;
+
+	/**
+	 * Number of delivery attempts made before this one.
+	 */
+	private final int attempts;
+
+	/**
+	 * The customer's contact details, or null if the reservation has no customer.
+	 */
+	private final CustomerContactInfo contact;
+
+	/**
+	 * Reservation details used in the message, or null if not found.
+	 */
+	private final ReservationBasicInfo info;
+
+	/**
+	 * Bill amount before discount (BILL_SENT only).
+	 */
+	private final Double amountBeforeDiscount;
+
+	/**
+	 * Bill final amount (BILL_SENT only).
+	 */
+	private final Double finalAmount;
+
+	/**
+	 * Constructs a claimed outbox notification.
+	 *
+	 * @param outboxId             the outbox row ID
+	 * @param reservationId        the reservation ID
+	 * @param type                 the notification type
+	 * @param attempts             previous delivery attempts
+	 * @param contact              the customer's contact details
+	 * @param info                 the reservation details
+	 * @param amountBeforeDiscount bill amount before discount, or null
+	 * @param finalAmount          bill final amount, or null
+	 */
+	public OutboxNotification(int outboxId, int reservationId, NotificationType type, int attempts,
+			CustomerContactInfo contact, ReservationBasicInfo info, Double amountBeforeDiscount, Double finalAmount) {
+		this.outboxId = outboxId;
+		this.reservationId = reservationId;
+		this.type = type;
+		this.attempts = attempts;
+		this.contact = contact;
+		this.info = info;
+		this.amountBeforeDiscount = amountBeforeDiscount;
+		this.finalAmount = finalAmount;
+	}
+
+	/**
+	 * Returns the outbox row ID.
+	 *
+	 * @return outbox ID
+	 */
+	public int getOutboxId() {
+		return outboxId;
+	}
+
+	/**
+	 * Returns the reservation ID.
+	 *
+	 * @return reservation ID
+	 */
+	public int getReservationId() {
+		return reservationId;
+	}
+
+	/**
+	 * Returns the notification type.
+	 *
+	 * @return notification type
+	 */
+	public NotificationType getType() {
+		return type;
+	}
+
+	/**
+	 * Returns the number of previous delivery attempts.
+	 *
+	 * @return attempts
+	 */
+	public int getAttempts() {
+		return attempts;
+	}
+
+	/**
+	 * Returns the customer's contact details.
+	 *
+	 * @return contact info, or null
+	 */
+	public CustomerContactInfo getContact() {
+		return contact;
+	}
+
+	/**
+	 * Returns the reservation details.
+	 *
+	 * @return reservation info, or null
+	 */
+	public ReservationBasicInfo getInfo() {
+		return info;
+	}
+
+	/**
+	 * Returns the bill amount before discount.
+	 *
+	 * @return amount before discount, or null
+	 */
+	public Double getAmountBeforeDiscount() {
+		return amountBeforeDiscount;
+	}
+
+	/**
+	 * Returns the bill final amount.
+	 *
+	 * @return final amount, or null
+	 */
+	public Double getFinalAmount() {
+		return finalAmount;
+	}
+}
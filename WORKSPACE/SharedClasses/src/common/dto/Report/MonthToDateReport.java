@@ -0,0 +1,318 @@
+package common.dto.Report;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Live summary of the current month, served from the server's running report
+ * counters.
+ * <p>
+ * Reservation counts ({@link #getReservationsCreated()},
+ * {@link #getCompleted()}, {@link #getCancelled()}, {@link #getWalkIns()})
+ * follow the subscriber report and count reservations created in the month.
+ * Visit figures ({@link #getSeated()}, {@link #getVisits()}, the histograms and
+ * averages) follow the time report and count check-ins in the month.
+ * </p>
+ * <p>
+ * Each histogram has one bucket per bound plus an overflow bucket; bucket
+ * {@code i} holds values up to {@code bounds[i]} minutes.
+ * </p>
+ *
+ * @author Yamen Abu Ahmad
+ * @version 1.0
+ * @see ReportResponse
+ */
+public class MonthToDateReport implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Upper bounds (minutes) of the arrival delay buckets. Early arrivals fall in
+	 * the first bucket.
+	 */
+	public static final int[] DELAY_BOUNDS = { 0, 5, 10, 15, 30, 60 };
+
+	/**
+	 * Upper bounds (minutes) of the session duration buckets.
+	 */
+	public static final int[] DURATION_BOUNDS = { 30, 60, 90, 120, 150, 180 };
+
+	/**
+	 * The report year.
+	 */
+	private final int year;
+
+	/**
+	 * The report month (1-12).
+	 */
+	private final int month;
+
+	/**
+	 * When the snapshot was taken.
+	 */
+	private final LocalDateTime asOf;
+
+	/**
+	 * Reservations created this month.
+	 */
+	private final int reservationsCreated;
+
+	/**
+	 * Walk-in (waitlist) reservations created this month.
+	 */
+	private final int walkIns;
+
+	/**
+	 * Reservations created this month that are completed.
+	 */
+	private final int completed;
+
+	/**
+	 * Reservations created this month that are cancelled.
+	 */
+	private final int cancelled;
+
+	/**
+	 * Distinct customers with a reservation created this month.
+	 */
+	private final int customers;
+
+	/**
+	 * Parties seated this month.
+	 */
+	private final int seated;
+
+	/**
+	 * Visits checked in this month and completed.
+	 */
+	private final int visits;
+
+	/**
+	 * Guests of the completed visits.
+	 */
+	private final int guestsServed;
+
+	/**
+	 * Completed visits per arrival delay bucket.
+	 */
+	private final int[] delayHistogram;
+
+	/**
+	 * Completed visits per session duration bucket.
+	 */
+	private final int[] durationHistogram;
+
+	/**
+	 * Average arrival delay of the completed visits, in minutes.
+	 */
+	private final double averageDelayMinutes;
+
+	/**
+	 * Average session duration of the completed visits, in minutes.
+	 */
+	private final double averageDurationMinutes;
+
+	/**
+	 * Creates a month-to-date summary.
+	 *
+	 * @param year                   the report year
+	 * @param month                  the report month (1-12)
+	 * @param asOf                   when the snapshot was taken
+	 * @param reservationsCreated    reservations created this month
+	 * @param walkIns                walk-in reservations created this month
+	 * @param completed              created this month and completed
+	 * @param cancelled              created this month and cancelled
+	 * @param customers              distinct customers with a reservation
+	 * @param seated                 parties seated this month
+	 * @param visits                 completed visits checked in this month
+	 * @param guestsServed           guests of the completed visits
+	 * @param delayHistogram         visits per delay bucket
+	 * @param durationHistogram      visits per duration bucket
+	 * @param averageDelayMinutes    average arrival delay
+	 * @param averageDurationMinutes average session duration
+	 */
+	public MonthToDateReport(int year, int month, LocalDateTime asOf, int reservationsCreated, int walkIns,
+			int completed, int cancelled, int customers, int seated, int visits, int guestsServed,
+			int[] delayHistogram, int[] durationHistogram, double averageDelayMinutes,
+			double averageDurationMinutes) {
+		this.year = year;
+		this.month = month;
+		this.asOf = asOf;
+		this.reservationsCreated = reservationsCreated;
+		this.walkIns = walkIns;
+		this.completed = completed;
+		this.cancelled = cancelled;
+		this.customers = customers;
+		this.seated = seated;
+		this.visits = visits;
+		this.guestsServed = guestsServed;
+		this.delayHistogram = delayHistogram;
+		this.durationHistogram = durationHistogram;
+		this.averageDelayMinutes = averageDelayMinutes;
+		this.averageDurationMinutes = averageDurationMinutes;
+	}
+
+	/**
+	 * Returns the histogram bucket of a value.
+	 *
+	 * @param minutes the value in minutes
+	 * @param bounds  the bucket bounds ({@link #DELAY_BOUNDS} or
+	 *                {@link #DURATION_BOUNDS})
+	 * @return the bucket index, {@code bounds.length} for the overflow bucket
+	 */
+	public static int bucketOf(long minutes, int[] bounds) {
+		int i = 0;
+		while (i < bounds.length && minutes > bounds[i])
+			i++;
+		return i;
+	}
+
+	/**
+	 * Returns a display label for a histogram bucket, such as "6-10" or "&gt;60".
+	 *
+	 * @param bucket the bucket index
+	 * @param bounds the bucket bounds
+	 * @return the label
+	 */
+	public static String bucketLabel(int bucket, int[] bounds) {
+		if (bucket == bounds.length)
+			return ">" + bounds[bounds.length - 1];
+		if (bucket == 0)
+			return "<=" + bounds[0];
+		return (bounds[bucket - 1] + 1) + "-" + bounds[bucket];
+	}
+
+	/**
+	 * Returns the report year.
+	 *
+	 * @return the report year
+	 */
+	public int getYear() {
+		return year;
+	}
+
+	/**
+	 * Returns the report month (1-12).
+	 *
+	 * @return the report month (1-12)
+	 */
+	public int getMonth() {
+		return month;
+	}
+
+	/**
+	 * Returns when the snapshot was taken.
+	 *
+	 * @return the snapshot time
+	 */
+	public LocalDateTime getAsOf() {
+		return asOf;
+	}
+
+	/**
+	 * Returns the reservations created this month.
+	 *
+	 * @return the reservations created this month
+	 */
+	public int getReservationsCreated() {
+		return reservationsCreated;
+	}
+
+	/**
+	 * Returns the walk-in reservations created this month.
+	 *
+	 * @return the walk-in reservations created this month
+	 */
+	public int getWalkIns() {
+		return walkIns;
+	}
+
+	/**
+	 * Returns the reservations created this month that are completed.
+	 *
+	 * @return the completed count
+	 */
+	public int getCompleted() {
+		return completed;
+	}
+
+	/**
+	 * Returns the reservations created this month that are cancelled.
+	 *
+	 * @return the cancelled count
+	 */
+	public int getCancelled() {
+		return cancelled;
+	}
+
+	/**
+	 * Returns the distinct customers with a reservation created this month.
+	 *
+	 * @return the number of customers
+	 */
+	public int getCustomers() {
+		return customers;
+	}
+
+	/**
+	 * Returns the parties seated this month.
+	 *
+	 * @return the parties seated this month
+	 */
+	public int getSeated() {
+		return seated;
+	}
+
+	/**
+	 * Returns the completed visits checked in this month.
+	 *
+	 * @return the completed visits checked in this month
+	 */
+	public int getVisits() {
+		return visits;
+	}
+
+	/**
+	 * Returns the guests of the completed visits.
+	 *
+	 * @return the guests of the completed visits
+	 */
+	public int getGuestsServed() {
+		return guestsServed;
+	}
+
+	/**
+	 * Returns the completed visits per arrival delay bucket.
+	 *
+	 * @return the completed visits per arrival delay bucket
+	 */
+	public int[] getDelayHistogram() {
+		return delayHistogram;
+	}
+
+	/**
+	 * Returns the completed visits per session duration bucket.
+	 *
+	 * @return the completed visits per session duration bucket
+	 */
+	public int[] getDurationHistogram() {
+		return durationHistogram;
+	}
+
+	/**
+	 * Returns the average arrival delay in minutes.
+	 *
+	 * @return the average arrival delay in minutes
+	 */
+	public double getAverageDelayMinutes() {
+		return averageDelayMinutes;
+	}
+
+	/**
+	 * Returns the average session duration in minutes.
+	 *
+	 * @return the average session duration in minutes
+	 */
+	public double getAverageDurationMinutes() {
+		return averageDurationMinutes;
+	}
+}
@@ -2,6 +2,7 @@ package common.dto.Report;
 
 import java.io.Serializable;
 
+import common.dto.CorrelatedMessage;
 import common.enums.ReportOperation;
 
 /**
@@ -17,9 +18,14 @@ import common.enums.ReportOperation;
  * @see ReportOperation
  * @see ReportResponse
  */
-public class ReportRequest implements Serializable {
+public class ReportRequest implements Serializable, CorrelatedMessage {
 	private static final long serialVersionUID = 1L;
 
+	/**
+	 * Correlation ID chosen by the client; 0 if the request is not tracked.
+	 */
+	private int requestId;
+
 	/**
 	 * The report operation being requested.
 	 */
@@ -79,6 +85,21 @@ public class ReportRequest implements Serializable {
 		return req;
 	}
 
+	/**
+	 * Creates a request for the live summary of the current month.
+	 * <p>
+	 * The server answers from its running counters, so the request carries no
+	 * year or month; the response says which month it covers.
+	 * </p>
+	 *
+	 * @return a ReportRequest configured for the month-to-date view
+	 */
+	public static ReportRequest createMonthToDateRequest() {
+		ReportRequest req = new ReportRequest();
+		req.operation = ReportOperation.GET_MONTH_TO_DATE;
+		return req;
+	}
+
 	/**
 	 * Returns the report operation type.
 	 *
@@ -105,4 +126,24 @@ public class ReportRequest implements Serializable {
 	public int getMonth() {
 		return month;
 	}
+
+	/**
+	 * Returns the correlation ID of this request.
+	 *
+	 * @return the ID, or 0 if not correlated
+	 */
+	@Override
+	public int getRequestId() {
+		return requestId;
+	}
+
+	/**
+	 * Sets the correlation ID of this request.
+	 *
+	 * @param requestId the ID, or 0 for none
+	 */
+	@Override
+	public void setRequestId(int requestId) {
+		this.requestId = requestId;
+	}
 }
@@ -3,6 +3,7 @@ package common.dto.Report;
 import java.io.Serializable;
 import java.util.List;
 
+import common.dto.CorrelatedMessage;
 import common.entity.SubscriberReportEntry;
 import common.entity.TimeReportEntry;
 import common.enums.ReportOperation;
@@ -13,6 +14,7 @@ import common.enums.ReportOperation;
  * Depending on the report operation, only one of the report entry lists will be
  * populated. For time reports, the timeReportEntries list will contain data.
  * For subscriber reports, the subscriberReportEntries list will contain data.
+ * For the month-to-date view, only the monthToDate summary is set.
  * </p>
  *
  * @author Yamen Abu Ahmad
@@ -21,10 +23,16 @@ import common.enums.ReportOperation;
  * @see ReportRequest
  * @see TimeReportEntry
  * @see SubscriberReportEntry
+ * @see MonthToDateReport
  */
-public class ReportResponse implements Serializable {
+public class ReportResponse implements Serializable, CorrelatedMessage {
 	private static final long serialVersionUID = 1L;
 
+	/**
+	 * Correlation ID copied from the request; 0 for untracked requests.
+	 */
+	private int requestId;
+
 	/**
 	 * Whether the report generation succeeded.
 	 */
@@ -50,6 +58,11 @@ public class ReportResponse implements Serializable {
 	 */
 	private final List<SubscriberReportEntry> subscriberReportEntries;
 
+	/**
+	 * Live summary of the current month (populated for the month-to-date view).
+	 */
+	private final MonthToDateReport monthToDate;
+
 	/**
 	 * Private constructor used by factory methods.
 	 *
@@ -58,14 +71,17 @@ public class ReportResponse implements Serializable {
 	 * @param operation               report operation type
 	 * @param timeReportEntries       list of time report entries (nullable)
 	 * @param subscriberReportEntries list of subscriber report entries (nullable)
+	 * @param monthToDate             month-to-date summary (nullable)
 	 */
 	private ReportResponse(boolean success, String message, ReportOperation operation,
-			List<TimeReportEntry> timeReportEntries, List<SubscriberReportEntry> subscriberReportEntries) {
+			List<TimeReportEntry> timeReportEntries, List<SubscriberReportEntry> subscriberReportEntries,
+			MonthToDateReport monthToDate) {
 		this.success = success;
 		this.message = message;
 		this.operation = operation;
 		this.timeReportEntries = timeReportEntries;
 		this.subscriberReportEntries = subscriberReportEntries;
+		this.monthToDate = monthToDate;
 	}
 
 	/**
@@ -79,7 +95,7 @@ public class ReportResponse implements Serializable {
 	public static ReportResponse timeReport(List<TimeReportEntry> entries, int year, int month) {
 		String msg = entries.isEmpty() ? "No data for " + month + "/" + year
 				: "Time report for " + month + "/" + year + " (" + entries.size() + " entries)";
-		return new ReportResponse(true, msg, ReportOperation.GET_TIME_REPORT, entries, null);
+		return new ReportResponse(true, msg, ReportOperation.GET_TIME_REPORT, entries, null, null);
 	}
 
 	/**
@@ -93,7 +109,19 @@ public class ReportResponse implements Serializable {
 	public static ReportResponse subscriberReport(List<SubscriberReportEntry> entries, int year, int month) {
 		String msg = entries.isEmpty() ? "No subscriber data for " + month + "/" + year
 				: "Subscriber report for " + month + "/" + year + " (" + entries.size() + " entries)";
-		return new ReportResponse(true, msg, ReportOperation.GET_SUBSCRIBER_REPORT, null, entries);
+		return new ReportResponse(true, msg, ReportOperation.GET_SUBSCRIBER_REPORT, null, entries, null);
+	}
+
+	/**
+	 * Factory method to create a month-to-date response.
+	 *
+	 * @param report the live summary
+	 * @return response containing the summary
+	 */
+	public static ReportResponse monthToDate(MonthToDateReport report) {
+		String msg = "Month to date " + report.getMonth() + "/" + report.getYear() + " ("
+				+ report.getReservationsCreated() + " reservations, " + report.getVisits() + " visits)";
+		return new ReportResponse(true, msg, ReportOperation.GET_MONTH_TO_DATE, null, null, report);
 	}
 
 	/**
@@ -104,7 +132,7 @@ public class ReportResponse implements Serializable {
 	 * @return failed response
 	 */
 	public static ReportResponse fail(String message, ReportOperation operation) {
-		return new ReportResponse(false, message, operation, null, null);
+		return new ReportResponse(false, message, operation, null, null, null);
 	}
 
 	/**
@@ -157,4 +185,36 @@ public class ReportResponse implements Serializable {
 	public List<SubscriberReportEntry> getSubscriberReportEntries() {
 		return subscriberReportEntries;
 	}
+
+	/**
+	 * Returns the month-to-date summary.
+	 * <p>
+	 * This is populated only for GET_MONTH_TO_DATE operations.
+	 * </p>
+	 *
+	 * @return the summary or null
+	 */
+	public MonthToDateReport getMonthToDate() {
+		return monthToDate;
+	}
+
+	/**
+	 * Returns the correlation ID of this response.
+	 *
+	 * @return the ID, or 0 if not correlated
+	 */
+	@Override
+	public int getRequestId() {
+		return requestId;
+	}
+
+	/**
+	 * Sets the correlation ID of this response.
+	 *
+	 * @param requestId the ID, or 0 for none
+	 */
+	@Override
+	public void setRequestId(int requestId) {
+		this.requestId = requestId;
+	}
 }
@@ -1,8 +1,14 @@
 package common.dto.Reservation;
 
+import java.io.IOException;
 import java.io.Serializable;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 
+import common.codec.WireInput;
+import common.codec.WireOutput;
+import common.dto.CorrelatedMessage;
+import common.dto.ListQuery;
 import common.enums.ReservationOperation;
 
 /**
@@ -30,10 +36,15 @@ import common.enums.ReservationOperation;
  * @see ReservationOperation
  * @see ReservationResponse
  */
-public class ReservationRequest implements Serializable {
+public class ReservationRequest implements Serializable, CorrelatedMessage {
 
 	private static final long serialVersionUID = 1L;
 
+	/**
+	 * Correlation ID chosen by the client; 0 if the request is not tracked.
+	 */
+	private int requestId;
+
 	/**
 	 * The reservation operation being requested.
 	 */
@@ -94,6 +105,11 @@ public class ReservationRequest implements Serializable {
 	 */
 	private String targetSubscriptionCode;
 
+	/**
+	 * Filter and page position for list operations; null for the whole list.
+	 */
+	private ListQuery query;
+
 	/**
 	 * Creates a request to get all active reservations (employee only).
 	 *
@@ -105,6 +121,20 @@ public class ReservationRequest implements Serializable {
 		return req;
 	}
 
+	/**
+	 * Creates a request for one page of reservations (employee only). Without a
+	 * status filter the page holds active reservations; with one it holds
+	 * reservations of that status, including past ones.
+	 *
+	 * @param query the filter, sort order and page position
+	 * @return request for a page of reservations
+	 */
+	public static ReservationRequest createGetActiveReservationsRequest(ListQuery query) {
+		ReservationRequest req = createGetActiveReservationsRequest();
+		req.query = query;
+		return req;
+	}
+
 	/**
 	 * Creates a request to get all waitlist entries (employee only).
 	 *
@@ -116,6 +146,20 @@ public class ReservationRequest implements Serializable {
 		return req;
 	}
 
+	/**
+	 * Creates a request for one page of the waitlist (employee only), in
+	 * arrival order.
+	 *
+	 * @param query the search, sort order and page position; the status filter
+	 *              is ignored
+	 * @return request for a page of the waitlist
+	 */
+	public static ReservationRequest createGetWaitlistRequest(ListQuery query) {
+		ReservationRequest req = createGetWaitlistRequest();
+		req.query = query;
+		return req;
+	}
+
 	/**
 	 * Creates a request to update an existing reservation.
 	 *
@@ -502,6 +546,21 @@ public class ReservationRequest implements Serializable {
 		return req;
 	}
 
+	/**
+	 * Creates a request for the availability of every slot on a day.
+	 *
+	 * @param date   the day to inspect
+	 * @param guests number of guests
+	 * @return request for the day availability heatmap
+	 */
+	public static ReservationRequest createGetDayAvailabilityRequest(LocalDate date, int guests) {
+		ReservationRequest req = new ReservationRequest();
+		req.operation = ReservationOperation.GET_DAY_AVAILABILITY;
+		req.reservationDateTime = date.atStartOfDay();
+		req.numberOfGuests = guests;
+		return req;
+	}
+
 	// ==================== Getters ====================
 
 	/**
@@ -602,4 +661,82 @@ public class ReservationRequest implements Serializable {
 	public Integer getTargetCustomerId() {
 		return targetCustomerId;
 	}
+
+	/**
+	 * Returns the filter and page position of a list operation.
+	 *
+	 * @return the query, or null for the whole list
+	 */
+	public ListQuery getQuery() {
+		return query;
+	}
+
+	/**
+	 * Writes this request in the binary wire format.
+	 *
+	 * @param out the output
+	 * @see common.codec.WireCodec
+	 */
+	public void writeTo(WireOutput out) {
+		out.writeVarInt(requestId);
+		out.writeEnum(operation);
+		out.writeSignedInt(reservationId);
+		out.writeDateTime(reservationDateTime);
+		out.writeSignedInt(numberOfGuests);
+		out.writeNullableInt(targetCustomerId);
+		out.writeSignedInt(billId);
+		out.writeBoolean(isOnBehalf);
+		out.writeString(fullName);
+		out.writeString(phone);
+		out.writeString(email);
+		out.writeSignedInt(confirmationCode);
+		out.writeString(targetSubscriptionCode);
+		ListQuery.writeTo(out, query);
+	}
+
+	/**
+	 * Reads a request written by {@link #writeTo(WireOutput)}.
+	 *
+	 * @param in the input
+	 * @return the request
+	 * @throws IOException if the input is malformed
+	 */
+	public static ReservationRequest readFrom(WireInput in) throws IOException {
+		ReservationRequest req = new ReservationRequest();
+		req.requestId = in.readVarInt();
+		req.operation = in.readEnum(ReservationOperation.values());
+		req.reservationId = in.readSignedInt();
+		req.reservationDateTime = in.readDateTime();
+		req.numberOfGuests = in.readSignedInt();
+		req.targetCustomerId = in.readNullableInt();
+		req.billId = in.readSignedInt();
+		req.isOnBehalf = in.readBoolean();
+		req.fullName = in.readString();
+		req.phone = in.readString();
+		req.email = in.readString();
+		req.confirmationCode = in.readSignedInt();
+		req.targetSubscriptionCode = in.readString();
+		req.query = ListQuery.readFrom(in);
+		return req;
+	}
+
+	/**
+	 * Returns the correlation ID of this request.
+	 *
+	 * @return the ID, or 0 if not correlated
+	 */
+	@Override
+	public int getRequestId() {
+		return requestId;
+	}
+
+	/**
+	 * Sets the correlation ID of this request.
+	 *
+	 * @param requestId the ID, or 0 for none
+	 */
+	@Override
+	public void setRequestId(int requestId) {
+		this.requestId = requestId;
+	}
 }
@@ -1,9 +1,14 @@
 package common.dto.Reservation;
 
+import java.io.IOException;
 import java.io.Serializable;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
+import common.codec.WireInput;
+import common.codec.WireOutput;
+import common.dto.CorrelatedMessage;
 import common.entity.Bill;
 import common.entity.Reservation;
 import common.enums.ReservationOperation;
@@ -22,10 +27,15 @@ import common.enums.ReservationOperation;
  * @see ReservationOperation
  * @see ReservationRequest
  */
-public class ReservationResponse implements Serializable {
+public class ReservationResponse implements Serializable, CorrelatedMessage {
 
 	private static final long serialVersionUID = 1L;
 
+	/**
+	 * Correlation ID copied from the request; 0 for untracked requests.
+	 */
+	private int requestId;
+
 	/**
 	 * Whether the operation succeeded.
 	 */
@@ -76,12 +86,32 @@ public class ReservationResponse implements Serializable {
 	 */
 	private final Integer tableId;
 
+	/**
+	 * Per-slot availability for the day heatmap.
+	 */
+	private final List<SlotAvailability> dayAvailability;
+
+	/**
+	 * Cursor of the next page for paged list operations; null on the last page.
+	 */
+	private String nextCursor;
+
 	/**
 	 * Private constructor used by factory methods.
 	 */
 	private ReservationResponse(boolean success, String message, List<Reservation> reservations, Integer reservationId,
 			Integer confirmationCode, List<LocalDateTime> suggestedTimes, Bill bill, Double finalAmount,
 			Integer tableId, ReservationOperation operation) {
+		this(success, message, reservations, reservationId, confirmationCode, suggestedTimes, bill, finalAmount,
+				tableId, operation, null);
+	}
+
+	/**
+	 * Private constructor used by factory methods that carry slot availability.
+	 */
+	private ReservationResponse(boolean success, String message, List<Reservation> reservations, Integer reservationId,
+			Integer confirmationCode, List<LocalDateTime> suggestedTimes, Bill bill, Double finalAmount,
+			Integer tableId, ReservationOperation operation, List<SlotAvailability> dayAvailability) {
 		this.success = success;
 		this.message = message;
 		this.reservations = reservations;
@@ -92,6 +122,7 @@ public class ReservationResponse implements Serializable {
 		this.finalAmount = finalAmount;
 		this.operation = operation;
 		this.tableId = tableId;
+		this.dayAvailability = dayAvailability;
 	}
 
 	// ==================== Factory Methods ====================
@@ -135,6 +166,22 @@ public class ReservationResponse implements Serializable {
 				null, null, null, null, null, null, operation);
 	}
 
+	/**
+	 * Creates a response with one page of reservations.
+	 *
+	 * @param message      descriptive message
+	 * @param reservations the reservations on the page
+	 * @param nextCursor   cursor of the next page, or null on the last page
+	 * @param operation    the operation type
+	 * @return response with the page
+	 */
+	public static ReservationResponse page(String message, List<Reservation> reservations, String nextCursor,
+			ReservationOperation operation) {
+		ReservationResponse resp = withReservations(true, message, reservations, operation);
+		resp.nextCursor = nextCursor;
+		return resp;
+	}
+
 	/**
 	 * Creates a successful reservation creation response.
 	 *
@@ -293,6 +340,18 @@ public class ReservationResponse implements Serializable {
 				null, null, null, null, null, null, tableNumber, ReservationOperation.RECEIVE_TABLE);
 	}
 
+	/**
+	 * Creates a response carrying the availability of every slot on a day.
+	 *
+	 * @param slots     per-slot availability in time order
+	 * @param operation the operation type
+	 * @return response with the day availability
+	 */
+	public static ReservationResponse dayAvailability(List<SlotAvailability> slots, ReservationOperation operation) {
+		return new ReservationResponse(true, "Availability loaded.", null, null, null, null, null, null, null,
+				operation, slots);
+	}
+
 	// ==================== Getters ====================
 
 	/**
@@ -375,4 +434,137 @@ public class ReservationResponse implements Serializable {
 	public ReservationOperation getOperation() {
 		return operation;
 	}
+
+	/**
+	 * Returns the per-slot availability for the requested day.
+	 *
+	 * @return slot availability list or null
+	 */
+	public List<SlotAvailability> getDayAvailability() {
+		return dayAvailability;
+	}
+
+	/**
+	 * Returns the cursor of the next page of a paged list.
+	 *
+	 * @return the cursor, or null if this is the last page or the list is not
+	 *         paged
+	 */
+	public String getNextCursor() {
+		return nextCursor;
+	}
+
+	/**
+	 * Writes this response in the binary wire format.
+	 *
+	 * @param out the output
+	 * @see common.codec.WireCodec
+	 */
+	public void writeTo(WireOutput out) {
+		out.writeVarInt(requestId);
+		out.writeBoolean(success);
+		out.writeString(message);
+
+		out.writeLength(reservations == null ? -1 : reservations.size());
+		if (reservations != null) {
+			for (Reservation r : reservations)
+				r.writeTo(out);
+		}
+
+		out.writeNullableInt(reservationId);
+		out.writeNullableInt(confirmationCode);
+
+		out.writeLength(suggestedTimes == null ? -1 : suggestedTimes.size());
+		if (suggestedTimes != null) {
+			for (LocalDateTime t : suggestedTimes)
+				out.writeDateTime(t);
+		}
+
+		out.writeBoolean(bill != null);
+		if (bill != null)
+			bill.writeTo(out);
+
+		out.writeNullableDouble(finalAmount);
+		out.writeNullableInt(tableId);
+		out.writeEnum(operation);
+
+		out.writeLength(dayAvailability == null ? -1 : dayAvailability.size());
+		if (dayAvailability != null) {
+			for (SlotAvailability s : dayAvailability)
+				s.writeTo(out);
+		}
+
+		out.writeString(nextCursor);
+	}
+
+	/**
+	 * Reads a response written by {@link #writeTo(WireOutput)}.
+	 *
+	 * @param in the input
+	 * @return the response
+	 * @throws IOException if the input is malformed
+	 */
+	public static ReservationResponse readFrom(WireInput in) throws IOException {
+		int requestId = in.readVarInt();
+		boolean success = in.readBoolean();
+		String message = in.readString();
+
+		List<Reservation> reservations = null;
+		int n = in.readLength();
+		if (n >= 0) {
+			reservations = new ArrayList<>(n);
+			for (int i = 0; i < n; i++)
+				reservations.add(Reservation.readFrom(in));
+		}
+
+		Integer reservationId = in.readNullableInt();
+		Integer confirmationCode = in.readNullableInt();
+
+		List<LocalDateTime> suggestedTimes = null;
+		n = in.readLength();
+		if (n >= 0) {
+			suggestedTimes = new ArrayList<>(n);
+			for (int i = 0; i < n; i++)
+				suggestedTimes.add(in.readDateTime());
+		}
+
+		Bill bill = in.readBoolean() ? Bill.readFrom(in) : null;
+		Double finalAmount = in.readNullableDouble();
+		Integer tableId = in.readNullableInt();
+		ReservationOperation operation = in.readEnum(ReservationOperation.values());
+
+		List<SlotAvailability> dayAvailability = null;
+		n = in.readLength();
+		if (n >= 0) {
+			dayAvailability = new ArrayList<>(n);
+			for (int i = 0; i < n; i++)
+				dayAvailability.add(SlotAvailability.readFrom(in));
+		}
+
+		ReservationResponse resp = new ReservationResponse(success, message, reservations, reservationId,
+				confirmationCode, suggestedTimes, bill, finalAmount, tableId, operation, dayAvailability);
+		resp.nextCursor = in.readString();
+		resp.requestId = requestId;
+		return resp;
+	}
+
+	/**
+	 * Returns the correlation ID of this response.
+	 *
+	 * @return the ID, or 0 if not correlated
+	 */
+	@Override
+	public int getRequestId() {
+		return requestId;
+	}
+
+	/**
+	 * Sets the correlation ID of this response.
+	 *
+	 * @param requestId the ID, or 0 for none
+	 */
+	@Override
+	public void setRequestId(int requestId) {
+		this.requestId = requestId;
+	}
 }
@@ -0,0 +1,132 @@
+package common.dto.Reservation;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+import common.codec.WireInput;
+import common.codec.WireOutput;
+
+/**
+ * Availability of a single 30-minute reservation slot, used to build the
+ * full-day availability heatmap shown by the kiosk and web booking flows.
+ *
+ * @author Yamen Abu Ahmad
+ * @version 1.0
+ */
+public class SlotAvailability implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Start time of the slot.
+	 */
+	private final LocalDateTime time;
+
+	/**
+	 * Whether a reservation may be placed at this time at all (opening hours and
+	 * booking window).
+	 */
+	private final boolean open;
+
+	/**
+	 * Whether the requested party can be seated at this time.
+	 */
+	private final boolean available;
+
+	/**
+	 * Seats left over after all overlapping reservations are counted; a rough
+	 * load indicator for the heatmap.
+	 */
+	private final int freeSeats;
+
+	/**
+	 * Constructs a slot availability entry.
+	 *
+	 * @param time      the slot start time
+	 * @param open      whether the slot is bookable at all
+	 * @param available whether the party fits at this time
+	 * @param freeSeats seats left over at this time
+	 */
+	public SlotAvailability(LocalDateTime time, boolean open, boolean available, int freeSeats) {
+		this.time = time;
+		this.open = open;
+		this.available = available;
+		this.freeSeats = freeSeats;
+	}
+
+	/**
+	 * Returns the slot start time.
+	 *
+	 * @return the slot time
+	 */
+	public LocalDateTime getTime() {
+		return time;
+	}
+
+	/**
+	 * Returns whether the slot is bookable (inside opening hours and the booking
+	 * window).
+	 *
+	 * @return true if the slot is open
+	 */
+	public boolean isOpen() {
+		return open;
+	}
+
+	/**
+	 * Returns whether the requested party can be seated in this slot.
+	 *
+	 * @return true if available
+	 */
+	public boolean isAvailable() {
+		return available;
+	}
+
+	/**
+	 * Returns the number of seats left over in this slot.
+	 *
+	 * @return free seats
+	 */
+	public int getFreeSeats() {
+		return freeSeats;
+	}
+
+	/**
+	 * Returns a string representation of this slot.
+	 *
+	 * @return slot summary
+	 */
+	@Override
+	public String toString() {
+		return "Slot " + time + " | open=" + open + " | available=" + available + " | freeSeats=" + freeSeats;
+	}
+
+	/**
+	 * Writes this slot in the binary wire format.
+	 *
+	 * @param out the output
+	 * @see common.codec.WireCodec
+	 */
+	public void writeTo(WireOutput out) {
+		out.writeDateTime(time);
+		out.writeBoolean(open);
+		out.writeBoolean(available);
+		out.writeSignedInt(freeSeats);
+	}
+
+	/**
+	 * Reads a slot written by {@link #writeTo(WireOutput)}.
+	 *
+	 * @param in the input
+	 * @return the slot
+	 * @throws IOException if the input is malformed
+	 */
+	public static SlotAvailability readFrom(WireInput in) throws IOException {
+		LocalDateTime time = in.readDateTime();
+		boolean open = in.readBoolean();
+		boolean available = in.readBoolean();
+		int freeSeats = in.readSignedInt();
+		return new SlotAvailability(time, open, available, freeSeats);
+	}
+}
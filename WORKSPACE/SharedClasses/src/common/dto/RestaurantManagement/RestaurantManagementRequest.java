@@ -4,6 +4,7 @@ import java.io.Serializable;
 import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalTime;
+import common.dto.CorrelatedMessage;
 import common.enums.RestaurantManagementOperation;
 
 /**
@@ -20,9 +21,14 @@ import common.enums.RestaurantManagementOperation;
  * @see RestaurantManagementOperation
  * @see RestaurantManagementResponse
  */
-public class RestaurantManagementRequest implements Serializable {
+public class RestaurantManagementRequest implements Serializable, CorrelatedMessage {
 	private static final long serialVersionUID = 1L;
 
+	/**
+	 * Correlation ID chosen by the client; 0 if the request is not tracked.
+	 */
+	private int requestId;
+
 	/**
 	 * The management operation being requested.
 	 */
@@ -73,6 +79,11 @@ public class RestaurantManagementRequest implements Serializable {
 	 */
 	private String reason;
 
+	/**
+	 * Table inventory version the client already holds; 0 if none.
+	 */
+	private long knownTableVersion;
+
 	// ==================== Getters ====================
 
 	/**
@@ -165,6 +176,15 @@ public class RestaurantManagementRequest implements Serializable {
 		return reason;
 	}
 
+	/**
+	 * Returns the table inventory version the client already holds.
+	 *
+	 * @return the known version, or 0 if the client has no tables yet
+	 */
+	public long getKnownTableVersion() {
+		return knownTableVersion;
+	}
+
 	// ==================== Table Factory Methods ====================
 
 	/**
@@ -173,8 +193,20 @@ public class RestaurantManagementRequest implements Serializable {
 	 * @return request for all tables
 	 */
 	public static RestaurantManagementRequest createGetAllTablesRequest() {
+		return createGetAllTablesRequest(0);
+	}
+
+	/**
+	 * Creates a request to get all tables unless the client's copy is current.
+	 *
+	 * @param knownTableVersion the table version from the client's last table
+	 *                          response, or 0
+	 * @return request for all tables
+	 */
+	public static RestaurantManagementRequest createGetAllTablesRequest(long knownTableVersion) {
 		RestaurantManagementRequest req = new RestaurantManagementRequest();
 		req.operation = RestaurantManagementOperation.GET_ALL_TABLES;
+		req.knownTableVersion = knownTableVersion;
 		return req;
 	}
 
@@ -323,4 +355,24 @@ public class RestaurantManagementRequest implements Serializable {
 		req.overrideId = id;
 		return req;
 	}
+
+	/**
+	 * Returns the correlation ID of this request.
+	 *
+	 * @return the ID, or 0 if not correlated
+	 */
+	@Override
+	public int getRequestId() {
+		return requestId;
+	}
+
+	/**
+	 * Sets the correlation ID of this request.
+	 *
+	 * @param requestId the ID, or 0 for none
+	 */
+	@Override
+	public void setRequestId(int requestId) {
+		this.requestId = requestId;
+	}
 }
@@ -2,6 +2,7 @@ package common.dto.RestaurantManagement;
 
 import java.io.Serializable;
 import java.util.List;
+import common.dto.CorrelatedMessage;
 import common.entity.Table;
 import common.enums.RestaurantManagementOperation;
 import common.entity.DateOverride;
@@ -21,9 +22,14 @@ import common.entity.OpeningHours;
  * @see RestaurantManagementOperation
  * @see RestaurantManagementRequest
  */
-public class RestaurantManagementResponse implements Serializable {
+public class RestaurantManagementResponse implements Serializable, CorrelatedMessage {
 	private static final long serialVersionUID = 1L;
 
+	/**
+	 * Correlation ID copied from the request; 0 for untracked requests.
+	 */
+	private int requestId;
+
 	/**
 	 * Whether the operation succeeded.
 	 */
@@ -54,6 +60,11 @@ public class RestaurantManagementResponse implements Serializable {
 	 */
 	private int newTableNumber;
 
+	/**
+	 * Version of the table inventory the table list was taken from.
+	 */
+	private long tableVersion;
+
 	/**
 	 * The operation this response is for.
 	 */
@@ -82,7 +93,8 @@ public class RestaurantManagementResponse implements Serializable {
 	/**
 	 * Returns the list of tables.
 	 *
-	 * @return tables list or null
+	 * @return tables list, or null if the response is not about tables or the
+	 *         client's copy is already current
 	 */
 	public List<Table> getTables() {
 		return tables;
@@ -115,6 +127,17 @@ public class RestaurantManagementResponse implements Serializable {
 		return newTableNumber;
 	}
 
+	/**
+	 * Returns the version of the table inventory for table responses. Send it
+	 * back with {@link RestaurantManagementRequest#createGetAllTablesRequest(long)}
+	 * to skip reloading an unchanged list.
+	 *
+	 * @return the table version, or 0 if the response is not about tables
+	 */
+	public long getTableVersion() {
+		return tableVersion;
+	}
+
 	/**
 	 * Returns the operation this response is for.
 	 *
@@ -129,14 +152,32 @@ public class RestaurantManagementResponse implements Serializable {
 	/**
 	 * Creates a tables loaded response.
 	 *
-	 * @param tables the list of tables
+	 * @param tables       the list of tables
+	 * @param tableVersion the inventory version of the list
 	 * @return success response with tables
 	 */
-	public static RestaurantManagementResponse tablesLoaded(List<Table> tables) {
+	public static RestaurantManagementResponse tablesLoaded(List<Table> tables, long tableVersion) {
 		RestaurantManagementResponse resp = new RestaurantManagementResponse();
 		resp.success = true;
 		resp.message = "Tables loaded.";
 		resp.tables = tables;
+		resp.tableVersion = tableVersion;
+		resp.operation = RestaurantManagementOperation.GET_ALL_TABLES;
+		return resp;
+	}
+
+	/**
+	 * Creates a response telling the client its table list is still current. No
+	 * tables are sent.
+	 *
+	 * @param tableVersion the current inventory version
+	 * @return success response without tables
+	 */
+	public static RestaurantManagementResponse tablesUnchanged(long tableVersion) {
+		RestaurantManagementResponse resp = new RestaurantManagementResponse();
+		resp.success = true;
+		resp.message = "Tables unchanged.";
+		resp.tableVersion = tableVersion;
 		resp.operation = RestaurantManagementOperation.GET_ALL_TABLES;
 		return resp;
 	}
@@ -146,14 +187,17 @@ public class RestaurantManagementResponse implements Serializable {
 	 *
 	 * @param newTableNumber the number assigned to the new table
 	 * @param tables         updated list of all tables
+	 * @param tableVersion   the inventory version of the list
 	 * @return success response with new table number
 	 */
-	public static RestaurantManagementResponse tableAdded(int newTableNumber, List<Table> tables) {
+	public static RestaurantManagementResponse tableAdded(int newTableNumber, List<Table> tables,
+			long tableVersion) {
 		RestaurantManagementResponse resp = new RestaurantManagementResponse();
 		resp.success = true;
 		resp.message = "Table added successfully.";
 		resp.newTableNumber = newTableNumber;
 		resp.tables = tables;
+		resp.tableVersion = tableVersion;
 		resp.operation = RestaurantManagementOperation.ADD_TABLE;
 		return resp;
 	}
@@ -161,14 +205,16 @@ public class RestaurantManagementResponse implements Serializable {
 	/**
 	 * Creates a table updated response.
 	 *
-	 * @param tables updated list of all tables
+	 * @param tables       updated list of all tables
+	 * @param tableVersion the inventory version of the list
 	 * @return success response
 	 */
-	public static RestaurantManagementResponse tableUpdated(List<Table> tables) {
+	public static RestaurantManagementResponse tableUpdated(List<Table> tables, long tableVersion) {
 		RestaurantManagementResponse resp = new RestaurantManagementResponse();
 		resp.success = true;
 		resp.message = "Table updated.";
 		resp.tables = tables;
+		resp.tableVersion = tableVersion;
 		resp.operation = RestaurantManagementOperation.UPDATE_TABLE;
 		return resp;
 	}
@@ -176,14 +222,16 @@ public class RestaurantManagementResponse implements Serializable {
 	/**
 	 * Creates a table deleted response.
 	 *
-	 * @param tables updated list of all tables
+	 * @param tables       updated list of all tables
+	 * @param tableVersion the inventory version of the list
 	 * @return success response
 	 */
-	public static RestaurantManagementResponse tableDeleted(List<Table> tables) {
+	public static RestaurantManagementResponse tableDeleted(List<Table> tables, long tableVersion) {
 		RestaurantManagementResponse resp = new RestaurantManagementResponse();
 		resp.success = true;
 		resp.message = "Table deleted.";
 		resp.tables = tables;
+		resp.tableVersion = tableVersion;
 		resp.operation = RestaurantManagementOperation.DELETE_TABLE;
 		return resp;
 	}
@@ -298,4 +346,24 @@ public class RestaurantManagementResponse implements Serializable {
 		resp.operation = operation;
 		return resp;
 	}
+
+	/**
+	 * Returns the correlation ID of this response.
+	 *
+	 * @return the ID, or 0 if not correlated
+	 */
+	@Override
+	public int getRequestId() {
+		return requestId;
+	}
+
+	/**
+	 * Sets the correlation ID of this response.
+	 *
+	 * @param requestId the ID, or 0 for none
+	 */
+	@Override
+	public void setRequestId(int requestId) {
+		this.requestId = requestId;
+	}
 }
@@ -1,7 +1,12 @@
 package common.dto.UserAccount;
 
+import java.io.IOException;
 import java.io.Serializable;
 
+import common.codec.WireInput;
+import common.codec.WireOutput;
+import common.dto.CorrelatedMessage;
+import common.dto.ListQuery;
 import common.enums.EmployeeRole;
 import common.enums.LoggedInStatus;
 import common.enums.UserAccountOperation;
@@ -20,9 +25,14 @@ import common.enums.UserAccountOperation;
  * @see UserAccountOperation
  * @see UserAccountResponse
  */
-public class UserAccountRequest implements Serializable {
+public class UserAccountRequest implements Serializable, CorrelatedMessage {
 	private static final long serialVersionUID = 1L;
 
+	/**
+	 * Correlation ID chosen by the client; 0 if the request is not tracked.
+	 */
+	private int requestId;
+
 	/**
 	 * The operation type being requested.
 	 */
@@ -58,6 +68,11 @@ public class UserAccountRequest implements Serializable {
 	 */
 	private String password;
 
+	/**
+	 * Search and page position for list operations; null for the whole list.
+	 */
+	private ListQuery query;
+
 	/**
 	 * Creates a logout request.
 	 *
@@ -203,6 +218,20 @@ public class UserAccountRequest implements Serializable {
 		return r;
 	}
 
+	/**
+	 * Creates a request for one page of subscribers (employee only), ordered by
+	 * name.
+	 *
+	 * @param query the search, sort order and page position; the status filter
+	 *              is ignored
+	 * @return request for a page of subscribers
+	 */
+	public static UserAccountRequest createGetAllSubscribersRequest(ListQuery query) {
+		UserAccountRequest r = createGetAllSubscribersRequest();
+		r.query = query;
+		return r;
+	}
+
 	/**
 	 * Creates a request to get current diners (employee only).
 	 *
@@ -276,4 +305,72 @@ public class UserAccountRequest implements Serializable {
 	public String getPassword() {
 		return password;
 	}
+
+	/**
+	 * Returns the search and page position of a list operation.
+	 *
+	 * @return the query, or null for the whole list
+	 */
+	public ListQuery getQuery() {
+		return query;
+	}
+
+	/**
+	 * Writes this request in the binary wire format.
+	 *
+	 * @param out the output
+	 * @see common.codec.WireCodec
+	 */
+	public void writeTo(WireOutput out) {
+		out.writeVarInt(requestId);
+		out.writeEnum(operation);
+		out.writeString(subscriptionCode);
+		out.writeString(fullName);
+		out.writeString(phone);
+		out.writeString(email);
+		out.writeString(username);
+		out.writeString(password);
+		ListQuery.writeTo(out, query);
+	}
+
+	/**
+	 * Reads a request written by {@link #writeTo(WireOutput)}.
+	 *
+	 * @param in the input
+	 * @return the request
+	 * @throws IOException if the input is malformed
+	 */
+	public static UserAccountRequest readFrom(WireInput in) throws IOException {
+		UserAccountRequest r = new UserAccountRequest();
+		r.requestId = in.readVarInt();
+		r.operation = in.readEnum(UserAccountOperation.values());
+		r.subscriptionCode = in.readString();
+		r.fullName = in.readString();
+		r.phone = in.readString();
+		r.email = in.readString();
+		r.username = in.readString();
+		r.password = in.readString();
+		r.query = ListQuery.readFrom(in);
+		return r;
+	}
+
+	/**
+	 * Returns the correlation ID of this request.
+	 *
+	 * @return the ID, or 0 if not correlated
+	 */
+	@Override
+	public int getRequestId() {
+		return requestId;
+	}
+
+	/**
+	 * Sets the correlation ID of this request.
+	 *
+	 * @param requestId the ID, or 0 for none
+	 */
+	@Override
+	public void setRequestId(int requestId) {
+		this.requestId = requestId;
+	}
 }
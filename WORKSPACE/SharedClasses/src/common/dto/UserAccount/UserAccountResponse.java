@@ -1,8 +1,13 @@
 package common.dto.UserAccount;
 
+import java.io.IOException;
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.List;
 
+import common.codec.WireInput;
+import common.codec.WireOutput;
+import common.dto.CorrelatedMessage;
 import common.entity.Customer;
 import common.enums.EmployeeRole;
 import common.enums.LoggedInStatus;
@@ -22,9 +27,14 @@ import common.enums.UserAccountOperation;
  * @see UserAccountOperation
  * @see UserAccountRequest
  */
-public class UserAccountResponse implements Serializable {
+public class UserAccountResponse implements Serializable, CorrelatedMessage {
 	private static final long serialVersionUID = 1L;
 
+	/**
+	 * Correlation ID copied from the request; 0 for untracked requests.
+	 */
+	private int requestId;
+
 	/**
 	 * Whether the operation succeeded.
 	 */
@@ -80,6 +90,11 @@ public class UserAccountResponse implements Serializable {
 	 */
 	private final UserAccountOperation operation;
 
+	/**
+	 * Cursor of the next page for paged list operations; null on the last page.
+	 */
+	private String nextCursor;
+
 	/**
 	 * Private constructor used by factory methods.
 	 */
@@ -331,6 +346,19 @@ public class UserAccountResponse implements Serializable {
 				UserAccountOperation.GET_ALL_SUBSCRIBERS);
 	}
 
+	/**
+	 * Creates a response with one page of subscribers.
+	 *
+	 * @param subscribers the subscribers on the page
+	 * @param nextCursor  cursor of the next page, or null on the last page
+	 * @return success response with the page
+	 */
+	public static UserAccountResponse subscribersPage(List<Customer> subscribers, String nextCursor) {
+		UserAccountResponse resp = subscribersLoaded(subscribers);
+		resp.nextCursor = nextCursor;
+		return resp;
+	}
+
 	/**
 	 * Creates a subscribers load failure response.
 	 *
@@ -473,4 +501,100 @@ public class UserAccountResponse implements Serializable {
 		return operation;
 	}
 
+	/**
+	 * Returns the cursor of the next page of a paged list.
+	 *
+	 * @return the cursor, or null if this is the last page or the list is not
+	 *         paged
+	 */
+	public String getNextCursor() {
+		return nextCursor;
+	}
+
+	/**
+	 * Writes this response in the binary wire format.
+	 *
+	 * @param out the output
+	 * @see common.codec.WireCodec
+	 */
+	public void writeTo(WireOutput out) {
+		out.writeVarInt(requestId);
+		out.writeBoolean(success);
+		out.writeString(message);
+		out.writeNullableInt(subscriberId);
+		out.writeString(fullName);
+		out.writeEnum(status);
+		out.writeString(subscriptionCode);
+
+		out.writeBoolean(customer != null);
+		if (customer != null)
+			customer.writeTo(out);
+
+		out.writeLength(customers == null ? -1 : customers.size());
+		if (customers != null) {
+			for (Customer c : customers)
+				c.writeTo(out);
+		}
+
+		out.writeNullableInt(employeeId);
+		out.writeEnum(employeeRole);
+		out.writeEnum(operation);
+		out.writeString(nextCursor);
+	}
+
+	/**
+	 * Reads a response written by {@link #writeTo(WireOutput)}.
+	 *
+	 * @param in the input
+	 * @return the response
+	 * @throws IOException if the input is malformed
+	 */
+	public static UserAccountResponse readFrom(WireInput in) throws IOException {
+		int requestId = in.readVarInt();
+		boolean success = in.readBoolean();
+		String message = in.readString();
+		Integer subscriberId = in.readNullableInt();
+		String fullName = in.readString();
+		LoggedInStatus status = in.readEnum(LoggedInStatus.values());
+		String subscriptionCode = in.readString();
+		Customer customer = in.readBoolean() ? Customer.readFrom(in) : null;
+
+		List<Customer> customers = null;
+		int n = in.readLength();
+		if (n >= 0) {
+			customers = new ArrayList<>(n);
+			for (int i = 0; i < n; i++)
+				customers.add(Customer.readFrom(in));
+		}
+
+		Integer employeeId = in.readNullableInt();
+		EmployeeRole employeeRole = in.readEnum(EmployeeRole.values());
+		UserAccountOperation operation = in.readEnum(UserAccountOperation.values());
+
+		UserAccountResponse resp = new UserAccountResponse(success, message, subscriberId, fullName, status,
+				subscriptionCode, customer, customers, employeeId, employeeRole, operation);
+		resp.nextCursor = in.readString();
+		resp.requestId = requestId;
+		return resp;
+	}
+
+	/**
+	 * Returns the correlation ID of this response.
+	 *
+	 * @return the ID, or 0 if not correlated
+	 */
+	@Override
+	public int getRequestId() {
+		return requestId;
+	}
+
+	/**
+	 * Sets the correlation ID of this response.
+	 *
+	 * @param requestId the ID, or 0 for none
+	 */
+	@Override
+	public void setRequestId(int requestId) {
+		this.requestId = requestId;
+	}
 }
@@ -1,7 +1,11 @@
 package common.entity;
 
+import java.io.IOException;
 import java.io.Serializable;
 
+import common.codec.WireInput;
+import common.codec.WireOutput;
+
 /**
  * Represents billing information for a reservation, including amounts and
  * payment status.
@@ -73,4 +77,34 @@ public class Bill implements Serializable {
      * @param paid new paid status
      */
     public void setPaid(boolean paid) { this.paid = paid; }
+
+    /**
+     * Writes this bill in the binary wire format.
+     *
+     * @param out the output
+     * @see common.codec.WireCodec
+     */
+    public void writeTo(WireOutput out) {
+        out.writeSignedInt(billId);
+        out.writeSignedInt(reservationId);
+        out.writeDouble(amountBeforeDiscount);
+        out.writeDouble(finalAmount);
+        out.writeBoolean(paid);
+    }
+
+    /**
+     * Reads a bill written by {@link #writeTo(WireOutput)}.
+     *
+     * @param in the input
+     * @return the bill
+     * @throws IOException if the input is malformed
+     */
+    public static Bill readFrom(WireInput in) throws IOException {
+        int billId = in.readSignedInt();
+        int reservationId = in.readSignedInt();
+        double amountBeforeDiscount = in.readDouble();
+        double finalAmount = in.readDouble();
+        boolean paid = in.readBoolean();
+        return new Bill(billId, reservationId, amountBeforeDiscount, finalAmount, paid);
+    }
 }
@@ -1,7 +1,11 @@
 package common.entity;
 
+import java.io.IOException;
 import java.io.Serializable;
 
+import common.codec.WireInput;
+import common.codec.WireOutput;
+
 /**
  * Represents a customer record containing personal and subscription
  * information.
@@ -142,4 +146,36 @@ public class Customer implements Serializable {
 	public void setEmail(String email) {
 		this.email = email;
 	}
+
+	/**
+	 * Writes this customer in the binary wire format.
+	 *
+	 * @param out the output
+	 * @see common.codec.WireCodec
+	 */
+	public void writeTo(WireOutput out) {
+		out.writeSignedInt(customerId);
+		out.writeBoolean(subscriber);
+		out.writeString(fullName);
+		out.writeString(phone);
+		out.writeString(email);
+		out.writeString(subscriptionCode);
+	}
+
+	/**
+	 * Reads a customer written by {@link #writeTo(WireOutput)}.
+	 *
+	 * @param in the input
+	 * @return the customer
+	 * @throws IOException if the input is malformed
+	 */
+	public static Customer readFrom(WireInput in) throws IOException {
+		int customerId = in.readSignedInt();
+		boolean subscriber = in.readBoolean();
+		String fullName = in.readString();
+		String phone = in.readString();
+		String email = in.readString();
+		String subscriptionCode = in.readString();
+		return new Customer(customerId, fullName, phone, email, subscriber, subscriptionCode);
+	}
 }
@@ -1,8 +1,11 @@
 package common.entity;
 
+import java.io.IOException;
 import java.io.Serializable;
 import java.time.LocalDateTime;
 
+import common.codec.WireInput;
+import common.codec.WireOutput;
 import common.enums.ReservationStatus;
 import common.enums.ReservationType;
 
@@ -255,4 +258,50 @@ public class Reservation implements Serializable {
 				+ " | reminderSent=" + reminderSent + " | checkedInAt=" + checkedInAt + " | checkedOutAt="
 				+ checkedOutAt;
 	}
+
+	/**
+	 * Writes this reservation in the binary wire format.
+	 *
+	 * @param out the output
+	 * @see common.codec.WireCodec
+	 */
+	public void writeTo(WireOutput out) {
+		out.writeSignedInt(reservationId);
+		out.writeDateTime(reservationDateTime);
+		out.writeSignedInt(numberOfGuests);
+		out.writeSignedInt(confirmationCode);
+		out.writeSignedInt(customerId);
+		out.writeNullableInt(tableId);
+		out.writeDateTime(createdAt);
+		out.writeEnum(status);
+		out.writeBoolean(reminderSent);
+		out.writeEnum(type);
+		out.writeDateTime(checkedInAt);
+		out.writeDateTime(checkedOutAt);
+	}
+
+	/**
+	 * Reads a reservation written by {@link #writeTo(WireOutput)}.
+	 *
+	 * @param in the input
+	 * @return the reservation
+	 * @throws IOException if the input is malformed
+	 */
+	public static Reservation readFrom(WireInput in) throws IOException {
+		int reservationId = in.readSignedInt();
+		LocalDateTime reservationDateTime = in.readDateTime();
+		int numberOfGuests = in.readSignedInt();
+		int confirmationCode = in.readSignedInt();
+		int customerId = in.readSignedInt();
+		Integer tableId = in.readNullableInt();
+		LocalDateTime createdAt = in.readDateTime();
+		ReservationStatus status = in.readEnum(ReservationStatus.values());
+		boolean reminderSent = in.readBoolean();
+		ReservationType type = in.readEnum(ReservationType.values());
+		LocalDateTime checkedInAt = in.readDateTime();
+		LocalDateTime checkedOutAt = in.readDateTime();
+
+		return new Reservation(reservationId, reservationDateTime, numberOfGuests, confirmationCode, customerId,
+				tableId, createdAt, status, reminderSent, type, checkedInAt, checkedOutAt);
+	}
 }
@@ -0,0 +1,36 @@
+package common.enums;
+
+import java.io.Serializable;
+
+/**
+ * Enumeration of the live lists a staff dashboard can subscribe to.
+ * <p>
+ * After subscribing, the client receives one snapshot of each topic and then
+ * a change event whenever an entry of the topic is added, updated or removed.
+ * </p>
+ *
+ * @author Yamen Abu Ahmad
+ * @version 1.0
+ */
+public enum FeedTopic implements Serializable {
+    /**
+     * Reservations with status WAITING, keyed by reservation ID.
+     */
+    WAITLIST,
+
+    /**
+     * Reservations with status ACTIVE, NOTIFIED or IN_PROGRESS, keyed by
+     * reservation ID.
+     */
+    ACTIVE_RESERVATIONS,
+
+    /**
+     * Customers with at least one IN_PROGRESS reservation, keyed by customer ID.
+     */
+    DINERS,
+
+    /**
+     * Restaurant tables, keyed by table number.
+     */
+    TABLES
+}
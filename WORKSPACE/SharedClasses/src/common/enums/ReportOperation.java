@@ -23,5 +23,11 @@ public enum ReportOperation implements Serializable {
      * Request for a subscriber-based report showing aggregated statistics.
      * Includes total reservations, completions, cancellations per subscriber.
      */
-    GET_SUBSCRIBER_REPORT
+    GET_SUBSCRIBER_REPORT,
+
+    /**
+     * Request for the live summary of the current month, served from the
+     * server's running counters instead of stored report rows.
+     */
+    GET_MONTH_TO_DATE
 }
\ No newline at end of file
@@ -100,5 +100,11 @@ public enum ReservationOperation implements Serializable  {
     /**
      * Request to retrieve the reservation history for a subscriber.
      */
-    GET_SUBSCRIBER_HISTORY
+    GET_SUBSCRIBER_HISTORY,
+
+    /**
+     * Request to retrieve the availability of every 30-minute slot on a given day
+     * for a party size (availability heatmap for the booking screens).
+     */
+    GET_DAY_AVAILABILITY
 }
\ No newline at end of file
@@ -32,7 +32,6 @@ CREATE TABLE `bill` (
   `paid_at` datetime DEFAULT NULL,
   PRIMARY KEY (`bill_id`),
   UNIQUE KEY `reservation_id` (`reservation_id`),
-  UNIQUE KEY `reservation_id_2` (`reservation_id`),
   CONSTRAINT `fk_bill_reservation` FOREIGN KEY (`reservation_id`) REFERENCES `reservation` (`reservation_id`) ON DELETE CASCADE
 ) ENGINE=InnoDB AUTO_INCREMENT=4 DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
 /*!40101 SET character_set_client = @saved_cs_client */;
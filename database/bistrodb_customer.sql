@@ -30,7 +30,8 @@ CREATE TABLE `customer` (
   `is_subscribed` tinyint(1) NOT NULL DEFAULT '0',
   `subscription_code` varchar(50) DEFAULT NULL,
   PRIMARY KEY (`customer_id`),
-  UNIQUE KEY `uq_customer_subscription_code` (`subscription_code`)
+  UNIQUE KEY `uq_customer_subscription_code` (`subscription_code`),
+  KEY `idx_customer_subscribed_name` (`is_subscribed`,`full_name`)
 ) ENGINE=InnoDB AUTO_INCREMENT=1010 DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
 /*!40101 SET character_set_client = @saved_cs_client */;
 
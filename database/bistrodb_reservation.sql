@@ -39,6 +39,13 @@ CREATE TABLE `reservation` (
   UNIQUE KEY `confirmation_code` (`confirmation_code`),
   KEY `fk_res_customer` (`customer_id`),
   KEY `fk_res_table` (`table_id`),
+  KEY `idx_res_status_datetime` (`status`,`reservation_datetime`),
+  KEY `idx_res_status_created` (`status`,`created_at`,`number_of_guests`,`customer_id`),
+  KEY `idx_res_status_table_datetime` (`status`,`table_id`,`reservation_datetime`,`number_of_guests`),
+  KEY `idx_res_status_reminder` (`status`,`reminder_sent`,`reservation_datetime`),
+  KEY `idx_res_customer_status` (`customer_id`,`status`,`reservation_datetime`),
+  KEY `idx_res_status_checkin` (`status`,`checked_in_at`),
+  KEY `idx_res_created_customer` (`created_at`,`customer_id`,`status`,`type`),
   CONSTRAINT `fk_res_customer` FOREIGN KEY (`customer_id`) REFERENCES `customer` (`customer_id`),
   CONSTRAINT `fk_res_table` FOREIGN KEY (`table_id`) REFERENCES `restaurant_table` (`table_id`)
 ) ENGINE=InnoDB AUTO_INCREMENT=26 DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;